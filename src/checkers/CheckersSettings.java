@@ -11,10 +11,25 @@ public class CheckersSettings {
 
     /**
      * The instance of the CheckersSettings.
-     * Can be created only by the CheckersWindow.
+     * Can be created only by the CheckersWindow or, for the tools without a window, by createHeadless().
      */
     public static CheckersSettings instance;
 
+    /**
+     * The default time on the clock of a ComputerPlayer at the start of the game in milliseconds.
+     */
+    public static final long DEFAULT_COMPUTER_BASE_TIME_MILLIS = 20000;
+
+    /**
+     * The default time added to the clock of a ComputerPlayer after every turn in milliseconds.
+     */
+    public static final long DEFAULT_COMPUTER_INCREMENT_MILLIS = 300;
+
+    /**
+     * The default pause between the individual moves of a computed turn in milliseconds.
+     */
+    public static final long DEFAULT_PAUSE_BETWEEN_MOVES_MILLIS = 700;
+
     /**
      * The title of the window.
      */
@@ -42,6 +57,7 @@ public class CheckersSettings {
 
     /**
      * Whether eating is mandatory.
+     * If it is not, a Checker may also stop its capture chain after any jump.
      */
     public final boolean isEatingMandatory;
 
@@ -55,17 +71,36 @@ public class CheckersSettings {
      */
     public final MovementSpeed movementSpeed;
 
+    /**
+     * The time on the clock of a ComputerPlayer at the start of the game in milliseconds.
+     */
+    public final long computerBaseTimeMillis;
+
+    /**
+     * The time added to the clock of a ComputerPlayer after every turn in milliseconds.
+     */
+    public final long computerIncrementMillis;
+
+    /**
+     * The pause between the individual moves of a computed turn in milliseconds(only for the animation:
+     * the thinking is over by then), so that a capture chain can be followed.
+     */
+    public final long pauseBetweenMovesMillis;
+
     /**
      * The constructor of the class.
      *
-     * @param windowTitle       te title of the window
-     * @param windowWidth       the width of the window.
-     * @param windowHeight      the height of the window.
-     * @param boardSizeInPixels the size of the board in pixels.
-     * @param boardSizeInCells  the size of the board in cells.
-     * @param cellSize          the size of a cell in pixels.
-     * @param isEatingMandatory whether eating is mandatory.
-     * @param movementSpeed     the movement speed of a Checker.
+     * @param windowTitle             te title of the window
+     * @param windowWidth             the width of the window.
+     * @param windowHeight            the height of the window.
+     * @param boardSizeInPixels       the size of the board in pixels.
+     * @param boardSizeInCells        the size of the board in cells.
+     * @param cellSize                the size of a cell in pixels.
+     * @param isEatingMandatory       whether eating is mandatory.
+     * @param movementSpeed           the movement speed of a Checker.
+     * @param computerBaseTimeMillis  the time on the clock of a ComputerPlayer at the start of the game.
+     * @param computerIncrementMillis the time added to the clock of a ComputerPlayer after every turn.
+     * @param pauseBetweenMovesMillis the pause between the individual moves of a computed turn.
      */
     CheckersSettings(
             String windowTitle,
@@ -75,7 +110,10 @@ public class CheckersSettings {
             int boardSizeInCells,
             double cellSize,
             boolean isEatingMandatory,
-            MovementSpeed movementSpeed
+            MovementSpeed movementSpeed,
+            long computerBaseTimeMillis,
+            long computerIncrementMillis,
+            long pauseBetweenMovesMillis
     ) {
         this.windowTitle = windowTitle;
         this.windowHeight = windowHeight;
@@ -85,10 +123,51 @@ public class CheckersSettings {
         this.isEatingMandatory = isEatingMandatory;
         this.cellSize = cellSize;
         this.movementSpeed = movementSpeed;
+        this.computerBaseTimeMillis = computerBaseTimeMillis;
+        this.computerIncrementMillis = computerIncrementMillis;
+        this.pauseBetweenMovesMillis = pauseBetweenMovesMillis;
 
         instance = this;
     }
 
+    /**
+     * Creates the settings for running the game logic without a window(e.g. in the headless tools).
+     * The sizes in pixels are 0, as nothing is drawn.
+     *
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @return the new instance of this class.
+     */
+    public static CheckersSettings createHeadless(int boardSizeInCells, boolean isEatingMandatory) {
+        return createHeadless(boardSizeInCells, isEatingMandatory,
+                DEFAULT_COMPUTER_BASE_TIME_MILLIS, DEFAULT_COMPUTER_INCREMENT_MILLIS);
+    }
+
+    /**
+     * Creates the settings for running the game logic without a window with the given clock of the ComputerPlayers.
+     *
+     * @param boardSizeInCells        the size of the board in cells.
+     * @param isEatingMandatory       whether eating is mandatory.
+     * @param computerBaseTimeMillis  the time on the clock of a ComputerPlayer at the start of the game.
+     * @param computerIncrementMillis the time added to the clock of a ComputerPlayer after every turn.
+     * @return the new instance of this class.
+     */
+    public static CheckersSettings createHeadless(int boardSizeInCells, boolean isEatingMandatory,
+                                                  long computerBaseTimeMillis, long computerIncrementMillis) {
+        return new CheckersSettings(
+                "Checkers",
+                0,
+                0,
+                0.0,
+                boardSizeInCells,
+                0.0,
+                isEatingMandatory,
+                MovementSpeed.FAST,
+                computerBaseTimeMillis,
+                computerIncrementMillis,
+                DEFAULT_PAUSE_BETWEEN_MOVES_MILLIS);
+    }
+
     /**
      * Retunrs the only instance of this class.
      *
@@ -1,15 +1,18 @@
 package checkers;
 
 import checkers.game.Game;
-import checkers.board.BoardCellColor;
-import checkers.checker.CheckerColor;
 import checkers.players.ComputerPlayer;
+import checkers.players.MonteCarloPlayer;
 import checkers.players.HumanPlayer;
 import checkers.players.Player;
 import checkers.players.PlayerSide;
 import checkers.position.MovementSpeed;
+import checkers.ui.BoardCellColor;
+import checkers.ui.BoardRenderer;
+import checkers.ui.CheckerColor;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -49,6 +52,11 @@ public class CheckersWindow extends Application implements Initializable {
      */
     private static GraphicsContext gc = null;
 
+    /**
+     * The thing that draws the board of the current game, is recreated with every game(the cell size changes).
+     */
+    private static BoardRenderer boardRenderer = null;
+
     /**
      * The CheckBox to select whether eating is mandatory.
      * Part of the rules of the game.
@@ -74,6 +82,11 @@ public class CheckersWindow extends Application implements Initializable {
     // TODO: move as a static field into the Player class
     private static final String computerPlayerStringCode = "Computer";
 
+    /**
+     * The String code for the MonteCarloPlayer.
+     */
+    private static final String monteCarloPlayerStringCode = "Computer (MCTS)";
+
     /**
      * The String code for the HumanPlayer.
      */
@@ -165,8 +178,7 @@ public class CheckersWindow extends Application implements Initializable {
             public void handle(long currentNanoTime) {
                 double secondsSinceStart = (currentNanoTime - startNanoTime) / ONE_BILLION;
 
-                // TODO: consider keeping the gc as a local field in the Game class(set in the constructor)
-                game.render(secondsSinceStart);
+                boardRenderer.draw(game.getBoard());
                 game.update(secondsSinceStart);
             }
         };
@@ -190,12 +202,12 @@ public class CheckersWindow extends Application implements Initializable {
     @SuppressWarnings("unchecked")
     public void initialize(URL location, ResourceBundle resources) {
         // Set up the PlayerDown ComboBox
-        comboBoxPlayerDown.getItems().addAll(new String[]{computerPlayerStringCode, humanPlayerStringCode});
+        comboBoxPlayerDown.getItems().addAll(new String[]{computerPlayerStringCode, monteCarloPlayerStringCode, humanPlayerStringCode});
         comboBoxPlayerDown.getSelectionModel().select(humanPlayerStringCode);
         comboBoxPlayerDown.promptTextProperty().setValue(humanPlayerStringCode);
 
         // Set up the PlayerUp ComboBox
-        comboBoxPlayerUp.getItems().addAll(new String[]{computerPlayerStringCode, humanPlayerStringCode});
+        comboBoxPlayerUp.getItems().addAll(new String[]{computerPlayerStringCode, monteCarloPlayerStringCode, humanPlayerStringCode});
         comboBoxPlayerUp.getSelectionModel().select(computerPlayerStringCode);
         comboBoxPlayerUp.promptTextProperty().setValue(computerPlayerStringCode);
 
@@ -225,7 +237,10 @@ public class CheckersWindow extends Application implements Initializable {
                 boardSizeInCells,
                 boardSizeInPixels / boardSizeInCells,
                 isEatingMandatory,
-                MovementSpeed.FAST);
+                MovementSpeed.FAST,
+                CheckersSettings.DEFAULT_COMPUTER_BASE_TIME_MILLIS,
+                CheckersSettings.DEFAULT_COMPUTER_INCREMENT_MILLIS,
+                CheckersSettings.DEFAULT_PAUSE_BETWEEN_MOVES_MILLIS);
     }
 
     /**
@@ -241,7 +256,28 @@ public class CheckersWindow extends Application implements Initializable {
                 newBoardSizeInCells,
                 checkersSettings.boardSizeInPixels / newBoardSizeInCells,
                 isEatingMandatory,
-                checkersSettings.movementSpeed);
+                checkersSettings.movementSpeed,
+                checkersSettings.computerBaseTimeMillis,
+                checkersSettings.computerIncrementMillis,
+                checkersSettings.pauseBetweenMovesMillis);
+    }
+
+    /**
+     * Creates the thing that draws the board with the sizes from the current settings.
+     *
+     * @return the new BoardRenderer.
+     */
+    private static BoardRenderer createBoardRenderer() {
+        return new BoardRenderer(gc, CheckerColor.WHITE, CheckerColor.BLACK, BoardCellColor.BROWN);
+    }
+
+    /**
+     * Abandons the current game(if any), so that its Players stop thinking before it is replaced.
+     */
+    private static void abandonGame() {
+        if (game != null) {
+            game.abandon();
+        }
     }
 
     /**
@@ -249,14 +285,13 @@ public class CheckersWindow extends Application implements Initializable {
      */
     // TODO: move default settings into another location
     private void startDefaultGame() {
+        abandonGame();
+        boardRenderer = createBoardRenderer();
         game = new Game(
-                gc,
                 checkersSettings.boardSizeInCells,
                 new ComputerPlayer(PlayerSide.PLAYER_UP),
                 new HumanPlayer(PlayerSide.PLAYER_DOWN),
-                CheckerColor.WHITE,
-                CheckerColor.BLACK,
-                BoardCellColor.BROWN,
+                Platform::runLater,
                 this::writeOnGameInfoLabel);
     }
 
@@ -271,14 +306,13 @@ public class CheckersWindow extends Application implements Initializable {
         updateApplicationSettings(newBoardSizeInCells, isEatingMandatory);
 
         // Set the game instance
+        abandonGame();
+        boardRenderer = createBoardRenderer();
         game = new Game(
-                gc,
                 newBoardSizeInCells,
                 retrievePlayerUp(),
                 retrievePlayerDown(),
-                CheckerColor.WHITE,
-                CheckerColor.BLACK,
-                BoardCellColor.BROWN,
+                Platform::runLater,
                 this::writeOnGameInfoLabel);
 
         // Clear the information label
@@ -337,6 +371,9 @@ public class CheckersWindow extends Application implements Initializable {
             case computerPlayerStringCode:
                 player = new ComputerPlayer(playerSide);
                 break;
+            case monteCarloPlayerStringCode:
+                player = new MonteCarloPlayer(playerSide);
+                break;
             case humanPlayerStringCode:
                 player = new HumanPlayer(playerSide);
                 break;
@@ -364,6 +401,38 @@ public class CheckersWindow extends Application implements Initializable {
 
     }
 
+    /**
+     * Returns the code of the type of the Player in the save file.
+     *
+     * @param player the Player.
+     * @return "human", "mcts" or "computer".
+     */
+    private static String getPlayerSaveCode(Player player) {
+        if (player.isHuman()) {
+            return "human";
+        }
+
+        return (player instanceof MonteCarloPlayer) ? "mcts" : "computer";
+    }
+
+    /**
+     * Returns the String code of the Player(as in the ComboBoxes) by the code of its type in the save file.
+     * Any unknown code is read as the ComputerPlayer, as the older saves only knew "human" and "computer".
+     *
+     * @param saveCode the code of the type of the Player in the save file.
+     * @return the String code of the Player.
+     */
+    private static String parsePlayerSaveCode(String saveCode) {
+        switch (saveCode) {
+            case "human":
+                return humanPlayerStringCode;
+            case "mcts":
+                return monteCarloPlayerStringCode;
+            default:
+                return computerPlayerStringCode;
+        }
+    }
+
     /**
      * What to do when the user presses the SaveGame button.
      */
@@ -385,10 +454,10 @@ public class CheckersWindow extends Application implements Initializable {
                 out.println(checkersSettings.isEatingMandatory ? "yes" : "no");
 
                 // print PlayerUp type
-                out.println(game.isPlayerUpHuman() ? "human" : "computer");
+                out.println(getPlayerSaveCode(game.getPlayerUp()));
 
                 // print PlayerDown type
-                out.println(game.isPlayerDownHuman() ? "human" : "computer");
+                out.println(getPlayerSaveCode(game.getPlayerDown()));
 
                 // print whose turn it is
                 out.println(game.isPlayerDownTurn() ? "down" : "up");
@@ -428,12 +497,10 @@ public class CheckersWindow extends Application implements Initializable {
                 final boolean isEatingMandatory = in.readLine().equals("yes");
 
                 // read PlayerUp type
-                final String playerUpTypeCode =
-                        in.readLine().equals("human") ? humanPlayerStringCode : computerPlayerStringCode;
+                final String playerUpTypeCode = parsePlayerSaveCode(in.readLine());
 
                 // read PlayerDown type
-                final String playerDownTypeCode =
-                        in.readLine().equals("human") ? humanPlayerStringCode : computerPlayerStringCode;
+                final String playerDownTypeCode = parsePlayerSaveCode(in.readLine());
 
                 // read whose turn it is
                 final boolean isPlayerDownTurn = in.readLine().equals("down");
@@ -472,16 +539,15 @@ public class CheckersWindow extends Application implements Initializable {
                 updateApplicationSettings(boardSizeInCells, isEatingMandatory);
 
                 // Create a new Game instance
+                abandonGame();
+                boardRenderer = createBoardRenderer();
                 game = new Game(
-                        gc,
                         boardSizeInCells,
                         boardRepresentation,
                         isPlayerDownTurn,
                         createPlayerFromString(playerUpTypeCode, PlayerSide.PLAYER_UP),
                         createPlayerFromString(playerDownTypeCode, PlayerSide.PLAYER_DOWN),
-                        CheckerColor.WHITE,
-                        CheckerColor.BLACK,
-                        BoardCellColor.BROWN,
+                        Platform::runLater,
                         this::writeOnGameInfoLabel);
 
                 // Update the scene boxes now
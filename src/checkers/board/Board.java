@@ -1,10 +1,11 @@
 package checkers.board;
 
 import checkers.checker.Checker;
-import checkers.checker.CheckerColor;
 import checkers.CheckersSettings;
+import checkers.engine.Move;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
 import checkers.players.PlayerSide;
-import javafx.scene.canvas.GraphicsContext;
 import checkers.util.Vector2d;
 import checkers.util.Vector2i;
 
@@ -20,11 +21,6 @@ public class Board {
      */
     private final int boardSizeInCells;
 
-    /**
-     * The color scheme of the light and dark cells of the Board.
-     */
-    private final BoardCellColor boardCellColor;
-
     /**
      * The array containing all the Checkers as a grid.
      * If a cell is empty(== null), then there is no Checker in it.
@@ -34,14 +30,47 @@ public class Board {
     private final Checker[][] board;
 
     /**
-     * The color scheme of the Checkers of the UP Player.
+     * The packed(bitboard) copy of the board that is used for the rules queries.
+     * It is kept in sync with the board array on every move.
+     * The Checkers eaten during the current turn stay in it until the turn is finished.
+     */
+    private final Position position;
+
+    /**
+     * The generator of the legal moves.
+     */
+    private final MoveGenerator moveGenerator;
+
+    /**
+     * The legal moves of the current turn.
+     * They are generated at the start of the turn, each step of the turn must follow one of them.
+     */
+    private final long[] legalMoves;
+
+    /**
+     * The amount of the legal moves of the current turn, -1 if they have not been generated yet.
      */
-    private final CheckerColor playerUpCheckerColor;
+    private int legalMovesAmount;
 
     /**
-     * The color scheme of the Checkers of the DOWN Player.
+     * The side for which the legal moves have been generated.
      */
-    private final CheckerColor playerDownCheckerColor;
+    private int legalMovesSide;
+
+    /**
+     * The squares visited during the current turn so far.
+     */
+    private final int[] turnPath;
+
+    /**
+     * The length of the path of the current turn, 0 if the turn has not started yet.
+     */
+    private int turnPathLength;
+
+    /**
+     * The Checkers eaten during the current turn.
+     */
+    private long turnCaptured;
 
     /**
      * The position on the board of the currently selected Checker.
@@ -85,24 +114,22 @@ public class Board {
      * The first constructor of the class.
      * Initializes the board with default layout.
      *
-     * @param boardSizeInCells       the size of the board in cells.
-     * @param playerUpCheckerColor   the color scheme of the Checkers of the UP Player.
-     * @param playerDownCheckerColor the color scheme of the Checkers of the DOWN Player.
-     * @param boardCellColor         the color scheme of the cells of the Board.
+     * @param boardSizeInCells the size of the board in cells.
      */
-    public Board(
-            int boardSizeInCells,
-            CheckerColor playerUpCheckerColor,
-            CheckerColor playerDownCheckerColor,
-            BoardCellColor boardCellColor) {
-
+    public Board(int boardSizeInCells) {
         this.boardSizeInCells = boardSizeInCells;
-        this.playerUpCheckerColor = playerUpCheckerColor;
-        this.playerDownCheckerColor = playerDownCheckerColor;
-        this.boardCellColor = boardCellColor;
 
         this.board = new Checker[boardSizeInCells][boardSizeInCells];
         initializeBoard();
+        this.position = Position.createInitial(boardSizeInCells);
+
+        this.moveGenerator = new MoveGenerator();
+        this.legalMoves = new long[MoveGenerator.MAX_MOVES];
+        this.legalMovesAmount = -1;
+        this.legalMovesSide = -1;
+        this.turnPath = new int[MoveGenerator.MAX_PATH_LENGTH];
+        this.turnPathLength = 0;
+        this.turnCaptured = 0L;
 
         this.positionOfSelectedChecker = null;
         this.checkerToDrawOnTop = null;
@@ -114,26 +141,23 @@ public class Board {
      * The second constructor of the class.
      * Initializes the board from the given array.
      *
-     * @param boardSizeInCells       the size of the board in cells.
-     * @param boardRepresentation    the array representation of the board to initialize with.
-     * @param playerUpCheckerColor   the color scheme of the Checkers of the UP Player.
-     * @param playerDownCheckerColor the color scheme of the Checkers of the DOWN Player.
-     * @param boardCellColor         the color scheme of the cells of the Board.
-     */
-    public Board(
-            int boardSizeInCells,
-            int[][] boardRepresentation,
-            CheckerColor playerUpCheckerColor,
-            CheckerColor playerDownCheckerColor,
-            BoardCellColor boardCellColor) {
-
+     * @param boardSizeInCells    the size of the board in cells.
+     * @param boardRepresentation the array representation of the board to initialize with.
+     */
+    public Board(int boardSizeInCells, int[][] boardRepresentation) {
         this.boardSizeInCells = boardSizeInCells;
-        this.playerUpCheckerColor = playerUpCheckerColor;
-        this.playerDownCheckerColor = playerDownCheckerColor;
-        this.boardCellColor = boardCellColor;
 
         this.board = new Checker[boardSizeInCells][boardSizeInCells];
         initializeBoardFromArray(boardRepresentation);
+        this.position = Position.createFromArray(boardSizeInCells, boardRepresentation, Position.SIDE_DOWN);
+
+        this.moveGenerator = new MoveGenerator();
+        this.legalMoves = new long[MoveGenerator.MAX_MOVES];
+        this.legalMovesAmount = -1;
+        this.legalMovesSide = -1;
+        this.turnPath = new int[MoveGenerator.MAX_PATH_LENGTH];
+        this.turnPathLength = 0;
+        this.turnCaptured = 0L;
 
         this.positionOfSelectedChecker = null;
         this.checkerToDrawOnTop = null;
@@ -175,9 +199,9 @@ public class Board {
                 if (putChecker) {
                     final Vector2i boardPosition = new Vector2i(column, row);
                     if (row < rowsOfCellsPerPlayer) {
-                        checker = new Checker(playerUpCheckerColor, PlayerSide.PLAYER_UP, boardPosition);
+                        checker = new Checker(PlayerSide.PLAYER_UP, boardPosition);
                     } else {
-                        checker = new Checker(playerDownCheckerColor, PlayerSide.PLAYER_DOWN, boardPosition);
+                        checker = new Checker(PlayerSide.PLAYER_DOWN, boardPosition);
                     }
                 } else {
                     checker = null;
@@ -206,17 +230,17 @@ public class Board {
                 final Checker checker;
                 switch (array[column][row]) {
                     case 1: // PLAYER_UP Checker
-                        checker = new Checker(playerUpCheckerColor, PlayerSide.PLAYER_UP, boardPosition);
+                        checker = new Checker(PlayerSide.PLAYER_UP, boardPosition);
                         break;
                     case -1: // PLAYER_UP Checker queen
-                        checker = new Checker(playerUpCheckerColor, PlayerSide.PLAYER_UP, boardPosition);
+                        checker = new Checker(PlayerSide.PLAYER_UP, boardPosition);
                         checker.makeQueen();
                         break;
                     case 2: // PLAYER_DOWN Checker
-                        checker = new Checker(playerDownCheckerColor, PlayerSide.PLAYER_DOWN, boardPosition);
+                        checker = new Checker(PlayerSide.PLAYER_DOWN, boardPosition);
                         break;
                     case -2: // PLAYER_DOWN Checker queen
-                        checker = new Checker(playerDownCheckerColor, PlayerSide.PLAYER_DOWN, boardPosition);
+                        checker = new Checker(PlayerSide.PLAYER_DOWN, boardPosition);
                         checker.makeQueen();
                         break;
                     case 0:
@@ -236,42 +260,13 @@ public class Board {
      * -1 == PLAYER_UP Checker queen
      * 2 == PLAYER_DOWN Checker
      * -2 == PLAYER_DOWN Checker queen
+     * It is taken from the position, so the Checkers eaten during the current turn are still there
+     * until the turn is finished(see finishTurn()).
      *
      * @return the representation of the board(its current state) as an array.
      */
     public int[][] getBoardRepresentationAsArray() {
-        int[][] boardRepresentation = new int[boardSizeInCells][boardSizeInCells];
-
-        for (int column = 0; column < boardSizeInCells; column++) {
-            for (int row = 0; row < boardSizeInCells; row++) {
-                final Vector2i position = new Vector2i(column, row);
-                final Checker checker = getChecker(position);
-                int code;
-
-                if (checker == null) {
-                    code = boardRepresentationNoCheckerCode;
-                } else {
-                    switch (checker.getPlayerSide()) {
-                        case PLAYER_UP:
-                            code = boardRepresentationPlayerUpCheckerCode;
-                            break;
-                        case PLAYER_DOWN:
-                            code = boardRepresentationPlayerDownCheckerCode;
-                            break;
-                        default:
-                            code = boardRepresentationNoCheckerCode;
-                    }
-
-                    if (checker.isQueen()) {
-                        code *= -1;
-                    }
-                }
-
-                boardRepresentation[column][row] = code;
-            }
-        }
-
-        return boardRepresentation;
+        return position.toArray();
     }
 
     /**
@@ -292,54 +287,39 @@ public class Board {
      * @param column a column index on the board.
      * @return whether a dark cell is located iat the given position.
      */
-    private boolean isDarkCellHere(int row, int column) {
+    public boolean isDarkCellHere(int row, int column) {
         return (row + column) % 2 == 1;
     }
 
     /**
-     * Draws the board and the Checkers on it.
+     * Returns the size of the board in cells.
      *
-     * @param gc the thing to draw with.
+     * @return the amount of cells on each side of the board.
      */
-    public void draw(GraphicsContext gc) {
-        drawBoard(gc);
-        drawCheckers(gc);
+    public int getBoardSizeInCells() {
+        return boardSizeInCells;
     }
 
     /**
-     * Draws the board.
+     * Returns the Checker in the given cell.
      *
-     * @param gc the thing to draw with.
+     * @param column the column of the cell.
+     * @param row    the row of the cell.
+     * @return the Checker in the cell, null if the cell is empty.
      */
-    private void drawBoard(GraphicsContext gc) {
-        final double cellSize = CheckersSettings.getInstance().cellSize;
-        for (int row = 0; row < boardSizeInCells; row++) {
-            for (int column = 0; column < boardSizeInCells; column++) {
-                gc.setFill(isDarkCellHere(row, column) ? boardCellColor.darkColor : boardCellColor.lightColor);
-                gc.fillRect(column * cellSize, row * cellSize, cellSize, cellSize);
-            }
-        }
+    public Checker getChecker(int column, int row) {
+        return board[column][row];
     }
 
     /**
-     * Draws the Checkers.
+     * Returns the Checker to be drawn on top of the others.
+     * That is the Checker that is currently moving, so it has to be drawn last in order to avoid
+     * it sliding under some other Checker.
      *
-     * @param gc the thing to draw with.
+     * @return the Checker to be drawn on top, null if there is none.
      */
-    private void drawCheckers(GraphicsContext gc) {
-        // Draw all the Checkers
-        for (Checker[] checkersRow : board) {
-            for (Checker checker : checkersRow) {
-                if (checker != null && !checker.equals(checkerToDrawOnTop)) {
-                    checker.draw(gc);
-                }
-            }
-        }
-
-        // Draw the selected Checker the last, so that it is always on top(while moving)
-        if (checkerToDrawOnTop != null) {
-            checkerToDrawOnTop.draw(gc);
-        }
+    public Checker getCheckerToDrawOnTop() {
+        return checkerToDrawOnTop;
     }
 
     /**
@@ -489,18 +469,33 @@ public class Board {
             this.positionOfDyingChecker = positionOfCheckerToEat;
             this.dyingChecker = checkerToEat;
             checkerToEat.die();
+
+            // The eaten Checker stays in the position until the end of the turn
+            turnCaptured |= 1L << getSquare(positionOfCheckerToEat);
+        }
+
+        // Remember the path of the turn
+        if (turnPathLength == 0) {
+            // The steps of the turn are checked against the legal moves of the position before its first step
+            generateLegalMoves(Position.getSide(selectedChecker.getPlayerSide()));
+            turnPath[turnPathLength++] = getSquare(positionOfSelectedChecker);
+        }
+        if (turnPathLength < turnPath.length) {
+            turnPath[turnPathLength++] = getSquare(newPosition);
         }
 
         // Move the selected Checker on the board
         selectedChecker.move(newPosition);
         board[positionOfSelectedChecker.x][positionOfSelectedChecker.y] = null;
         board[newPosition.x][newPosition.y] = selectedChecker;
+        position.moveChecker(getSquare(positionOfSelectedChecker), getSquare(newPosition));
 
         // Make it a queen if it has reached the end of the board
         final float forwardDirection = selectedChecker.getPlayerSide().forwardDirectionY;
         if ((newPosition.y == 0 && forwardDirection < 0)
                 || (newPosition.y == boardSizeInCells - 1 && forwardDirection > 0)) {
             selectedChecker.makeQueen();
+            position.makeQueen(getSquare(newPosition));
         }
 
 
@@ -519,8 +514,26 @@ public class Board {
         return checkerToEat != null;
     }
 
+    /**
+     * Finishes the current turn.
+     * Removes the Checkers eaten during the turn from the position, so that the next turn starts from scratch.
+     * Must be called when a Player has finished his turn.
+     */
+    public void finishTurn() {
+        long captured = turnCaptured;
+        while (captured != 0) {
+            position.removeChecker(Long.numberOfTrailingZeros(captured));
+            captured &= captured - 1;
+        }
+
+        this.turnCaptured = 0L;
+        this.turnPathLength = 0;
+        this.legalMovesAmount = -1;
+    }
+
     /**
      * Checks whether the selected checker is allowed to move into the specified cell.
+     * The move is allowed if it is the next step of one of the legal moves of the current turn.
      * Will ban the move if (eating is mandatory AND no eating during the move).
      *
      * @param newPosition the position where the Checker should move.
@@ -533,83 +546,15 @@ public class Board {
             return false;
         }
 
-        if (getChecker(newPosition) != null) {
-            // We cannot move there, there is a Checker in that cell
-            return false;
-        }
-
-        final Vector2i delta = new Vector2i(
-                newPosition.x - positionOfSelectedChecker.x,
-                newPosition.y - positionOfSelectedChecker.y);
-        if (Math.abs(delta.x) != Math.abs(delta.y)) {
-            // Wrong movement
-            return false;
-        }
-
-        final int moveLength = Math.abs(delta.x);
-        if (moveLength == 0) {
-            // Wrong movement
+        final int newSquare = getSquareIfValid(newPosition);
+        if (newSquare < 0) {
+            // Outside the board or a light cell
             return false;
         }
 
-        final boolean checkerEats;
-        final Checker potentialCheckerToEat = getChecker(
-                new Vector2i(newPosition.x - delta.x / moveLength, newPosition.y - delta.y / moveLength));
-        if (selectedChecker.isQueen()) {
-            final int amountOfCheckersOnThePath = amountOfCheckersUntil(newPosition);
-            switch (amountOfCheckersOnThePath) {
-                case 0: // Just movement
-                    checkerEats = false;
-                    break;
-                case 1: // Eating
-                    // If the one Checker that we found is just before our destination => valid eating
-                    checkerEats = potentialCheckerToEat != null;
-                    if (!checkerEats) {
-                        // Cannot move across a Checker without eating it => invalid move
-                        return false;
-                    }
-                    break;
-                default: // Wrong move
-                    return false;
-            }
-        } else { // not queen
-            switch (moveLength) {
-                case 1: // Just move
-                    // We can move only forward
-                    if (!selectedChecker.isMovementDirectionAllowed(delta.y)) {
-                        // Given movement direction is wrong => invalid move
-                        return false;
-                    }
-
-                    checkerEats = false;
-                    break;
-                case 2: // Eating
-                    if (potentialCheckerToEat == null) {
-                        // No Checker to eat => invalid move
-                        return false;
-                    }
-
-                    checkerEats = true;
-                    break;
-                default: // A simple Checker can't move more than 2 cells
-                    return false;
-            }
-        }
-
-        if (checkerEats) {
-            if (Checker.doCheckersBelongToTheSamePlayer(selectedChecker, potentialCheckerToEat)) {
-                // If the Checkers belong to the same Player => can't eat => invalid move
-                return false;
-            }
-        }
+        generateLegalMoves(Position.getSide(selectedChecker.getPlayerSide()));
 
-//        System.out.println("Can eat: " + canSelectedCheckerEat());
-        if (CheckersSettings.getInstance().isEatingMandatory && !checkerEats && canPlayerEat(selectedChecker.getPlayerSide())) {
-            // TODO: mb print into a Label that the move is banned due to not eating
-            return false;
-        }
-
-        return true;
+        return findLegalMoveContinuation(getSquare(positionOfSelectedChecker), newSquare, false) >= 0;
     }
 
     /**
@@ -629,224 +574,106 @@ public class Board {
      * @return whether the Checker at the specified position can move(not eat).
      */
     public boolean canCheckerMove(Vector2i position) {
-        final Checker checker = getChecker(position);
-        if (checker == null) { // if there is no Checker here
+        final int square = getSquareIfValid(position);
+        if (square < 0 || this.position.getSideAt(square) < 0) { // if there is no Checker here
             return false;
         }
 
-        // Strategy:
-        // Try all 4 diagonal directions. Move a single step.
-        // If we encounter an empty cell => return true
-
-        // Cycle for all 4 diagonal directions
-        for (int deltaX = -1; deltaX <= +1; deltaX += 2) {
-            for (int deltaY = -1; deltaY <= +1; deltaY += 2) {
-                if (!checker.isQueen() && checker.getPlayerSide().forwardDirectionY != deltaY) {
-                    // Can't move in that direction
-                    continue;
-                }
-
-                final Vector2i currentPosition = position.clone();
-                currentPosition.x += deltaX;
-                currentPosition.y += deltaY;
-
-                if (!isPositionValid(currentPosition)) {
-                    // If we went outside the board => wrong move
-                    continue;
-                }
-
-                final Checker checkerFound = getChecker(currentPosition);
-                if (checkerFound == null) {
-                    // Found an empty cell => can move into it
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return (this.position.getMovers(this.position.getSideAt(square)) & (1L << square)) != 0;
     }
 
     /**
      * Returns whether the Checker at the specified position can eat now.
+     * During a turn it tells whether the Checker can continue its capture chain.
      *
      * @param position the position of the Checker.
      * @return whether the Checker at the specified position can eat now.
      */
     public boolean canCheckerEat(Vector2i position) {
-        final Checker checker = getChecker(position);
-        if (checker == null) { // if there is no checker here
+        final int square = getSquareIfValid(position);
+        if (square < 0 || this.position.getSideAt(square) < 0) { // if there is no checker here
             return false;
         }
 
-        // Strategy:
-        // Go in all 4 diagonal directions(allowed movement length is determined by being a queen).
-        // If a Checker of the same PlayerSide is found => can't eat in that direction.
-        // If a Checker of the opposite PlayerSide is found =>
-        // => can eat if the distance to it is correct(queen or not) and if the cell after this Checker is empty
-
-        // How much cells we can move before we must encounter a Checker to eat
-        // (before we are in the cell where that Checker is).
-        final int allowedMoveLengthUntilEating;
-        if (checker.isQueen()) {
-            allowedMoveLengthUntilEating = boardSizeInCells - 1; // minus our cell
-        } else { // not a queen
-            allowedMoveLengthUntilEating = 1;
-        }
-
-        // Cycle for all 4 diagonal directions
-        for (int deltaX = -1; deltaX <= +1; deltaX += 2) {
-            for (int deltaY = -1; deltaY <= +1; deltaY += 2) {
-                final Vector2i currentPosition = position.clone();
-                Checker checkerToEat = null;
-
-                // Moving in that direction
-                for (int currentMoveLength = 0; currentMoveLength < allowedMoveLengthUntilEating; currentMoveLength++) {
-                    currentPosition.x += deltaX;
-                    currentPosition.y += deltaY;
-
-                    if (!isPositionValid(currentPosition)) {
-                        // If we went outside the board => found nobody
-                        break;
-                    }
-
-                    checkerToEat = getChecker(currentPosition);
-                    if (checkerToEat != null) {
-                        // Found someone => stop moving
-                        break;
-                    }
-                }
-
-                // Finished moving
-                if (checkerToEat != null) {
-                    // Found someone
-                    if (Checker.doCheckersBelongToTheSamePlayer(checkerToEat, checker)) {
-                        // Can't eat because the Checkers belong to the same Player
-                        continue;
-                    } else {
-                        // Make one more step
-                        currentPosition.x += deltaX;
-                        currentPosition.y += deltaY;
-
-                        if (isPositionValid(currentPosition) && getChecker(currentPosition) == null) {
-                            // The cell after the found Checker is within the board and is empty => can more there
-                            return true;
-                        }
-                    }
-                }
-            }
+        final int side = this.position.getSideAt(square);
+        if (turnPathLength == 0) {
+            return (this.position.getEaters(side) & (1L << square)) != 0;
         }
 
-        return false;
+        // In the middle of the turn the eaten Checkers are still in the position => ask the legal moves
+        generateLegalMoves(side);
+        return findLegalMoveContinuation(square, -1, true) >= 0;
     }
 
     /**
-     * Returns whether the given PlayerSide can eat any Checker now.
+     * Generates the legal moves of the given side(if they have not been generated yet for this turn).
      *
-     * @param playerSide the playerSide to perform the check for.
-     * @return whether the given PlayerSide can eat any Checker now.
+     * @param side the side index.
      */
-    public boolean canPlayerEat(PlayerSide playerSide) {
-        for (int column = 0; column < boardSizeInCells; column++) {
-            for (int row = 0; row < boardSizeInCells; row++) {
-                final Vector2i position = new Vector2i(column, row);
-                final Checker checker = getChecker(position);
-
-                if (checker != null) {
-                    if (checker.belongsToPlayerSide(playerSide)) {
-                        if (canCheckerEat(position)) {
-                            return true;
-                        }
-                    }
-                }
-            }
+    private void generateLegalMoves(int side) {
+        if (legalMovesAmount >= 0 && legalMovesSide == side) {
+            return;
         }
 
-        return false;
+        position.setSideToMove(side);
+        legalMovesAmount = moveGenerator.generateMoves(
+                position, CheckersSettings.getInstance().isEatingMandatory, legalMoves, 0);
+        legalMovesSide = side;
     }
 
     /**
-     * Returns whether the given PlayerSide can make any move now.
+     * Finds a legal move that the current turn can still become after one more step from the given square.
+     * A capture chain is checked by the Checkers eaten so far rather than by the exact path, so the same Checkers
+     * may be eaten in any order that the rules allow(e.g. either way round a ring).
      *
-     * @param playerSide the PlayerSide for which to perform the Check.
-     * @return whether the given PlayerSide can make any move now.
-     */
-    public boolean canPlayerMakeAnyMove(PlayerSide playerSide) {
-        for (int column = 0; column < boardSizeInCells; column++) {
-            for (int row = 0; row < boardSizeInCells; row++) {
-                final Vector2i position = new Vector2i(column, row);
-                final Checker checker = getChecker(position);
+     * @param square      the square where the moving Checker is.
+     * @param nextSquare  the square of the next step, -1 if any square will do.
+     * @param mustCapture whether the move must be an eating move.
+     * @return the index of the found legal move, -1 if there is none.
+     */
+    private int findLegalMoveContinuation(int square, int nextSquare, boolean mustCapture) {
+        if (turnPathLength > 0 && turnCaptured == 0) {
+            // A move without eating is a single step
+            return -1;
+        }
 
-                if (checker != null) {
-                    if (checker.belongsToPlayerSide(playerSide)) {
-                        if (canCheckerMoveOrEat(position)) {
-                            return true;
-                        }
-                    }
+        final int turnStart = (turnPathLength == 0) ? square : turnPath[0];
+        for (int moveIndex = 0; moveIndex < legalMovesAmount; moveIndex++) {
+            final long move = legalMoves[moveIndex];
+            if (Move.getFrom(move) != turnStart) {
+                continue;
+            }
+
+            if (!Move.isCapture(move)) {
+                if (!mustCapture && turnPathLength == 0 && (nextSquare < 0 || Move.getTo(move) == nextSquare)) {
+                    return moveIndex;
                 }
+            } else if (moveGenerator.canContinueCapture(position, move, square, turnCaptured, nextSquare)) {
+                return moveIndex;
             }
         }
 
-        return false;
+        return -1;
     }
 
     /**
-     * Counts the amount of Checkers between the selected Checker and the specified position(excluding).
-     * If no Checker is selected, then the result is -1.
-     * If the position of the selected Checker and the specified position do not line up(are not on the same diagonal),
-     * then the result is -1.
+     * Returns whether the given PlayerSide can eat any Checker now.
      *
-     * @param positionEnd the position until which to perform the counting
-     * @return amount of Checkers between the selected Checker and the specified position(excluding),
-     * -1 in case of invalid arguments
+     * @param playerSide the playerSide to perform the check for.
+     * @return whether the given PlayerSide can eat any Checker now.
      */
-    private int amountOfCheckersUntil(Vector2i positionEnd) {
-        final Checker checker = getChecker(positionOfSelectedChecker);
-        if (checker == null) { // if a checker is not selected
-            return -1;
-        }
-
-        final Vector2i positionStart = positionOfSelectedChecker;
-
-        Vector2i currentPosition = positionStart.clone();
-        final Vector2i delta = new Vector2i(positionEnd.x - positionStart.x, positionEnd.y - positionStart.y);
-        final int iteratorX = (delta.x > 0) ? +1 : -1;
-        final int iteratorY = (delta.y > 0) ? +1 : -1;
-
-        if (delta.x == 0 || delta.y == 0) {
-            return -1;
-        }
-
-        delta.x = Math.abs(delta.x);
-        delta.y = Math.abs(delta.y);
-
-        if (delta.x != delta.y) {
-            // Then the direction was not diagonal
-            return -1;
-        }
-
-        // The move cannot consist of more steps than maxAmountOfMoves.
-        // So if this happens to be the case then positionEnd was incorrect
-        final int maxAmountOfMoves = delta.x; // == delta.y
-        int count = 0; // to account for the Checker at positionStart
-        for (int stepIndex = 0; stepIndex < maxAmountOfMoves - 1; stepIndex++) {
-            currentPosition.x += iteratorX;
-            currentPosition.y += iteratorY;
-
-            if (getChecker(currentPosition) != null) {
-                count++;
-            }
-        }
-
-        return count;
+    public boolean canPlayerEat(PlayerSide playerSide) {
+        return position.canPlayerEat(Position.getSide(playerSide));
     }
 
     /**
-     * Checks if the specified position is within the board bounds.
+     * Returns whether the given PlayerSide can make any move now.
      *
-     * @return true is the specified position os a valid board address, false otherwise.
+     * @param playerSide the PlayerSide for which to perform the Check.
+     * @return whether the given PlayerSide can make any move now.
      */
-    private boolean isPositionValid(Vector2i position) {
-        return (position.x >= 0 && position.x < boardSizeInCells) && (position.y >= 0 && position.y < boardSizeInCells);
+    public boolean canPlayerMakeAnyMove(PlayerSide playerSide) {
+        return position.canPlayerMakeAnyMove(Position.getSide(playerSide));
     }
 
     /**
@@ -868,17 +695,33 @@ public class Board {
      * @return the amount of Checkers of the given PlayerSide currently present on the Board.
      */
     public int getAmountOfCheckersOnBoard(PlayerSide playerSide) {
-        int amount = 0;
-        for (Checker[] checkersRow : board) {
-            for (Checker checker : checkersRow) {
-                if (checker != null) {
-                    if (checker.belongsToPlayerSide(playerSide)) {
-                        amount++;
-                    }
-                }
-            }
+        return position.getAmountOfCheckers(Position.getSide(playerSide));
+    }
+
+    /**
+     * Returns the index of the square(as numbered by the engine) at the given position on the Board.
+     * Expects the position to be a valid dark cell.
+     *
+     * @param position the position on the Board.
+     * @return the index of the square.
+     */
+    private int getSquare(Vector2i position) {
+        return this.position.getGeometry().getSquare(position.x, position.y);
+    }
+
+    /**
+     * Returns the index of the square(as numbered by the engine) at the given position on the Board.
+     *
+     * @param position the position on the Board.
+     * @return the index of the square, -1 if the position is outside the Board or is a light cell.
+     */
+    private int getSquareIfValid(Vector2i position) {
+        if (position == null
+                || !this.position.getGeometry().isPositionValid(position.x, position.y)
+                || !isDarkCellHere(position.y, position.x)) {
+            return -1;
         }
 
-        return amount;
+        return getSquare(position);
     }
 }
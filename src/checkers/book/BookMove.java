@@ -0,0 +1,69 @@
+package checkers.book;
+
+/**
+ * This class holds a move of the opening book with the statistics of the games in which it was played.
+ * The statistics are given for the side that made the move.
+ */
+public class BookMove {
+
+    /**
+     * The packed move.
+     */
+    public final long move;
+
+    /**
+     * The amount of games in which the move was played.
+     */
+    public final int games;
+
+    /**
+     * The amount of those games won by the side that made the move.
+     */
+    public final int wins;
+
+    /**
+     * The amount of those games that ended in a draw.
+     */
+    public final int draws;
+
+    /**
+     * The amount of those games lost by the side that made the move.
+     */
+    public final int losses;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param move   the packed move.
+     * @param games  the amount of games in which the move was played.
+     * @param wins   the amount of games won by the side that made the move.
+     * @param draws  the amount of drawn games.
+     * @param losses the amount of games lost by the side that made the move.
+     */
+    public BookMove(long move, int games, int wins, int draws, int losses) {
+        this.move = move;
+        this.games = games;
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    /**
+     * Returns the weight of the move: how often it should be chosen.
+     * A draw counts as half a win, a move that has only lost is never chosen.
+     *
+     * @return the weight of the move.
+     */
+    public int getWeight() {
+        return 2 * wins + draws;
+    }
+
+    /**
+     * Returns the share of the points scored with the move(a draw being half a point).
+     *
+     * @return the score of the move between 0 and 1.
+     */
+    public double getScore() {
+        return (games == 0) ? 0 : (wins + draws / 2.0) / games;
+    }
+}
@@ -0,0 +1,237 @@
+package checkers.book;
+
+import checkers.engine.Move;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class describes the opening book: the moves played in the known positions and how the games went on.
+ * <p>
+ * The file:
+ * int - MAGIC,
+ * int - the size of the board in cells,
+ * int - whether eating is mandatory(1 or 0),
+ * long - the amount of entries,
+ * the entries sorted by the key of the position, then by the move:
+ * long - the Zobrist key of the position, long - the packed move,
+ * int - games, int - wins, int - draws, int - losses(for the side that made the move).
+ * <p>
+ * The file is mapped into memory and the entries are found by binary search, nothing is read into the heap.
+ * The moves are checked against the legal moves of the position, so a collision of the keys can't lead
+ * to an illegal move. A book can be read by several threads at once.
+ */
+public class OpeningBook {
+
+    /**
+     * The first 4 bytes of an opening book file("BOOK").
+     */
+    public static final int MAGIC = 0x424F4F4B;
+
+    /**
+     * The extension of the files of the opening books.
+     */
+    public static final String EXTENSION = ".book";
+
+    /**
+     * The size of the header in bytes.
+     */
+    static final int HEADER_SIZE = 20;
+
+    /**
+     * The size of an entry in bytes.
+     */
+    static final int ENTRY_SIZE = 32;
+
+    /**
+     * The mapped file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The amount of entries.
+     */
+    private final int amountOfEntries;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    private final boolean isEatingMandatory;
+
+    /**
+     * The constructor of the class.
+     * Maps the file into memory.
+     *
+     * @param file              the path of the file.
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @throws IOException if the file can not be read or is not a book of the given rules.
+     */
+    public OpeningBook(Path file, int boardSizeInCells, boolean isEatingMandatory) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book: " + file);
+        }
+        if (buffer.getInt(4) != boardSizeInCells || (buffer.getInt(8) != 0) != isEatingMandatory) {
+            throw new IOException("The opening book " + file + " is made for other rules");
+        }
+
+        final long amountOfEntries = buffer.getLong(12);
+        if (HEADER_SIZE + amountOfEntries * ENTRY_SIZE != buffer.capacity()) {
+            throw new IOException("The opening book is truncated: " + file);
+        }
+        this.amountOfEntries = (int) amountOfEntries;
+        this.isEatingMandatory = isEatingMandatory;
+    }
+
+    /**
+     * Returns the file of the opening book of the given board size and rule set, e.g. "8x8-mandatory.book".
+     *
+     * @param root              the directory of the opening books.
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @return the file of the opening book.
+     */
+    public static Path getFile(Path root, int boardSizeInCells, boolean isEatingMandatory) {
+        return root.resolve(boardSizeInCells + "x" + boardSizeInCells
+                + (isEatingMandatory ? "-mandatory" : "-optional") + EXTENSION);
+    }
+
+    /**
+     * Returns the amount of entries.
+     *
+     * @return the amount of entries.
+     */
+    public int getAmountOfEntries() {
+        return amountOfEntries;
+    }
+
+    /**
+     * Returns the book moves of the position.
+     *
+     * @param position      the position.
+     * @param moveGenerator the generator of the legal moves.
+     * @return the legal book moves of the position(empty if the position is not in the book).
+     */
+    public List<BookMove> getMoves(Position position, MoveGenerator moveGenerator) {
+        final List<BookMove> bookMoves = new ArrayList<>();
+        final long key = position.getKey();
+        int entryIndex = findFirstEntry(key);
+        if (entryIndex == amountOfEntries || getKey(entryIndex) != key) {
+            return bookMoves;
+        }
+
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moves, 0);
+        for (; entryIndex < amountOfEntries && getKey(entryIndex) == key; entryIndex++) {
+            final BookMove bookMove = readEntry(entryIndex);
+            for (int moveIndex = 0; moveIndex < amountOfMoves; moveIndex++) {
+                if (moves[moveIndex] == bookMove.move) {
+                    bookMoves.add(bookMove);
+                    break;
+                }
+            }
+        }
+
+        return bookMoves;
+    }
+
+    /**
+     * Chooses a book move of the position at random, in proportion to the weights of the moves.
+     *
+     * @param position      the position.
+     * @param moveGenerator the generator of the legal moves.
+     * @param random        the source of randomness.
+     * @return the packed move, Move.NONE if the book has no move worth playing in the position.
+     */
+    public long chooseMove(Position position, MoveGenerator moveGenerator, Random random) {
+        final List<BookMove> bookMoves = getMoves(position, moveGenerator);
+        int totalWeight = 0;
+        for (BookMove bookMove : bookMoves) {
+            totalWeight += bookMove.getWeight();
+        }
+        if (totalWeight == 0) {
+            return Move.NONE;
+        }
+
+        int choice = random.nextInt(totalWeight);
+        int moveIndex = 0;
+        while (choice >= bookMoves.get(moveIndex).getWeight()) {
+            choice -= bookMoves.get(moveIndex).getWeight();
+            moveIndex++;
+        }
+
+        return bookMoves.get(moveIndex).move;
+    }
+
+    /**
+     * Finds the first entry whose key is not less than the given one(binary search).
+     *
+     * @param key the key of the position.
+     * @return the index of the entry, amountOfEntries if there is no such entry.
+     */
+    private int findFirstEntry(long key) {
+        int low = 0;
+        int high = amountOfEntries;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (getKey(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Returns the key of the position of the entry.
+     *
+     * @param entryIndex the index of the entry.
+     * @return the key of the position.
+     */
+    private long getKey(int entryIndex) {
+        return buffer.getLong(HEADER_SIZE + entryIndex * ENTRY_SIZE);
+    }
+
+    /**
+     * Reads the move of the entry.
+     *
+     * @param entryIndex the index of the entry.
+     * @return the book move.
+     */
+    private BookMove readEntry(int entryIndex) {
+        final int offset = HEADER_SIZE + entryIndex * ENTRY_SIZE;
+        return new BookMove(buffer.getLong(offset + 8), buffer.getInt(offset + 16), buffer.getInt(offset + 20),
+                buffer.getInt(offset + 24), buffer.getInt(offset + 28));
+    }
+
+    /**
+     * Writes the header of a book file.
+     *
+     * @param header            the buffer to write the header into(HEADER_SIZE bytes).
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @param amountOfEntries   the amount of entries.
+     */
+    static void writeHeader(ByteBuffer header, int boardSizeInCells, boolean isEatingMandatory,
+                            long amountOfEntries) {
+        header.putInt(MAGIC).putInt(boardSizeInCells).putInt(isEatingMandatory ? 1 : 0).putLong(amountOfEntries);
+    }
+}
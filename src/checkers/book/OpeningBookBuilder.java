@@ -0,0 +1,206 @@
+package checkers.book;
+
+import checkers.engine.Position;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class collects the statistics of the first moves of many games and writes them as an opening book.
+ * The games may come from any source(self-play, imported game collections), they only have to start
+ * from the initial position. Several threads may add games at once.
+ */
+public class OpeningBookBuilder {
+
+    /**
+     * The result of a drawn game(otherwise the result is the side that won).
+     */
+    public static final int DRAW = -1;
+
+    /**
+     * The size of the board in cells.
+     */
+    private final int boardSizeInCells;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    private final boolean isEatingMandatory;
+
+    /**
+     * The amount of the first plies of every game that get into the book.
+     */
+    private final int maxPlies;
+
+    /**
+     * The statistics of the moves by the keys of their positions.
+     */
+    private final Map<Long, List<Entry>> entries;
+
+    /**
+     * The amount of entries.
+     */
+    private int amountOfEntries;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @param maxPlies          the amount of the first plies of every game that get into the book.
+     */
+    public OpeningBookBuilder(int boardSizeInCells, boolean isEatingMandatory, int maxPlies) {
+        this.boardSizeInCells = boardSizeInCells;
+        this.isEatingMandatory = isEatingMandatory;
+        this.maxPlies = maxPlies;
+        this.entries = new HashMap<>();
+        this.amountOfEntries = 0;
+    }
+
+    /**
+     * Adds the first moves of a game played from the initial position.
+     *
+     * @param moves         the packed moves of the game.
+     * @param amountOfMoves the amount of moves of the game.
+     * @param result        the side that won the game(Position.SIDE_UP or Position.SIDE_DOWN) or DRAW.
+     */
+    public synchronized void addGame(long[] moves, int amountOfMoves, int result) {
+        final Position position = Position.createInitial(boardSizeInCells);
+        for (int ply = 0; ply < Math.min(amountOfMoves, maxPlies); ply++) {
+            final int side = position.getSideToMove();
+            final Entry entry = getEntry(position.getKey(), moves[ply]);
+            entry.games++;
+            if (result == DRAW) {
+                entry.draws++;
+            } else if (result == side) {
+                entry.wins++;
+            } else {
+                entry.losses++;
+            }
+            position.makeMove(moves[ply]);
+        }
+    }
+
+    /**
+     * Returns the amount of entries(different moves in different positions) collected so far.
+     *
+     * @return the amount of entries.
+     */
+    public synchronized int getAmountOfEntries() {
+        return amountOfEntries;
+    }
+
+    /**
+     * Writes the opening book.
+     *
+     * @param file     the file to write the book into.
+     * @param minGames the minimal amount of games in which a move must have been played to get into the book.
+     * @return the amount of entries written.
+     * @throws IOException if the file can not be written.
+     */
+    public synchronized int write(Path file, int minGames) throws IOException {
+        final List<Entry> sortedEntries = new ArrayList<>();
+        for (List<Entry> positionEntries : entries.values()) {
+            for (Entry entry : positionEntries) {
+                if (entry.games >= minGames) {
+                    sortedEntries.add(entry);
+                }
+            }
+        }
+        sortedEntries.sort(Comparator.<Entry>comparingLong(entry -> entry.key).thenComparingLong(entry -> entry.move));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            final ByteBuffer header = ByteBuffer.allocate(OpeningBook.HEADER_SIZE);
+            OpeningBook.writeHeader(header, boardSizeInCells, isEatingMandatory, sortedEntries.size());
+            out.write(header.array());
+
+            for (Entry entry : sortedEntries) {
+                out.writeLong(entry.key);
+                out.writeLong(entry.move);
+                out.writeInt(entry.games);
+                out.writeInt(entry.wins);
+                out.writeInt(entry.draws);
+                out.writeInt(entry.losses);
+            }
+        }
+
+        return sortedEntries.size();
+    }
+
+    /**
+     * Returns the statistics of the move, creating them if the move is new.
+     *
+     * @param key  the key of the position.
+     * @param move the packed move.
+     * @return the statistics of the move.
+     */
+    private Entry getEntry(long key, long move) {
+        final List<Entry> positionEntries = entries.computeIfAbsent(key, unused -> new ArrayList<>());
+        for (Entry entry : positionEntries) {
+            if (entry.move == move) {
+                return entry;
+            }
+        }
+
+        final Entry entry = new Entry(key, move);
+        positionEntries.add(entry);
+        amountOfEntries++;
+        return entry;
+    }
+
+    /**
+     * The statistics of a move in a position.
+     */
+    private static class Entry {
+
+        /**
+         * The key of the position.
+         */
+        final long key;
+
+        /**
+         * The packed move.
+         */
+        final long move;
+
+        /**
+         * The amount of games in which the move was played.
+         */
+        int games;
+
+        /**
+         * The amount of those games won by the side that made the move.
+         */
+        int wins;
+
+        /**
+         * The amount of those games that ended in a draw.
+         */
+        int draws;
+
+        /**
+         * The amount of those games lost by the side that made the move.
+         */
+        int losses;
+
+        /**
+         * The constructor of the class.
+         *
+         * @param key  the key of the position.
+         * @param move the packed move.
+         */
+        Entry(long key, long move) {
+            this.key = key;
+            this.move = move;
+        }
+    }
+}
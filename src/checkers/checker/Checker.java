@@ -5,22 +5,16 @@ import checkers.players.PlayerSide;
 import checkers.position.BoardPosition;
 import checkers.position.MovingPosition;
 import checkers.position.Positionable;
-import javafx.scene.canvas.GraphicsContext;
 import checkers.util.Vector2d;
 import checkers.util.Vector2i;
-import javafx.scene.paint.Color;
 
 /**
- * This class describes a checker.
+ * This class describes a checker: its side, whether it is a queen, its selection and the state of its animations.
+ * How it looks is decided by the renderer of the board(see checkers.ui.BoardRenderer).
  * <p>
  * Created by Igor Boyarshin on April, 2017.
  */
 public class Checker {
-    /**
-     * The color scheme of the Checker.
-     */
-    private final CheckerColor color;
-
     /**
      * The side that the Checker belongs to.
      */
@@ -41,11 +35,6 @@ public class Checker {
      */
     private Positionable position;
 
-    /**
-     * The constants used for drawing the Checker.
-     */
-    private final DrawingConstants dc;
-
     /**
      * Whether this Checker is currently dying.
      * A Checker starts dying when it has been eaten.
@@ -66,62 +55,36 @@ public class Checker {
     /**
      * The constructor of this class.
      *
-     * @param color         the color scheme of this Checker.
      * @param playerSide    the side that this Checker belongs to.
      * @param boardPosition the position on the Board of this Checker.
      */
-    public Checker(CheckerColor color, PlayerSide playerSide, Vector2i boardPosition) {
-        this.color = color;
+    public Checker(PlayerSide playerSide, Vector2i boardPosition) {
         this.playerSide = playerSide;
         this.queen = false;
 
         this.position = new BoardPosition(boardPosition);
-        this.dc = new DrawingConstants();
         this.dying = false;
         this.dyingTimeStart = 0.0;
         this.dyingProgress = 0.0;
     }
 
     /**
-     * Draws this Checker on the board.
-     * Draws the background, the decorations and the selection if the Checker is currently selected.
-     * Draws the dying animation of the Checker if it is dying.
+     * Returns the position of the upper left corner of the cell of the Checker in pixels.
+     * While the Checker is moving, the position lies between the cells.
      *
-     * @param gc the thing to draw with.
+     * @return the actual position of the Checker.
      */
-    public void draw(GraphicsContext gc) {
-        final Vector2d cellActualPosition = position.getActualPosition();
-        final Vector2d upperLeftCheckerCorner = new Vector2d(
-                cellActualPosition.x + dc.checkerShiftFromCell,
-                cellActualPosition.y + dc.checkerShiftFromCell);
-
-        // If the checker is selected => draw a circle around it. (Imitate with a circle of bigger size)
-        if (selected) {
-            gc.setFill(color.selectionColor);
-            gc.fillOval(
-                    upperLeftCheckerCorner.x + dc.selectionShiftFromChecker,
-                    upperLeftCheckerCorner.y + dc.selectionShiftFromChecker,
-                    dc.selectionSize, dc.selectionSize);
-        }
+    public Vector2d getActualPosition() {
+        return position.getActualPosition();
+    }
 
-        // Checker background(main volume)
-        final Color fillColor = color.primaryColor.interpolate(dc.transparentColor, dyingProgress);
-        gc.setFill(fillColor);
-        gc.fillOval(upperLeftCheckerCorner.x, upperLeftCheckerCorner.y, dc.checkerSize, dc.checkerSize);
-
-        // Checker decorations
-        if (!queen) {
-            final Color strokeColor = color.secondaryColor.interpolate(dc.transparentColor, dyingProgress);
-            gc.setStroke(strokeColor);
-            gc.strokeOval(
-                    upperLeftCheckerCorner.x + dc.firstInnerCircleShiftFromChecker,
-                    upperLeftCheckerCorner.y + dc.firstInnerCircleShiftFromChecker,
-                    dc.firstInnerCircleSize, dc.firstInnerCircleSize);
-            gc.strokeOval(
-                    upperLeftCheckerCorner.x + dc.secondInnerCircleShiftFromChecker,
-                    upperLeftCheckerCorner.y + dc.secondInnerCircleShiftFromChecker,
-                    dc.secondInnerCircleSize, dc.secondInnerCircleSize);
-        }
+    /**
+     * Returns the progress of the dying of the Checker.
+     *
+     * @return 0 if the Checker is alive or has just started dying, 1 if it has finished dying.
+     */
+    public double getDyingProgress() {
+        return dyingProgress;
     }
 
     /**
@@ -298,83 +261,4 @@ public class Checker {
     public boolean isCheckerDirectionUp() {
         return playerSide.equals(PlayerSide.PLAYER_DOWN);
     }
-
-
-    /**
-     * This class describes the drawing constants that are used during the drawing of a Checker.
-     */
-    private class DrawingConstants {
-        /**
-         * The constructor of the class
-         */
-        private DrawingConstants() {
-            final double cellSize = CheckersSettings.getInstance().cellSize;
-
-            // Checker itself
-            final double checkerSizeMultiplier = 0.7; // checker's size relative to cell's size
-            this.checkerSize = cellSize * checkerSizeMultiplier;
-            this.checkerShiftFromCell = (cellSize - checkerSize) / 2.0;
-
-            // Decorations
-            final double firstInnerCircleSizeMultiplier = 0.8; // circle's size relative to checker's size
-            this.firstInnerCircleSize = firstInnerCircleSizeMultiplier * checkerSize;
-            this.firstInnerCircleShiftFromChecker = (checkerSize - firstInnerCircleSize) / 2.0;
-            final double secondInnerCircleSizeMultiplier = 0.4; // circle's size relative to checker's size
-            this.secondInnerCircleSize = secondInnerCircleSizeMultiplier * checkerSize;
-            this.secondInnerCircleShiftFromChecker = (checkerSize - secondInnerCircleSize) / 2.0;
-
-            // Selection
-            final double selectionSizeMultiplier = 1.2; // selection's size relative to checker's size
-            this.selectionSize = checkerSize * selectionSizeMultiplier;
-            this.selectionShiftFromChecker = (checkerSize - selectionSize) / 2.0; // Will be negative
-
-            // Dying
-            this.transparentColor = Color.rgb(255, 255, 255, 0.0);
-        }
-
-        /**
-         * The shift in pixels of the Checker from the side of the cell.
-         */
-        private final double checkerShiftFromCell;
-
-        /**
-         * The side of the Checker in pixels.
-         */
-        private final double checkerSize;
-
-        /**
-         * The size(radius) in pixels of the first inner circle decoration of the Checker.
-         */
-        private final double firstInnerCircleSize;
-
-        /**
-         * The size(radius) in pixels of the second inner circle decoration of the Checker.
-         */
-        private final double secondInnerCircleSize;
-
-        /**
-         * The shift in pixels from the side of the cell of the first inner circle decoration/
-         */
-        private final double firstInnerCircleShiftFromChecker;
-
-        /**
-         * The shift in pixels from the side of the cell of the second inner circle decoration/
-         */
-        private final double secondInnerCircleShiftFromChecker;
-
-        /**
-         * The size in pixels of the selection circle.
-         */
-        private final double selectionSize;
-
-        /**
-         * The shift in pixels from the side of the cell of the selection.
-         */
-        private final double selectionShiftFromChecker;
-
-        /**
-         * The transparent color constant.
-         */
-        private final Color transparentColor;
-    }
 }
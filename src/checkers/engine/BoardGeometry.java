@@ -0,0 +1,258 @@
+package checkers.engine;
+
+/**
+ * This class describes the geometry of a board for the engine.
+ * Only the dark cells of the board are playable, so they are numbered from 0 to (squaresAmount - 1)
+ * row by row, and every set of squares can be stored in a single long(32 squares for 8x8, 50 for 10x10).
+ * <p>
+ * Square index: row * (boardSizeInCells / 2) + column / 2.
+ * <p>
+ * The directions are numbered as follows:
+ * 0 == (-1;-1), 1 == (+1;-1), 2 == (-1;+1), 3 == (+1;+1).
+ */
+public final class BoardGeometry {
+
+    /**
+     * Amount of diagonal directions.
+     */
+    public static final int DIRECTIONS_AMOUNT = 4;
+
+    /**
+     * Single steps along X axis for each direction.
+     */
+    public static final int[] DIRECTION_DELTA_X = {-1, +1, -1, +1};
+
+    /**
+     * Single steps along Y axis for each direction.
+     */
+    public static final int[] DIRECTION_DELTA_Y = {-1, -1, +1, +1};
+
+    /**
+     * The geometry of the 8x8 board.
+     */
+    private static final BoardGeometry GEOMETRY_8 = new BoardGeometry(8);
+
+    /**
+     * The geometry of the 10x10 board.
+     */
+    private static final BoardGeometry GEOMETRY_10 = new BoardGeometry(10);
+
+    /**
+     * Amount of cells on each side of the board.
+     */
+    public final int boardSizeInCells;
+
+    /**
+     * Amount of dark(playable) squares in each row.
+     */
+    public final int squaresPerRow;
+
+    /**
+     * Amount of dark(playable) squares on the board.
+     */
+    public final int squaresAmount;
+
+    /**
+     * The mask with all the squares of the board set.
+     */
+    public final long allSquaresMask;
+
+    /**
+     * The mask of the first row(row == 0).
+     */
+    public final long firstRowMask;
+
+    /**
+     * The mask of the last row(row == boardSizeInCells - 1).
+     */
+    public final long lastRowMask;
+
+    /**
+     * The neighbours of each square in each direction, -1 if the step leaves the board.
+     * <p>
+     * Access: neighbours[direction][square]
+     */
+    private final int[][] neighbours;
+
+    /**
+     * The squares of even rows from which a step in the given direction stays on the board.
+     */
+    private final long[] canStepFromEvenRowMask;
+
+    /**
+     * The squares of odd rows from which a step in the given direction stays on the board.
+     */
+    private final long[] canStepFromOddRowMask;
+
+    /**
+     * The index delta of a step in the given direction from an even row.
+     */
+    private final int[] stepDeltaFromEvenRow;
+
+    /**
+     * The index delta of a step in the given direction from an odd row.
+     */
+    private final int[] stepDeltaFromOddRow;
+
+    /**
+     * The constructor of the class.
+     * Precomputes all the tables for the board of the given size.
+     *
+     * @param boardSizeInCells the size of the board in cells.
+     */
+    private BoardGeometry(int boardSizeInCells) {
+        this.boardSizeInCells = boardSizeInCells;
+        this.squaresPerRow = boardSizeInCells / 2;
+        this.squaresAmount = boardSizeInCells * squaresPerRow;
+        this.allSquaresMask = (squaresAmount == 64) ? -1L : (1L << squaresAmount) - 1;
+        this.firstRowMask = (1L << squaresPerRow) - 1;
+        this.lastRowMask = firstRowMask << (squaresAmount - squaresPerRow);
+
+        this.neighbours = new int[DIRECTIONS_AMOUNT][squaresAmount];
+        this.canStepFromEvenRowMask = new long[DIRECTIONS_AMOUNT];
+        this.canStepFromOddRowMask = new long[DIRECTIONS_AMOUNT];
+        this.stepDeltaFromEvenRow = new int[DIRECTIONS_AMOUNT];
+        this.stepDeltaFromOddRow = new int[DIRECTIONS_AMOUNT];
+
+        for (int direction = 0; direction < DIRECTIONS_AMOUNT; direction++) {
+            for (int square = 0; square < squaresAmount; square++) {
+                final int column = getColumn(square) + DIRECTION_DELTA_X[direction];
+                final int row = getRow(square) + DIRECTION_DELTA_Y[direction];
+                if (!isPositionValid(column, row)) {
+                    neighbours[direction][square] = -1;
+                    continue;
+                }
+
+                final int neighbour = getSquare(column, row);
+                neighbours[direction][square] = neighbour;
+
+                // The delta is the same for all the squares of the rows of the same parity
+                if (getRow(square) % 2 == 0) {
+                    canStepFromEvenRowMask[direction] |= 1L << square;
+                    stepDeltaFromEvenRow[direction] = neighbour - square;
+                } else {
+                    canStepFromOddRowMask[direction] |= 1L << square;
+                    stepDeltaFromOddRow[direction] = neighbour - square;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the geometry of the board of the given size.
+     *
+     * @param boardSizeInCells the size of the board in cells(8 or 10).
+     * @return the geometry of the board of the given size.
+     * @throws IllegalArgumentException if the board size is not supported.
+     */
+    public static BoardGeometry forSize(int boardSizeInCells) {
+        switch (boardSizeInCells) {
+            case 8:
+                return GEOMETRY_8;
+            case 10:
+                return GEOMETRY_10;
+            default:
+                throw new IllegalArgumentException("Unsupported board size: " + boardSizeInCells);
+        }
+    }
+
+    /**
+     * Returns whether a dark(playable) cell is located at the given position.
+     *
+     * @param column the column index on the board.
+     * @param row    the row index on the board.
+     * @return whether a dark cell is located at the given position.
+     */
+    public boolean isDarkCell(int column, int row) {
+        return (row + column) % 2 == 1;
+    }
+
+    /**
+     * Checks if the specified position is within the board bounds.
+     *
+     * @param column the column index on the board.
+     * @param row    the row index on the board.
+     * @return true if the specified position is a valid board address, false otherwise.
+     */
+    public boolean isPositionValid(int column, int row) {
+        return column >= 0 && row >= 0 && column < boardSizeInCells && row < boardSizeInCells;
+    }
+
+    /**
+     * Returns the index of the square at the given position.
+     * Expects the position to be a valid dark cell.
+     *
+     * @param column the column index on the board.
+     * @param row    the row index on the board.
+     * @return the index of the square.
+     */
+    public int getSquare(int column, int row) {
+        return row * squaresPerRow + column / 2;
+    }
+
+    /**
+     * Returns the column of the given square.
+     *
+     * @param square the index of the square.
+     * @return the column of the square.
+     */
+    public int getColumn(int square) {
+        final int row = square / squaresPerRow;
+        return 2 * (square % squaresPerRow) + 1 - (row % 2);
+    }
+
+    /**
+     * Returns the row of the given square.
+     *
+     * @param square the index of the square.
+     * @return the row of the square.
+     */
+    public int getRow(int square) {
+        return square / squaresPerRow;
+    }
+
+    /**
+     * Returns the neighbour of the square in the given direction.
+     *
+     * @param square    the index of the square.
+     * @param direction the direction of the step.
+     * @return the neighbour square, -1 if the step leaves the board.
+     */
+    public int getNeighbour(int square, int direction) {
+        return neighbours[direction][square];
+    }
+
+    /**
+     * Moves every square of the given set one step in the given direction.
+     * The squares that would leave the board are dropped.
+     *
+     * @param squares   the set of squares.
+     * @param direction the direction of the step.
+     * @return the set of squares after the step.
+     */
+    public long step(long squares, int direction) {
+        return shift(squares & canStepFromEvenRowMask[direction], stepDeltaFromEvenRow[direction])
+                | shift(squares & canStepFromOddRowMask[direction], stepDeltaFromOddRow[direction]);
+    }
+
+    /**
+     * Returns the direction opposite to the given one.
+     *
+     * @param direction the direction.
+     * @return the opposite direction.
+     */
+    public static int getOppositeDirection(int direction) {
+        return DIRECTIONS_AMOUNT - 1 - direction;
+    }
+
+    /**
+     * Shifts the bits of the given value by the given signed amount.
+     *
+     * @param bits  the value to shift.
+     * @param delta the amount to shift by, positive means towards the higher bits.
+     * @return the shifted value.
+     */
+    private static long shift(long bits, int delta) {
+        return (delta >= 0) ? (bits << delta) : (bits >>> -delta);
+    }
+}
@@ -0,0 +1,361 @@
+package checkers.engine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * This class describes the weights of the evaluation for a board of the given size
+ * and the piece-square tables built from them.
+ * <p>
+ * The piece-square tables hold everything that depends only on the square of a single Checker:
+ * the material(separately for simple Checkers and queens), the advancement of the simple Checkers,
+ * the control of the center and the guards left on the own back rank. The tables are built separately
+ * for every board size(the rows and the center differ), so the same weight means the same on any board.
+ * The mobility depends on the whole position, so it has only a weight here.
+ * <p>
+ * The weights are loaded from a properties file: "name = value" for all the board sizes,
+ * "8x8.name = value" or "10x10.name = value" for a single size(takes precedence). The names are given in NAMES,
+ * the weights that are not in the file keep their default values.
+ * <p>
+ * The evaluation is linear in the weights: it equals the sum of every weight multiplied by its feature
+ * (see computeFeatures()), which is what the tuning of the weights relies on.
+ */
+public final class EvaluationWeights {
+
+    /**
+     * The index of the value of a simple Checker.
+     */
+    public static final int MAN = 0;
+
+    /**
+     * The index of the value of a queen.
+     */
+    public static final int QUEEN = 1;
+
+    /**
+     * The index of the bonus of a simple Checker for every row it has advanced from its back rank.
+     */
+    public static final int ADVANCEMENT = 2;
+
+    /**
+     * The index of the bonus of a simple Checker for every ring closer to the center of the board.
+     */
+    public static final int MAN_CENTER = 3;
+
+    /**
+     * The index of the bonus of a queen for every ring closer to the center of the board.
+     */
+    public static final int QUEEN_CENTER = 4;
+
+    /**
+     * The index of the bonus of a simple Checker that still guards its back rank(the promotion row of the opponent).
+     */
+    public static final int BACK_RANK_GUARD = 5;
+
+    /**
+     * The index of the bonus for every Checker that can move.
+     */
+    public static final int MOBILITY = 6;
+
+    /**
+     * The names of the weights in the file.
+     * <p>
+     * Access: NAMES[index]
+     */
+    public static final String[] NAMES = {"man", "queen", "advancement", "manCenter", "queenCenter",
+            "backRankGuard", "mobility"};
+
+    /**
+     * The default weights.
+     * <p>
+     * Access: DEFAULT_VALUES[index]
+     */
+    private static final int[] DEFAULT_VALUES = {100, 300, 3, 2, 4, 6, 2};
+
+    /**
+     * The geometry of the board.
+     */
+    public final BoardGeometry geometry;
+
+    /**
+     * The weights.
+     * <p>
+     * Access: values[index]
+     */
+    private final int[] values;
+
+    /**
+     * The piece-square tables: the value of a Checker of each side and kind at each square.
+     * <p>
+     * Access: pieceSquareValues[getTableIndex(side, queen, square)]
+     */
+    private final int[] pieceSquareValues;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param boardSizeInCells the size of the board in cells.
+     * @param values           the weights(see NAMES).
+     */
+    public EvaluationWeights(int boardSizeInCells, int[] values) {
+        if (values.length != NAMES.length) {
+            throw new IllegalArgumentException("Expected " + NAMES.length + " weights, got " + values.length);
+        }
+
+        this.geometry = BoardGeometry.forSize(boardSizeInCells);
+        this.values = values.clone();
+        this.pieceSquareValues = new int[2 * 2 * Long.SIZE];
+        for (int side = Position.SIDE_UP; side <= Position.SIDE_DOWN; side++) {
+            for (int square = 0; square < geometry.squaresAmount; square++) {
+                pieceSquareValues[getTableIndex(side, false, square)] = computeManValue(side, square);
+                pieceSquareValues[getTableIndex(side, true, square)] = computeQueenValue(square);
+            }
+        }
+    }
+
+    /**
+     * Creates the default weights for the board of the given size.
+     *
+     * @param boardSizeInCells the size of the board in cells.
+     * @return the default weights.
+     */
+    public static EvaluationWeights createDefault(int boardSizeInCells) {
+        return new EvaluationWeights(boardSizeInCells, DEFAULT_VALUES);
+    }
+
+    /**
+     * Loads the weights for the board of the given size from a file.
+     *
+     * @param file             the properties file of the weights.
+     * @param boardSizeInCells the size of the board in cells.
+     * @return the weights.
+     * @throws IOException if the file can not be read or has a bad weight.
+     */
+    public static EvaluationWeights load(Path file, int boardSizeInCells) throws IOException {
+        final Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            properties.load(in);
+        }
+
+        final String sizePrefix = boardSizeInCells + "x" + boardSizeInCells + ".";
+        for (String key : properties.stringPropertyNames()) {
+            final String name = key.matches("\\d+x\\d+\\..*") ? key.substring(key.indexOf('.') + 1) : key;
+            if (getIndex(name) < 0) {
+                throw new IOException(file + ": unknown weight " + key);
+            }
+        }
+
+        final int[] values = DEFAULT_VALUES.clone();
+        for (int index = 0; index < NAMES.length; index++) {
+            final String value = properties.getProperty(sizePrefix + NAMES[index], properties.getProperty(NAMES[index]));
+            if (value == null) {
+                continue;
+            }
+
+            try {
+                values[index] = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException(file + ": bad value of " + NAMES[index] + ": " + value, e);
+            }
+        }
+
+        return new EvaluationWeights(boardSizeInCells, values);
+    }
+
+    /**
+     * Saves the weights for this board size into a file.
+     * The weights of the other board sizes already in the file are kept.
+     *
+     * @param file the properties file of the weights.
+     * @throws IOException if the file can not be read or written.
+     */
+    public void save(Path file) throws IOException {
+        final Properties properties = new Properties();
+        if (Files.exists(file)) {
+            try (Reader in = Files.newBufferedReader(file)) {
+                properties.load(in);
+            }
+        }
+
+        final String sizePrefix = geometry.boardSizeInCells + "x" + geometry.boardSizeInCells + ".";
+        for (int index = 0; index < NAMES.length; index++) {
+            properties.setProperty(sizePrefix + NAMES[index], String.valueOf(values[index]));
+        }
+        try (Writer out = Files.newBufferedWriter(file)) {
+            properties.store(out, "The weights of the evaluation");
+        }
+    }
+
+    /**
+     * Returns the index of the weight with the given name.
+     *
+     * @param name the name of the weight.
+     * @return the index of the weight, -1 if there is no such weight.
+     */
+    public static int getIndex(String name) {
+        return Arrays.asList(NAMES).indexOf(name);
+    }
+
+    /**
+     * Returns the weight.
+     *
+     * @param index the index of the weight.
+     * @return the weight.
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns a copy of all the weights.
+     *
+     * @return the weights(see NAMES).
+     */
+    public int[] getValues() {
+        return values.clone();
+    }
+
+    /**
+     * Returns the value of a Checker at the given square.
+     *
+     * @param side   the side of the Checker.
+     * @param queen  whether the Checker is a queen.
+     * @param square the index of the square.
+     * @return the value of the Checker(for its own side).
+     */
+    public int getPieceSquareValue(int side, boolean queen, int square) {
+        return pieceSquareValues[getTableIndex(side, queen, square)];
+    }
+
+    /**
+     * Sums the values of all the Checkers of the given side(from scratch).
+     *
+     * @param position the position.
+     * @param side     the side index.
+     * @return the sum of the piece-square values of the side.
+     */
+    public int computePieceSquareScore(Position position, int side) {
+        int score = 0;
+        long checkers = position.getPieces(side);
+        while (checkers != 0) {
+            final int square = Long.numberOfTrailingZeros(checkers);
+            checkers &= checkers - 1;
+
+            score += getPieceSquareValue(side, position.isQueen(square), square);
+        }
+
+        return score;
+    }
+
+    /**
+     * Calculates the features of the position: for every weight, how many times it is counted
+     * for the side to move minus how many times it is counted for the opponent.
+     * The score of the position equals the sum of the weights multiplied by their features.
+     *
+     * @param position the position(of this board size).
+     * @param features the array to write the features into(NAMES.length elements).
+     */
+    public void computeFeatures(Position position, int[] features) {
+        Arrays.fill(features, 0);
+        for (int side = Position.SIDE_UP; side <= Position.SIDE_DOWN; side++) {
+            final int sign = (side == position.getSideToMove()) ? 1 : -1;
+
+            long men = position.getMen(side);
+            while (men != 0) {
+                final int square = Long.numberOfTrailingZeros(men);
+                men &= men - 1;
+
+                final int advancedRows = getAdvancedRows(side, square);
+                features[MAN] += sign;
+                features[ADVANCEMENT] += sign * advancedRows;
+                features[MAN_CENTER] += sign * getCenterRing(square);
+                if (advancedRows == 0) {
+                    features[BACK_RANK_GUARD] += sign;
+                }
+            }
+
+            long sideQueens = position.getQueens(side);
+            while (sideQueens != 0) {
+                final int square = Long.numberOfTrailingZeros(sideQueens);
+                sideQueens &= sideQueens - 1;
+
+                features[QUEEN] += sign;
+                features[QUEEN_CENTER] += sign * getCenterRing(square);
+            }
+
+            features[MOBILITY] += sign * Long.bitCount(position.getMovers(side));
+        }
+    }
+
+    /**
+     * Calculates the value of a simple Checker at the given square.
+     *
+     * @param side   the side of the Checker.
+     * @param square the index of the square.
+     * @return the value of the Checker.
+     */
+    private int computeManValue(int side, int square) {
+        final int advancedRows = getAdvancedRows(side, square);
+
+        int value = values[MAN] + values[ADVANCEMENT] * advancedRows + values[MAN_CENTER] * getCenterRing(square);
+        if (advancedRows == 0) {
+            value += values[BACK_RANK_GUARD];
+        }
+
+        return value;
+    }
+
+    /**
+     * Calculates the value of a queen at the given square.
+     *
+     * @param square the index of the square.
+     * @return the value of the queen.
+     */
+    private int computeQueenValue(int square) {
+        return values[QUEEN] + values[QUEEN_CENTER] * getCenterRing(square);
+    }
+
+    /**
+     * Calculates how far a simple Checker at the given square has advanced.
+     *
+     * @param side   the side of the Checker.
+     * @param square the index of the square.
+     * @return the amount of rows between the square and the back rank of the side.
+     */
+    private int getAdvancedRows(int side, int square) {
+        final int row = geometry.getRow(square);
+        // UP starts at the row 0 and moves towards higher rows
+        return (side == Position.SIDE_UP) ? row : geometry.boardSizeInCells - 1 - row;
+    }
+
+    /**
+     * Calculates how close the square is to the center of the board.
+     *
+     * @param square the index of the square.
+     * @return 0 for the edge of the board, 1 for the next ring and so on up to the center.
+     */
+    private int getCenterRing(int square) {
+        final int lastCell = geometry.boardSizeInCells - 1;
+        final int distanceX = Math.abs(2 * geometry.getColumn(square) - lastCell);
+        final int distanceY = Math.abs(2 * geometry.getRow(square) - lastCell);
+
+        return (lastCell - Math.max(distanceX, distanceY)) / 2;
+    }
+
+    /**
+     * Returns the index of a Checker in the piece-square tables.
+     *
+     * @param side   the side of the Checker.
+     * @param queen  whether the Checker is a queen.
+     * @param square the index of the square.
+     * @return the index in the tables.
+     */
+    private static int getTableIndex(int side, boolean queen, int square) {
+        return ((side << 1 | (queen ? 1 : 0)) << 6) | square;
+    }
+}
@@ -0,0 +1,120 @@
+package checkers.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * This class describes the static evaluation of a position.
+ * The score is given from the point of view of the side to move: positive means that side is better.
+ * <p>
+ * The piece-square part of the score(material, advancement, center, back rank) is kept by the position itself
+ * and updated on every made and unmade move, so only the mobility is calculated at the leaf.
+ * The position is bound to the weights of its board size on its first evaluation.
+ * An Evaluator never changes, so it can be shared by several threads.
+ */
+public class Evaluator {
+
+    /**
+     * The weights for every supported board size.
+     */
+    private final EvaluationWeights[] weights;
+
+    /**
+     * The first constructor of the class.
+     * Uses the default weights.
+     */
+    public Evaluator() {
+        this(EvaluationWeights.createDefault(8), EvaluationWeights.createDefault(10));
+    }
+
+    /**
+     * The second constructor of the class.
+     *
+     * @param weights the weights for every supported board size.
+     */
+    public Evaluator(EvaluationWeights... weights) {
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Creates the Evaluator with the weights loaded from a file(see EvaluationWeights).
+     *
+     * @param file the properties file of the weights.
+     * @return the Evaluator.
+     * @throws IOException if the file can not be read or has a bad weight.
+     */
+    public static Evaluator load(Path file) throws IOException {
+        return new Evaluator(EvaluationWeights.load(file, 8), EvaluationWeights.load(file, 10));
+    }
+
+    /**
+     * Returns the weights for the board of the given geometry.
+     *
+     * @param geometry the geometry of the board.
+     * @return the weights.
+     */
+    public EvaluationWeights getWeights(BoardGeometry geometry) {
+        for (EvaluationWeights sizeWeights : weights) {
+            if (sizeWeights.geometry == geometry) {
+                return sizeWeights;
+            }
+        }
+
+        throw new IllegalArgumentException("No weights for the board size " + geometry.boardSizeInCells);
+    }
+
+    /**
+     * Evaluates the position.
+     *
+     * @param position the position.
+     * @return the score of the position for the side to move.
+     */
+    public int evaluate(Position position) {
+        EvaluationWeights positionWeights = position.getEvaluationWeights();
+        if (positionWeights == null || !isOwnWeights(positionWeights)) {
+            positionWeights = getWeights(position.getGeometry());
+            position.setEvaluationWeights(positionWeights);
+        }
+
+        final int side = position.sideToMove;
+        final int opponent = side ^ 1;
+
+        return position.getPieceSquareScore(side) - position.getPieceSquareScore(opponent)
+                + positionWeights.get(EvaluationWeights.MOBILITY)
+                * (Long.bitCount(position.getMovers(side)) - Long.bitCount(position.getMovers(opponent)));
+    }
+
+    /**
+     * Evaluates the position from scratch, without the sums kept by the position.
+     * Gives the same score as evaluate().
+     *
+     * @param position the position.
+     * @return the score of the position for the side to move.
+     */
+    public int evaluateFully(Position position) {
+        final EvaluationWeights positionWeights = getWeights(position.getGeometry());
+        final int side = position.sideToMove;
+        final int opponent = side ^ 1;
+
+        return positionWeights.computePieceSquareScore(position, side)
+                - positionWeights.computePieceSquareScore(position, opponent)
+                + positionWeights.get(EvaluationWeights.MOBILITY)
+                * (Long.bitCount(position.getMovers(side)) - Long.bitCount(position.getMovers(opponent)));
+    }
+
+    /**
+     * Checks whether the weights belong to this Evaluator.
+     *
+     * @param positionWeights the weights.
+     * @return whether the weights belong to this Evaluator.
+     */
+    private boolean isOwnWeights(EvaluationWeights positionWeights) {
+        for (EvaluationWeights sizeWeights : weights) {
+            if (sizeWeights == positionWeights) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
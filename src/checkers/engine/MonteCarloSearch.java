@@ -0,0 +1,688 @@
+package checkers.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * This class describes the Monte Carlo tree search engine(UCT), an alternative to the alpha-beta Search.
+ * <p>
+ * Every playout walks down the tree choosing the child with the best upper confidence bound, expands the leaf
+ * once it has been visited often enough, plays random legal moves until the end of the game(or until the playout
+ * is too long, then the static evaluation decides) and adds the result to every node of the path.
+ * The playouts work on a single Position per thread by making and unmaking moves into a preallocated buffer,
+ * so nothing is allocated outside of the expansion of the tree.
+ * <p>
+ * All the threads descend the same tree(tree parallelism). A thread adds a virtual loss to the nodes of its path,
+ * so that the other threads prefer different paths until its playout is finished. The statistics of the nodes
+ * are updated atomically, the expansion of a node is done by a single thread.
+ * <p>
+ * The tree is kept between the searches: if the new position is found among the first plies of the previous tree
+ * (after our move and the reply of the opponent), its subtree becomes the new root.
+ * The nodes of a SearchResult are the playouts, so getNodesPerSecond() gives the playouts per second.
+ * <p>
+ * A MonteCarloSearch must not be used by several threads at once.
+ */
+public class MonteCarloSearch {
+
+    /**
+     * The longest playout in plies, after which the static evaluation decides the result.
+     */
+    public static final int MAX_PLAYOUT_PLIES = 160;
+
+    /**
+     * The deepest node of the tree in plies, so that the moves of a playout always fit into the position.
+     */
+    private static final int MAX_TREE_PLY = Position.MAX_PLY - MAX_PLAYOUT_PLIES - 1;
+
+    /**
+     * The static evaluation at the end of a long playout that counts as a win(about a Checker up).
+     */
+    private static final int PLAYOUT_WIN_MARGIN = 100;
+
+    /**
+     * The weight of the exploration in the upper confidence bound.
+     */
+    private static final double EXPLORATION = 1.0;
+
+    /**
+     * The amount of visits added to a node(without any points) while a playout through it is running.
+     */
+    private static final int VIRTUAL_LOSS = 3;
+
+    /**
+     * The amount of visits after which a leaf is expanded.
+     */
+    private static final int EXPANSION_VISITS = 4;
+
+    /**
+     * The largest amount of nodes in the tree. When it is reached, the leaves are no longer expanded.
+     */
+    private static final long MAX_NODES = 4_000_000;
+
+    /**
+     * How many plies down from the previous root the new position is looked for.
+     */
+    private static final int REUSE_DEPTH = 2;
+
+    /**
+     * The points of a won playout(a draw gives half of them).
+     */
+    private static final int WIN_POINTS = 2;
+
+    /**
+     * The score of the search for a certain win(the scores are computed from the share of the won playouts).
+     */
+    private static final int MAX_SCORE = 2000;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    private final boolean isEatingMandatory;
+
+    /**
+     * The workers of every thread, the first one belongs to the calling thread.
+     */
+    private final Worker[] workers;
+
+    /**
+     * The amount of nodes in the tree.
+     */
+    private final AtomicLong amountOfNodes;
+
+    /**
+     * The static evaluation that decides the long playouts.
+     */
+    private Evaluator evaluator;
+
+    /**
+     * The root of the tree of the last search, null before the first search.
+     */
+    private Node root;
+
+    /**
+     * The position of the root of the tree(without the made moves).
+     */
+    private Position rootPosition;
+
+    /**
+     * The time(System.nanoTime()) when the current search must stop.
+     */
+    private volatile long deadlineNanos;
+
+    /**
+     * The amount of visits of the root at which the current search stops.
+     */
+    private volatile long maxRootVisits;
+
+    /**
+     * Whether the search has been asked to stop.
+     * Can be set from another thread.
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param isEatingMandatory whether eating is mandatory.
+     * @param amountOfThreads   the amount of threads that run the playouts(including the calling one).
+     */
+    public MonteCarloSearch(boolean isEatingMandatory, int amountOfThreads) {
+        if (amountOfThreads < 1) {
+            throw new IllegalArgumentException("Amount of threads must be positive: " + amountOfThreads);
+        }
+
+        this.isEatingMandatory = isEatingMandatory;
+        this.workers = new Worker[amountOfThreads];
+        for (int threadIndex = 0; threadIndex < amountOfThreads; threadIndex++) {
+            workers[threadIndex] = new Worker();
+        }
+        this.amountOfNodes = new AtomicLong();
+        this.evaluator = new Evaluator();
+        this.root = null;
+        this.rootPosition = null;
+    }
+
+    /**
+     * Searches for the best move of the position with all the threads.
+     *
+     * @param position        the position to search(is not changed).
+     * @param timeLimitMillis the time limit of the search in milliseconds.
+     * @param maxPlayouts     the amount of playouts after which the search stops(counting the reused ones),
+     *                        Long.MAX_VALUE for no limit.
+     * @return the most visited move, the nodes of the result are the playouts of this search.
+     */
+    public SearchResult search(Position position, long timeLimitMillis, long maxPlayouts) {
+        clearStopRequest();
+        return searchUnlessStopped(position, timeLimitMillis, maxPlayouts);
+    }
+
+    /**
+     * Searches like search(), but without clearing the stop request first:
+     * if stop() has been called since the last clearStopRequest(), the search returns at once
+     * (with the most visited move of the reused tree, Move.NONE if there is none).
+     *
+     * @param position        the position to search(is not changed).
+     * @param timeLimitMillis the time limit of the search in milliseconds.
+     * @param maxPlayouts     the amount of playouts after which the search stops(counting the reused ones),
+     *                        Long.MAX_VALUE for no limit.
+     * @return the most visited move, the nodes of the result are the playouts of this search.
+     */
+    public SearchResult searchUnlessStopped(Position position, long timeLimitMillis, long maxPlayouts) {
+        final long startNanos = System.nanoTime();
+        this.deadlineNanos = startNanos + timeLimitMillis * 1000000;
+        this.maxRootVisits = maxPlayouts;
+        prepareRoot(position);
+
+        final Thread[] helpers = new Thread[workers.length];
+        for (int threadIndex = 1; threadIndex < workers.length; threadIndex++) {
+            final Worker worker = workers[threadIndex];
+            worker.prepare(rootPosition);
+            helpers[threadIndex] = new Thread(worker::run, "Monte Carlo helper " + threadIndex);
+            helpers[threadIndex].setDaemon(true);
+            helpers[threadIndex].start();
+        }
+        workers[0].prepare(rootPosition);
+        workers[0].run();
+
+        // The main thread has run out of time, so the helpers are about to finish too
+        stop();
+        long playouts = workers[0].playouts;
+        int maxDepth = workers[0].maxDepth;
+        for (int threadIndex = 1; threadIndex < workers.length; threadIndex++) {
+            joinUninterruptibly(helpers[threadIndex]);
+            playouts += workers[threadIndex].playouts;
+            maxDepth = Math.max(maxDepth, workers[threadIndex].maxDepth);
+        }
+
+        final long timeMillis = (System.nanoTime() - startNanos) / 1000000;
+        final Node bestChild = getMostVisitedChild(root);
+        if (bestChild == null) {
+            return new SearchResult(Move.NONE, -Search.WIN_SCORE, 0, playouts, timeMillis, new long[0], 0, 0);
+        }
+
+        return new SearchResult(bestChild.move, computeScore(bestChild), maxDepth, playouts, timeMillis,
+                getPrincipalVariation(), 0, 0);
+    }
+
+    /**
+     * Searches for the best move of the position for the budget allotted by the time manager.
+     * The playouts don't have iterations to decide upon, so the whole budget(the soft limit) is used,
+     * but never less than the least time of a turn, even if the budget has already been spent.
+     *
+     * @param position    the position to search(is not changed).
+     * @param timeManager the time manager whose turn has been started.
+     * @return the most visited move, the nodes of the result are the playouts of this search.
+     */
+    public SearchResult search(Position position, TimeManager timeManager) {
+        clearStopRequest();
+        return searchUnlessStopped(position, timeManager);
+    }
+
+    /**
+     * Searches like search() with the time manager, but without clearing the stop request first
+     * (see searchUnlessStopped()).
+     *
+     * @param position    the position to search(is not changed).
+     * @param timeManager the time manager whose turn has been started.
+     * @return the most visited move, the nodes of the result are the playouts of this search.
+     */
+    public SearchResult searchUnlessStopped(Position position, TimeManager timeManager) {
+        final long timeLimitMillis = Math.max(TimeManager.MIN_TIME_MILLIS,
+                timeManager.getSoftLimitMillis() - timeManager.getElapsedMillis());
+        return searchUnlessStopped(position, timeLimitMillis, Long.MAX_VALUE);
+    }
+
+    /**
+     * Sets the static evaluation that decides the long playouts.
+     *
+     * @param evaluator the evaluator(may be shared with other searches).
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Asks all the threads of the running search to stop as soon as possible.
+     * Can be called from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Clears the stop request.
+     * Together with searchUnlessStopped() lets the search be stopped by another thread even before it has started.
+     */
+    public void clearStopRequest() {
+        stopRequested = false;
+    }
+
+    /**
+     * Forgets the tree, so that the next search starts from scratch.
+     */
+    public void clear() {
+        this.root = null;
+        this.rootPosition = null;
+        amountOfNodes.set(0);
+    }
+
+    /**
+     * Returns the amount of nodes in the tree.
+     *
+     * @return the amount of nodes in the tree.
+     */
+    public long getAmountOfNodes() {
+        return amountOfNodes.get();
+    }
+
+    /**
+     * Makes the node of the position the root of the tree: reuses the subtree of the previous search
+     * if the position is found in it, otherwise starts a new tree.
+     *
+     * @param position the position to search.
+     */
+    private void prepareRoot(Position position) {
+        Node newRoot = null;
+        if (root != null && rootPosition.getGeometry() == position.getGeometry()) {
+            newRoot = findNode(root, new Position(rootPosition), position.getKey(), REUSE_DEPTH);
+        }
+
+        if (newRoot == null) {
+            newRoot = new Node(Move.NONE);
+            amountOfNodes.set(1);
+        } else {
+            amountOfNodes.set(countNodes(newRoot));
+        }
+        this.root = newRoot;
+        this.rootPosition = new Position(position);
+    }
+
+    /**
+     * Looks for the node of the position among the descendants of a node.
+     *
+     * @param node     the node.
+     * @param position the position of the node(is restored after the call).
+     * @param key      the key of the position to find.
+     * @param depth    how many plies down to look.
+     * @return the node of the position, null if it is not found.
+     */
+    private static Node findNode(Node node, Position position, long key, int depth) {
+        if (position.getKey() == key) {
+            return node;
+        }
+        final Node[] children = node.children;
+        if (depth == 0 || children == null) {
+            return null;
+        }
+
+        for (Node child : children) {
+            position.makeMove(child.move);
+            final Node found = findNode(child, position, key, depth - 1);
+            position.unmakeMove();
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Counts the nodes of a subtree.
+     *
+     * @param node the root of the subtree.
+     * @return the amount of nodes in the subtree.
+     */
+    private static long countNodes(Node node) {
+        long count = 1;
+        final Node[] children = node.children;
+        if (children != null) {
+            for (Node child : children) {
+                count += countNodes(child);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the child of the node that has been visited most often.
+     *
+     * @param node the node.
+     * @return the most visited child, null if the node has no children.
+     */
+    private static Node getMostVisitedChild(Node node) {
+        final Node[] children = node.children;
+        if (children == null) {
+            return null;
+        }
+
+        Node bestChild = null;
+        for (Node child : children) {
+            if (bestChild == null || child.visits > bestChild.visits) {
+                bestChild = child;
+            }
+        }
+
+        return bestChild;
+    }
+
+    /**
+     * Follows the most visited children from the root.
+     *
+     * @return the principal variation, starting with the best move.
+     */
+    private long[] getPrincipalVariation() {
+        final List<Long> moves = new ArrayList<>();
+        Node node = getMostVisitedChild(root);
+        while (node != null && node.visits > 0 && moves.size() < Search.MAX_DEPTH) {
+            moves.add(node.move);
+            node = getMostVisitedChild(node);
+        }
+
+        final long[] principalVariation = new long[moves.size()];
+        for (int index = 0; index < principalVariation.length; index++) {
+            principalVariation[index] = moves.get(index);
+        }
+        return principalVariation;
+    }
+
+    /**
+     * Turns the share of the points of the node into a score comparable to the one of the alpha-beta Search.
+     *
+     * @param node the node of the move.
+     * @return the score of the move for the side that makes it.
+     */
+    private static int computeScore(Node node) {
+        if (node.visits == 0) {
+            return 0;
+        }
+
+        // The inverse of the expected result 1 / (1 + 10^(-score / 400))
+        final double share = (double) node.points / (WIN_POINTS * node.visits);
+        final double clampedShare = Math.max(1e-3, Math.min(1 - 1e-3, share));
+        final double score = 400 * Math.log10(clampedShare / (1 - clampedShare));
+        return (int) Math.max(-MAX_SCORE, Math.min(MAX_SCORE, Math.round(score)));
+    }
+
+    /**
+     * Waits for the thread to finish, even if the waiting thread is interrupted meanwhile.
+     * The interruption is not lost: the interrupted status is restored afterwards.
+     *
+     * @param thread the thread to wait for.
+     */
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The node of the tree: a move and the statistics of the playouts that have started with it.
+     */
+    private static final class Node {
+
+        /**
+         * The atomic access to the visits.
+         */
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+
+        /**
+         * The atomic access to the points.
+         */
+        private static final AtomicLongFieldUpdater<Node> POINTS =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "points");
+
+        /**
+         * The move that leads to the node, Move.NONE for the root.
+         */
+        final long move;
+
+        /**
+         * The amount of the playouts through the node(including the virtual losses of the running ones).
+         */
+        volatile int visits;
+
+        /**
+         * The points of the playouts through the node for the side that has made the move.
+         */
+        volatile long points;
+
+        /**
+         * The children of the node, null if the node has not been expanded,
+         * empty if the side to move has no legal moves.
+         */
+        volatile Node[] children;
+
+        /**
+         * The constructor of the class.
+         *
+         * @param move the move that leads to the node.
+         */
+        Node(long move) {
+            this.move = move;
+        }
+    }
+
+    /**
+     * The playouts of a single thread.
+     */
+    private final class Worker implements Runnable {
+
+        /**
+         * The generator of the legal moves.
+         */
+        private final MoveGenerator moveGenerator;
+
+        /**
+         * The buffer for the legal moves.
+         */
+        private final long[] moveBuffer;
+
+        /**
+         * The nodes of the path of the current playout.
+         * <p>
+         * Access: path[ply]
+         */
+        private final Node[] path;
+
+        /**
+         * The position of the thread, at the root between the playouts.
+         */
+        private Position position;
+
+        /**
+         * The amount of playouts of the current search.
+         */
+        private long playouts;
+
+        /**
+         * The deepest node reached during the current search in plies.
+         */
+        private int maxDepth;
+
+        /**
+         * The constructor of the class.
+         */
+        Worker() {
+            this.moveGenerator = new MoveGenerator();
+            this.moveBuffer = new long[MoveGenerator.MAX_MOVES];
+            this.path = new Node[MAX_TREE_PLY + 1];
+        }
+
+        /**
+         * Prepares the worker for a search.
+         *
+         * @param rootPosition the position of the root.
+         */
+        void prepare(Position rootPosition) {
+            this.position = new Position(rootPosition);
+            this.playouts = 0;
+            this.maxDepth = 0;
+        }
+
+        /**
+         * Runs the playouts until the search is over.
+         */
+        @Override
+        public void run() {
+            final Node searchRoot = root;
+            expand(searchRoot);
+            if (searchRoot.children.length == 0) {
+                return;
+            }
+
+            while (!stopRequested && System.nanoTime() < deadlineNanos && searchRoot.visits < maxRootVisits) {
+                runPlayout(searchRoot);
+                playouts++;
+            }
+        }
+
+        /**
+         * Runs a single playout from the root and adds its result to the nodes of its path.
+         *
+         * @param searchRoot the root of the tree.
+         */
+        private void runPlayout(Node searchRoot) {
+            Node node = searchRoot;
+            path[0] = node;
+            Node.VISITS.addAndGet(node, VIRTUAL_LOSS);
+            int depth = 0;
+            while (depth < MAX_TREE_PLY) {
+                Node[] children = node.children;
+                if (children == null) {
+                    if (node.visits < EXPANSION_VISITS + VIRTUAL_LOSS || amountOfNodes.get() >= MAX_NODES) {
+                        break;
+                    }
+                    expand(node);
+                    children = node.children;
+                }
+                if (children.length == 0) {
+                    break;
+                }
+
+                node = selectChild(node, children);
+                Node.VISITS.addAndGet(node, VIRTUAL_LOSS);
+                position.makeMove(node.move);
+                path[++depth] = node;
+            }
+            maxDepth = Math.max(maxDepth, depth);
+
+            // The points of the side to move at the leaf
+            int points = (node.children != null && node.children.length == 0) ? 0 : playOut();
+
+            // Every node keeps the points of the side that has made its move
+            for (int ply = depth; ply >= 0; ply--) {
+                points = WIN_POINTS - points;
+                Node.VISITS.addAndGet(path[ply], 1 - VIRTUAL_LOSS);
+                Node.POINTS.addAndGet(path[ply], points);
+                path[ply] = null;
+                if (ply > 0) {
+                    position.unmakeMove();
+                }
+            }
+        }
+
+        /**
+         * Chooses the child with the best upper confidence bound(an unvisited child is chosen at once).
+         *
+         * @param node     the node.
+         * @param children the children of the node.
+         * @return the chosen child.
+         */
+        private Node selectChild(Node node, Node[] children) {
+            final double logVisits = Math.log(Math.max(node.visits, 1));
+            Node bestChild = children[0];
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                final int visits = child.visits;
+                if (visits == 0) {
+                    return child;
+                }
+
+                final double bound = (double) child.points / (WIN_POINTS * visits)
+                        + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (bound > bestBound) {
+                    bestBound = bound;
+                    bestChild = child;
+                }
+            }
+
+            return bestChild;
+        }
+
+        /**
+         * Creates the children of the node for the legal moves of the position(if no other thread has done it).
+         *
+         * @param node the node of the position.
+         */
+        private void expand(Node node) {
+            synchronized (node) {
+                if (node.children != null) {
+                    return;
+                }
+
+                final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moveBuffer, 0);
+                final Node[] children = new Node[amountOfMoves];
+                for (int moveIndex = 0; moveIndex < amountOfMoves; moveIndex++) {
+                    children[moveIndex] = new Node(moveBuffer[moveIndex]);
+                }
+                amountOfNodes.addAndGet(amountOfMoves);
+                node.children = children;
+            }
+        }
+
+        /**
+         * Plays random legal moves until the side to move has none or the playout is too long.
+         * The position is restored afterwards.
+         *
+         * @return the points of the side to move at the start of the playout.
+         */
+        private int playOut() {
+            final int startSide = position.getSideToMove();
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            int winner = -1;
+            int plies = 0;
+            while (true) {
+                final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moveBuffer, 0);
+                if (amountOfMoves == 0) {
+                    winner = position.getSideToMove() ^ 1;
+                    break;
+                }
+                if (plies == MAX_PLAYOUT_PLIES) {
+                    final int score = evaluator.evaluate(position);
+                    if (Math.abs(score) >= PLAYOUT_WIN_MARGIN) {
+                        winner = (score > 0) ? position.getSideToMove() : position.getSideToMove() ^ 1;
+                    }
+                    break;
+                }
+
+                position.makeMove(moveBuffer[random.nextInt(amountOfMoves)]);
+                plies++;
+            }
+
+            for (int ply = 0; ply < plies; ply++) {
+                position.unmakeMove();
+            }
+
+            if (winner < 0) {
+                return WIN_POINTS / 2;
+            }
+            return (winner == startSide) ? WIN_POINTS : 0;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package checkers.engine;
+
+/**
+ * This class describes the packed representation of a move.
+ * A move is a single long, so that moves can be stored in primitive buffers without any allocation:
+ * <p>
+ * bits 0..5 - the square the Checker moves from,
+ * bits 6..11 - the square the Checker ends its move on,
+ * bit 12 - whether the Checker becomes a queen during the move,
+ * bits 13..62 - the set of the squares of the eaten Checkers.
+ * <p>
+ * The intermediate landing squares of a capture chain are not stored,
+ * they can be restored with MoveGenerator.getCapturePath().
+ */
+public final class Move {
+
+    /**
+     * The value that does not describe any move.
+     */
+    public static final long NONE = 0L;
+
+    /**
+     * The mask of a single square index.
+     */
+    private static final int SQUARE_MASK = 0x3F;
+
+    /**
+     * The shift of the destination square.
+     */
+    private static final int TO_SHIFT = 6;
+
+    /**
+     * The bit that marks a promotion.
+     */
+    private static final long PROMOTION_BIT = 1L << 12;
+
+    /**
+     * The shift of the set of the eaten Checkers.
+     */
+    private static final int CAPTURED_SHIFT = 13;
+
+    /**
+     * This class can not be instantiated.
+     */
+    private Move() {}
+
+    /**
+     * Creates a packed move.
+     *
+     * @param from      the square the Checker moves from.
+     * @param to        the square the Checker ends its move on.
+     * @param captured  the set of the squares of the eaten Checkers.
+     * @param promotion whether the Checker becomes a queen during the move.
+     * @return the packed move.
+     */
+    public static long create(int from, int to, long captured, boolean promotion) {
+        return from | (to << TO_SHIFT) | (promotion ? PROMOTION_BIT : 0L) | (captured << CAPTURED_SHIFT);
+    }
+
+    /**
+     * Returns the square the Checker moves from.
+     *
+     * @param move the packed move.
+     * @return the square the Checker moves from.
+     */
+    public static int getFrom(long move) {
+        return (int) move & SQUARE_MASK;
+    }
+
+    /**
+     * Returns the square the Checker ends its move on.
+     *
+     * @param move the packed move.
+     * @return the square the Checker ends its move on.
+     */
+    public static int getTo(long move) {
+        return (int) (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * Returns whether the Checker becomes a queen during the move.
+     *
+     * @param move the packed move.
+     * @return whether the Checker becomes a queen.
+     */
+    public static boolean isPromotion(long move) {
+        return (move & PROMOTION_BIT) != 0;
+    }
+
+    /**
+     * Returns the set of the squares of the eaten Checkers.
+     *
+     * @param move the packed move.
+     * @return the set of the squares of the eaten Checkers.
+     */
+    public static long getCaptured(long move) {
+        return move >>> CAPTURED_SHIFT;
+    }
+
+    /**
+     * Returns whether the move eats any Checker.
+     *
+     * @param move the packed move.
+     * @return whether the move eats any Checker.
+     */
+    public static boolean isCapture(long move) {
+        return getCaptured(move) != 0;
+    }
+
+    /**
+     * Returns the amount of Checkers eaten by the move.
+     *
+     * @param move the packed move.
+     * @return the amount of eaten Checkers.
+     */
+    public static int getCapturedAmount(long move) {
+        return Long.bitCount(getCaptured(move));
+    }
+
+    /**
+     * Returns the 32-bit key of the move that is stored in the transposition table.
+     * Different legal moves of the same position have different keys in practice.
+     *
+     * @param move the packed move.
+     * @return the short key of the move.
+     */
+    public static int getShortKey(long move) {
+        return (int) (move ^ (move >>> 32));
+    }
+}
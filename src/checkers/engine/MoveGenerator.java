@@ -0,0 +1,403 @@
+package checkers.engine;
+
+/**
+ * This class generates all the legal moves of a position.
+ * The moves are written into a buffer supplied by the caller, so no objects are allocated during generation.
+ * <p>
+ * The rules are the same as on the Board:
+ * - simple Checkers move one square forward and eat in all 4 directions;
+ * - queens move along the diagonals over any amount of empty squares and eat the first Checker they meet,
+ * landing on the square right after it;
+ * - if eating is mandatory, a capture chain is always continued till the end, otherwise it may stop after any
+ * jump(every part of the chain is a move of its own); the eaten Checkers stay on the board(and can not be jumped
+ * over again) until the move is finished;
+ * - a simple Checker that reaches the last row becomes a queen at once and continues the chain as a queen;
+ * - if eating is mandatory and any Checker can eat, only the capture chains are legal.
+ * <p>
+ * A generator keeps the state of the current generation, so an instance must not be shared between threads.
+ */
+public class MoveGenerator {
+
+    /**
+     * The maximal amount of moves in a single position that a buffer must be able to hold.
+     */
+    public static final int MAX_MOVES = 512;
+
+    /**
+     * The maximal length of a capture path(the starting square plus a landing square for each eaten Checker).
+     */
+    public static final int MAX_PATH_LENGTH = 32;
+
+    /**
+     * The geometry of the board of the position being processed.
+     */
+    private BoardGeometry geometry;
+
+    /**
+     * The buffer to write the moves into.
+     */
+    private long[] buffer;
+
+    /**
+     * The index in the buffer where the moves of the current generation start.
+     */
+    private int bufferStart;
+
+    /**
+     * The index in the buffer where the next move will be written.
+     */
+    private int bufferEnd;
+
+    /**
+     * The index in the buffer where the moves of the Checker being processed start.
+     * Used to drop the duplicated capture chains.
+     */
+    private int checkerMovesStart;
+
+    /**
+     * The squares occupied by the opponent.
+     */
+    private long opponent;
+
+    /**
+     * The occupied squares(without the square of the Checker that moves).
+     */
+    private long occupied;
+
+    /**
+     * The promotion row of the side to move.
+     */
+    private long promotionMask;
+
+    /**
+     * The square from which the Checker being processed moves.
+     */
+    private int from;
+
+    /**
+     * Whether a capture chain may stop before it can't be continued(when eating is not mandatory).
+     */
+    private boolean isStopInChainAllowed;
+
+    /**
+     * The buffer for the paths that are only searched for, not returned.
+     */
+    private final int[] scratchPath = new int[MAX_PATH_LENGTH];
+
+    /**
+     * Generates all the legal moves of the position for the side to move.
+     *
+     * @param position          the position.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @param buffer            the buffer to write the moves into.
+     * @param offset            the index in the buffer where to write the first move.
+     * @return the amount of generated moves.
+     * @throws IllegalStateException if the buffer can not hold all the moves.
+     */
+    public int generateMoves(Position position, boolean isEatingMandatory, long[] buffer, int offset) {
+        prepare(position, buffer, offset);
+        isStopInChainAllowed = !isEatingMandatory;
+
+        final int side = position.sideToMove;
+        final long eaters = position.getEaters(side);
+        generateCaptures(position, eaters);
+
+        if (!isEatingMandatory || eaters == 0) {
+            generateQuietMoves(position);
+        }
+
+        return bufferEnd - bufferStart;
+    }
+
+    /**
+     * Generates only the capture chains of the position for the side to move.
+     * The chains are always complete, even if eating is not mandatory(then the moves that stop
+     * in the middle of a chain are left out).
+     *
+     * @param position the position.
+     * @param buffer   the buffer to write the moves into.
+     * @param offset   the index in the buffer where to write the first move.
+     * @return the amount of generated moves.
+     * @throws IllegalStateException if the buffer can not hold all the moves.
+     */
+    public int generateCaptures(Position position, long[] buffer, int offset) {
+        prepare(position, buffer, offset);
+        isStopInChainAllowed = false;
+        generateCaptures(position, position.getEaters(position.sideToMove));
+
+        return bufferEnd - bufferStart;
+    }
+
+    /**
+     * Restores the squares that the Checker visits during the move:
+     * the starting square, every landing square and the final square.
+     * For a move that does not eat, the path is just the starting and the final squares.
+     *
+     * @param position the position before the move.
+     * @param move     the packed move(must be legal in the position).
+     * @param path     the buffer to write the squares into(at least MAX_PATH_LENGTH long).
+     * @return the length of the path, 0 if the move is not possible in the position.
+     */
+    public int getCapturePath(Position position, long move, int[] path) {
+        path[0] = Move.getFrom(move);
+        if (!Move.isCapture(move)) {
+            path[1] = Move.getTo(move);
+            return 2;
+        }
+
+        prepare(position, null, 0);
+        from = Move.getFrom(move);
+        final boolean queen = position.isQueen(from);
+        return findPath(from, queen, 0L, Move.getCaptured(move), Move.getTo(move), path, 1);
+    }
+
+    /**
+     * Checks whether the Checker can make the next jump of the capture chain of the move, however it has got
+     * to its square: the jump must eat one of the Checkers of the move that haven't been eaten yet, and the chain
+     * must still be able to eat the rest of them and end on the final square of the move.
+     * So the Checkers of the move may be eaten in any order that the rules allow, not only in the order
+     * restored by getCapturePath().
+     *
+     * @param position   the position in the middle of the move: the Checker stands on the given square,
+     *                   the eaten Checkers are still on the board.
+     * @param move       the packed capture move(legal at the start of the move).
+     * @param square     the square where the Checker currently is.
+     * @param captured   the Checkers eaten so far.
+     * @param nextSquare the landing square of the jump, -1 if any square will do.
+     * @return whether the jump continues the move.
+     */
+    public boolean canContinueCapture(Position position, long move, int square, long captured, int nextSquare) {
+        final long target = Move.getCaptured(move);
+        if ((captured & ~target) != 0 || captured == target) {
+            return false;
+        }
+
+        prepare(position, null, 0);
+        from = square;
+        final boolean queen = position.isQueen(square);
+        final long allOccupied = occupied & ~(1L << from);
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS_AMOUNT; direction++) {
+            int victim = geometry.getNeighbour(square, direction);
+            if (queen) {
+                while (victim >= 0 && (allOccupied & (1L << victim)) == 0) {
+                    victim = geometry.getNeighbour(victim, direction);
+                }
+            }
+            if (victim < 0) {
+                continue;
+            }
+
+            final long victimBit = 1L << victim;
+            if ((target & victimBit) == 0 || (captured & victimBit) != 0) {
+                continue;
+            }
+
+            final int landing = geometry.getNeighbour(victim, direction);
+            if (landing < 0 || (allOccupied & (1L << landing)) != 0 || (nextSquare >= 0 && landing != nextSquare)) {
+                continue;
+            }
+
+            final boolean becomesQueen = !queen && (promotionMask & (1L << landing)) != 0;
+            if (findPath(landing, queen || becomesQueen, captured | victimBit, target, Move.getTo(move),
+                    scratchPath, 1) > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Initializes the state of the generator for the given position.
+     *
+     * @param position the position.
+     * @param buffer   the buffer to write the moves into.
+     * @param offset   the index in the buffer where to write the first move.
+     */
+    private void prepare(Position position, long[] buffer, int offset) {
+        final int side = position.sideToMove;
+
+        this.geometry = position.geometry;
+        this.buffer = buffer;
+        this.bufferStart = offset;
+        this.bufferEnd = offset;
+        this.opponent = position.pieces[side ^ 1];
+        this.occupied = position.getOccupied();
+        this.promotionMask = position.getPromotionMask(side);
+    }
+
+    /**
+     * Generates the capture chains of all the given Checkers.
+     *
+     * @param position the position.
+     * @param eaters   the Checkers that can eat.
+     */
+    private void generateCaptures(Position position, long eaters) {
+        final long allOccupied = occupied;
+        while (eaters != 0) {
+            from = Long.numberOfTrailingZeros(eaters);
+            eaters &= eaters - 1;
+
+            // The Checker leaves its square, so the chain can pass through it
+            occupied = allOccupied & ~(1L << from);
+            checkerMovesStart = bufferEnd;
+            generateCaptureChains(from, position.isQueen(from), 0L, false);
+        }
+        occupied = allOccupied;
+    }
+
+    /**
+     * Continues the capture chain from the given square.
+     * If the chain can not be continued(or may stop here), the move is written into the buffer.
+     *
+     * @param square    the square where the Checker currently is.
+     * @param queen     whether the Checker is currently a queen.
+     * @param captured  the Checkers eaten so far.
+     * @param promotion whether the Checker has become a queen during the chain.
+     */
+    private void generateCaptureChains(int square, boolean queen, long captured, boolean promotion) {
+        boolean continued = false;
+
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS_AMOUNT; direction++) {
+            int victim = geometry.getNeighbour(square, direction);
+            if (queen) {
+                // Fly over the empty squares
+                while (victim >= 0 && (occupied & (1L << victim)) == 0) {
+                    victim = geometry.getNeighbour(victim, direction);
+                }
+            }
+            if (victim < 0) {
+                continue;
+            }
+
+            final long victimBit = 1L << victim;
+            if ((opponent & victimBit) == 0 || (captured & victimBit) != 0) {
+                // Our own Checker or an already eaten one => can't eat
+                continue;
+            }
+
+            final int landing = geometry.getNeighbour(victim, direction);
+            if (landing < 0 || (occupied & (1L << landing)) != 0) {
+                continue;
+            }
+
+            final boolean becomesQueen = !queen && (promotionMask & (1L << landing)) != 0;
+            continued = true;
+            generateCaptureChains(landing, queen || becomesQueen, captured | victimBit, promotion || becomesQueen);
+        }
+
+        if ((!continued || isStopInChainAllowed) && captured != 0) {
+            addMove(Move.create(from, square, captured, promotion), checkerMovesStart);
+        }
+    }
+
+    /**
+     * Searches for the capture chain that eats exactly the given Checkers and ends on the given square.
+     *
+     * @param square   the square where the Checker currently is.
+     * @param queen    whether the Checker is currently a queen.
+     * @param captured the Checkers eaten so far.
+     * @param target   the Checkers that the chain must eat.
+     * @param to       the square where the chain must end.
+     * @param path     the buffer to write the squares into.
+     * @param length   the current length of the path.
+     * @return the length of the path, 0 if the chain has not been found.
+     */
+    private int findPath(int square, boolean queen, long captured, long target, int to, int[] path, int length) {
+        if (captured == target) {
+            return (square == to) ? length : 0;
+        }
+
+        final long allOccupied = occupied & ~(1L << from);
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS_AMOUNT; direction++) {
+            int victim = geometry.getNeighbour(square, direction);
+            if (queen) {
+                while (victim >= 0 && (allOccupied & (1L << victim)) == 0) {
+                    victim = geometry.getNeighbour(victim, direction);
+                }
+            }
+            if (victim < 0) {
+                continue;
+            }
+
+            final long victimBit = 1L << victim;
+            if ((target & victimBit) == 0 || (captured & victimBit) != 0) {
+                continue;
+            }
+
+            final int landing = geometry.getNeighbour(victim, direction);
+            if (landing < 0 || (allOccupied & (1L << landing)) != 0 || length >= MAX_PATH_LENGTH) {
+                continue;
+            }
+
+            path[length] = landing;
+            final boolean becomesQueen = !queen && (promotionMask & (1L << landing)) != 0;
+            final int result = findPath(landing, queen || becomesQueen, captured | victimBit, target, to, path, length + 1);
+            if (result > 0) {
+                return result;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Generates the moves(without eating) of all the Checkers of the side to move.
+     *
+     * @param position the position.
+     */
+    private void generateQuietMoves(Position position) {
+        final int side = position.sideToMove;
+        final long empty = position.getEmpty();
+        final int forward = Position.getFirstForwardDirection(side);
+
+        // Simple Checkers: a single step forward
+        final long men = position.getMen(side);
+        for (int direction = forward; direction <= forward + 1; direction++) {
+            final int back = BoardGeometry.getOppositeDirection(direction);
+            long targets = geometry.step(men, direction) & empty;
+            while (targets != 0) {
+                final int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+
+                final boolean promotion = (promotionMask & (1L << to)) != 0;
+                addMove(Move.create(geometry.getNeighbour(to, back), to, 0L, promotion), bufferEnd);
+            }
+        }
+
+        // Queens: any amount of empty squares in every direction
+        long queens = position.getQueens(side);
+        while (queens != 0) {
+            final int square = Long.numberOfTrailingZeros(queens);
+            queens &= queens - 1;
+
+            for (int direction = 0; direction < BoardGeometry.DIRECTIONS_AMOUNT; direction++) {
+                int to = geometry.getNeighbour(square, direction);
+                while (to >= 0 && (empty & (1L << to)) != 0) {
+                    addMove(Move.create(square, to, 0L, false), bufferEnd);
+                    to = geometry.getNeighbour(to, direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the move into the buffer, unless the same move is already present after the given index.
+     *
+     * @param move                the packed move.
+     * @param duplicatesFromIndex the index from which to look for the same move.
+     * @throws IllegalStateException if the buffer is full.
+     */
+    private void addMove(long move, int duplicatesFromIndex) {
+        for (int index = duplicatesFromIndex; index < bufferEnd; index++) {
+            if (buffer[index] == move) {
+                return;
+            }
+        }
+
+        if (bufferEnd - bufferStart >= MAX_MOVES || bufferEnd >= buffer.length) {
+            throw new IllegalStateException("The move buffer is full");
+        }
+        buffer[bufferEnd++] = move;
+    }
+}
@@ -0,0 +1,201 @@
+package checkers.engine;
+
+import java.util.Arrays;
+
+/**
+ * This class describes the ordering of the moves of the search: alpha-beta prunes the most when the best move
+ * is searched first.
+ * The moves are searched in the following order:
+ * the best move known from the transposition table,
+ * the eating moves(the more Checkers are eaten, the earlier),
+ * the killer moves(the quiet moves that have caused a cutoff at the same ply),
+ * the other quiet moves by the history table(how often the move has caused a cutoff anywhere in the tree).
+ * <p>
+ * A MoveOrdering must not be used by several threads at once.
+ */
+public class MoveOrdering {
+
+    /**
+     * The amount of killer moves kept for each ply.
+     */
+    public static final int KILLERS_PER_PLY = 2;
+
+    /**
+     * The score of the best move known from the transposition table.
+     */
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+
+    /**
+     * The base score of an eating move.
+     */
+    private static final int CAPTURE_SCORE = 1 << 29;
+
+    /**
+     * The score of every eaten Checker of an eating move.
+     */
+    private static final int CAPTURED_CHECKER_SCORE = 1 << 10;
+
+    /**
+     * The score of the first killer move, the next killers get less.
+     */
+    private static final int KILLER_SCORE = 1 << 28;
+
+    /**
+     * The maximal value in the history table, all the values are halved when it is reached.
+     * Keeps the history scores below the score of the killer moves.
+     */
+    private static final int MAX_HISTORY = 1 << 24;
+
+    /**
+     * The amount of squares addressed by the history table.
+     */
+    private static final int HISTORY_SQUARES = 64;
+
+    /**
+     * The killer moves of each ply.
+     * <p>
+     * Access: killerMoves[ply][index]
+     */
+    private final long[][] killerMoves;
+
+    /**
+     * The history table(the butterfly board): how useful each quiet move has been.
+     * <p>
+     * Access: history[side][from * HISTORY_SQUARES + to]
+     */
+    private final int[][] history;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param maxPly the maximal distance from the root.
+     */
+    public MoveOrdering(int maxPly) {
+        this.killerMoves = new long[maxPly + 1][KILLERS_PER_PLY];
+        this.history = new int[2][HISTORY_SQUARES * HISTORY_SQUARES];
+    }
+
+    /**
+     * Prepares for a new search: the killers are forgotten, the history is kept but becomes less important.
+     */
+    public void newSearch() {
+        for (long[] killers : killerMoves) {
+            Arrays.fill(killers, Move.NONE);
+        }
+        ageHistory();
+    }
+
+    /**
+     * Scores the moves for ordering.
+     *
+     * @param moves       the buffer of the moves.
+     * @param scores      the buffer of the scores(parallel to the buffer of the moves).
+     * @param offset      the index of the first move.
+     * @param amount      the amount of the moves.
+     * @param hashMoveKey the short key of the best move known from the transposition table, 0 if there is none.
+     * @param ply         the distance from the root.
+     * @param side        the side to move.
+     */
+    public void scoreMoves(long[] moves, int[] scores, int offset, int amount, int hashMoveKey, int ply, int side) {
+        final long[] killers = killerMoves[ply];
+        final int[] sideHistory = history[side];
+
+        for (int moveIndex = offset; moveIndex < offset + amount; moveIndex++) {
+            final long move = moves[moveIndex];
+            int score;
+            if (hashMoveKey != 0 && Move.getShortKey(move) == hashMoveKey) {
+                score = HASH_MOVE_SCORE;
+            } else if (Move.isCapture(move)) {
+                score = CAPTURE_SCORE + CAPTURED_CHECKER_SCORE * Move.getCapturedAmount(move);
+            } else {
+                score = sideHistory[getHistoryIndex(move)];
+                for (int killerIndex = 0; killerIndex < KILLERS_PER_PLY; killerIndex++) {
+                    if (killers[killerIndex] == move) {
+                        score = KILLER_SCORE - killerIndex;
+                        break;
+                    }
+                }
+            }
+            scores[moveIndex] = score;
+        }
+    }
+
+    /**
+     * Moves the best scored of the remaining moves to the given index(a step of the selection sort).
+     * Sorting lazily pays off, as most nodes are cut off after the first few moves.
+     *
+     * @param moves  the buffer of the moves.
+     * @param scores the buffer of the scores.
+     * @param index  the index to put the best move to.
+     * @param end    the index after the last move.
+     * @return the best of the remaining moves.
+     */
+    public static long pickNextMove(long[] moves, int[] scores, int index, int end) {
+        int bestIndex = index;
+        for (int moveIndex = index + 1; moveIndex < end; moveIndex++) {
+            if (scores[moveIndex] > scores[bestIndex]) {
+                bestIndex = moveIndex;
+            }
+        }
+
+        final long bestMove = moves[bestIndex];
+        if (bestIndex != index) {
+            final int bestScore = scores[bestIndex];
+            moves[bestIndex] = moves[index];
+            scores[bestIndex] = scores[index];
+            moves[index] = bestMove;
+            scores[index] = bestScore;
+        }
+
+        return bestMove;
+    }
+
+    /**
+     * Remembers the move that has caused a beta cutoff.
+     * Only quiet moves are remembered: the eating moves are searched early anyway.
+     *
+     * @param move  the move that has caused the cutoff.
+     * @param ply   the distance from the root.
+     * @param side  the side that has made the move.
+     * @param depth the remaining depth of the node.
+     */
+    public void updateOnCutoff(long move, int ply, int side, int depth) {
+        if (Move.isCapture(move)) {
+            return;
+        }
+
+        final long[] killers = killerMoves[ply];
+        if (killers[0] != move) {
+            System.arraycopy(killers, 0, killers, 1, KILLERS_PER_PLY - 1);
+            killers[0] = move;
+        }
+
+        final int[] sideHistory = history[side];
+        final int historyIndex = getHistoryIndex(move);
+        sideHistory[historyIndex] += depth * depth;
+        if (sideHistory[historyIndex] >= MAX_HISTORY) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Halves all the values of the history table.
+     */
+    private void ageHistory() {
+        for (int[] sideHistory : history) {
+            for (int index = 0; index < sideHistory.length; index++) {
+                sideHistory[index] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the move in the history table.
+     *
+     * @param move the packed move.
+     * @return the index of the move in the history table.
+     */
+    private static int getHistoryIndex(long move) {
+        return Move.getFrom(move) * HISTORY_SQUARES + Move.getTo(move);
+    }
+}
@@ -0,0 +1,193 @@
+package checkers.engine;
+
+/**
+ * This class converts moves to and from the text notation.
+ * A square is written as a column letter(starting with 'a') and a row number counted from the DOWN side
+ * (so "a1" is the bottom left corner of the board as it is displayed).
+ * A move is written as the squares it visits, separated by '-' for a simple move and by ':' for a capture chain,
+ * for example "c3-d4" or "c3:e5:c7".
+ * A position is written as the side to move('D' or 'U'), then the squares of the DOWN Checkers
+ * and the squares of the UP Checkers, a queen being marked with 'K', for example "D:c3,Ke5:b6,d8".
+ */
+public final class Notation {
+
+    /**
+     * This class can not be instantiated.
+     */
+    private Notation() {}
+
+    /**
+     * Returns the notation of the square.
+     *
+     * @param geometry the geometry of the board.
+     * @param square   the index of the square.
+     * @return the notation of the square.
+     */
+    public static String squareToString(BoardGeometry geometry, int square) {
+        final char column = (char) ('a' + geometry.getColumn(square));
+        return column + String.valueOf(geometry.boardSizeInCells - geometry.getRow(square));
+    }
+
+    /**
+     * Parses the notation of a square.
+     *
+     * @param geometry the geometry of the board.
+     * @param text     the notation of the square.
+     * @return the index of the square, -1 if the text is not a dark square of the board.
+     */
+    public static int parseSquare(BoardGeometry geometry, String text) {
+        if (text.length() < 2) {
+            return -1;
+        }
+
+        final int column = Character.toLowerCase(text.charAt(0)) - 'a';
+        final int row;
+        try {
+            row = geometry.boardSizeInCells - Integer.parseInt(text.substring(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+
+        if (!geometry.isPositionValid(column, row) || !geometry.isDarkCell(column, row)) {
+            return -1;
+        }
+
+        return geometry.getSquare(column, row);
+    }
+
+    /**
+     * Returns the notation of the move.
+     *
+     * @param position      the position before the move.
+     * @param move          the packed move.
+     * @param moveGenerator the generator used to restore the path of a capture chain.
+     * @return the notation of the move.
+     */
+    public static String toString(Position position, long move, MoveGenerator moveGenerator) {
+        final int[] path = new int[MoveGenerator.MAX_PATH_LENGTH];
+        final int pathLength = moveGenerator.getCapturePath(position, move, path);
+        final char separator = Move.isCapture(move) ? ':' : '-';
+
+        final StringBuilder builder = new StringBuilder();
+        for (int stepIndex = 0; stepIndex < pathLength; stepIndex++) {
+            if (stepIndex > 0) {
+                builder.append(separator);
+            }
+            builder.append(squareToString(position.geometry, path[stepIndex]));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Finds the legal move of the position that is written as the given text.
+     * A capture chain may be written either with all its landing squares or with just the first and the last one.
+     *
+     * @param position          the position.
+     * @param text              the notation of the move.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @param moveGenerator     the generator of the legal moves.
+     * @return the packed move, Move.NONE if there is no such legal move.
+     */
+    public static long parseMove(Position position, String text, boolean isEatingMandatory, MoveGenerator moveGenerator) {
+        final String[] parts = text.trim().split("[-:x]");
+        final int[] squares = new int[parts.length];
+        for (int partIndex = 0; partIndex < parts.length; partIndex++) {
+            squares[partIndex] = parseSquare(position.geometry, parts[partIndex]);
+            if (squares[partIndex] < 0) {
+                return Move.NONE;
+            }
+        }
+        if (squares.length < 2) {
+            return Move.NONE;
+        }
+
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        final int[] path = new int[MoveGenerator.MAX_PATH_LENGTH];
+        final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moves, 0);
+        for (int moveIndex = 0; moveIndex < amountOfMoves; moveIndex++) {
+            final long move = moves[moveIndex];
+            if (Move.getFrom(move) != squares[0] || Move.getTo(move) != squares[squares.length - 1]) {
+                continue;
+            }
+            if (squares.length == 2) {
+                return move;
+            }
+
+            // Compare the whole path
+            final int pathLength = moveGenerator.getCapturePath(position, move, path);
+            boolean samePath = pathLength == squares.length;
+            for (int stepIndex = 0; samePath && stepIndex < pathLength; stepIndex++) {
+                samePath = path[stepIndex] == squares[stepIndex];
+            }
+            if (samePath) {
+                return move;
+            }
+        }
+
+        return Move.NONE;
+    }
+
+    /**
+     * Returns the notation of the position.
+     *
+     * @param position the position.
+     * @return the notation of the position.
+     */
+    public static String positionToString(Position position) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(position.sideToMove == Position.SIDE_DOWN ? 'D' : 'U');
+        for (int side : new int[]{Position.SIDE_DOWN, Position.SIDE_UP}) {
+            builder.append(':');
+            long checkers = position.getPieces(side);
+            while (checkers != 0) {
+                final int square = Long.numberOfTrailingZeros(checkers);
+                checkers &= checkers - 1;
+
+                if (builder.charAt(builder.length() - 1) != ':') {
+                    builder.append(',');
+                }
+                if (position.isQueen(square)) {
+                    builder.append('K');
+                }
+                builder.append(squareToString(position.geometry, square));
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Parses the notation of a position.
+     *
+     * @param text             the notation of the position.
+     * @param boardSizeInCells the size of the board in cells.
+     * @return the position, null if the text is not a valid position of the board.
+     */
+    public static Position parsePosition(String text, int boardSizeInCells) {
+        final String[] parts = text.trim().split(":", -1);
+        if (parts.length != 3 || !(parts[0].equals("D") || parts[0].equals("U"))) {
+            return null;
+        }
+
+        final Position position = new Position(BoardGeometry.forSize(boardSizeInCells));
+        final int[] sides = {Position.SIDE_DOWN, Position.SIDE_UP};
+        for (int partIndex = 1; partIndex <= 2; partIndex++) {
+            if (parts[partIndex].isEmpty()) {
+                continue;
+            }
+
+            for (String token : parts[partIndex].split(",")) {
+                final boolean queen = token.startsWith("K");
+                final int square = parseSquare(position.geometry, queen ? token.substring(1) : token);
+                if (square < 0 || position.getSideAt(square) >= 0) {
+                    return null;
+                }
+                position.putChecker(square, sides[partIndex - 1], queen);
+            }
+        }
+        position.setSideToMove(parts[0].equals("D") ? Position.SIDE_DOWN : Position.SIDE_UP);
+
+        return position;
+    }
+}
@@ -0,0 +1,261 @@
+package checkers.engine;
+
+import checkers.tablebase.TablebaseProber;
+
+import java.util.function.Consumer;
+
+/**
+ * This class describes the multi-threaded search(Lazy SMP).
+ * All the threads search the same root independently and share one transposition table:
+ * the helper threads do not communicate with the main thread in any other way, but the entries they leave
+ * in the table make the search of the main thread cheaper.
+ * The helpers start at different depths and order the root moves differently, so they don't all repeat the same work.
+ * <p>
+ * The result is always the one of the main thread, the helpers only contribute their nodes.
+ * A ParallelSearch must not be used by several threads at once.
+ */
+public class ParallelSearch {
+
+    /**
+     * The searches of every thread, the first one belongs to the main thread.
+     */
+    private final Search[] searches;
+
+    /**
+     * The results of the helper threads of the current search.
+     */
+    private final SearchResult[] helperResults;
+
+    /**
+     * The transposition table shared by all the threads.
+     */
+    private final TranspositionTable transpositionTable;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param isEatingMandatory     whether eating is mandatory.
+     * @param amountOfThreads       the amount of searching threads(including the calling one).
+     * @param tableSizeInMegabytes  the size of the shared transposition table in megabytes.
+     */
+    public ParallelSearch(boolean isEatingMandatory, int amountOfThreads, int tableSizeInMegabytes) {
+        if (amountOfThreads < 1) {
+            throw new IllegalArgumentException("Amount of threads must be positive: " + amountOfThreads);
+        }
+
+        this.transpositionTable = new TranspositionTable(tableSizeInMegabytes);
+        this.searches = new Search[amountOfThreads];
+        for (int threadIndex = 0; threadIndex < amountOfThreads; threadIndex++) {
+            searches[threadIndex] = new Search(isEatingMandatory, transpositionTable);
+            searches[threadIndex].setHelperIndex(threadIndex);
+        }
+        this.helperResults = new SearchResult[amountOfThreads];
+    }
+
+    /**
+     * Searches for the best move of the position with all the threads.
+     * The main search runs on the calling thread, the helpers are stopped as soon as it is finished.
+     * The helper threads live only during the call, so an abandoned ParallelSearch does not keep any thread.
+     *
+     * @param position        the position to search(is restored after the call).
+     * @param timeLimitMillis the time limit of the search in milliseconds.
+     * @param maxDepth        the maximal depth of the search.
+     * @return the result of the main thread with the nodes and the cutoffs of all the threads.
+     */
+    public SearchResult search(Position position, long timeLimitMillis, int maxDepth) {
+        clearStopRequest();
+        return searchUnlessStopped(position, timeLimitMillis, maxDepth);
+    }
+
+    /**
+     * Searches for the best move of the position with all the threads for the time allotted by the time manager.
+     * Only the main thread consults the time manager, the helpers are stopped when it is finished.
+     *
+     * @param position    the position to search(is restored after the call).
+     * @param timeManager the time manager whose turn has been started.
+     * @param maxDepth    the maximal depth of the search.
+     * @return the result of the main thread with the nodes and the cutoffs of all the threads.
+     */
+    public SearchResult search(Position position, TimeManager timeManager, int maxDepth) {
+        clearStopRequest();
+        return searchUnlessStopped(position, timeManager, maxDepth);
+    }
+
+    /**
+     * Searches like search() with the time manager, but without clearing the stop request first
+     * (see searchUnlessStopped()).
+     *
+     * @param position    the position to search(is restored after the call).
+     * @param timeManager the time manager whose turn has been started.
+     * @param maxDepth    the maximal depth of the search.
+     * @return the result of the main thread with the nodes and the cutoffs of all the threads.
+     */
+    public SearchResult searchUnlessStopped(Position position, TimeManager timeManager, int maxDepth) {
+        searches[0].setTimeManager(timeManager);
+        try {
+            return searchUnlessStopped(position,
+                    timeManager.getHardLimitMillis() - timeManager.getElapsedMillis(), maxDepth);
+        } finally {
+            searches[0].setTimeManager(null);
+        }
+    }
+
+    /**
+     * Clears the stop request of all the threads.
+     * Together with searchUnlessStopped() lets the search be stopped by another thread even before it has started.
+     */
+    public void clearStopRequest() {
+        for (Search search : searches) {
+            search.clearStopRequest();
+        }
+    }
+
+    /**
+     * Searches like search(), but without clearing the stop request first:
+     * if stop() has been called since the last clearStopRequest(), the search returns at once
+     * (with the first legal move and no completed iteration).
+     *
+     * @param position        the position to search(is restored after the call).
+     * @param timeLimitMillis the time limit of the search in milliseconds.
+     * @param maxDepth        the maximal depth of the search.
+     * @return the result of the main thread with the nodes and the cutoffs of all the threads.
+     */
+    public SearchResult searchUnlessStopped(Position position, long timeLimitMillis, int maxDepth) {
+        final Thread[] helpers = new Thread[searches.length];
+        for (int threadIndex = 1; threadIndex < searches.length; threadIndex++) {
+            final int helperIndex = threadIndex;
+            final Position helperPosition = new Position(position);
+            helperResults[helperIndex] = null;
+            searches[helperIndex].clearNodes();
+            helpers[helperIndex] = new Thread(() -> helperResults[helperIndex] =
+                    searches[helperIndex].runSearch(helperPosition, timeLimitMillis, maxDepth),
+                    "Search helper " + helperIndex);
+            helpers[helperIndex].setDaemon(true);
+            helpers[helperIndex].start();
+        }
+
+        final SearchResult mainResult = searches[0].runSearch(position, timeLimitMillis, maxDepth);
+
+        long nodes = mainResult.nodes;
+        long betaCutoffs = mainResult.betaCutoffs;
+        long firstMoveBetaCutoffs = mainResult.firstMoveBetaCutoffs;
+        for (int threadIndex = 1; threadIndex < searches.length; threadIndex++) {
+            searches[threadIndex].stop();
+        }
+        for (int threadIndex = 1; threadIndex < searches.length; threadIndex++) {
+            joinUninterruptibly(helpers[threadIndex]);
+            if (helperResults[threadIndex] != null) {
+                nodes += helperResults[threadIndex].nodes;
+                betaCutoffs += helperResults[threadIndex].betaCutoffs;
+                firstMoveBetaCutoffs += helperResults[threadIndex].firstMoveBetaCutoffs;
+            }
+        }
+
+        return new SearchResult(mainResult.bestMove, mainResult.score, mainResult.depth, nodes,
+                mainResult.timeMillis, mainResult.principalVariation, betaCutoffs, firstMoveBetaCutoffs);
+    }
+
+    /**
+     * Sets the lookup of the endgame tables of all the threads.
+     *
+     * @param tablebaseProber the lookup of the endgame tables, null to search every position.
+     */
+    public void setTablebaseProber(TablebaseProber tablebaseProber) {
+        for (Search search : searches) {
+            search.setTablebaseProber(tablebaseProber);
+        }
+    }
+
+    /**
+     * Sets the static evaluation of the positions of all the threads.
+     *
+     * @param evaluator the evaluator.
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        for (Search search : searches) {
+            search.setEvaluator(evaluator);
+        }
+    }
+
+    /**
+     * Sets the amount of nodes after which the next searches stop.
+     * Only the nodes of the main thread are counted, the helpers are stopped with it.
+     *
+     * @param maxNodes the maximal amount of nodes of the main thread, Long.MAX_VALUE for no limit.
+     */
+    public void setNodeLimit(long maxNodes) {
+        searches[0].setNodeLimit(maxNodes);
+    }
+
+    /**
+     * Sets the listener that is given the result of every completed iteration of the main thread.
+     * The nodes of the result include the nodes searched by the helpers so far.
+     * It is called on the thread that runs the search.
+     *
+     * @param iterationListener the listener, null for none.
+     */
+    public void setIterationListener(Consumer<SearchResult> iterationListener) {
+        if (iterationListener == null) {
+            searches[0].setIterationListener(null);
+            return;
+        }
+
+        searches[0].setIterationListener(result -> {
+            long nodes = result.nodes;
+            for (int threadIndex = 1; threadIndex < searches.length; threadIndex++) {
+                nodes += searches[threadIndex].getNodes();
+            }
+            iterationListener.accept(new SearchResult(result.bestMove, result.score, result.depth, nodes,
+                    result.timeMillis, result.principalVariation, result.betaCutoffs, result.firstMoveBetaCutoffs));
+        });
+    }
+
+    /**
+     * Asks all the threads of the running search to stop as soon as possible.
+     * Can be called from any thread.
+     */
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Returns the amount of searching threads.
+     *
+     * @return the amount of searching threads(including the calling one).
+     */
+    public int getAmountOfThreads() {
+        return searches.length;
+    }
+
+    /**
+     * Returns the transposition table shared by all the threads.
+     *
+     * @return the shared transposition table.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * Waits for the thread to finish, even if the waiting thread is interrupted meanwhile.
+     * The interruption is not lost: the interrupted status is restored afterwards.
+     *
+     * @param thread the thread to wait for.
+     */
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
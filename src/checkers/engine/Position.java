@@ -0,0 +1,771 @@
+package checkers.engine;
+
+import checkers.players.PlayerSide;
+
+/**
+ * This class describes a position on the board in the packed(bitboard) form.
+ * Each side has a single long with a bit set for every square occupied by its Checkers,
+ * and one more long marks the squares occupied by queens(of both sides).
+ * The squares are numbered as described in BoardGeometry.
+ * <p>
+ * All the rules queries are performed with mask operations, without walking the cells.
+ */
+public class Position {
+
+    /**
+     * The index of the UP side.
+     */
+    public static final int SIDE_UP = 0;
+
+    /**
+     * The index of the DOWN side.
+     */
+    public static final int SIDE_DOWN = 1;
+
+    /**
+     * The code for an empty cell in the board representation.
+     */
+    public static final int NO_CHECKER_CODE = 0;
+
+    /**
+     * The codes of the Checkers of each side in the board representation.
+     * A queen has the same code multiplied by -1.
+     * <p>
+     * Access: CHECKER_CODES[side]
+     */
+    private static final int[] CHECKER_CODES = {1, 2};
+
+    /**
+     * The maximal amount of moves that can be made(and not yet unmade) on a position.
+     */
+    public static final int MAX_PLY = 1024;
+
+    /**
+     * The geometry of the board.
+     */
+    protected final BoardGeometry geometry;
+
+    /**
+     * The squares occupied by the Checkers of each side.
+     * <p>
+     * Access: pieces[side]
+     */
+    protected final long[] pieces;
+
+    /**
+     * The squares occupied by queens(of both sides).
+     */
+    protected long queens;
+
+    /**
+     * The side whose turn it is now.
+     */
+    protected int sideToMove;
+
+    /**
+     * The Zobrist hash of the position, updated on every change.
+     */
+    protected long key;
+
+    /**
+     * The weights whose piece-square tables are kept up to date, null if the position is not evaluated.
+     */
+    protected EvaluationWeights evaluationWeights;
+
+    /**
+     * The sums of the piece-square values of the Checkers of each side, updated on every change
+     * while the evaluation weights are set.
+     * <p>
+     * Access: pieceSquareScores[side]
+     */
+    protected final int[] pieceSquareScores;
+
+    /**
+     * The stack of the made moves.
+     */
+    private final long[] undoMoves;
+
+    /**
+     * The stack of the queens eaten by the made moves.
+     */
+    private final long[] undoCapturedQueens;
+
+    /**
+     * The stack of the sides that made the moves.
+     */
+    private final int[] undoSidesToMove;
+
+    /**
+     * The stack of the hashes before the made moves.
+     */
+    private final long[] undoKeys;
+
+    /**
+     * The amount of the made moves(the top of the undo stack).
+     */
+    private int ply;
+
+    /**
+     * The first constructor of the class.
+     * Creates an empty position with the DOWN side to move.
+     *
+     * @param geometry the geometry of the board.
+     */
+    public Position(BoardGeometry geometry) {
+        this.geometry = geometry;
+        this.pieces = new long[2];
+        this.queens = 0L;
+        this.sideToMove = SIDE_DOWN;
+        this.key = Zobrist.getSideToMoveKey(SIDE_DOWN);
+        this.evaluationWeights = null;
+        this.pieceSquareScores = new int[2];
+
+        this.undoMoves = new long[MAX_PLY];
+        this.undoCapturedQueens = new long[MAX_PLY];
+        this.undoSidesToMove = new int[MAX_PLY];
+        this.undoKeys = new long[MAX_PLY];
+        this.ply = 0;
+    }
+
+    /**
+     * The second constructor of the class.
+     * Creates a copy of the given position.
+     * The made moves are not copied, so the copy can not unmake them.
+     *
+     * @param position the position to copy.
+     */
+    public Position(Position position) {
+        this(position.geometry);
+        this.pieces[SIDE_UP] = position.pieces[SIDE_UP];
+        this.pieces[SIDE_DOWN] = position.pieces[SIDE_DOWN];
+        this.queens = position.queens;
+        this.sideToMove = position.sideToMove;
+        this.key = position.key;
+        this.evaluationWeights = position.evaluationWeights;
+        this.pieceSquareScores[SIDE_UP] = position.pieceSquareScores[SIDE_UP];
+        this.pieceSquareScores[SIDE_DOWN] = position.pieceSquareScores[SIDE_DOWN];
+    }
+
+    /**
+     * Creates the position with the default layout on the board of the given size.
+     * The DOWN side moves first.
+     *
+     * @param boardSizeInCells the size of the board in cells.
+     * @return the initial position.
+     */
+    public static Position createInitial(int boardSizeInCells) {
+        final BoardGeometry geometry = BoardGeometry.forSize(boardSizeInCells);
+        final Position position = new Position(geometry);
+
+        final int rowsOfCellsPerPlayer = boardSizeInCells / 2 - 1;
+        final long rowsMask = (1L << (rowsOfCellsPerPlayer * geometry.squaresPerRow)) - 1;
+        position.pieces[SIDE_UP] = rowsMask;
+        position.pieces[SIDE_DOWN] = rowsMask << (geometry.squaresAmount - rowsOfCellsPerPlayer * geometry.squaresPerRow);
+        position.key = Zobrist.computeKey(position);
+
+        return position;
+    }
+
+    /**
+     * Creates the position from the given board representation.
+     * 0 == no Checker.
+     * 1 == PLAYER_UP Checker
+     * -1 == PLAYER_UP Checker queen
+     * 2 == PLAYER_DOWN Checker
+     * -2 == PLAYER_DOWN Checker queen
+     * <p>
+     * Access: array[column][row]
+     *
+     * @param boardSizeInCells the size of the board in cells.
+     * @param array            the representation of the board.
+     * @param sideToMove       the side whose turn it is.
+     * @return the position.
+     */
+    public static Position createFromArray(int boardSizeInCells, int[][] array, int sideToMove) {
+        final Position position = new Position(BoardGeometry.forSize(boardSizeInCells));
+        position.setFromArray(array);
+        position.setSideToMove(sideToMove);
+
+        return position;
+    }
+
+    /**
+     * Replaces the contents of this position with the given board representation.
+     * Cells that are not dark are ignored.
+     *
+     * @param array the representation of the board.
+     */
+    protected void setFromArray(int[][] array) {
+        pieces[SIDE_UP] = 0L;
+        pieces[SIDE_DOWN] = 0L;
+        queens = 0L;
+        key = Zobrist.getSideToMoveKey(sideToMove);
+        pieceSquareScores[SIDE_UP] = 0;
+        pieceSquareScores[SIDE_DOWN] = 0;
+
+        for (int column = 0; column < geometry.boardSizeInCells; column++) {
+            for (int row = 0; row < geometry.boardSizeInCells; row++) {
+                final int code = array[column][row];
+                if (code == NO_CHECKER_CODE || !geometry.isDarkCell(column, row)) {
+                    continue;
+                }
+
+                final int side = (Math.abs(code) == CHECKER_CODES[SIDE_UP]) ? SIDE_UP : SIDE_DOWN;
+                putChecker(geometry.getSquare(column, row), side, code < 0);
+            }
+        }
+    }
+
+    /**
+     * Replaces the contents of this position with the given sets of squares.
+     * The made moves are forgotten, as they can't be unmade anymore.
+     *
+     * @param upPieces   the squares occupied by the UP side.
+     * @param downPieces the squares occupied by the DOWN side.
+     * @param queens     the squares occupied by queens(of both sides).
+     * @param sideToMove the side whose turn it is.
+     */
+    public void setPieces(long upPieces, long downPieces, long queens, int sideToMove) {
+        this.pieces[SIDE_UP] = upPieces;
+        this.pieces[SIDE_DOWN] = downPieces;
+        this.queens = queens;
+        this.sideToMove = sideToMove;
+        this.key = Zobrist.computeKey(this);
+        this.ply = 0;
+        computePieceSquareScores();
+    }
+
+    /**
+     * Returns the representation of the position as an array.
+     * The codes are the same as in createFromArray().
+     *
+     * @return the representation of the position as an array.
+     */
+    public int[][] toArray() {
+        final int[][] array = new int[geometry.boardSizeInCells][geometry.boardSizeInCells];
+        for (int side = SIDE_UP; side <= SIDE_DOWN; side++) {
+            long checkers = pieces[side];
+            while (checkers != 0) {
+                final int square = Long.numberOfTrailingZeros(checkers);
+                checkers &= checkers - 1;
+
+                final int code = CHECKER_CODES[side];
+                array[geometry.getColumn(square)][geometry.getRow(square)] = isQueen(square) ? -code : code;
+            }
+        }
+
+        return array;
+    }
+
+    /**
+     * Translates the PlayerSide into the side index of the engine.
+     *
+     * @param playerSide the PlayerSide.
+     * @return the side index.
+     */
+    public static int getSide(PlayerSide playerSide) {
+        return (playerSide == PlayerSide.PLAYER_UP) ? SIDE_UP : SIDE_DOWN;
+    }
+
+    /**
+     * Translates the side index of the engine into the PlayerSide.
+     *
+     * @param side the side index.
+     * @return the PlayerSide.
+     */
+    public static PlayerSide getPlayerSide(int side) {
+        return (side == SIDE_UP) ? PlayerSide.PLAYER_UP : PlayerSide.PLAYER_DOWN;
+    }
+
+    /**
+     * Returns the code of the Checkers of the given side in the board representation.
+     *
+     * @param side the side index.
+     * @return the code of the Checkers of the side.
+     */
+    public static int getCheckerCode(int side) {
+        return CHECKER_CODES[side];
+    }
+
+    /**
+     * Returns the geometry of the board.
+     *
+     * @return the geometry of the board.
+     */
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Returns the side whose turn it is now.
+     *
+     * @return the side whose turn it is now.
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Sets the side whose turn it is now.
+     *
+     * @param sideToMove the side index.
+     */
+    public void setSideToMove(int sideToMove) {
+        key ^= Zobrist.getSideToMoveKey(this.sideToMove) ^ Zobrist.getSideToMoveKey(sideToMove);
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * Returns the Zobrist hash of the position.
+     *
+     * @return the hash of the position.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the weights whose piece-square tables are kept up to date.
+     *
+     * @return the evaluation weights, null if the position is not evaluated.
+     */
+    public EvaluationWeights getEvaluationWeights() {
+        return evaluationWeights;
+    }
+
+    /**
+     * Sets the weights whose piece-square tables are kept up to date from now on
+     * and sums the tables for the current Checkers.
+     *
+     * @param evaluationWeights the evaluation weights(of this board size), null to stop keeping the sums.
+     */
+    public void setEvaluationWeights(EvaluationWeights evaluationWeights) {
+        if (evaluationWeights != null && evaluationWeights.geometry != geometry) {
+            throw new IllegalArgumentException("The weights are made for another board size");
+        }
+
+        this.evaluationWeights = evaluationWeights;
+        computePieceSquareScores();
+    }
+
+    /**
+     * Returns the sum of the piece-square values of the Checkers of the given side.
+     * Is only valid while the evaluation weights are set.
+     *
+     * @param side the side index.
+     * @return the sum of the piece-square values of the side.
+     */
+    public int getPieceSquareScore(int side) {
+        return pieceSquareScores[side];
+    }
+
+    /**
+     * Sums the piece-square values of all the Checkers from scratch.
+     */
+    private void computePieceSquareScores() {
+        for (int side = SIDE_UP; side <= SIDE_DOWN; side++) {
+            pieceSquareScores[side] = (evaluationWeights == null)
+                    ? 0
+                    : evaluationWeights.computePieceSquareScore(this, side);
+        }
+    }
+
+    /**
+     * Returns the squares occupied by the Checkers of the given side.
+     *
+     * @param side the side index.
+     * @return the squares occupied by the side.
+     */
+    public long getPieces(int side) {
+        return pieces[side];
+    }
+
+    /**
+     * Returns the squares occupied by the simple(not queen) Checkers of the given side.
+     *
+     * @param side the side index.
+     * @return the squares occupied by the simple Checkers of the side.
+     */
+    public long getMen(int side) {
+        return pieces[side] & ~queens;
+    }
+
+    /**
+     * Returns the squares occupied by the queens of the given side.
+     *
+     * @param side the side index.
+     * @return the squares occupied by the queens of the side.
+     */
+    public long getQueens(int side) {
+        return pieces[side] & queens;
+    }
+
+    /**
+     * Returns the squares occupied by any Checker.
+     *
+     * @return the occupied squares.
+     */
+    public long getOccupied() {
+        return pieces[SIDE_UP] | pieces[SIDE_DOWN];
+    }
+
+    /**
+     * Returns the empty squares.
+     *
+     * @return the empty squares.
+     */
+    public long getEmpty() {
+        return ~getOccupied() & geometry.allSquaresMask;
+    }
+
+    /**
+     * Returns whether there is a queen at the given square.
+     *
+     * @param square the index of the square.
+     * @return whether there is a queen at the square.
+     */
+    public boolean isQueen(int square) {
+        return (queens & (1L << square)) != 0;
+    }
+
+    /**
+     * Returns the side of the Checker at the given square.
+     *
+     * @param square the index of the square.
+     * @return the side index, -1 if the square is empty.
+     */
+    public int getSideAt(int square) {
+        final long bit = 1L << square;
+        if ((pieces[SIDE_UP] & bit) != 0) {
+            return SIDE_UP;
+        }
+        if ((pieces[SIDE_DOWN] & bit) != 0) {
+            return SIDE_DOWN;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the directions in which the simple Checkers of the given side move forward.
+     *
+     * @param side the side index.
+     * @return the first of two forward directions, the second one is (result + 1).
+     */
+    public static int getFirstForwardDirection(int side) {
+        // UP moves towards higher rows(directions 2 and 3), DOWN towards lower rows(directions 0 and 1)
+        return (side == SIDE_UP) ? 2 : 0;
+    }
+
+    /**
+     * Returns the row on which the simple Checkers of the given side become queens.
+     *
+     * @param side the side index.
+     * @return the mask of the promotion row.
+     */
+    public long getPromotionMask(int side) {
+        return (side == SIDE_UP) ? geometry.lastRowMask : geometry.firstRowMask;
+    }
+
+    /**
+     * Calculates the amount of Checkers of the given side.
+     *
+     * @param side the side index.
+     * @return the amount of Checkers of the side.
+     */
+    public int getAmountOfCheckers(int side) {
+        return Long.bitCount(pieces[side]);
+    }
+
+    /**
+     * Returns the Checkers of the given side that can move(not eat).
+     *
+     * @param side the side index.
+     * @return the squares of the Checkers that can move.
+     */
+    public long getMovers(int side) {
+        final long empty = getEmpty();
+        final long men = getMen(side);
+        final long sideQueens = getQueens(side);
+        final int forward = getFirstForwardDirection(side);
+
+        long movers = 0L;
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS_AMOUNT; direction++) {
+            final boolean isForward = direction == forward || direction == forward + 1;
+            final long checkers = isForward ? (men | sideQueens) : sideQueens;
+            final long targets = geometry.step(checkers, direction) & empty;
+            movers |= geometry.step(targets, BoardGeometry.getOppositeDirection(direction));
+        }
+
+        return movers;
+    }
+
+    /**
+     * Returns the Checkers of the given side that can eat.
+     * Simple Checkers eat in all 4 directions, queens also fly over any amount of empty squares before the victim.
+     *
+     * @param side the side index.
+     * @return the squares of the Checkers that can eat.
+     */
+    public long getEaters(int side) {
+        final long empty = getEmpty();
+        final long opponent = pieces[side ^ 1];
+
+        long eaters = 0L;
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS_AMOUNT; direction++) {
+            final int back = BoardGeometry.getOppositeDirection(direction);
+
+            // Simple Checkers: victim right next to us and an empty square after it
+            final long victims = geometry.step(getMen(side), direction) & opponent;
+            final long landings = geometry.step(victims, direction) & empty;
+            eaters |= geometry.step(geometry.step(landings, back), back);
+
+            // Queens: slide over the empty squares, remembering the distance
+            long rays = geometry.step(getQueens(side), direction);
+            int distance = 1;
+            while (rays != 0) {
+                final long queenLandings = geometry.step(rays & opponent, direction) & empty;
+                long origins = queenLandings;
+                for (int stepIndex = 0; stepIndex <= distance; stepIndex++) {
+                    origins = geometry.step(origins, back);
+                }
+                eaters |= origins;
+
+                rays = geometry.step(rays & empty, direction);
+                distance++;
+            }
+        }
+
+        return eaters & pieces[side];
+    }
+
+    /**
+     * Returns whether the given side can eat any Checker now.
+     *
+     * @param side the side index.
+     * @return whether the side can eat.
+     */
+    public boolean canPlayerEat(int side) {
+        return getEaters(side) != 0;
+    }
+
+    /**
+     * Returns whether the given side can make any move(eating or just moving) now.
+     *
+     * @param side the side index.
+     * @return whether the side can make any move.
+     */
+    public boolean canPlayerMakeAnyMove(int side) {
+        return getMovers(side) != 0 || getEaters(side) != 0;
+    }
+
+    /**
+     * Puts a Checker onto the given(empty) square.
+     *
+     * @param square the index of the square.
+     * @param side   the side of the Checker.
+     * @param queen  whether the Checker is a queen.
+     */
+    public void putChecker(int square, int side, boolean queen) {
+        final long bit = 1L << square;
+        pieces[side] |= bit;
+        if (queen) {
+            queens |= bit;
+        }
+        key ^= Zobrist.getCheckerKey(side, queen, square);
+        if (evaluationWeights != null) {
+            pieceSquareScores[side] += evaluationWeights.getPieceSquareValue(side, queen, square);
+        }
+    }
+
+    /**
+     * Removes the Checker(if any) from the given square.
+     *
+     * @param square the index of the square.
+     */
+    public void removeChecker(int square) {
+        final int side = getSideAt(square);
+        if (side < 0) {
+            return;
+        }
+        key ^= Zobrist.getCheckerKey(side, isQueen(square), square);
+        if (evaluationWeights != null) {
+            pieceSquareScores[side] -= evaluationWeights.getPieceSquareValue(side, isQueen(square), square);
+        }
+
+        final long mask = ~(1L << square);
+        pieces[SIDE_UP] &= mask;
+        pieces[SIDE_DOWN] &= mask;
+        queens &= mask;
+    }
+
+    /**
+     * Moves the Checker from one square to another(empty) square.
+     *
+     * @param from the square of the Checker.
+     * @param to   the square to move the Checker into.
+     */
+    public void moveChecker(int from, int to) {
+        final int side = getSideAt(from);
+        if (side < 0) {
+            return;
+        }
+
+        final boolean queen = isQueen(from);
+        removeChecker(from);
+        putChecker(to, side, queen);
+    }
+
+    /**
+     * Makes the Checker at the given square a queen.
+     *
+     * @param square the index of the square.
+     */
+    public void makeQueen(int square) {
+        final int side = getSideAt(square);
+        if (side >= 0 && !isQueen(square)) {
+            queens |= 1L << square;
+            key ^= Zobrist.getCheckerKey(side, false, square) ^ Zobrist.getCheckerKey(side, true, square);
+            if (evaluationWeights != null) {
+                pieceSquareScores[side] += evaluationWeights.getPieceSquareValue(side, true, square)
+                        - evaluationWeights.getPieceSquareValue(side, false, square);
+            }
+        }
+    }
+
+    /**
+     * Makes the move in place and passes the turn to the opponent.
+     * The move is pushed onto the undo stack, so that it can be taken back with unmakeMove().
+     * Expects the move to be legal(does not check it).
+     *
+     * @param move the packed move.
+     * @throws IllegalStateException if MAX_PLY moves have already been made and not unmade.
+     */
+    public void makeMove(long move) {
+        if (ply >= MAX_PLY) {
+            throw new IllegalStateException("The undo stack is full: " + MAX_PLY + " moves have not been unmade");
+        }
+
+        final int side = sideToMove;
+        final long fromBit = 1L << Move.getFrom(move);
+        final long toBit = 1L << Move.getTo(move);
+        final long captured = Move.getCaptured(move);
+        final boolean wasQueen = (queens & fromBit) != 0;
+        final boolean isQueen = wasQueen || Move.isPromotion(move);
+
+        undoKeys[ply] = key;
+        undoMoves[ply] = move;
+        undoCapturedQueens[ply] = queens & captured;
+        undoSidesToMove[ply] = side;
+        ply++;
+
+        // The chain may end on the square where it started, so don't use XOR here
+        pieces[side] = (pieces[side] & ~fromBit) | toBit;
+        if (isQueen) {
+            queens = (queens & ~fromBit) | toBit;
+        }
+        key ^= Zobrist.getCheckerKey(side, wasQueen, Move.getFrom(move))
+                ^ Zobrist.getCheckerKey(side, isQueen, Move.getTo(move));
+        if (evaluationWeights != null) {
+            pieceSquareScores[side] += evaluationWeights.getPieceSquareValue(side, isQueen, Move.getTo(move))
+                    - evaluationWeights.getPieceSquareValue(side, wasQueen, Move.getFrom(move));
+        }
+
+        long eaten = captured;
+        while (eaten != 0) {
+            final int square = Long.numberOfTrailingZeros(eaten);
+            eaten &= eaten - 1;
+
+            final boolean isEatenQueen = (queens & (1L << square)) != 0;
+            key ^= Zobrist.getCheckerKey(side ^ 1, isEatenQueen, square);
+            if (evaluationWeights != null) {
+                pieceSquareScores[side ^ 1] -= evaluationWeights.getPieceSquareValue(side ^ 1, isEatenQueen, square);
+            }
+        }
+        pieces[side ^ 1] &= ~captured;
+        queens &= ~captured;
+
+        sideToMove = side ^ 1;
+        key ^= Zobrist.SIDE_UP_TO_MOVE_KEY;
+    }
+
+    /**
+     * Takes back the last made move.
+     */
+    public void unmakeMove() {
+        ply--;
+        final long move = undoMoves[ply];
+        final int side = undoSidesToMove[ply];
+        final long fromBit = 1L << Move.getFrom(move);
+        final long toBit = 1L << Move.getTo(move);
+        final long captured = Move.getCaptured(move);
+
+        if (evaluationWeights != null) {
+            // The Checker is a queen after the move if it was one before it or has just been promoted
+            final boolean isQueen = (queens & toBit) != 0;
+            final boolean wasQueen = isQueen && !Move.isPromotion(move);
+            pieceSquareScores[side] += evaluationWeights.getPieceSquareValue(side, wasQueen, Move.getFrom(move))
+                    - evaluationWeights.getPieceSquareValue(side, isQueen, Move.getTo(move));
+
+            long eaten = captured;
+            while (eaten != 0) {
+                final int square = Long.numberOfTrailingZeros(eaten);
+                eaten &= eaten - 1;
+
+                final boolean isEatenQueen = (undoCapturedQueens[ply] & (1L << square)) != 0;
+                pieceSquareScores[side ^ 1] += evaluationWeights.getPieceSquareValue(side ^ 1, isEatenQueen, square);
+            }
+        }
+
+        if (Move.isPromotion(move)) {
+            queens &= ~toBit;
+        } else if ((queens & toBit) != 0) {
+            queens = (queens & ~toBit) | fromBit;
+        }
+        pieces[side] = (pieces[side] & ~toBit) | fromBit;
+
+        pieces[side ^ 1] |= captured;
+        queens |= undoCapturedQueens[ply];
+
+        sideToMove = side;
+        key = undoKeys[ply];
+    }
+
+    /**
+     * Checks whether the position has already occurred among the made moves(with the same side to move).
+     * The search stops at the first capture, as no position before it can occur again.
+     *
+     * @return whether the position is a repetition.
+     */
+    public boolean isRepetition() {
+        for (int index = ply - 1; index >= 0; index--) {
+            if (Move.isCapture(undoMoves[index])) {
+                break;
+            }
+            if (((ply - index) & 1) == 0 && undoKeys[index] == key) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the amount of the made moves that can be taken back.
+     *
+     * @return the amount of the made moves.
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Returns the move made the given amount of moves ago.
+     *
+     * @param movesAgo 1 for the last made move, 2 for the one before it and so on.
+     * @return the packed move, Move.NONE if there is no such move.
+     */
+    public long getMadeMove(int movesAgo) {
+        return (movesAgo <= ply) ? undoMoves[ply - movesAgo] : Move.NONE;
+    }
+}
@@ -0,0 +1,95 @@
+package checkers.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * This class describes a position read from a saved game file(as written by the SaveGame button):
+ * board size in cells, whether eating is mandatory("yes"/"no"), PlayerUp type, PlayerDown type,
+ * whose turn it is("down"/"up") and then one line of codes for each column of the board.
+ */
+public class SavedPosition {
+
+    /**
+     * The size of the board in cells.
+     */
+    public final int boardSizeInCells;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    public final boolean isEatingMandatory;
+
+    /**
+     * The side whose turn it is.
+     */
+    public final int sideToMove;
+
+    /**
+     * The representation of the board.
+     * <p>
+     * Access: boardRepresentation[column][row]
+     */
+    public final int[][] boardRepresentation;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param boardSizeInCells    the size of the board in cells.
+     * @param isEatingMandatory   whether eating is mandatory.
+     * @param sideToMove          the side whose turn it is.
+     * @param boardRepresentation the representation of the board.
+     */
+    public SavedPosition(int boardSizeInCells, boolean isEatingMandatory, int sideToMove, int[][] boardRepresentation) {
+        this.boardSizeInCells = boardSizeInCells;
+        this.isEatingMandatory = isEatingMandatory;
+        this.sideToMove = sideToMove;
+        this.boardRepresentation = boardRepresentation;
+    }
+
+    /**
+     * Reads a saved position.
+     *
+     * @param in the reader of the saved game file.
+     * @return the saved position.
+     * @throws IOException if the file can not be read or is malformed.
+     */
+    public static SavedPosition read(BufferedReader in) throws IOException {
+        try {
+            // read board size in cells
+            final int boardSizeInCells = Integer.parseInt(in.readLine().trim());
+
+            // read if eating is mandatory
+            final boolean isEatingMandatory = in.readLine().trim().equals("yes");
+
+            // skip PlayerUp and PlayerDown types
+            in.readLine();
+            in.readLine();
+
+            // read whose turn it is
+            final int sideToMove = in.readLine().trim().equals("down") ? Position.SIDE_DOWN : Position.SIDE_UP;
+
+            // read board
+            final int[][] boardRepresentation = new int[boardSizeInCells][boardSizeInCells];
+            for (int column = 0; column < boardSizeInCells; column++) {
+                final String[] line = in.readLine().trim().split("\\s+");
+                for (int row = 0; row < boardSizeInCells; row++) {
+                    boardRepresentation[column][row] = Integer.parseInt(line[row]);
+                }
+            }
+
+            return new SavedPosition(boardSizeInCells, isEatingMandatory, sideToMove, boardRepresentation);
+        } catch (NullPointerException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Malformed saved game", e);
+        }
+    }
+
+    /**
+     * Creates the engine position of the saved position.
+     *
+     * @return the engine position.
+     */
+    public Position toPosition() {
+        return Position.createFromArray(boardSizeInCells, boardRepresentation, sideToMove);
+    }
+}
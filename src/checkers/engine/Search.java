@@ -0,0 +1,736 @@
+package checkers.engine;
+
+import checkers.tablebase.TablebaseProber;
+import checkers.tablebase.WdlTable;
+
+import java.util.function.Consumer;
+
+/**
+ * This class describes the search engine: negamax with alpha-beta pruning and iterative deepening.
+ * When the depth is over, the capture chains are followed until the position is quiet(quiescence search),
+ * so that a position is never evaluated in the middle of an exchange.
+ * The search works on a single Position by making and unmaking moves, the moves of every ply are kept
+ * in a preallocated buffer, so no objects are allocated inside the tree.
+ * If endgame tables are given, the positions with few enough Checkers are looked up instead of being searched.
+ * <p>
+ * A Search must not be used by several threads at once.
+ */
+public class Search {
+
+    /**
+     * The maximal depth of the search.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    /**
+     * The score of a won position(decreased by the distance to the win).
+     */
+    public static final int WIN_SCORE = 30000;
+
+    /**
+     * Scores above this value(in absolute terms) mean a forced win or loss.
+     */
+    public static final int WIN_THRESHOLD = WIN_SCORE - 2 * MAX_DEPTH;
+
+    /**
+     * The score of a drawn position.
+     */
+    public static final int DRAW_SCORE = 0;
+
+    /**
+     * The base score of a position won according to the endgame tables.
+     * The tables don't know how far the win is, so the score stays below WIN_THRESHOLD(the search goes on)
+     * and the static evaluation is added to it, so that the search still heads for the simplest win.
+     */
+    public static final int TABLEBASE_WIN_SCORE = WIN_THRESHOLD / 2;
+
+    /**
+     * The score that means "no score"(outside of the range of the scores).
+     */
+    private static final int NO_SCORE = Integer.MIN_VALUE;
+
+    /**
+     * The amount of nodes between two checks of the time limit.
+     */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    /**
+     * The size of the transposition table of a Search that does not share one.
+     */
+    public static final int DEFAULT_TABLE_SIZE_MB = 16;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    private final boolean isEatingMandatory;
+
+    /**
+     * The generator of the legal moves.
+     */
+    private final MoveGenerator moveGenerator;
+
+    /**
+     * The static evaluation.
+     */
+    private Evaluator evaluator;
+
+    /**
+     * The transposition table(may be shared with other searches).
+     */
+    private final TranspositionTable transpositionTable;
+
+    /**
+     * The ordering of the moves.
+     */
+    private final MoveOrdering moveOrdering;
+
+    /**
+     * The buffer for the moves of every ply.
+     * The moves of ply N start at N * MoveGenerator.MAX_MOVES.
+     */
+    private final long[] moveBuffer;
+
+    /**
+     * The ordering scores of the moves(parallel to the buffer of the moves).
+     */
+    private final int[] moveScores;
+
+    /**
+     * The principal variation table.
+     * <p>
+     * Access: principalVariationTable[ply][index]
+     */
+    private final long[][] principalVariationTable;
+
+    /**
+     * The lengths of the principal variations of each ply.
+     */
+    private final int[] principalVariationLengths;
+
+    /**
+     * The position being searched.
+     */
+    private Position position;
+
+    /**
+     * The amount of nodes searched during the current search.
+     */
+    private long nodes;
+
+    /**
+     * The amount of beta cutoffs during the current search.
+     */
+    private long betaCutoffs;
+
+    /**
+     * The amount of beta cutoffs caused by the first searched move during the current search.
+     */
+    private long firstMoveBetaCutoffs;
+
+    /**
+     * The time(System.nanoTime()) when the search must stop.
+     */
+    private long deadlineNanos;
+
+    /**
+     * The amount of nodes after which the search must stop.
+     */
+    private long maxNodes;
+
+    /**
+     * The listener of the completed iterations, null if there is none.
+     */
+    private Consumer<SearchResult> iterationListener;
+
+    /**
+     * Whether the search has been asked to stop.
+     * Can be set from another thread.
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * Whether the current iteration has been aborted.
+     */
+    private boolean aborted;
+
+    /**
+     * The index of this Search among the threads of a parallel search, 0 for the main thread.
+     * Helper threads start at different depths and search the root moves in a different order,
+     * so that they fill the shared transposition table with different parts of the tree.
+     */
+    private int helperIndex;
+
+    /**
+     * The lookup of the endgame tables(may be shared with other searches), null if there are no tables.
+     */
+    private TablebaseProber tablebaseProber;
+
+    /**
+     * The time management of the current search, null if the search just runs until its time limit.
+     */
+    private TimeManager timeManager;
+
+    /**
+     * The buffer for the squares of the Checkers of a position being looked up in the endgame tables.
+     */
+    private final long[] tablebaseSquares;
+
+    /**
+     * The first constructor of the class.
+     * Creates a Search with its own transposition table.
+     *
+     * @param isEatingMandatory whether eating is mandatory.
+     */
+    public Search(boolean isEatingMandatory) {
+        this(isEatingMandatory, new TranspositionTable(DEFAULT_TABLE_SIZE_MB));
+    }
+
+    /**
+     * The second constructor of the class.
+     *
+     * @param isEatingMandatory  whether eating is mandatory.
+     * @param transpositionTable the transposition table to use.
+     */
+    public Search(boolean isEatingMandatory, TranspositionTable transpositionTable) {
+        this.isEatingMandatory = isEatingMandatory;
+        this.moveGenerator = new MoveGenerator();
+        this.evaluator = new Evaluator();
+        this.transpositionTable = transpositionTable;
+        this.moveOrdering = new MoveOrdering(MAX_DEPTH);
+        this.moveBuffer = new long[(MAX_DEPTH + 1) * MoveGenerator.MAX_MOVES];
+        this.moveScores = new int[moveBuffer.length];
+        this.principalVariationTable = new long[MAX_DEPTH + 1][MAX_DEPTH + 1];
+        this.principalVariationLengths = new int[MAX_DEPTH + 1];
+        this.tablebaseSquares = new long[4];
+        this.maxNodes = Long.MAX_VALUE;
+        this.iterationListener = null;
+    }
+
+    /**
+     * Searches for the best move of the position.
+     * Deepens the search one ply at a time until the time is over or the maximal depth is reached.
+     * The result is taken from the last completed iteration.
+     *
+     * @param position        the position to search(is restored after the call).
+     * @param timeLimitMillis the time limit of the search in milliseconds.
+     * @param maxDepth        the maximal depth of the search.
+     * @return the result of the search.
+     */
+    public SearchResult search(Position position, long timeLimitMillis, int maxDepth) {
+        this.stopRequested = false;
+        return runSearch(position, timeLimitMillis, maxDepth);
+    }
+
+    /**
+     * Searches for the best move of the position for the time allotted by the time manager.
+     * The search is aborted at the hard limit of the turn, and between the iterations
+     * the time manager decides whether the next one is worth starting.
+     *
+     * @param position    the position to search(is restored after the call).
+     * @param timeManager the time manager whose turn has been started.
+     * @param maxDepth    the maximal depth of the search.
+     * @return the result of the search.
+     */
+    public SearchResult search(Position position, TimeManager timeManager, int maxDepth) {
+        this.stopRequested = false;
+        setTimeManager(timeManager);
+        try {
+            return runSearch(position, timeManager.getHardLimitMillis() - timeManager.getElapsedMillis(), maxDepth);
+        } finally {
+            setTimeManager(null);
+        }
+    }
+
+    /**
+     * Searches for the best move of the position without clearing the stop request first,
+     * so that a stop requested before the search has started is not lost.
+     *
+     * @param position        the position to search(is restored after the call).
+     * @param timeLimitMillis the time limit of the search in milliseconds.
+     * @param maxDepth        the maximal depth of the search.
+     * @return the result of the search.
+     */
+    SearchResult runSearch(Position position, long timeLimitMillis, int maxDepth) {
+        final long startNanos = System.nanoTime();
+        this.position = position;
+        this.nodes = 0;
+        this.betaCutoffs = 0;
+        this.firstMoveBetaCutoffs = 0;
+        this.deadlineNanos = startNanos + timeLimitMillis * 1000000;
+        this.aborted = false;
+        if (helperIndex == 0) {
+            // The helpers of a parallel search share the table of the main thread
+            transpositionTable.newSearch();
+        }
+        moveOrdering.newSearch();
+
+        final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moveBuffer, 0);
+        if (amountOfMoves == 0) {
+            return new SearchResult(Move.NONE, -WIN_SCORE, 0, 0, 0, new long[0], 0, 0);
+        }
+
+        long bestMove = moveBuffer[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        long[] principalVariation = {bestMove};
+
+        // Helpers look at the root moves in a different order
+        for (int rotation = 0; rotation < helperIndex % amountOfMoves; rotation++) {
+            final long firstMove = moveBuffer[0];
+            System.arraycopy(moveBuffer, 1, moveBuffer, 0, amountOfMoves - 1);
+            moveBuffer[amountOfMoves - 1] = firstMove;
+        }
+        if (helperIndex > 0) {
+            bestMove = moveBuffer[0];
+        }
+
+        final int startDepth = 1 + (helperIndex & 1);
+        for (int depth = startDepth; depth <= Math.min(maxDepth, MAX_DEPTH); depth++) {
+            final int score = searchRoot(depth, amountOfMoves, bestMove);
+            if (aborted) {
+                break;
+            }
+
+            bestMove = principalVariationTable[0][0];
+            bestScore = score;
+            completedDepth = depth;
+            principalVariation = getPrincipalVariation(depth);
+            if (iterationListener != null) {
+                iterationListener.accept(new SearchResult(bestMove, bestScore, completedDepth, nodes,
+                        (System.nanoTime() - startNanos) / 1000000, principalVariation, betaCutoffs,
+                        firstMoveBetaCutoffs));
+            }
+
+            if (amountOfMoves == 1 || Math.abs(score) >= WIN_THRESHOLD) {
+                // Nothing to think about
+                break;
+            }
+            if (timeManager != null && !timeManager.shouldStartIteration(depth, bestMove, score)) {
+                break;
+            }
+        }
+
+        final long timeMillis = (System.nanoTime() - startNanos) / 1000000;
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, timeMillis, principalVariation,
+                betaCutoffs, firstMoveBetaCutoffs);
+    }
+
+    /**
+     * Sets the lookup of the endgame tables.
+     *
+     * @param tablebaseProber the lookup of the endgame tables, null to search every position.
+     */
+    public void setTablebaseProber(TablebaseProber tablebaseProber) {
+        this.tablebaseProber = tablebaseProber;
+    }
+
+    /**
+     * Sets the static evaluation of the positions.
+     *
+     * @param evaluator the evaluator(may be shared with other searches).
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Sets the amount of nodes after which the next searches stop(checked once in a while, so it is a bit exceeded).
+     *
+     * @param maxNodes the maximal amount of nodes, Long.MAX_VALUE for no limit.
+     */
+    public void setNodeLimit(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Sets the listener that is given the result of every completed iteration of the next searches.
+     * It is called on the searching thread.
+     *
+     * @param iterationListener the listener, null for none.
+     */
+    public void setIterationListener(Consumer<SearchResult> iterationListener) {
+        this.iterationListener = iterationListener;
+    }
+
+    /**
+     * Returns the amount of nodes searched so far by the current search.
+     * Read from another thread, the value may be a bit out of date.
+     *
+     * @return the amount of nodes.
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Forgets the nodes of the last search, so that they are not taken for the nodes of the next one
+     * before it has started.
+     */
+    void clearNodes() {
+        nodes = 0;
+    }
+
+    /**
+     * Sets the time management of the next searches.
+     *
+     * @param timeManager the time manager whose turn has been started, null to just run until the time limit.
+     */
+    void setTimeManager(TimeManager timeManager) {
+        this.timeManager = timeManager;
+    }
+
+    /**
+     * Sets the index of this Search among the threads of a parallel search.
+     *
+     * @param helperIndex the index of the thread, 0 for the main thread.
+     */
+    void setHelperIndex(int helperIndex) {
+        this.helperIndex = helperIndex;
+    }
+
+    /**
+     * Asks the running search to stop as soon as possible.
+     * Can be called from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Clears the stop request before a search started with runSearch().
+     */
+    void clearStopRequest() {
+        stopRequested = false;
+    }
+
+    /**
+     * Searches all the moves of the root to the given depth.
+     * The best move of the previous iteration is searched first.
+     *
+     * @param depth         the depth of the search.
+     * @param amountOfMoves the amount of the root moves(already in the buffer).
+     * @param previousBest  the best move of the previous iteration.
+     * @return the score of the root.
+     */
+    private int searchRoot(int depth, int amountOfMoves, long previousBest) {
+        for (int moveIndex = 0; moveIndex < amountOfMoves; moveIndex++) {
+            if (moveBuffer[moveIndex] == previousBest) {
+                moveBuffer[moveIndex] = moveBuffer[0];
+                moveBuffer[0] = previousBest;
+                break;
+            }
+        }
+
+        int alpha = -WIN_SCORE - 1;
+        final int beta = WIN_SCORE + 1;
+        principalVariationLengths[0] = 0;
+
+        for (int moveIndex = 0; moveIndex < amountOfMoves; moveIndex++) {
+            final long move = moveBuffer[moveIndex];
+            position.makeMove(move);
+            final int score = -negamax(depth - 1, -beta, -alpha, 1);
+            position.unmakeMove();
+
+            if (aborted) {
+                return alpha;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(0, move);
+            }
+        }
+
+        transpositionTable.store(position.getKey(), depth, TranspositionTable.BOUND_EXACT,
+                TranspositionTable.scoreToTable(alpha, 0), Move.getShortKey(principalVariationTable[0][0]));
+
+        return alpha;
+    }
+
+    /**
+     * Searches the position to the given depth.
+     *
+     * @param depth the remaining depth.
+     * @param alpha the lower bound of the score.
+     * @param beta  the upper bound of the score.
+     * @param ply   the distance from the root.
+     * @return the score of the position for the side to move.
+     */
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+
+        principalVariationLengths[ply] = 0;
+        if (isTimeOver()) {
+            return 0;
+        }
+        nodes++;
+
+        if (position.isRepetition()) {
+            return DRAW_SCORE;
+        }
+
+        final int tablebaseScore = probeTablebase();
+        if (tablebaseScore != NO_SCORE) {
+            return tablebaseScore;
+        }
+
+        // Look the position up in the transposition table
+        final long key = position.getKey();
+        final long entry = transpositionTable.probe(key);
+        int hashMoveKey = 0;
+        if (entry != TranspositionTable.NO_ENTRY) {
+            hashMoveKey = TranspositionTable.getMoveKey(entry);
+            if (TranspositionTable.getDepth(entry) >= depth) {
+                final int score = TranspositionTable.scoreFromTable(TranspositionTable.getScore(entry), ply);
+                switch (TranspositionTable.getBound(entry)) {
+                    case TranspositionTable.BOUND_EXACT:
+                        return score;
+                    case TranspositionTable.BOUND_LOWER:
+                        if (score >= beta) {
+                            return score;
+                        }
+                        break;
+                    case TranspositionTable.BOUND_UPPER:
+                        if (score <= alpha) {
+                            return score;
+                        }
+                        break;
+                    default:
+                }
+            }
+        }
+
+        final int offset = ply * MoveGenerator.MAX_MOVES;
+        final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moveBuffer, offset);
+        if (amountOfMoves == 0) {
+            // The side that can't move loses
+            return -WIN_SCORE + ply;
+        }
+
+        if (ply >= MAX_DEPTH) {
+            return evaluator.evaluate(position);
+        }
+
+        final int side = position.getSideToMove();
+        moveOrdering.scoreMoves(moveBuffer, moveScores, offset, amountOfMoves, hashMoveKey, ply, side);
+
+        final int originalAlpha = alpha;
+        long bestMove = Move.NONE;
+        for (int moveIndex = offset; moveIndex < offset + amountOfMoves; moveIndex++) {
+            final long move = MoveOrdering.pickNextMove(moveBuffer, moveScores, moveIndex, offset + amountOfMoves);
+            position.makeMove(move);
+            final int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove();
+
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                updatePrincipalVariation(ply, move);
+                if (alpha >= beta) {
+                    betaCutoffs++;
+                    if (moveIndex == offset) {
+                        firstMoveBetaCutoffs++;
+                    }
+                    moveOrdering.updateOnCutoff(move, ply, side, depth);
+                    break;
+                }
+            }
+        }
+
+        final int bound;
+        if (alpha >= beta) {
+            bound = TranspositionTable.BOUND_LOWER;
+        } else if (alpha > originalAlpha) {
+            bound = TranspositionTable.BOUND_EXACT;
+        } else {
+            bound = TranspositionTable.BOUND_UPPER;
+        }
+        transpositionTable.store(key, depth, bound, TranspositionTable.scoreToTable(alpha, ply),
+                (bestMove == Move.NONE) ? 0 : Move.getShortKey(bestMove));
+
+        return alpha;
+    }
+
+    /**
+     * Looks the position up in the endgame tables.
+     *
+     * @return the score of the position for the side to move, NO_SCORE if it's not in the tables.
+     */
+    private int probeTablebase() {
+        if (tablebaseProber == null
+                || Long.bitCount(position.getOccupied()) > tablebaseProber.getMaxPieces()) {
+            return NO_SCORE;
+        }
+
+        switch (tablebaseProber.probe(position, tablebaseSquares)) {
+            case WdlTable.WIN:
+                return TABLEBASE_WIN_SCORE + evaluator.evaluate(position);
+            case WdlTable.LOSS:
+                return -TABLEBASE_WIN_SCORE + evaluator.evaluate(position);
+            case WdlTable.DRAW:
+                return DRAW_SCORE;
+            default:
+                return NO_SCORE;
+        }
+    }
+
+    /**
+     * Searches only the eating moves until the position is quiet.
+     * If eating is not mandatory, the side to move may refuse to eat, so the static score is a lower bound
+     * of the score(stand pat). If eating is mandatory, the side has to eat and there is no stand pat.
+     *
+     * @param alpha the lower bound of the score.
+     * @param beta  the upper bound of the score.
+     * @param ply   the distance from the root.
+     * @return the score of the position for the side to move.
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        principalVariationLengths[ply] = 0;
+        if (isTimeOver()) {
+            return 0;
+        }
+        nodes++;
+
+        if (position.isRepetition()) {
+            return DRAW_SCORE;
+        }
+
+        final int tablebaseScore = probeTablebase();
+        if (tablebaseScore != NO_SCORE) {
+            return tablebaseScore;
+        }
+
+        final int side = position.getSideToMove();
+        if (!position.canPlayerEat(side)) {
+            // The position is quiet
+            if (!position.canPlayerMakeAnyMove(side)) {
+                // The side that can't move loses
+                return -WIN_SCORE + ply;
+            }
+            return evaluator.evaluate(position);
+        }
+
+        if (ply >= MAX_DEPTH) {
+            return evaluator.evaluate(position);
+        }
+
+        if (!isEatingMandatory) {
+            final int standPat = evaluator.evaluate(position);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+        }
+
+        final int offset = ply * MoveGenerator.MAX_MOVES;
+        final int amountOfMoves = moveGenerator.generateCaptures(position, moveBuffer, offset);
+        moveOrdering.scoreMoves(moveBuffer, moveScores, offset, amountOfMoves, 0, ply, side);
+
+        for (int moveIndex = offset; moveIndex < offset + amountOfMoves; moveIndex++) {
+            final long move = MoveOrdering.pickNextMove(moveBuffer, moveScores, moveIndex, offset + amountOfMoves);
+            position.makeMove(move);
+            final int score = -quiescence(-beta, -alpha, ply + 1);
+            position.unmakeMove();
+
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(ply, move);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Returns the principal variation of the root.
+     * If the line has been cut short by the transposition table, it is continued with the best moves stored there.
+     *
+     * @param depth the depth of the completed iteration.
+     * @return the principal variation.
+     */
+    private long[] getPrincipalVariation(int depth) {
+        final long[] line = new long[MAX_DEPTH];
+        int length = principalVariationLengths[0];
+        System.arraycopy(principalVariationTable[0], 0, line, 0, length);
+
+        for (int index = 0; index < length; index++) {
+            position.makeMove(line[index]);
+        }
+        while (length < depth && !position.isRepetition()) {
+            final long entry = transpositionTable.probe(position.getKey());
+            if (entry == TranspositionTable.NO_ENTRY) {
+                break;
+            }
+
+            final int offset = (length + 1) * MoveGenerator.MAX_MOVES;
+            final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moveBuffer, offset);
+            long nextMove = Move.NONE;
+            for (int moveIndex = offset; moveIndex < offset + amountOfMoves; moveIndex++) {
+                if (Move.getShortKey(moveBuffer[moveIndex]) == TranspositionTable.getMoveKey(entry)) {
+                    nextMove = moveBuffer[moveIndex];
+                    break;
+                }
+            }
+            if (nextMove == Move.NONE) {
+                break;
+            }
+
+            line[length++] = nextMove;
+            position.makeMove(nextMove);
+        }
+        for (int index = 0; index < length; index++) {
+            position.unmakeMove();
+        }
+
+        final long[] principalVariation = new long[length];
+        System.arraycopy(line, 0, principalVariation, 0, length);
+        return principalVariation;
+    }
+
+    /**
+     * Makes the given move followed by the principal variation of the next ply the principal variation of this ply.
+     *
+     * @param ply  the distance from the root.
+     * @param move the best move of this ply.
+     */
+    private void updatePrincipalVariation(int ply, long move) {
+        final long[] line = principalVariationTable[ply];
+        line[0] = move;
+
+        final int childLength = Math.min(principalVariationLengths[ply + 1], MAX_DEPTH - ply);
+        System.arraycopy(principalVariationTable[ply + 1], 0, line, 1, childLength);
+        principalVariationLengths[ply] = childLength + 1;
+    }
+
+    /**
+     * Checks whether the search must stop(the time or the nodes are over or the stop has been requested).
+     * The clock is read only once in a while.
+     *
+     * @return whether the search must stop.
+     */
+    private boolean isTimeOver() {
+        if (aborted) {
+            return true;
+        }
+        if ((nodes & (TIME_CHECK_INTERVAL - 1)) == 0) {
+            aborted = stopRequested || System.nanoTime() >= deadlineNanos || nodes >= maxNodes;
+        }
+
+        return aborted;
+    }
+}
@@ -0,0 +1,89 @@
+package checkers.engine;
+
+/**
+ * This class holds the result of a search.
+ */
+public class SearchResult {
+
+    /**
+     * The best move found, Move.NONE if the side to move has no legal moves.
+     */
+    public final long bestMove;
+
+    /**
+     * The score of the best move for the side to move.
+     */
+    public final int score;
+
+    /**
+     * The depth of the last completed iteration.
+     */
+    public final int depth;
+
+    /**
+     * The amount of nodes searched.
+     */
+    public final long nodes;
+
+    /**
+     * The time spent on the search in milliseconds.
+     */
+    public final long timeMillis;
+
+    /**
+     * The principal variation(the best line), starting with the best move.
+     */
+    public final long[] principalVariation;
+
+    /**
+     * The amount of beta cutoffs.
+     */
+    public final long betaCutoffs;
+
+    /**
+     * The amount of beta cutoffs caused by the first searched move(shows how good the move ordering is).
+     */
+    public final long firstMoveBetaCutoffs;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param bestMove             the best move found.
+     * @param score                the score of the best move.
+     * @param depth                the depth of the last completed iteration.
+     * @param nodes                the amount of nodes searched.
+     * @param timeMillis           the time spent on the search in milliseconds.
+     * @param principalVariation   the best line.
+     * @param betaCutoffs          the amount of beta cutoffs.
+     * @param firstMoveBetaCutoffs the amount of beta cutoffs caused by the first searched move.
+     */
+    public SearchResult(long bestMove, int score, int depth, long nodes, long timeMillis, long[] principalVariation,
+                        long betaCutoffs, long firstMoveBetaCutoffs) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.principalVariation = principalVariation;
+        this.betaCutoffs = betaCutoffs;
+        this.firstMoveBetaCutoffs = firstMoveBetaCutoffs;
+    }
+
+    /**
+     * Returns the amount of nodes searched per second.
+     *
+     * @return the amount of nodes searched per second.
+     */
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(timeMillis, 1);
+    }
+
+    /**
+     * Returns the fraction of the beta cutoffs caused by the first searched move.
+     *
+     * @return the fraction of the first move cutoffs, 0 if there have been no cutoffs.
+     */
+    public double getFirstMoveCutoffRate() {
+        return (betaCutoffs == 0) ? 0.0 : (double) firstMoveBetaCutoffs / betaCutoffs;
+    }
+}
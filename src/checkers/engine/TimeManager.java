@@ -0,0 +1,246 @@
+package checkers.engine;
+
+/**
+ * This class describes the clock of a side and decides how long the search may think on every turn.
+ * <p>
+ * The side starts the game with the base time and gets the increment after every turn.
+ * The budget of a turn(the soft limit) is the time left divided by the amount of turns expected until the end
+ * of the game(fewer as the Checkers leave the board), plus most of the increment,
+ * scaled by the amount of legal moves: a forced capture needs less thinking than a quiet position with many moves.
+ * <p>
+ * Between the iterations of the search the budget is adjusted by the stability of the search:
+ * a best move that has survived several iterations ends the thinking early, a best move that has just changed
+ * or a dropping score lets the search think longer. No iteration is started if it is unlikely to finish in time.
+ * The hard limit is never exceeded: the search is aborted when it is reached,
+ * and it never takes more than a share of the time left on the clock.
+ */
+public class TimeManager {
+
+    /**
+     * The amount of turns expected until the end of the game when the board is full.
+     */
+    private static final int MAX_TURNS_TO_GO = 30;
+
+    /**
+     * The amount of turns expected until the end of the game when the board is almost empty.
+     */
+    private static final int MIN_TURNS_TO_GO = 10;
+
+    /**
+     * The share of the increment that is spent on the turn it is given for.
+     */
+    private static final double INCREMENT_SHARE = 0.75;
+
+    /**
+     * The amount of legal moves for which the budget is not scaled.
+     */
+    private static final double TYPICAL_AMOUNT_OF_MOVES = 8.0;
+
+    /**
+     * The smallest factor of the budget for the amount of legal moves.
+     */
+    private static final double MIN_MOVES_FACTOR = 0.6;
+
+    /**
+     * The largest factor of the budget for the amount of legal moves.
+     */
+    private static final double MAX_MOVES_FACTOR = 1.5;
+
+    /**
+     * How many times the hard limit may exceed the budget.
+     */
+    private static final double HARD_LIMIT_FACTOR = 3.0;
+
+    /**
+     * The largest share of the time left on the clock that a turn may take.
+     */
+    private static final double MAX_SHARE_OF_REMAINING = 0.3;
+
+    /**
+     * The least time given to a turn in milliseconds(even with an empty clock).
+     */
+    static final long MIN_TIME_MILLIS = 20;
+
+    /**
+     * The amount of iterations with the same best move after which the search is considered stable.
+     */
+    private static final int STABLE_ITERATIONS = 3;
+
+    /**
+     * The factor of the budget when the search is stable.
+     */
+    private static final double STABLE_FACTOR = 0.5;
+
+    /**
+     * The factor of the budget when the best move has just changed.
+     */
+    private static final double UNSTABLE_FACTOR = 1.5;
+
+    /**
+     * The drop of the score between two iterations that makes the search think longer.
+     */
+    private static final int SCORE_DROP = 50;
+
+    /**
+     * The factor of the budget when the score has dropped.
+     */
+    private static final double SCORE_DROP_FACTOR = 1.3;
+
+    /**
+     * The share of the budget after which no new iteration is started:
+     * the next iteration usually takes at least as long as all the previous ones together.
+     */
+    private static final double NEXT_ITERATION_SHARE = 0.5;
+
+    /**
+     * The time given after every turn in milliseconds.
+     */
+    private final long incrementMillis;
+
+    /**
+     * The time left on the clock in milliseconds.
+     */
+    private long remainingMillis;
+
+    /**
+     * The time when the current turn started(System.nanoTime()).
+     */
+    private long turnStartNanos;
+
+    /**
+     * The budget of the current turn in milliseconds.
+     */
+    private long softLimitMillis;
+
+    /**
+     * The time after which the search of the current turn is aborted in milliseconds.
+     */
+    private long hardLimitMillis;
+
+    /**
+     * The best move of the last completed iteration.
+     */
+    private long lastBestMove;
+
+    /**
+     * The score of the last completed iteration.
+     */
+    private int lastScore;
+
+    /**
+     * The amount of consecutive iterations that have kept the best move.
+     */
+    private int stableIterations;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param baseTimeMillis  the time on the clock at the start of the game in milliseconds.
+     * @param incrementMillis the time given after every turn in milliseconds.
+     */
+    public TimeManager(long baseTimeMillis, long incrementMillis) {
+        if (baseTimeMillis < 0 || incrementMillis < 0) {
+            throw new IllegalArgumentException("Times must not be negative");
+        }
+
+        this.incrementMillis = incrementMillis;
+        this.remainingMillis = baseTimeMillis;
+    }
+
+    /**
+     * Starts the clock of a turn and allots the time for it.
+     *
+     * @param position      the position at the start of the turn.
+     * @param amountOfMoves the amount of legal moves in the position.
+     */
+    public void startTurn(Position position, int amountOfMoves) {
+        this.turnStartNanos = System.nanoTime();
+        this.lastBestMove = Move.NONE;
+        this.lastScore = 0;
+        this.stableIterations = 0;
+
+        final BoardGeometry geometry = position.getGeometry();
+        final int initialAmountOfCheckers = 2 * (geometry.boardSizeInCells / 2 - 1) * geometry.squaresPerRow;
+        final double phase = Math.min(1.0, Long.bitCount(position.getOccupied()) / (double) initialAmountOfCheckers);
+        final double turnsToGo = MIN_TURNS_TO_GO + (MAX_TURNS_TO_GO - MIN_TURNS_TO_GO) * phase;
+        final double movesFactor = Math.max(MIN_MOVES_FACTOR,
+                Math.min(MAX_MOVES_FACTOR, amountOfMoves / TYPICAL_AMOUNT_OF_MOVES));
+
+        final double budget = (remainingMillis / turnsToGo + incrementMillis * INCREMENT_SHARE) * movesFactor;
+        final double maxTime = remainingMillis * MAX_SHARE_OF_REMAINING + incrementMillis;
+        this.hardLimitMillis = Math.max(MIN_TIME_MILLIS, (long) Math.min(budget * HARD_LIMIT_FACTOR, maxTime));
+        this.softLimitMillis = Math.max(MIN_TIME_MILLIS, Math.min((long) budget, hardLimitMillis));
+    }
+
+    /**
+     * Decides after a completed iteration of the search whether to start the next one.
+     * Is only called by the main thread of the search.
+     *
+     * @param completedDepth the depth of the completed iteration.
+     * @param bestMove       the best move of the iteration.
+     * @param score          the score of the best move.
+     * @return whether the next iteration is worth starting.
+     */
+    public boolean shouldStartIteration(int completedDepth, long bestMove, int score) {
+        double factor = 1.0;
+        if (completedDepth > 1) {
+            stableIterations = (bestMove == lastBestMove) ? stableIterations + 1 : 0;
+            if (stableIterations >= STABLE_ITERATIONS) {
+                factor = STABLE_FACTOR;
+            } else if (stableIterations == 0) {
+                factor = UNSTABLE_FACTOR;
+            }
+            if (lastScore - score >= SCORE_DROP) {
+                factor *= SCORE_DROP_FACTOR;
+            }
+        }
+        this.lastBestMove = bestMove;
+        this.lastScore = score;
+
+        final double limitMillis = Math.min(softLimitMillis * factor, hardLimitMillis);
+        return getElapsedMillis() < limitMillis * NEXT_ITERATION_SHARE;
+    }
+
+    /**
+     * Stops the clock of the turn: the time spent is taken from the clock and the increment is added to it.
+     */
+    public void finishTurn() {
+        remainingMillis = Math.max(0, remainingMillis - getElapsedMillis()) + incrementMillis;
+    }
+
+    /**
+     * Returns the budget of the current turn.
+     *
+     * @return the budget of the current turn in milliseconds.
+     */
+    public long getSoftLimitMillis() {
+        return softLimitMillis;
+    }
+
+    /**
+     * Returns the time after which the search of the current turn must be aborted.
+     *
+     * @return the hard limit of the current turn in milliseconds(counted from the start of the turn).
+     */
+    public long getHardLimitMillis() {
+        return hardLimitMillis;
+    }
+
+    /**
+     * Returns the time left on the clock(not counting the current turn).
+     *
+     * @return the time left in milliseconds.
+     */
+    public long getRemainingMillis() {
+        return remainingMillis;
+    }
+
+    /**
+     * Returns the time spent on the current turn.
+     *
+     * @return the time since the start of the turn in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - turnStartNanos) / 1000000;
+    }
+}
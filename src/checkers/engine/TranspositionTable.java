@@ -0,0 +1,277 @@
+package checkers.engine;
+
+import java.util.Arrays;
+
+/**
+ * This class describes the transposition table: a fixed-size hash table of the searched positions.
+ * <p>
+ * The table is a single long array. Each entry takes two longs: (key XOR data) and data.
+ * An entry is accepted only if XOR-ing its two halves gives the probed key, so a torn entry written
+ * concurrently by another thread is simply not found. Thus the table can be shared by several searching threads
+ * without any locking.
+ * <p>
+ * The data of an entry:
+ * bits 0..31 - the short key of the best move(see Move.getShortKey()),
+ * bits 32..47 - the score,
+ * bits 48..55 - the depth,
+ * bits 56..57 - the bound type,
+ * bits 58..63 - the age(the number of the search that has written the entry).
+ * <p>
+ * The entries are grouped into buckets of 4 entries(one cache line), a new entry replaces the entry of its bucket
+ * with the same key or the one with the lowest depth, older entries being replaced first.
+ */
+public class TranspositionTable {
+
+    /**
+     * The bound type of an entry whose score is exact.
+     */
+    public static final int BOUND_EXACT = 1;
+
+    /**
+     * The bound type of an entry whose score is a lower bound(the search failed high).
+     */
+    public static final int BOUND_LOWER = 2;
+
+    /**
+     * The bound type of an entry whose score is an upper bound(the search failed low).
+     */
+    public static final int BOUND_UPPER = 3;
+
+    /**
+     * The value returned by probe() if the position is not found.
+     */
+    public static final long NO_ENTRY = 0L;
+
+    /**
+     * The amount of entries in a bucket.
+     */
+    private static final int BUCKET_SIZE = 4;
+
+    /**
+     * The amount of longs taken by an entry.
+     */
+    private static final int ENTRY_LONGS = 2;
+
+    /**
+     * The amount of bytes taken by an entry.
+     */
+    private static final int ENTRY_BYTES = ENTRY_LONGS * Long.BYTES;
+
+    /**
+     * The maximal amount of buckets(limited by the maximal length of an array).
+     */
+    private static final long MAX_BUCKETS = 1L << 27;
+
+    /**
+     * The mask of the age.
+     */
+    private static final int AGE_MASK = 0x3F;
+
+    /**
+     * How many depth units an entry loses for each search it is older than the current one.
+     */
+    private static final int AGE_PENALTY = 4;
+
+    /**
+     * The entries of the table.
+     */
+    private final long[] table;
+
+    /**
+     * The mask that maps a key onto a bucket.
+     */
+    private final long bucketMask;
+
+    /**
+     * The age of the current search.
+     */
+    private volatile int age;
+
+    /**
+     * The constructor of the class.
+     * The amount of buckets is the largest power of two that fits into the given size.
+     *
+     * @param sizeInMegabytes the size of the table in megabytes.
+     */
+    public TranspositionTable(int sizeInMegabytes) {
+        final long bytes = Math.max(1, sizeInMegabytes) * 1024L * 1024L;
+        final long buckets = Math.min(Long.highestOneBit(bytes / (BUCKET_SIZE * ENTRY_BYTES)), MAX_BUCKETS);
+
+        this.table = new long[(int) (buckets * BUCKET_SIZE * ENTRY_LONGS)];
+        this.bucketMask = buckets - 1;
+        this.age = 0;
+    }
+
+    /**
+     * Starts a new search: the entries of the previous searches become older.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /**
+     * Looks for the position in the table.
+     *
+     * @param key the Zobrist hash of the position.
+     * @return the data of the entry, NO_ENTRY if the position is not found.
+     */
+    public long probe(long key) {
+        final int bucket = getBucketIndex(key);
+        for (int index = bucket; index < bucket + BUCKET_SIZE * ENTRY_LONGS; index += ENTRY_LONGS) {
+            final long data = table[index + 1];
+            if ((table[index] ^ data) == key && data != NO_ENTRY) {
+                return data;
+            }
+        }
+
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores the result of searching the position.
+     *
+     * @param key      the Zobrist hash of the position.
+     * @param depth    the depth of the search.
+     * @param bound    the bound type of the score.
+     * @param score    the score(already adjusted with scoreToTable()).
+     * @param moveKey  the short key of the best move, 0 if there is none.
+     */
+    public void store(long key, int depth, int bound, int score, int moveKey) {
+        final int bucket = getBucketIndex(key);
+        final int currentAge = age;
+
+        int replaceIndex = bucket;
+        int replaceValue = Integer.MAX_VALUE;
+        for (int index = bucket; index < bucket + BUCKET_SIZE * ENTRY_LONGS; index += ENTRY_LONGS) {
+            final long data = table[index + 1];
+            if ((table[index] ^ data) == key || data == NO_ENTRY) {
+                // The same position or an empty slot
+                if (moveKey == 0 && data != NO_ENTRY) {
+                    // Keep the best move we knew before
+                    moveKey = getMoveKey(data);
+                }
+                replaceIndex = index;
+                break;
+            }
+
+            final int ageDistance = (currentAge - getAge(data)) & AGE_MASK;
+            final int value = getDepth(data) - AGE_PENALTY * ageDistance;
+            if (value < replaceValue) {
+                replaceValue = value;
+                replaceIndex = index;
+            }
+        }
+
+        final long data = (moveKey & 0xFFFFFFFFL)
+                | ((long) (score & 0xFFFF) << 32)
+                | ((long) Math.min(Math.max(depth, 0), 0xFF) << 48)
+                | ((long) bound << 56)
+                | ((long) currentAge << 58);
+        table[replaceIndex] = key ^ data;
+        table[replaceIndex + 1] = data;
+    }
+
+    /**
+     * Returns the short key of the best move of the entry.
+     *
+     * @param data the data of the entry.
+     * @return the short key of the best move, 0 if there is none.
+     */
+    public static int getMoveKey(long data) {
+        return (int) data;
+    }
+
+    /**
+     * Returns the score of the entry(to be adjusted with scoreFromTable()).
+     *
+     * @param data the data of the entry.
+     * @return the score of the entry.
+     */
+    public static int getScore(long data) {
+        return (short) (data >>> 32);
+    }
+
+    /**
+     * Returns the depth of the entry.
+     *
+     * @param data the data of the entry.
+     * @return the depth of the entry.
+     */
+    public static int getDepth(long data) {
+        return (int) (data >>> 48) & 0xFF;
+    }
+
+    /**
+     * Returns the bound type of the entry.
+     *
+     * @param data the data of the entry.
+     * @return the bound type of the entry.
+     */
+    public static int getBound(long data) {
+        return (int) (data >>> 56) & 0x3;
+    }
+
+    /**
+     * Returns the age of the entry.
+     *
+     * @param data the data of the entry.
+     * @return the age of the entry.
+     */
+    private static int getAge(long data) {
+        return (int) (data >>> 58) & AGE_MASK;
+    }
+
+    /**
+     * Converts a score to be stored: the distance to a win is counted from the position, not from the root.
+     *
+     * @param score the score.
+     * @param ply   the distance from the root.
+     * @return the score to store.
+     */
+    public static int scoreToTable(int score, int ply) {
+        if (score >= Search.WIN_THRESHOLD) {
+            return score + ply;
+        }
+        if (score <= -Search.WIN_THRESHOLD) {
+            return score - ply;
+        }
+
+        return score;
+    }
+
+    /**
+     * Converts a stored score back: the distance to a win is counted from the root.
+     *
+     * @param score the stored score.
+     * @param ply   the distance from the root.
+     * @return the score.
+     */
+    public static int scoreFromTable(int score, int ply) {
+        if (score >= Search.WIN_THRESHOLD) {
+            return score - ply;
+        }
+        if (score <= -Search.WIN_THRESHOLD) {
+            return score + ply;
+        }
+
+        return score;
+    }
+
+    /**
+     * Returns the index of the first long of the bucket of the key.
+     *
+     * @param key the Zobrist hash of a position.
+     * @return the index of the bucket in the table.
+     */
+    private int getBucketIndex(long key) {
+        return (int) ((key >>> 20) & bucketMask) * (BUCKET_SIZE * ENTRY_LONGS);
+    }
+}
@@ -0,0 +1,118 @@
+package checkers.engine;
+
+/**
+ * This class holds the Zobrist keys used to hash positions.
+ * The hash of a position is the XOR of the keys of every Checker(by square, side and being a queen)
+ * and of the side-to-move key if the UP side is to move.
+ * <p>
+ * The keys are generated from a fixed seed, so the hashes are the same between runs
+ * and can be stored in files.
+ */
+public final class Zobrist {
+
+    /**
+     * The seed of the generator of the keys.
+     */
+    private static final long SEED = 0x2017_0415_C4EC_4E25L;
+
+    /**
+     * The amount of squares the keys are generated for(enough for any supported board).
+     */
+    private static final int SQUARES_AMOUNT = 64;
+
+    /**
+     * The keys of the Checkers.
+     * <p>
+     * Access: CHECKER_KEYS[side * 2 + (queen ? 1 : 0)][square]
+     */
+    private static final long[][] CHECKER_KEYS = new long[4][SQUARES_AMOUNT];
+
+    /**
+     * The key that is present in the hash when the UP side is to move.
+     */
+    public static final long SIDE_UP_TO_MOVE_KEY;
+
+    static {
+        long state = SEED;
+        for (int type = 0; type < CHECKER_KEYS.length; type++) {
+            for (int square = 0; square < SQUARES_AMOUNT; square++) {
+                state += 0x9E3779B97F4A7C15L;
+                CHECKER_KEYS[type][square] = mix(state);
+            }
+        }
+        state += 0x9E3779B97F4A7C15L;
+        SIDE_UP_TO_MOVE_KEY = mix(state);
+    }
+
+    /**
+     * This class can not be instantiated.
+     */
+    private Zobrist() {}
+
+    /**
+     * Returns the key of a Checker.
+     *
+     * @param side   the side of the Checker.
+     * @param queen  whether the Checker is a queen.
+     * @param square the square of the Checker.
+     * @return the key of the Checker.
+     */
+    public static long getCheckerKey(int side, boolean queen, int square) {
+        return CHECKER_KEYS[side * 2 + (queen ? 1 : 0)][square];
+    }
+
+    /**
+     * Returns the key of the side to move.
+     *
+     * @param sideToMove the side index.
+     * @return the key of the side to move(0 for the DOWN side).
+     */
+    public static long getSideToMoveKey(int sideToMove) {
+        return (sideToMove == Position.SIDE_UP) ? SIDE_UP_TO_MOVE_KEY : 0L;
+    }
+
+    /**
+     * Computes the hash of the given board representation(as returned by Board.getBoardRepresentationAsArray()).
+     * The result is the same as Position.getKey() of the same position.
+     *
+     * @param array      the representation of the board.
+     * @param sideToMove the side whose turn it is.
+     * @return the hash of the position.
+     */
+    public static long computeKey(int[][] array, int sideToMove) {
+        return Position.createFromArray(array.length, array, sideToMove).getKey();
+    }
+
+    /**
+     * Computes the hash of the position from scratch.
+     *
+     * @param position the position.
+     * @return the hash of the position.
+     */
+    public static long computeKey(Position position) {
+        long key = getSideToMoveKey(position.sideToMove);
+        for (int side = Position.SIDE_UP; side <= Position.SIDE_DOWN; side++) {
+            long checkers = position.pieces[side];
+            while (checkers != 0) {
+                final int square = Long.numberOfTrailingZeros(checkers);
+                checkers &= checkers - 1;
+
+                key ^= getCheckerKey(side, position.isQueen(square), square);
+            }
+        }
+
+        return key;
+    }
+
+    /**
+     * The finalizer of the SplitMix64 generator.
+     *
+     * @param value the value to mix.
+     * @return the mixed value.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -2,30 +2,32 @@ package checkers.game;
 
 import checkers.CheckersSettings;
 import checkers.board.Board;
-import checkers.board.BoardCellColor;
-import checkers.checker.CheckerColor;
+import checkers.engine.Position;
+import checkers.engine.Zobrist;
+import checkers.players.AsynchronousPlayer;
 import checkers.players.HumanPlayer;
 import checkers.players.Player;
 import checkers.players.PlayerSide;
 import checkers.util.Pair;
 import checkers.util.Vector2i;
-import javafx.scene.canvas.GraphicsContext;
 import checkers.util.Vector2d;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
  * This class describes the game itself and its mechanics.
+ * It does not draw anything and does not depend on JavaFX: the window draws its board(see getBoard())
+ * and drives it with update(), a headless host can do the same without a window.
  * <p>
  * Created by Igor Boyarshin on April, 2017.
  */
 public class Game {
 
-    /**
-     * The thing we will be drawing with on the canvas.
-     */
-    private final GraphicsContext gc;
-
     /**
      * The Player that plays for the UP side.
      */
@@ -42,14 +44,9 @@ public class Game {
     private Player currentPlayer;
 
     /**
-     * The color of the Checkers of the UP Player.
-     */
-    private final CheckerColor playerUpCheckerColor;
-
-    /**
-     * The color of the Checkers of the DOWN Player.
+     * The executor that hands the turns computed by the asynchronous Players over to the thread of the Game.
      */
-    private final CheckerColor playerDownCheckerColor;
+    private final Executor turnHandOverExecutor;
 
     /**
      * The board of the game that we will be playing on.
@@ -88,40 +85,46 @@ public class Game {
      */
     private Vector2i checkerOfLastMove;
 
+    /**
+     * The turn being computed by the current asynchronous Player, null if it hasn't been requested yet.
+     */
+    private CompletableFuture<List<Pair<Vector2i>>> pendingTurn;
+
+    /**
+     * The moves of the current turn of an asynchronous Player that haven't been made yet,
+     * null while the turn is being computed.
+     */
+    private List<Pair<Vector2i>> plannedMoves;
+
+    /**
+     * The time in seconds when the last planned move has been made.
+     */
+    private double lastPlannedMoveTime;
+
     private Consumer<String> writeOnGameInfoLabel;
 
     /**
      * The constructor of the class. Initializes the fields and the board.
      *
-     * @param gc                     the thing that we will be drawing will.
-     * @param boardSizeInCells       the size of the board in cells.
-     * @param playerUp               the Player that plays UP.
-     * @param playerDown             the Player that plays DOWN.
-     * @param playerUpCheckerColor   the color of the Checkers of the UP Player.
-     * @param playerDownCheckerColor the color of the Checkers of the DOWN Player.
-     * @param boardCellColor         the color scheme of the cells of the board.
-     * @param writeOnGameInfoLabel   the function to write on GameInfo Label.
+     * @param boardSizeInCells     the size of the board in cells.
+     * @param playerUp             the Player that plays UP.
+     * @param playerDown           the Player that plays DOWN.
+     * @param turnHandOverExecutor the executor that runs the code on the thread of the Game
+     *                             (Platform::runLater for the window).
+     * @param writeOnGameInfoLabel the function to write on GameInfo Label.
      */
     public Game(
-            GraphicsContext gc,
             int boardSizeInCells,
             Player playerUp, Player playerDown,
-            CheckerColor playerUpCheckerColor, CheckerColor playerDownCheckerColor,
-            BoardCellColor boardCellColor,
+            Executor turnHandOverExecutor,
             Consumer<String> writeOnGameInfoLabel) {
 
-        this.gc = gc;
         this.playerUp = playerUp;
         this.playerDown = playerDown;
-        this.playerUpCheckerColor = playerUpCheckerColor;
-        this.playerDownCheckerColor = playerDownCheckerColor;
+        this.turnHandOverExecutor = turnHandOverExecutor;
         this.writeOnGameInfoLabel = writeOnGameInfoLabel;
 
-        this.board = new Board(
-                boardSizeInCells,
-                playerUpCheckerColor,
-                playerDownCheckerColor,
-                boardCellColor);
+        this.board = new Board(boardSizeInCells);
 
         this.currentPlayer = playerDown;
 
@@ -135,45 +138,38 @@ public class Game {
         this.haveCheckedAbilityToMoveThisTurn = false;
 
         this.checkerOfLastMove = null;
+
+        this.pendingTurn = null;
+        this.plannedMoves = null;
+        this.lastPlannedMoveTime = 0.0;
     }
 
     /**
      * The constructor of the class. Initializes the fields and the board.
      *
-     * @param gc                     the thing that we will be drawing will.
-     * @param boardSizeInCells       the size of the board in cells.
-     * @param boardRepresentation    the array representation of the board.
-     * @param isPlayerDownTurn       whether it is currently PlayerDOwn turn.
-     * @param playerUp               the Player that plays UP.
-     * @param playerDown             the Player that plays DOWN.
-     * @param playerUpCheckerColor   the color of the Checkers of the UP Player.
-     * @param playerDownCheckerColor the color of the Checkers of the DOWN Player.
-     * @param boardCellColor         the color scheme of the cells of the board.
-     * @param writeOnGameInfoLabel   the function to write on GameInfo Label.
+     * @param boardSizeInCells     the size of the board in cells.
+     * @param boardRepresentation  the array representation of the board.
+     * @param isPlayerDownTurn     whether it is currently PlayerDOwn turn.
+     * @param playerUp             the Player that plays UP.
+     * @param playerDown           the Player that plays DOWN.
+     * @param turnHandOverExecutor the executor that runs the code on the thread of the Game
+     *                             (Platform::runLater for the window).
+     * @param writeOnGameInfoLabel the function to write on GameInfo Label.
      */
     public Game(
-            GraphicsContext gc,
             int boardSizeInCells,
             int[][] boardRepresentation,
             boolean isPlayerDownTurn,
             Player playerUp, Player playerDown,
-            CheckerColor playerUpCheckerColor, CheckerColor playerDownCheckerColor,
-            BoardCellColor boardCellColor,
+            Executor turnHandOverExecutor,
             Consumer<String> writeOnGameInfoLabel) {
 
-        this.gc = gc;
         this.playerUp = playerUp;
         this.playerDown = playerDown;
-        this.playerUpCheckerColor = playerUpCheckerColor;
-        this.playerDownCheckerColor = playerDownCheckerColor;
+        this.turnHandOverExecutor = turnHandOverExecutor;
         this.writeOnGameInfoLabel = writeOnGameInfoLabel;
 
-        this.board = new Board(
-                boardSizeInCells,
-                boardRepresentation,
-                playerUpCheckerColor,
-                playerDownCheckerColor,
-                boardCellColor);
+        this.board = new Board(boardSizeInCells, boardRepresentation);
 
         this.currentPlayer = isPlayerDownTurn ? playerDown : playerUp;
 
@@ -188,6 +184,23 @@ public class Game {
         this.haveCheckedAbilityToMoveThisTurn = false;
 
         this.checkerOfLastMove = null;
+
+        this.pendingTurn = null;
+        this.plannedMoves = null;
+        this.lastPlannedMoveTime = 0.0;
+    }
+
+    /**
+     * Abandons the game: the Players stop thinking, and the turn being computed is not awaited anymore.
+     * Must be called before the Game is replaced by another one, so that the turns of the next game
+     * do not wait for the searches of this one.
+     */
+    public void abandon() {
+        playerUp.cancelTurn();
+        playerDown.cancelTurn();
+        this.pendingTurn = null;
+        this.plannedMoves = null;
+        this.currentGameState = GameState.IDLE;
     }
 
     /**
@@ -242,21 +255,34 @@ public class Game {
     public void update(double secondsSinceStart) {
         switch (currentGameState) {
             case PLAYER_TURN:
-                final Pair<Vector2i> move = currentPlayer.makeMove(
-                        board::getBoardRepresentationAsArray,
-                        getPlayerCodeInBoardRepresentation(currentPlayer),
-                        board::canCheckerEat,
-                        board::canCheckerMove
-                );
+                final Pair<Vector2i> move;
+                if (currentPlayer instanceof AsynchronousPlayer) {
+                    move = getNextPlannedMove(secondsSinceStart);
+                } else {
+                    move = currentPlayer.makeMove(
+                            board::getBoardRepresentationAsArray,
+                            getPlayerCodeInBoardRepresentation(currentPlayer),
+                            board::canCheckerEat,
+                            board::canCheckerMove
+                    );
+                }
 
                 if (move == null) {
-                    if (currentPlayer.isTurnFinished()) {
+                    if (isCurrentTurnFinished()) {
                         // transition
                         currentPlayer.confirmTurnFinished();
+                        board.finishTurn();
                         this.currentGameState = GameState.TRANSITION;
+                        this.pendingTurn = null;
+                        this.plannedMoves = null;
 
                         // Prepare for next turn
+                        final Player idlePlayer = currentPlayer;
                         swapPlayers();
+                        if (currentPlayer.isHuman()) {
+                            // Let the other Player think while the human does
+                            idlePlayer.startPondering();
+                        }
                         this.playerHasMoved = false;
                         this.playerEatsThisTurn = false;
                         this.haveCheckedAbilityToMoveThisTurn = false;
@@ -352,6 +378,67 @@ public class Game {
         board.update(secondsSinceStart);
     }
 
+    /**
+     * Returns the next move planned by the current asynchronous Player.
+     * Requests the turn on the first call: the Player computes it on its own thread, and the result
+     * is handed back to the thread of the Game, so the render loop never waits for it.
+     * If the Player fails to compute the turn, the game ends with the error on the GameInfo Label.
+     *
+     * @param secondsSinceStart seconds elapsed since the start of the game.
+     * @return the next move to make, null if it is not time for it yet or the turn is still being computed.
+     */
+    private Pair<Vector2i> getNextPlannedMove(double secondsSinceStart) {
+        if (pendingTurn == null) {
+            final CompletableFuture<List<Pair<Vector2i>>> turn =
+                    ((AsynchronousPlayer) currentPlayer).requestTurn(board.getBoardRepresentationAsArray());
+            pendingTurn = turn;
+            turn.whenCompleteAsync((moves, error) -> {
+                if (pendingTurn != turn) {
+                    // The turn is not awaited anymore
+                    return;
+                }
+                if (error != null) {
+                    // The Player has failed to come up with a move => the game can't go on
+                    error.printStackTrace();
+                    final Throwable cause = (error instanceof CompletionException) ? error.getCause() : error;
+                    writeOnGameInfoLabel.accept(currentPlayer.getPlayerSide().toString() + " has failed to move: "
+                            + cause);
+                    currentGameState = GameState.IDLE;
+                } else {
+                    plannedMoves = new ArrayList<>(moves);
+                }
+                lastPlannedMoveTime = Double.NEGATIVE_INFINITY; // make the first move at once
+            }, turnHandOverExecutor);
+
+            return null;
+        }
+
+        if (plannedMoves == null || plannedMoves.isEmpty()) {
+            return null;
+        }
+        final double pauseInSeconds = CheckersSettings.getInstance().pauseBetweenMovesMillis / 1000.0;
+        if (secondsSinceStart - lastPlannedMoveTime < pauseInSeconds) {
+            return null;
+        }
+
+        lastPlannedMoveTime = secondsSinceStart;
+        return plannedMoves.remove(0);
+    }
+
+    /**
+     * Checks whether the current Player has finished his turn.
+     * An asynchronous Player has finished when all the planned moves have been made.
+     *
+     * @return whether the current Player has finished his turn.
+     */
+    private boolean isCurrentTurnFinished() {
+        if (currentPlayer instanceof AsynchronousPlayer) {
+            return plannedMoves != null && plannedMoves.isEmpty();
+        }
+
+        return currentPlayer.isTurnFinished();
+    }
+
     /**
      * Returns the representation of the board(its current state) as an array.
      * 0 == no Checker.
@@ -366,6 +453,16 @@ public class Game {
         return board.getBoardRepresentationAsArray();
     }
 
+    /**
+     * Returns the Zobrist hash of the current position(including whose turn it is).
+     *
+     * @return the Zobrist hash of the current position.
+     */
+    public long getPositionKey() {
+        final int sideToMove = isPlayerDownTurn() ? Position.SIDE_DOWN : Position.SIDE_UP;
+        return Zobrist.computeKey(board.getBoardRepresentationAsArray(), sideToMove);
+    }
+
     /**
      * Returns whether it is currently PlayerDown's turn.
      *
@@ -394,13 +491,12 @@ public class Game {
     }
 
     /**
-     * Renders the game.
+     * Returns the board of the game(for drawing it).
      *
-     * @param secondsSinceStart seconds elapsed since the start of the game.
+     * @return the board of the game.
      */
-    // TODO: consider removing the argument
-    public void render(double secondsSinceStart) {
-        board.draw(gc);
+    public Board getBoard() {
+        return board;
     }
 
     /**
@@ -427,4 +523,22 @@ public class Game {
     public boolean isPlayerDownHuman() {
         return playerDown.isHuman();
     }
+
+    /**
+     * Returns the Player that plays UP.
+     *
+     * @return the Player that plays UP.
+     */
+    public Player getPlayerUp() {
+        return playerUp;
+    }
+
+    /**
+     * Returns the Player that plays DOWN.
+     *
+     * @return the Player that plays DOWN.
+     */
+    public Player getPlayerDown() {
+        return playerDown;
+    }
 }
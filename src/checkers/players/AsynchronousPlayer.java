@@ -0,0 +1,25 @@
+package checkers.players;
+
+import checkers.util.Pair;
+import checkers.util.Vector2i;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Describes a Player that computes its turns asynchronously.
+ * The Game asks such a Player for the whole turn with requestTurn() instead of polling makeMove(),
+ * so that a long computation does not block the render loop.
+ */
+public interface AsynchronousPlayer {
+
+    /**
+     * Asks the Player to come up with all the moves of its turn without blocking the calling thread.
+     * The future is completed on another thread, the caller is responsible for handing the result over
+     * to its own thread.
+     *
+     * @param boardRepresentation the representation of the board at the start of the turn(is not changed).
+     * @return the future series of moves to make during the turn, an empty series if the Player can't move.
+     */
+    CompletableFuture<List<Pair<Vector2i>>> requestTurn(int[][] boardRepresentation);
+}
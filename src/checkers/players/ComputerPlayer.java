@@ -1,13 +1,38 @@
 package checkers.players;
 
 import checkers.CheckersSettings;
+import checkers.book.OpeningBook;
 import checkers.board.FunctionGetBoardRepresentation;
+import checkers.engine.BoardGeometry;
+import checkers.engine.Evaluator;
+import checkers.engine.Move;
+import checkers.engine.MoveGenerator;
+import checkers.engine.ParallelSearch;
+import checkers.engine.Position;
+import checkers.engine.Search;
+import checkers.engine.SearchResult;
+import checkers.engine.TimeManager;
+import checkers.engine.Zobrist;
+import checkers.tablebase.TablebaseProber;
 import checkers.util.Pair;
 import checkers.util.Vector2i;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
@@ -15,15 +40,88 @@ import java.util.function.Predicate;
  * <p>
  * Created by Igor Boyarshin on April, 2017.
  */
-public class ComputerPlayer extends Player {
+public class ComputerPlayer extends Player implements AsynchronousPlayer {
 
     /**
-     * Time to simulate thinking on the turn. The turn will elapse approximately that much milliseconds.
+     * The size of the transposition table in megabytes.
+     * The table lives as long as the Player, so the work of the previous turns is reused.
      */
-    private static final long THINKING_TIME_MILLIS = 700;
+    private static final int TRANSPOSITION_TABLE_SIZE_MB = 64;
 
     /**
-     * The time when the thinking started(in millis).
+     * The root directory of the endgame tables(see TablebaseGenerator).
+     * If it has no tables for the current rules, the Player searches without them.
+     */
+    private static final String TABLEBASE_DIRECTORY = "tablebases";
+
+    /**
+     * The directory of the opening books(see OpeningBookGenerator).
+     * If it has no book for the current rules, the Player thinks from the first move.
+     */
+    private static final String OPENING_BOOK_DIRECTORY = "books";
+
+    /**
+     * The file of the weights of the evaluation(see EvaluationWeights).
+     * If there is no such file, the Player uses the default weights.
+     */
+    private static final String EVALUATION_WEIGHTS_FILE = "evaluation.properties";
+
+    /**
+     * The size of the cache of the decompressed blocks of the endgame tables in megabytes.
+     */
+    private static final int TABLEBASE_CACHE_SIZE_MB = 32;
+
+    /**
+     * The executor that runs the searches of all the ComputerPlayers, so that they never block the render loop.
+     * Its only thread is a daemon thread: an unfinished search does not keep the application alive.
+     */
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "ComputerPlayer search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The longest time to ponder in milliseconds, so that a human who has left the game
+     * does not keep the processors busy forever.
+     */
+    private static final long PONDER_TIME_LIMIT_MILLIS = 5 * 60 * 1000;
+
+    /**
+     * The timer that stops the pondering once the predicted reply has been played
+     * and the search has had the usual time for the turn.
+     */
+    private static final ScheduledExecutorService PONDER_TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "ComputerPlayer ponder timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The endgame tables of every rules opened so far, shared by all the ComputerPlayers, so that the Players
+     * of a tournament do not map the files and fill a cache each. A null value means there are no tables.
+     * <p>
+     * Access: SHARED_TABLEBASES.get(getRulesKey(settings))
+     */
+    private static final Map<String, TablebaseProber> SHARED_TABLEBASES = new HashMap<>();
+
+    /**
+     * The opening books of every rules opened so far, shared by all the ComputerPlayers.
+     * A null value means there is no book.
+     * <p>
+     * Access: SHARED_OPENING_BOOKS.get(getRulesKey(settings))
+     */
+    private static final Map<String, OpeningBook> SHARED_OPENING_BOOKS = new HashMap<>();
+
+    /**
+     * The ComputerPlayer that is pondering now, null if none.
+     * The pondering occupies the search executor, so it is stopped before any other turn is requested.
+     * Is only accessed on the thread of the Game.
+     */
+    private static ComputerPlayer ponderingPlayer = null;
+
+    /**
+     * The time when the last individual move was made(in millis).
      * Note that this measurement of time is done via System.currentTImeMillis(),
      * not as elsewhere in the program.
      */
@@ -38,15 +136,120 @@ public class ComputerPlayer extends Player {
     private List<Pair<Vector2i>> moves;
 
     /**
-     * The constructor for the class.
+     * The generator of the legal moves.
+     */
+    private final MoveGenerator moveGenerator;
+
+    /**
+     * The buffer for the path of the chosen move.
+     */
+    private final int[] pathBuffer;
+
+    /**
+     * The amount of threads that search for the move.
+     */
+    private final int amountOfThreads;
+
+    /**
+     * The search engine, created on the first turn(when the rules are known).
+     * Is volatile, because the turn may be cancelled on the thread of the Game while it is being created.
+     */
+    private volatile ParallelSearch search;
+
+    /**
+     * The clock of the Player, created on the first turn(with the search).
+     */
+    private TimeManager timeManager;
+
+    /**
+     * The buffer for the legal moves of the position at the start of a turn.
+     */
+    private final long[] moveBuffer;
+
+    /**
+     * The opening book of the current rules, null if there is none.
+     */
+    private OpeningBook openingBook;
+
+    /**
+     * The source of randomness for the choice of the book moves.
+     */
+    private final Random random;
+
+    /**
+     * The file of the weights of the evaluation, read on the first turn.
+     */
+    private Path evaluationWeightsFile;
+
+    /**
+     * The position expected at the start of the next turn: after the last move of this Player and the reply
+     * predicted by the search(or just after the move, if there is no prediction), null if there is none.
+     * Is set by planTurn() and read on the thread of the Game after the turn has been handed over.
+     */
+    private Position ponderPosition;
+
+    /**
+     * The search of the predicted position during the turn of the opponent, null if the Player is not pondering.
+     */
+    private CompletableFuture<SearchResult> ponderSearch;
+
+    /**
+     * The key of the position being pondered.
+     */
+    private long ponderKey;
+
+    /**
+     * The time when the pondering started(System.currentTimeMillis()).
+     */
+    private long ponderStartMillis;
+
+    /**
+     * The turn being computed on the search executor, null if none has been requested.
+     */
+    private CompletableFuture<List<Pair<Vector2i>>> requestedTurn;
+
+    /**
+     * Whether the requested turn has been cancelled(see cancelTurn()).
+     */
+    private volatile boolean isTurnCancelled;
+
+    /**
+     * The first constructor for the class.
+     * The Player searches with as many threads as there are processors.
      *
      * @param playerSide the side of this Player.
      */
     public ComputerPlayer(PlayerSide playerSide) {
+        this(playerSide, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The second constructor for the class.
+     *
+     * @param playerSide      the side of this Player.
+     * @param amountOfThreads the amount of threads that search for the move.
+     */
+    public ComputerPlayer(PlayerSide playerSide, int amountOfThreads) {
         super(playerSide);
 
+        if (amountOfThreads < 1) {
+            throw new IllegalArgumentException("Amount of threads must be positive: " + amountOfThreads);
+        }
+        this.amountOfThreads = amountOfThreads;
         this.thinkingTimeStartMillis = 0;
         this.moves = null;
+        this.moveGenerator = new MoveGenerator();
+        this.pathBuffer = new int[MoveGenerator.MAX_PATH_LENGTH];
+        this.search = null;
+        this.timeManager = null;
+        this.moveBuffer = new long[MoveGenerator.MAX_MOVES];
+        this.openingBook = null;
+        this.random = new Random();
+        this.evaluationWeightsFile = Paths.get(EVALUATION_WEIGHTS_FILE);
+        this.ponderPosition = null;
+        this.ponderSearch = null;
+        this.requestedTurn = null;
+        this.isTurnCancelled = false;
     }
 
     /**
@@ -67,16 +270,19 @@ public class ComputerPlayer extends Player {
             int playerCode,
             Predicate<Vector2i> canCheckerEat,
             Predicate<Vector2i> canCheckerMove) {
+        final long pauseMillis = CheckersSettings.getInstance().pauseBetweenMovesMillis;
         if (moves == null) {
             // first call to makeMove() => come up with a series of moves for this turn
-            this.thinkingTimeStartMillis = System.currentTimeMillis();
             moves = generateMoves(functionGetBoardRepresentation, playerCode, canCheckerEat, canCheckerMove);
+
+            // The thinking has already been done by the search => make the first move at once
+            this.thinkingTimeStartMillis = System.currentTimeMillis() - pauseMillis;
         }
 
         if (moves != null) {
             if (moves.size() > 0) {
                 final long currentTime = System.currentTimeMillis();
-                if ((currentTime - thinkingTimeStartMillis) >= THINKING_TIME_MILLIS) {
+                if ((currentTime - thinkingTimeStartMillis) >= pauseMillis) {
                     thinkingTimeStartMillis = currentTime;
                     return moves.remove(0);
                 }
@@ -111,6 +317,130 @@ public class ComputerPlayer extends Player {
 //        return (System.currentTimeMillis() - thinkingTimeStartMillis) >= THINKING_TIME_MILLIS;
     }
 
+    /**
+     * Starts computing the moves of the turn on the search executor.
+     *
+     * @param boardRepresentation the representation of the board at the start of the turn(is not changed).
+     * @return the future series of moves to make during the turn.
+     */
+    @Override
+    public CompletableFuture<List<Pair<Vector2i>>> requestTurn(int[][] boardRepresentation) {
+        if (ponderingPlayer != null && ponderingPlayer != this) {
+            // The Player of another(abandoned) game must not hold the executor
+            ponderingPlayer.stopPondering();
+        }
+
+        this.isTurnCancelled = false;
+        final CompletableFuture<SearchResult> ponderResult = finishPondering(boardRepresentation);
+        this.requestedTurn = CompletableFuture.supplyAsync(() -> {
+            createSearch(CheckersSettings.getInstance());
+            // A cancel from now on stops the search, an earlier one skips it
+            search.clearStopRequest();
+            if (isTurnCancelled) {
+                return new ArrayList<>();
+            }
+            return planTurn(boardRepresentation, ponderResult);
+        }, SEARCH_EXECUTOR);
+
+        return requestedTurn;
+    }
+
+    /**
+     * Cancels the pondering and the turn being computed, so that they free the search executor for the turns
+     * of the next game as soon as possible. The cancelled turn completes with a CancellationException.
+     */
+    @Override
+    public void cancelTurn() {
+        stopPondering();
+        this.isTurnCancelled = true;
+        if (search != null) {
+            search.stop();
+        }
+        if (requestedTurn != null) {
+            requestedTurn.cancel(false);
+            this.requestedTurn = null;
+        }
+    }
+
+    /**
+     * Starts searching the predicted position on the search executor, while the opponent thinks.
+     * The search goes on until the next turn is requested: if the opponent has made the predicted move,
+     * its result becomes the result of the turn, otherwise it is stopped and only its transposition table
+     * entries are left for the real search.
+     */
+    @Override
+    public void startPondering() {
+        if (ponderPosition == null || ponderSearch != null) {
+            return;
+        }
+        if (ponderingPlayer != null) {
+            ponderingPlayer.stopPondering();
+        }
+
+        final Position position = ponderPosition;
+        this.ponderPosition = null;
+        this.ponderKey = position.getKey();
+        this.ponderStartMillis = System.currentTimeMillis();
+
+        // A stop requested from now on is not lost, even if the search has not started yet
+        search.clearStopRequest();
+        this.ponderSearch = CompletableFuture.supplyAsync(
+                () -> search.searchUnlessStopped(position, PONDER_TIME_LIMIT_MILLIS, Search.MAX_DEPTH),
+                SEARCH_EXECUTOR);
+        ponderingPlayer = this;
+    }
+
+    /**
+     * Finishes the pondering at the start of the turn.
+     * If the position is the pondered one, the pondering search gets the rest of the budget of the turn
+     * (counted from the start of the pondering), otherwise it is stopped at once.
+     *
+     * @param boardRepresentation the representation of the board at the start of the turn.
+     * @return the future result of the pondering search, null if the position is not the pondered one.
+     */
+    private CompletableFuture<SearchResult> finishPondering(int[][] boardRepresentation) {
+        if (ponderSearch == null) {
+            return null;
+        }
+        if (Zobrist.computeKey(boardRepresentation, Position.getSide(playerSide)) != ponderKey) {
+            stopPondering();
+            return null;
+        }
+
+        final CompletableFuture<SearchResult> ponderResult = ponderSearch;
+        this.ponderSearch = null;
+        ponderingPlayer = null;
+
+        // The clock runs from the move of the opponent, the budget counts from the start of the pondering
+        final CheckersSettings settings = CheckersSettings.getInstance();
+        startTurn(Position.createFromArray(settings.boardSizeInCells, boardRepresentation, Position.getSide(playerSide)),
+                settings);
+        final long remainingMillis =
+                timeManager.getSoftLimitMillis() - (System.currentTimeMillis() - ponderStartMillis);
+        if (remainingMillis <= 0) {
+            search.stop();
+        } else {
+            final ScheduledFuture<?> stop = PONDER_TIMER.schedule(search::stop, remainingMillis, TimeUnit.MILLISECONDS);
+            // The stop must not outlive the search it was meant for
+            ponderResult.whenComplete((result, error) -> stop.cancel(false));
+        }
+
+        return ponderResult;
+    }
+
+    /**
+     * Stops the pondering(if the Player is pondering).
+     */
+    private void stopPondering() {
+        if (ponderSearch != null) {
+            search.stop();
+            this.ponderSearch = null;
+        }
+        if (ponderingPlayer == this) {
+            ponderingPlayer = null;
+        }
+    }
+
     /**
      * Checks whether this Player is a human Player.
      * Returns false, because it is a ComputerPlayer.
@@ -137,188 +467,306 @@ public class ComputerPlayer extends Player {
             int playerCode,
             Predicate<Vector2i> canCheckerEat,
             Predicate<Vector2i> canCheckerMove) {
-        List<Pair<Vector2i>> moves = new ArrayList<>();
-
-        // Get the list of the positions of our Checkers
-        // We will be modifying the board => don't make it final
-        int[][] board = functionGetBoardRepresentation.getBoardRepresentationAsArray();
-        List<Vector2i> checkersPositions = new ArrayList<>();
-        final int boardSizeInCells = CheckersSettings.getInstance().boardSizeInCells;
-        for (int column = 0; column < boardSizeInCells; column++) {
-            for (int row = 0; row < boardSizeInCells; row++) {
-                if (board[column][row] == playerCode || board[column][row] == -1 * playerCode) {
-                    checkersPositions.add(new Vector2i(column, row));
-                }
-            }
+        return planTurn(functionGetBoardRepresentation.getBoardRepresentationAsArray());
+    }
+
+    /**
+     * Takes the move from the opening book or searches for the best one, and splits it into a series of moves
+     * for current turn.
+     * Is called either on the thread of the Game or on the search executor, never on both at once.
+     * The headless tools call it directly on their own threads(a Player per game).
+     *
+     * @param boardRepresentation the representation of the board at the start of the turn.
+     * @return a series of moves to make during current turn, empty if there is no move.
+     */
+    public List<Pair<Vector2i>> planTurn(int[][] boardRepresentation) {
+        createSearch(CheckersSettings.getInstance());
+        search.clearStopRequest();
+        return planTurn(boardRepresentation, null);
+    }
+
+    /**
+     * Takes the move from the opening book, from the pondering or searches for the best one,
+     * and splits it into a series of moves for current turn.
+     * Remembers the position to ponder during the turn of the opponent.
+     * The stop request must have been cleared by the caller, so that a cancel is not lost.
+     *
+     * @param boardRepresentation the representation of the board at the start of the turn.
+     * @param ponderResult        the future result of the search of this position made during the turn
+     *                            of the opponent, null if the position has not been pondered.
+     * @return a series of moves to make during current turn, empty if there is no move.
+     */
+    private List<Pair<Vector2i>> planTurn(int[][] boardRepresentation, CompletableFuture<SearchResult> ponderResult) {
+        final CheckersSettings settings = CheckersSettings.getInstance();
+        final Position position = Position.createFromArray(
+                settings.boardSizeInCells,
+                boardRepresentation,
+                Position.getSide(playerSide));
+
+        createSearch(settings);
+        if (ponderResult == null) {
+            // The clock of a pondered turn has been started when the opponent moved
+            startTurn(position, settings);
         }
 
-        // Randomize the moves
-        Collections.shuffle(checkersPositions);
-
-        // If we have to eat => do it(several times)
-        // Find a Checker that can eat
-        Vector2i positionOfCheckerThatEats = checkersPositions.stream()
-                .filter(canCheckerEat)
-                .findAny().orElse(null);
-
-        if (positionOfCheckerThatEats != null) {
-            // If there is a Checker that can eat => eat with it till the end
-            boolean ate = true;
-            while (ate) {
-                ate = false;
-                final boolean queen = board[positionOfCheckerThatEats.x][positionOfCheckerThatEats.y] < 0;
-
-                for (int deltaX = -1; deltaX <= +1; deltaX += 2) {
-                    for (int deltaY = -1; deltaY <= +1; deltaY += 2) {
-                        if (!ate) {
-                            final Vector2i landingPosition =
-                                    findVictimInDirection(board, positionOfCheckerThatEats, playerCode, queen, deltaX, deltaY);
-
-                            if (landingPosition != null) {
-                                // So we can eat someone here
-                                board[positionOfCheckerThatEats.x][positionOfCheckerThatEats.y] = 0; // we were here
-                                board[landingPosition.x - deltaX][landingPosition.y - deltaY] = 0; // this one we ate
-                                board[landingPosition.x][landingPosition.y]
-                                        = playerCode * (queen ? (-1) : (+1)); // we are now here
-
-                                moves.add(new Pair<>(positionOfCheckerThatEats, landingPosition));
-                                positionOfCheckerThatEats = landingPosition;
-                                ate = true;
-                            }
-                        }
-                    }
-                }
+        // Known openings are played from the book without thinking
+        long move = (openingBook == null) ? Move.NONE : openingBook.chooseMove(position, moveGenerator, random);
+        SearchResult searchResult = null;
+        if (move == Move.NONE) {
+            // The search of the pondering goes on until the budget of the turn is over
+            searchResult = (ponderResult == null) ? null : ponderResult.join();
+            if (searchResult == null || searchResult.depth == 0) {
+                searchResult = search.searchUnlessStopped(position, timeManager, Search.MAX_DEPTH);
             }
+            move = searchResult.bestMove;
+        }
+        timeManager.finishTurn();
+        if (move == Move.NONE) {
+            // We can't make any move => skip the turn(return empty list)
+            this.ponderPosition = null;
+            return new ArrayList<>();
+        }
+        this.ponderPosition = getPredictedPosition(position, move, searchResult);
+
+        return splitIntoSteps(position, move);
+    }
+
+    /**
+     * Prepares the analysis of a position outside of a game(see analyse()).
+     * Must be called before the analysis is handed over to the thread that runs it:
+     * a stop requested from now on is not lost, even if the analysis has not started yet.
+     */
+    public void startAnalysis() {
+        createSearch(CheckersSettings.getInstance());
+        search.clearStopRequest();
+    }
 
-            return moves;
+    /**
+     * Searches a position outside of a game, with the search of the Player(its threads, evaluation, endgame tables
+     * and transposition table), but without the opening book and the clock.
+     * The search stops at whichever limit comes first, or when stopAnalysis() is called.
+     *
+     * @param position          the position to search(is restored after the call).
+     * @param timeLimitMillis   the time limit of the search in milliseconds.
+     * @param maxDepth          the maximal depth of the search.
+     * @param maxNodes          the maximal amount of nodes(of the main thread), Long.MAX_VALUE for no limit.
+     * @param iterationListener the listener given the result of every completed iteration, null for none.
+     * @return the result of the search.
+     */
+    public SearchResult analyse(Position position, long timeLimitMillis, int maxDepth, long maxNodes,
+                                Consumer<SearchResult> iterationListener) {
+        search.setNodeLimit(maxNodes);
+        search.setIterationListener(iterationListener);
+        try {
+            return search.searchUnlessStopped(position, timeLimitMillis, maxDepth);
+        } finally {
+            search.setNodeLimit(Long.MAX_VALUE);
+            search.setIterationListener(null);
         }
+    }
 
-        // If we don't have anything to eat => find any move
-        // Find a Checker that can move
-        final Vector2i positionOfCheckerThatMoves = checkersPositions.stream()
-                .filter(canCheckerMove)
-                .findAny().orElse(null);
-
-        if (positionOfCheckerThatMoves != null) {
-            // If there is a Checker that can move => just make the damn move
-
-            final boolean queen = board[positionOfCheckerThatMoves.x][positionOfCheckerThatMoves.y] < 0;
-            for (int deltaX = -1; deltaX <= +1; deltaX += 2) {
-                for (int deltaY = -1; deltaY <= +1; deltaY += 2) {
-                    // Wrong movement direction for a simple Checker => skip direction
-                    if (!queen && playerSide.forwardDirectionY != deltaY) {
-                        continue;
-                    }
-
-                    final Vector2i newPosition = new Vector2i(
-                            positionOfCheckerThatMoves.x + deltaX,
-                            positionOfCheckerThatMoves.y + deltaY);
-
-                    if (isPositionValid(newPosition)) {
-                        if (board[newPosition.x][newPosition.y] == 0) {
-                            // cell is empty => can move there
-                            moves.add(new Pair<>(positionOfCheckerThatMoves, newPosition));
-                            return moves;
-                        }
-                    }
-                }
-            }
+    /**
+     * Asks the running analysis to stop as soon as possible.
+     * Can be called from any thread after startAnalysis().
+     */
+    public void stopAnalysis() {
+        search.stop();
+    }
+
+    /**
+     * Forgets the entries of the transposition table, so that the next analysis does not profit
+     * from the earlier ones. Must not be called during an analysis.
+     */
+    public void clearAnalysis() {
+        createSearch(CheckersSettings.getInstance());
+        search.getTranspositionTable().clear();
+    }
+
+    /**
+     * Prepares the Player for a new game with the same rules: forgets the transposition table, the clock
+     * and the prediction of the previous game, but keeps the endgame tables, the opening book and the evaluation.
+     * Lets a headless tool reuse a Player from game to game. Must not be called during a turn.
+     */
+    public void startNewGame() {
+        final CheckersSettings settings = CheckersSettings.getInstance();
+        createSearch(settings);
+        search.getTranspositionTable().clear();
+        this.timeManager = new TimeManager(settings.computerBaseTimeMillis, settings.computerIncrementMillis);
+        this.ponderPosition = null;
+    }
 
-            // In theory, this line is never reached, because the program should have returned in the cycle above
-//            return moves;
+    /**
+     * Creates the search, the opening book and the clock of the Player on the first call(when the rules are known).
+     *
+     * @param settings the settings of the game.
+     */
+    private void createSearch(CheckersSettings settings) {
+        if (search == null) {
+            search = new ParallelSearch(settings.isEatingMandatory, amountOfThreads, TRANSPOSITION_TABLE_SIZE_MB);
+            search.setTablebaseProber(getSharedTablebase(settings));
+            search.setEvaluator(loadEvaluator());
+            openingBook = getSharedOpeningBook(settings);
+            timeManager = new TimeManager(settings.computerBaseTimeMillis, settings.computerIncrementMillis);
+        }
+    }
+
+    /**
+     * Splits the move into a series of individual steps of the Checker.
+     *
+     * @param position the position in which the move is made.
+     * @param move     the packed move.
+     * @return a series of moves to make during current turn.
+     */
+    protected final List<Pair<Vector2i>> splitIntoSteps(Position position, long move) {
+        final List<Pair<Vector2i>> moves = new ArrayList<>();
+        final int pathLength = moveGenerator.getCapturePath(position, move, pathBuffer);
+        final BoardGeometry geometry = position.getGeometry();
+        for (int stepIndex = 1; stepIndex < pathLength; stepIndex++) {
+            final int from = pathBuffer[stepIndex - 1];
+            final int to = pathBuffer[stepIndex];
+            moves.add(new Pair<>(
+                    new Vector2i(geometry.getColumn(from), geometry.getRow(from)),
+                    new Vector2i(geometry.getColumn(to), geometry.getRow(to))));
         }
 
-        // We can't make any move => skip the turn(return empty list)
         return moves;
     }
 
     /**
-     * Finds a victim to eat in the specified direction.
+     * Starts the clock of the turn.
      *
-     * @param board      the board state to work with.
-     * @param position   the position of the Checker
-     * @param playerCode the code of the opponent Checkers.
-     * @param queen      whether the Checker is a queen
-     * @param deltaX     movement direction along X axis.
-     * @param deltaY     movement direction along Y axis.
-     * @return position where we land after eating the victim, null if no victim was found.
-     */
-    private Vector2i findVictimInDirection(
-            int[][] board,
-            Vector2i position,
-            int playerCode,
-            boolean queen,
-            int deltaX,
-            int deltaY) {
-
-        if (queen) {
-            Vector2i currentPosition = position.clone();
-            currentPosition.x += deltaX;
-            currentPosition.y += deltaY;
-
-            // Move while there
-            boolean found = false;
-            while (isPositionValid(currentPosition.x + deltaX, currentPosition.y + deltaY)) {
-                // So if this is our own code => can't eat our own Checker
-                if (Math.abs(board[currentPosition.x][currentPosition.y]) == playerCode) {
-                    break;
-                }
+     * @param position the position at the start of the turn.
+     * @param settings the settings of the game.
+     */
+    private void startTurn(Position position, CheckersSettings settings) {
+        final int amountOfMoves = moveGenerator.generateMoves(position, settings.isEatingMandatory, moveBuffer, 0);
+        timeManager.startTurn(position, amountOfMoves);
+    }
 
-                // != 0 => opponent code
-                if (Math.abs(board[currentPosition.x][currentPosition.y]) != 0) {
-                    found = true;
-                    break;
-                }
+    /**
+     * Returns the position expected at the start of the next turn.
+     *
+     * @param position     the position at the start of the current turn.
+     * @param move         the move of the current turn.
+     * @param searchResult the result of the search of the current turn, null if the move is from the book.
+     * @return the position after the move and the predicted reply of the opponent(if there is one).
+     */
+    private static Position getPredictedPosition(Position position, long move, SearchResult searchResult) {
+        final Position predictedPosition = new Position(position);
+        predictedPosition.makeMove(move);
+        if (searchResult != null && searchResult.principalVariation.length >= 2
+                && searchResult.principalVariation[0] == move) {
+            predictedPosition.makeMove(searchResult.principalVariation[1]);
+        }
 
-                // Make another step
-                currentPosition.x += deltaX;
-                currentPosition.y += deltaY;
-            }
+        return predictedPosition;
+    }
 
-            if (found) {
-                // landing position
-                return new Vector2i(currentPosition.x + deltaX, currentPosition.y + deltaY);
+    /**
+     * Returns the key of the rules in the maps of the shared endgame tables and opening books.
+     *
+     * @param settings the settings of the game.
+     * @return the key of the rules.
+     */
+    private static String getRulesKey(CheckersSettings settings) {
+        return settings.boardSizeInCells + (settings.isEatingMandatory ? "" : "-notMandatory");
+    }
+
+    /**
+     * Returns the endgame tables of the current rules, opens them on the first call.
+     *
+     * @param settings the settings of the game.
+     * @return the lookup of the endgame tables, null if there are no tables(or they can't be read).
+     */
+    private static TablebaseProber getSharedTablebase(CheckersSettings settings) {
+        final String rulesKey = getRulesKey(settings);
+        synchronized (SHARED_TABLEBASES) {
+            if (!SHARED_TABLEBASES.containsKey(rulesKey)) {
+                SHARED_TABLEBASES.put(rulesKey, openTablebase(settings));
             }
-        } else {
-            final Vector2i victimPosition = new Vector2i(position.x + deltaX, position.y + deltaY);
-            final Vector2i landingPosition = new Vector2i(position.x + 2 * deltaX, position.y + 2 * deltaY);
-
-            // If the positions of the victim and where we land after eating are valid
-            if (isPositionValid(victimPosition) &&
-                    isPositionValid(landingPosition)) {
-                // abs() because there can be either a simple checker or a queen
-                final int code = Math.abs(board[victimPosition.x][victimPosition.y]);
-                if ((code != 0) && (code != playerCode) &&
-                        (board[landingPosition.x][landingPosition.y]) == 0) {
-                    // if there is a proper opponent and the next cell is free => we're goooood!
-                    return landingPosition;
-                }
+            return SHARED_TABLEBASES.get(rulesKey);
+        }
+    }
+
+    /**
+     * Returns the opening book of the current rules, opens it on the first call.
+     *
+     * @param settings the settings of the game.
+     * @return the opening book, null if there is no book(or it can't be read).
+     */
+    private static OpeningBook getSharedOpeningBook(CheckersSettings settings) {
+        final String rulesKey = getRulesKey(settings);
+        synchronized (SHARED_OPENING_BOOKS) {
+            if (!SHARED_OPENING_BOOKS.containsKey(rulesKey)) {
+                SHARED_OPENING_BOOKS.put(rulesKey, openOpeningBook(settings));
             }
+            return SHARED_OPENING_BOOKS.get(rulesKey);
         }
+    }
 
-        return null;
+    /**
+     * Opens the endgame tables of the current rules.
+     *
+     * @param settings the settings of the game.
+     * @return the lookup of the endgame tables, null if there are no tables(or they can't be read).
+     */
+    private static TablebaseProber openTablebase(CheckersSettings settings) {
+        try {
+            final TablebaseProber tablebaseProber = new TablebaseProber(Paths.get(TABLEBASE_DIRECTORY),
+                    settings.boardSizeInCells, settings.isEatingMandatory, TABLEBASE_CACHE_SIZE_MB);
+            return (tablebaseProber.getMaxPieces() > 0) ? tablebaseProber : null;
+        } catch (IOException e) {
+            System.err.println("Can't open the endgame tables: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
-     * Checks whether the specified position on the board is valid.
+     * Sets the file of the weights of the evaluation.
+     * Must be called before the first turn, the weights are read only once.
      *
-     * @param position the position on the board.
-     * @return whether the position on the board is valid.
+     * @param evaluationWeightsFile the properties file of the weights(see EvaluationWeights).
      */
-    private boolean isPositionValid(Vector2i position) {
-        return isPositionValid(position.x, position.y);
+    public void setEvaluationWeightsFile(Path evaluationWeightsFile) {
+        this.evaluationWeightsFile = evaluationWeightsFile;
     }
 
     /**
-     * Checks whether the specified position on the board is valid.
+     * Loads the weights of the evaluation.
      *
-     * @param column the x coordinate of the position.
-     * @param row    the y coordinate of the position.
-     * @return whether the position on the board is valid.
+     * @return the evaluator with the loaded weights, with the default weights if there is no file(or it is bad).
      */
-    private boolean isPositionValid(int column, int row) {
-        final int boardSizeInCells = CheckersSettings.getInstance().boardSizeInCells;
+    protected Evaluator loadEvaluator() {
+        if (!Files.exists(evaluationWeightsFile)) {
+            return new Evaluator();
+        }
+
+        try {
+            return Evaluator.load(evaluationWeightsFile);
+        } catch (IOException e) {
+            System.err.println("Can't load the weights of the evaluation: " + e.getMessage());
+            return new Evaluator();
+        }
+    }
 
-        return (column >= 0 && row >= 0 && column < boardSizeInCells && row < boardSizeInCells);
+    /**
+     * Opens the opening book of the current rules.
+     *
+     * @param settings the settings of the game.
+     * @return the opening book, null if there is no book(or it can't be read).
+     */
+    private static OpeningBook openOpeningBook(CheckersSettings settings) {
+        final Path file = OpeningBook.getFile(Paths.get(OPENING_BOOK_DIRECTORY),
+                settings.boardSizeInCells, settings.isEatingMandatory);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            return new OpeningBook(file, settings.boardSizeInCells, settings.isEatingMandatory);
+        } catch (IOException e) {
+            System.err.println("Can't open the opening book: " + e.getMessage());
+            return null;
+        }
     }
 }
@@ -0,0 +1,204 @@
+package checkers.players;
+
+import checkers.CheckersSettings;
+import checkers.engine.Move;
+import checkers.engine.MonteCarloSearch;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import checkers.engine.SearchResult;
+import checkers.engine.TimeManager;
+import checkers.util.Pair;
+import checkers.util.Vector2i;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Describes a computer Player that chooses its moves with the Monte Carlo tree search instead of alpha-beta.
+ * It plays the turns the same way as the ComputerPlayer, but does not use the opening book, the endgame tables
+ * or the pondering. The tree of the previous turn is reused when the position is found in it.
+ */
+public class MonteCarloPlayer extends ComputerPlayer {
+
+    /**
+     * The executor that runs the searches of all the MonteCarloPlayers, so that they never block the render loop.
+     * Its only thread is a daemon thread: an unfinished search does not keep the application alive.
+     */
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "MonteCarloPlayer search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The amount of threads that run the playouts.
+     */
+    private final int amountOfThreads;
+
+    /**
+     * The generator of the legal moves.
+     */
+    private final MoveGenerator moveGenerator;
+
+    /**
+     * The buffer for the legal moves of the position at the start of a turn.
+     */
+    private final long[] moveBuffer;
+
+    /**
+     * The search engine, created on the first turn(when the rules are known).
+     */
+    private volatile MonteCarloSearch search;
+
+    /**
+     * The clock of the Player, created on the first turn(with the search).
+     */
+    private TimeManager timeManager;
+
+    /**
+     * The result of the search of the last turn, null if there has been none.
+     */
+    private volatile SearchResult lastSearchResult;
+
+    /**
+     * Whether the requested turn has been cancelled(see cancelTurn()).
+     */
+    private volatile boolean isTurnCancelled;
+
+    /**
+     * The first constructor for the class.
+     * The Player runs the playouts with as many threads as there are processors.
+     *
+     * @param playerSide the side of this Player.
+     */
+    public MonteCarloPlayer(PlayerSide playerSide) {
+        this(playerSide, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The second constructor for the class.
+     *
+     * @param playerSide      the side of this Player.
+     * @param amountOfThreads the amount of threads that run the playouts.
+     */
+    public MonteCarloPlayer(PlayerSide playerSide, int amountOfThreads) {
+        super(playerSide, amountOfThreads);
+
+        this.amountOfThreads = amountOfThreads;
+        this.moveGenerator = new MoveGenerator();
+        this.moveBuffer = new long[MoveGenerator.MAX_MOVES];
+        this.search = null;
+        this.timeManager = null;
+        this.lastSearchResult = null;
+        this.isTurnCancelled = false;
+    }
+
+    /**
+     * Starts computing the moves of the turn on the search executor of the MonteCarloPlayers.
+     *
+     * @param boardRepresentation the representation of the board at the start of the turn(is not changed).
+     * @return the future series of moves to make during the turn.
+     */
+    @Override
+    public CompletableFuture<List<Pair<Vector2i>>> requestTurn(int[][] boardRepresentation) {
+        this.isTurnCancelled = false;
+        return CompletableFuture.supplyAsync(() -> {
+            createSearch(CheckersSettings.getInstance());
+            // A cancel from now on stops the search, an earlier one skips it
+            search.clearStopRequest();
+            if (isTurnCancelled) {
+                return new ArrayList<>();
+            }
+            return planTurnUnlessStopped(boardRepresentation);
+        }, SEARCH_EXECUTOR);
+    }
+
+    /**
+     * Stops the search of the turn being computed, so that it frees the search executor as soon as possible.
+     */
+    @Override
+    public void cancelTurn() {
+        this.isTurnCancelled = true;
+        if (search != null) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Searches for the best move with the playouts and splits it into a series of moves for current turn.
+     *
+     * @param boardRepresentation the representation of the board at the start of the turn.
+     * @return a series of moves to make during current turn, empty if there is no move.
+     */
+    @Override
+    public List<Pair<Vector2i>> planTurn(int[][] boardRepresentation) {
+        createSearch(CheckersSettings.getInstance());
+        search.clearStopRequest();
+        return planTurnUnlessStopped(boardRepresentation);
+    }
+
+    /**
+     * Plans the turn like planTurn(), but without clearing the stop request of the search first.
+     *
+     * @param boardRepresentation the representation of the board at the start of the turn.
+     * @return a series of moves to make during current turn, empty if there is no move.
+     */
+    private List<Pair<Vector2i>> planTurnUnlessStopped(int[][] boardRepresentation) {
+        final CheckersSettings settings = CheckersSettings.getInstance();
+        final Position position = Position.createFromArray(
+                settings.boardSizeInCells,
+                boardRepresentation,
+                Position.getSide(playerSide));
+
+        final int amountOfMoves = moveGenerator.generateMoves(position, settings.isEatingMandatory, moveBuffer, 0);
+        timeManager.startTurn(position, amountOfMoves);
+        final SearchResult searchResult = search.searchUnlessStopped(position, timeManager);
+        timeManager.finishTurn();
+        this.lastSearchResult = searchResult;
+        if (searchResult.bestMove == Move.NONE) {
+            // We can't make any move => skip the turn(return empty list)
+            return new ArrayList<>();
+        }
+
+        return splitIntoSteps(position, searchResult.bestMove);
+    }
+
+    /**
+     * Prepares the Player for a new game with the same rules: forgets the tree and the clock of the previous game.
+     * Must not be called during a turn.
+     */
+    @Override
+    public void startNewGame() {
+        final CheckersSettings settings = CheckersSettings.getInstance();
+        createSearch(settings);
+        search.clear();
+        this.timeManager = new TimeManager(settings.computerBaseTimeMillis, settings.computerIncrementMillis);
+    }
+
+    /**
+     * Creates the search and the clock on the first turn(when the rules are known).
+     *
+     * @param settings the settings of the game.
+     */
+    private void createSearch(CheckersSettings settings) {
+        if (search == null) {
+            final MonteCarloSearch newSearch = new MonteCarloSearch(settings.isEatingMandatory, amountOfThreads);
+            newSearch.setEvaluator(loadEvaluator());
+            timeManager = new TimeManager(settings.computerBaseTimeMillis, settings.computerIncrementMillis);
+            search = newSearch;
+        }
+    }
+
+    /**
+     * Returns the result of the search of the last turn.
+     * Its nodes are the playouts, so getNodesPerSecond() gives the playouts per second.
+     *
+     * @return the result of the last search, null if the Player has not searched yet.
+     */
+    public SearchResult getLastSearchResult() {
+        return lastSearchResult;
+    }
+}
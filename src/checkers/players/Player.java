@@ -61,6 +61,20 @@ public abstract class Player {
      */
     public void confirmTurnFinished() {}
 
+    /**
+     * Is called when the turn of the opponent(a human) starts, so that the Player can think in the meantime.
+     * The thinking must not block the calling thread, it ends when the Player is asked for its next turn.
+     * The default implementation is empty, override it if the Player can make use of that time.
+     */
+    public void startPondering() {}
+
+    /**
+     * Is called when the Game is abandoned(e.g. a new game is started), so that the Player stops
+     * computing its turn or pondering. The Game does not ask the Player for anything afterwards.
+     * The default implementation is empty, override it if the Player thinks on other threads.
+     */
+    public void cancelTurn() {}
+
     /**
      * Checks whether this Player is a human player.
      *
@@ -0,0 +1,166 @@
+package checkers.server;
+
+import checkers.engine.Evaluator;
+import checkers.engine.Position;
+import checkers.engine.Search;
+import checkers.engine.TranspositionTable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class describes the engine shared by all the games of the GameServer: a fixed pool of threads,
+ * each searching the moves of whichever games ask for them.
+ * <p>
+ * Every search gets the same time, so a move request waits at most for the requests queued before it
+ * divided by the amount of threads, times that time. The searches of a thread keep their tables between
+ * the requests: an entry is only used for its own position, whatever game it came from,
+ * and the next move of a game profits from the entries of its previous one.
+ */
+class EnginePool {
+
+    /**
+     * The threads that search the moves.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The time to search a move in milliseconds.
+     */
+    private final long timePerMoveMillis;
+
+    /**
+     * The maximal depth of the search.
+     */
+    private final int maxDepth;
+
+    /**
+     * The static evaluation(shared by all the threads).
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * The size of the transposition table of every search in megabytes.
+     */
+    private final int tableSizeInMegabytes;
+
+    /**
+     * The searches of the current thread(created when needed): [0, 1] for the 8x8 board, [2, 3] for the 10x10 one,
+     * the odd ones if eating is mandatory.
+     */
+    private final ThreadLocal<Search[]> searches;
+
+    /**
+     * The amount of requests that have not been answered yet.
+     */
+    private final AtomicInteger pendingRequests;
+
+    /**
+     * The amount of requests answered since the last statistics.
+     */
+    private final AtomicLong answeredRequests;
+
+    /**
+     * The sum of the times from the requests to the answers since the last statistics in milliseconds.
+     */
+    private final AtomicLong latencySumMillis;
+
+    /**
+     * The longest time from a request to its answer since the last statistics in milliseconds.
+     */
+    private final AtomicLong maxLatencyMillis;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param amountOfThreads      the amount of threads that search the moves.
+     * @param timePerMoveMillis    the time to search a move in milliseconds.
+     * @param maxDepth             the maximal depth of the search.
+     * @param evaluator            the static evaluation.
+     * @param tableSizeInMegabytes the size of the transposition table of every search in megabytes.
+     */
+    EnginePool(int amountOfThreads, long timePerMoveMillis, int maxDepth, Evaluator evaluator,
+               int tableSizeInMegabytes) {
+        this.executor = Executors.newFixedThreadPool(amountOfThreads, runnable -> {
+            final Thread thread = new Thread(runnable, "EnginePool search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timePerMoveMillis = timePerMoveMillis;
+        this.maxDepth = maxDepth;
+        this.evaluator = evaluator;
+        this.tableSizeInMegabytes = tableSizeInMegabytes;
+        this.searches = ThreadLocal.withInitial(() -> new Search[4]);
+        this.pendingRequests = new AtomicInteger();
+        this.answeredRequests = new AtomicLong();
+        this.latencySumMillis = new AtomicLong();
+        this.maxLatencyMillis = new AtomicLong();
+    }
+
+    /**
+     * Asks for the best move of a position.
+     *
+     * @param position          the position(is owned by the search from now on).
+     * @param isEatingMandatory whether eating is mandatory.
+     * @return the future best move, Move.NONE if the side to move can't move.
+     */
+    CompletableFuture<Long> requestMove(Position position, boolean isEatingMandatory) {
+        final long requestMillis = System.currentTimeMillis();
+        pendingRequests.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getSearch(position.getGeometry().boardSizeInCells, isEatingMandatory)
+                        .search(position, timePerMoveMillis, maxDepth).bestMove;
+            } finally {
+                final long latencyMillis = System.currentTimeMillis() - requestMillis;
+                pendingRequests.decrementAndGet();
+                answeredRequests.incrementAndGet();
+                latencySumMillis.addAndGet(latencyMillis);
+                maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+            }
+        }, executor);
+    }
+
+    /**
+     * Returns the search of the current thread for the board and the rules, creates it on the first call.
+     *
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @return the search of the current thread.
+     */
+    private Search getSearch(int boardSizeInCells, boolean isEatingMandatory) {
+        final Search[] threadSearches = searches.get();
+        final int index = ((boardSizeInCells == 8) ? 0 : 2) + (isEatingMandatory ? 1 : 0);
+        if (threadSearches[index] == null) {
+            threadSearches[index] = new Search(isEatingMandatory, new TranspositionTable(tableSizeInMegabytes));
+            threadSearches[index].setEvaluator(evaluator);
+        }
+
+        return threadSearches[index];
+    }
+
+    /**
+     * Returns the statistics of the requests since the last call and starts collecting them anew.
+     *
+     * @return the text of the statistics.
+     */
+    String getAndResetStatistics() {
+        final long answered = answeredRequests.getAndSet(0);
+        final long latencySum = latencySumMillis.getAndSet(0);
+        final long maxLatency = maxLatencyMillis.getAndSet(0);
+        return "engine moves " + answered
+                + ", pending " + pendingRequests.get()
+                + ", latency avg " + (answered == 0 ? 0 : latencySum / answered) + " ms"
+                + ", max " + maxLatency + " ms";
+    }
+
+    /**
+     * Stops the threads(the pending requests are still answered).
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+}
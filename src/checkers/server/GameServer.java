@@ -0,0 +1,281 @@
+package checkers.server;
+
+import checkers.engine.Evaluator;
+import checkers.engine.Position;
+import checkers.engine.Search;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This class is a headless server that hosts games against the engine for the clients on the local machine.
+ * <p>
+ * Every connection plays its own games(see GameSession for the protocol). All the connections are served by
+ * a single thread with a selector, so thousands of mostly idle games need neither a thread nor a stack each.
+ * The moves of the engine are searched by a shared pool of threads(see EnginePool) with a fixed time per move,
+ * and the found moves are handed back to the thread of the selector, which is the only one to touch the games.
+ * The server only listens on the loopback address.
+ * <p>
+ * Every STATUS_INTERVAL_MILLIS the amount of connections and the latency of the engine are printed.
+ * <p>
+ * Usage: GameServer [-port N] [-maxConnections N] [-threads N] [-time millis] [-depth N] [-tableSize MB]
+ * [-weights file]
+ */
+public class GameServer {
+
+    /**
+     * The default port to listen on.
+     */
+    private static final int DEFAULT_PORT = 7373;
+
+    /**
+     * The default maximal amount of connections at once.
+     */
+    private static final int DEFAULT_MAX_CONNECTIONS = 10000;
+
+    /**
+     * The default time to search a move of the engine in milliseconds.
+     */
+    private static final long DEFAULT_TIME_MILLIS = 100;
+
+    /**
+     * The default size of the transposition table of every search of the engine in megabytes.
+     */
+    private static final int DEFAULT_TABLE_SIZE_MB = 8;
+
+    /**
+     * The interval between two reports of the status in milliseconds.
+     */
+    private static final long STATUS_INTERVAL_MILLIS = 10000;
+
+    /**
+     * The selector of the connections.
+     */
+    private final Selector selector;
+
+    /**
+     * The channel that accepts the connections.
+     */
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * The engine of all the games.
+     */
+    private final EnginePool enginePool;
+
+    /**
+     * The maximal amount of connections at once.
+     */
+    private final int maxConnections;
+
+    /**
+     * The tasks handed over to the thread of the selector by the threads of the engine.
+     */
+    private final ConcurrentLinkedQueue<Runnable> handedOverTasks;
+
+    /**
+     * The amount of open connections.
+     */
+    private int amountOfConnections;
+
+    /**
+     * The constructor of the class. Starts listening on the port.
+     *
+     * @param port           the port to listen on(of the loopback address).
+     * @param maxConnections the maximal amount of connections at once.
+     * @param enginePool     the engine of all the games.
+     * @throws IOException if the port can not be listened on.
+     */
+    GameServer(int port, int maxConnections, EnginePool enginePool) throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxConnections);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.enginePool = enginePool;
+        this.maxConnections = maxConnections;
+        this.handedOverTasks = new ConcurrentLinkedQueue<>();
+        this.amountOfConnections = 0;
+    }
+
+    /**
+     * Serves the connections until the thread is interrupted.
+     *
+     * @throws IOException if the selector fails.
+     */
+    public void run() throws IOException {
+        long nextStatusMillis = System.currentTimeMillis() + STATUS_INTERVAL_MILLIS;
+        while (!Thread.currentThread().isInterrupted()) {
+            selector.select(STATUS_INTERVAL_MILLIS);
+
+            Runnable task;
+            while ((task = handedOverTasks.poll()) != null) {
+                task.run();
+            }
+
+            final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                final SelectionKey key = keys.next();
+                keys.remove();
+                if (key.isValid() && key.isAcceptable()) {
+                    accept();
+                } else {
+                    serve(key);
+                }
+            }
+
+            if (System.currentTimeMillis() >= nextStatusMillis) {
+                nextStatusMillis = System.currentTimeMillis() + STATUS_INTERVAL_MILLIS;
+                System.out.println("connections " + amountOfConnections + ", " + enginePool.getAndResetStatistics());
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof GameSession) {
+                ((GameSession) key.attachment()).close();
+            }
+        }
+        serverChannel.close();
+        selector.close();
+        enginePool.shutdown();
+    }
+
+    /**
+     * Accepts the waiting connections.
+     *
+     * @throws IOException if the server channel fails.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            if (amountOfConnections >= maxConnections) {
+                channel.close();
+                continue;
+            }
+
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            final SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new GameSession(this, channel, key));
+            amountOfConnections++;
+        }
+    }
+
+    /**
+     * Reads from and writes to a connection.
+     * A connection that fails is closed, the others are not affected.
+     * A cancelled key or a key without a session is skipped.
+     *
+     * @param key the key of the connection.
+     */
+    private void serve(SelectionKey key) {
+        if (!key.isValid() || !(key.attachment() instanceof GameSession)) {
+            return;
+        }
+
+        final GameSession session = (GameSession) key.attachment();
+        try {
+            if (key.isValid() && key.isWritable()) {
+                session.onWritable();
+            }
+            if (key.isValid() && key.isReadable()) {
+                session.onReadable();
+            }
+        } catch (IOException e) {
+            session.close();
+        }
+    }
+
+    /**
+     * Asks the engine for the move of a game. The move is handed over to the session on the thread of the selector.
+     *
+     * @param session           the session of the game.
+     * @param position          the position of the game(is owned by the engine from now on).
+     * @param isEatingMandatory whether eating is mandatory.
+     */
+    void requestEngineMove(GameSession session, Position position, boolean isEatingMandatory) {
+        enginePool.requestMove(position, isEatingMandatory).whenComplete((move, error) -> {
+            handedOverTasks.add(() -> {
+                try {
+                    if (error != null) {
+                        throw new IOException("The engine has failed", error);
+                    }
+                    session.onEngineMove(move);
+                } catch (IOException e) {
+                    session.close();
+                }
+            });
+            selector.wakeup();
+        });
+    }
+
+    /**
+     * Is called by a session when its connection has been closed.
+     */
+    void onSessionClosed() {
+        amountOfConnections--;
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     * @throws IOException if the port can not be listened on or the weights can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        int amountOfThreads = Runtime.getRuntime().availableProcessors();
+        long timeMillis = DEFAULT_TIME_MILLIS;
+        int maxDepth = Search.MAX_DEPTH;
+        int tableSizeInMegabytes = DEFAULT_TABLE_SIZE_MB;
+        String weightsFile = null;
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-port":
+                    port = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-maxConnections":
+                    maxConnections = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-threads":
+                    amountOfThreads = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-time":
+                    timeMillis = Long.parseLong(args[++argIndex]);
+                    break;
+                case "-depth":
+                    maxDepth = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-tableSize":
+                    tableSizeInMegabytes = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-weights":
+                    weightsFile = args[++argIndex];
+                    break;
+                default:
+                    System.err.println("Usage: GameServer [-port N] [-maxConnections N] [-threads N] [-time millis] "
+                            + "[-depth N] [-tableSize MB] [-weights file]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        final Evaluator evaluator = (weightsFile == null) ? new Evaluator() : Evaluator.load(Paths.get(weightsFile));
+        final EnginePool enginePool = new EnginePool(
+                amountOfThreads, timeMillis, maxDepth, evaluator, tableSizeInMegabytes);
+        final GameServer server = new GameServer(port, maxConnections, enginePool);
+        System.out.println("Listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + port
+                + ", " + amountOfThreads + " engine threads, " + timeMillis + " ms per move");
+        server.run();
+    }
+}
@@ -0,0 +1,383 @@
+package checkers.server;
+
+import checkers.engine.Move;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Notation;
+import checkers.engine.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * This class describes a connection to the GameServer and the game played over it.
+ * <p>
+ * A session has no thread of its own: it is only touched by the thread of the server, which reads its commands,
+ * and the moves of the engine are handed over to that thread too. An idle game costs just its position
+ * and the buffers of the connection.
+ * <p>
+ * The protocol is line based. The commands of the client:
+ * <ul>
+ * <li>"new [size 8|10] [notMandatory] [side down|up]" - starts a game, the client plays the given side(DOWN,
+ * which moves first, by default), the engine plays the other one;</li>
+ * <li>"move m" - makes the move of the client in the text notation(see Notation);</li>
+ * <li>"position" - asks for the current position;</li>
+ * <li>"quit" - closes the connection.</li>
+ * </ul>
+ * The answers of the server(the positions are in the notation of Notation.positionToString()):
+ * "game size rules side position", "ok position"(the move of the client has been made),
+ * "move m position"(the engine has made a move), "position position", "result 1-0|0-1|1/2-1/2 reason"
+ * (the game is over, a new one may be started) and "error text".
+ */
+class GameSession {
+
+    /**
+     * The amount of plies after which a game is a draw.
+     */
+    private static final int MAX_GAME_PLIES = 300;
+
+    /**
+     * The maximal length of a command line, a longer line closes the connection.
+     */
+    private static final int MAX_LINE_LENGTH = 256;
+
+    /**
+     * The maximal amount of answers waiting for the client to read them, the connection of a client
+     * that does not read them is closed.
+     */
+    private static final int MAX_PENDING_ANSWERS = 64;
+
+    /**
+     * The server of the session.
+     */
+    private final GameServer server;
+
+    /**
+     * The connection to the client.
+     */
+    private final SocketChannel channel;
+
+    /**
+     * The key of the connection in the selector of the server.
+     */
+    private final SelectionKey key;
+
+    /**
+     * The buffer for reading from the connection.
+     */
+    private final ByteBuffer readBuffer;
+
+    /**
+     * The command line being read.
+     */
+    private final StringBuilder line;
+
+    /**
+     * The answers that haven't been written to the connection yet.
+     */
+    private final ArrayDeque<ByteBuffer> pendingAnswers;
+
+    /**
+     * The generator of the legal moves.
+     */
+    private final MoveGenerator moveGenerator;
+
+    /**
+     * The buffer for the legal moves of the current position.
+     */
+    private final long[] moveBuffer;
+
+    /**
+     * The position of the game, null if no game is being played.
+     */
+    private Position position;
+
+    /**
+     * Whether eating is mandatory in the game.
+     */
+    private boolean isEatingMandatory;
+
+    /**
+     * The side played by the engine.
+     */
+    private int engineSide;
+
+    /**
+     * The amount of plies played in the game.
+     */
+    private int plies;
+
+    /**
+     * Whether the engine is searching for its move.
+     */
+    private boolean isEngineThinking;
+
+    /**
+     * Whether the connection has been closed.
+     */
+    private boolean isClosed;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param server  the server of the session.
+     * @param channel the connection to the client.
+     * @param key     the key of the connection in the selector of the server.
+     */
+    GameSession(GameServer server, SocketChannel channel, SelectionKey key) {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+        this.readBuffer = ByteBuffer.allocate(MAX_LINE_LENGTH);
+        this.line = new StringBuilder();
+        this.pendingAnswers = new ArrayDeque<>();
+        this.moveGenerator = new MoveGenerator();
+        this.moveBuffer = new long[MoveGenerator.MAX_MOVES];
+        this.position = null;
+        this.isEngineThinking = false;
+        this.isClosed = false;
+    }
+
+    /**
+     * Reads the available commands from the connection and executes them.
+     *
+     * @throws IOException if the connection fails.
+     */
+    void onReadable() throws IOException {
+        readBuffer.clear();
+        final int amountOfBytes = channel.read(readBuffer);
+        if (amountOfBytes < 0) {
+            close();
+            return;
+        }
+
+        readBuffer.flip();
+        while (readBuffer.hasRemaining() && !isClosed) {
+            final char c = (char) (readBuffer.get() & 0xFF);
+            if (c == '\n') {
+                executeCommand(line.toString().trim());
+                line.setLength(0);
+            } else if (c != '\r') {
+                line.append(c);
+                if (line.length() > MAX_LINE_LENGTH) {
+                    send("error line too long");
+                    close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the pending answers that the connection can take now.
+     *
+     * @throws IOException if the connection fails.
+     */
+    void onWritable() throws IOException {
+        while (!pendingAnswers.isEmpty()) {
+            final ByteBuffer answer = pendingAnswers.peek();
+            channel.write(answer);
+            if (answer.hasRemaining()) {
+                break;
+            }
+            pendingAnswers.poll();
+        }
+
+        if (key.isValid()) {
+            key.interestOps(pendingAnswers.isEmpty()
+                    ? SelectionKey.OP_READ
+                    : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Takes the move found by the engine: makes it and continues the game.
+     *
+     * @param move the move of the engine.
+     * @throws IOException if the connection fails.
+     */
+    void onEngineMove(long move) throws IOException {
+        if (isClosed) {
+            return;
+        }
+
+        isEngineThinking = false;
+        final String moveText = Notation.toString(position, move, moveGenerator);
+        position.makeMove(move);
+        plies++;
+        send("move " + moveText + " " + Notation.positionToString(position));
+        continueGame();
+    }
+
+    /**
+     * Closes the connection. A move of the engine that arrives later is ignored.
+     */
+    void close() {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+        position = null;
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // The connection is gone anyway
+        }
+        server.onSessionClosed();
+    }
+
+    /**
+     * Executes a command line of the client.
+     *
+     * @param command the command line.
+     * @throws IOException if the connection fails.
+     */
+    private void executeCommand(String command) throws IOException {
+        final String[] tokens = command.split("\\s+");
+        switch (tokens[0]) {
+            case "":
+                break;
+            case "new":
+                startGame(tokens);
+                break;
+            case "move":
+                makeClientMove(tokens);
+                break;
+            case "position":
+                send(position == null ? "error no game" : "position " + Notation.positionToString(position));
+                break;
+            case "quit":
+                close();
+                break;
+            default:
+                send("error unknown command " + tokens[0]);
+        }
+    }
+
+    /**
+     * Starts a new game.
+     *
+     * @param tokens the tokens of the command line.
+     * @throws IOException if the connection fails.
+     */
+    private void startGame(String[] tokens) throws IOException {
+        if (isEngineThinking) {
+            send("error engine is thinking");
+            return;
+        }
+
+        int boardSizeInCells = 8;
+        boolean isEatingMandatory = true;
+        int clientSide = Position.SIDE_DOWN;
+        try {
+            for (int tokenIndex = 1; tokenIndex < tokens.length; tokenIndex++) {
+                switch (tokens[tokenIndex]) {
+                    case "size":
+                        boardSizeInCells = Integer.parseInt(tokens[++tokenIndex]);
+                        break;
+                    case "notMandatory":
+                        isEatingMandatory = false;
+                        break;
+                    case "side":
+                        clientSide = tokens[++tokenIndex].equals("up") ? Position.SIDE_UP : Position.SIDE_DOWN;
+                        break;
+                    default:
+                        send("error unknown option " + tokens[tokenIndex]);
+                        return;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("error bad options");
+            return;
+        }
+        if (boardSizeInCells != 8 && boardSizeInCells != 10) {
+            send("error unsupported board size " + boardSizeInCells);
+            return;
+        }
+
+        this.position = Position.createInitial(boardSizeInCells);
+        this.isEatingMandatory = isEatingMandatory;
+        this.engineSide = clientSide ^ 1;
+        this.plies = 0;
+        send("game " + boardSizeInCells
+                + (isEatingMandatory ? " mandatory " : " notMandatory ")
+                + (clientSide == Position.SIDE_DOWN ? "down " : "up ")
+                + Notation.positionToString(position));
+        continueGame();
+    }
+
+    /**
+     * Makes the move of the client.
+     *
+     * @param tokens the tokens of the command line.
+     * @throws IOException if the connection fails.
+     */
+    private void makeClientMove(String[] tokens) throws IOException {
+        if (position == null) {
+            send("error no game");
+            return;
+        }
+        if (isEngineThinking || tokens.length != 2) {
+            send(isEngineThinking ? "error not your turn" : "error bad move");
+            return;
+        }
+
+        final long move = Notation.parseMove(position, tokens[1], isEatingMandatory, moveGenerator);
+        if (move == Move.NONE) {
+            send("error illegal move " + tokens[1]);
+            return;
+        }
+
+        position.makeMove(move);
+        plies++;
+        send("ok " + Notation.positionToString(position));
+        continueGame();
+    }
+
+    /**
+     * Finishes the game if it is over, otherwise asks the engine for a move if it is its turn.
+     *
+     * @throws IOException if the connection fails.
+     */
+    private void continueGame() throws IOException {
+        final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moveBuffer, 0);
+        if (amountOfMoves == 0) {
+            // The side that can't move loses
+            send("result " + (position.getSideToMove() == Position.SIDE_UP ? "1-0" : "0-1") + " no moves");
+            position = null;
+        } else if (position.isRepetition()) {
+            send("result 1/2-1/2 repetition");
+            position = null;
+        } else if (plies >= MAX_GAME_PLIES) {
+            send("result 1/2-1/2 too long");
+            position = null;
+        } else if (position.getSideToMove() == engineSide) {
+            isEngineThinking = true;
+            server.requestEngineMove(this, new Position(position), isEatingMandatory);
+        }
+    }
+
+    /**
+     * Sends an answer to the client.
+     *
+     * @param answer the answer(without the line end).
+     * @throws IOException if the connection fails.
+     */
+    private void send(String answer) throws IOException {
+        if (isClosed) {
+            return;
+        }
+        if (pendingAnswers.size() >= MAX_PENDING_ANSWERS) {
+            // The client does not read its answers
+            close();
+            return;
+        }
+
+        pendingAnswers.add(ByteBuffer.wrap((answer + "\n").getBytes(StandardCharsets.US_ASCII)));
+        onWritable();
+    }
+}
@@ -0,0 +1,179 @@
+package checkers.tablebase;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class describes a bounded cache of decompressed blocks of the tables.
+ * When the cache is full, the least recently used block is dropped.
+ * <p>
+ * The cache is shared by all the searching threads(and by all the Players that probe the same tables),
+ * so it is split by the keys into SEGMENTS independently locked segments: the threads that look up
+ * different blocks rarely wait for each other. Every segment drops its own least recently used block.
+ * The blocks are decompressed outside of the locks: two threads may decompress the same block at once,
+ * which is harmless and rare.
+ */
+public class BlockCache {
+
+    /**
+     * The amount of segments(a power of two).
+     */
+    private static final int SEGMENTS = 16;
+
+    /**
+     * The segments of the cache.
+     * <p>
+     * Access: segments[getSegmentIndex(key)]
+     */
+    private final Segment[] segments;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param sizeInMegabytes the maximal size of the decompressed blocks in megabytes.
+     */
+    public BlockCache(int sizeInMegabytes) {
+        final long capacity = ((long) sizeInMegabytes << 20) / CompressedWdlTable.BLOCK_SIZE;
+        this.segments = new Segment[SEGMENTS];
+        for (int segmentIndex = 0; segmentIndex < SEGMENTS; segmentIndex++) {
+            segments[segmentIndex] = new Segment((int) Math.max(1, capacity / SEGMENTS));
+        }
+    }
+
+    /**
+     * Returns the key of a block of a table.
+     *
+     * @param materialCode the code of the material of the table.
+     * @param blockIndex   the index of the block in the table.
+     * @return the key of the block.
+     */
+    public static long getKey(int materialCode, int blockIndex) {
+        return (long) materialCode << Integer.SIZE | blockIndex;
+    }
+
+    /**
+     * Returns the index of the segment of a block.
+     * The bits of the key are mixed, so that the neighbouring blocks of a table fall into different segments.
+     *
+     * @param key the key of the block.
+     * @return the index of the segment.
+     */
+    private static int getSegmentIndex(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - Integer.numberOfTrailingZeros(SEGMENTS)));
+    }
+
+    /**
+     * Returns the block and marks it as the most recently used one.
+     *
+     * @param key the key of the block.
+     * @return the block, null if it's not in the cache.
+     */
+    public byte[] get(long key) {
+        final Segment segment = segments[getSegmentIndex(key)];
+        synchronized (segment) {
+            final byte[] block = segment.get(key);
+            if (block == null) {
+                segment.misses++;
+            } else {
+                segment.hits++;
+            }
+
+            return block;
+        }
+    }
+
+    /**
+     * Puts the block into the cache, dropping the least recently used one of its segment if the segment is full.
+     *
+     * @param key   the key of the block.
+     * @param block the decompressed block.
+     */
+    public void put(long key, byte[] block) {
+        final Segment segment = segments[getSegmentIndex(key)];
+        synchronized (segment) {
+            segment.put(key, block);
+        }
+    }
+
+    /**
+     * Returns the amount of lookups that found their block.
+     *
+     * @return the amount of hits.
+     */
+    public long getHits() {
+        long hits = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+            }
+        }
+
+        return hits;
+    }
+
+    /**
+     * Returns the amount of lookups that didn't find their block.
+     *
+     * @return the amount of misses.
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                misses += segment.misses;
+            }
+        }
+
+        return misses;
+    }
+
+    /**
+     * A segment of the cache: the blocks by their keys, in the order of use(the least recently used first).
+     * Is only accessed with its own lock held.
+     */
+    private static final class Segment extends LinkedHashMap<Long, byte[]> {
+
+        /**
+         * The version of the serialized form(the segments are never serialized, LinkedHashMap just is Serializable).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The maximal amount of blocks of the segment.
+         */
+        private final int capacity;
+
+        /**
+         * The amount of lookups that found their block.
+         */
+        private long hits;
+
+        /**
+         * The amount of lookups that didn't find their block.
+         */
+        private long misses;
+
+        /**
+         * The constructor of the class.
+         *
+         * @param capacity the maximal amount of blocks of the segment.
+         */
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.hits = 0;
+            this.misses = 0;
+        }
+
+        /**
+         * Drops the least recently used block when the segment is over its capacity.
+         *
+         * @param eldest the least recently used block.
+         * @return whether to drop it.
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package checkers.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * This class describes a compressed win/draw/loss table.
+ * The packed values of a WdlTable are split into blocks of BLOCK_SIZE bytes, every block is deflated on its own,
+ * so that a single block can be read without touching the rest of the file.
+ * <p>
+ * The file:
+ * int - MAGIC,
+ * long - the amount of positions,
+ * int - the size of a block in bytes(before compression),
+ * int - the amount of blocks(N),
+ * long[N + 1] - the offsets of the compressed blocks in the file(the last one is the end of the file),
+ * the compressed blocks.
+ * <p>
+ * The file is mapped into memory, nothing but the offsets is read into the heap.
+ * The table can be read by several threads at once.
+ */
+public class CompressedWdlTable {
+
+    /**
+     * The first 4 bytes of a compressed table file("CWDL").
+     */
+    public static final int MAGIC = 0x4357444C;
+
+    /**
+     * The size of a block in bytes(before compression).
+     */
+    public static final int BLOCK_SIZE = 1 << 15;
+
+    /**
+     * The amount of positions in a block.
+     */
+    public static final int POSITIONS_PER_BLOCK = BLOCK_SIZE * WdlTable.POSITIONS_PER_BYTE;
+
+    /**
+     * The size of the header before the offsets in bytes.
+     */
+    private static final int HEADER_SIZE = 20;
+
+    /**
+     * The binary logarithm of the size of a mapped segment in bytes.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+
+    /**
+     * The mask of the offset of a byte inside its segment.
+     */
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    /**
+     * The mapped segments of the file.
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * The offsets of the compressed blocks in the file.
+     */
+    private final long[] blockOffsets;
+
+    /**
+     * The amount of positions.
+     */
+    private final long size;
+
+    /**
+     * The constructor of the class.
+     * Maps the file into memory.
+     *
+     * @param file the path of the file.
+     * @throws IOException if the file can not be read or is not a compressed table.
+     */
+    public CompressedWdlTable(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(12) != BLOCK_SIZE) {
+                throw new IOException("Not a compressed table: " + file);
+            }
+            this.size = header.getLong(4);
+
+            final int amountOfBlocks = header.getInt(16);
+            if (amountOfBlocks != getAmountOfBlocks(size)) {
+                throw new IOException("The compressed table has " + amountOfBlocks + " blocks instead of "
+                        + getAmountOfBlocks(size) + ": " + file);
+            }
+            final ByteBuffer offsets = ByteBuffer.allocate((amountOfBlocks + 1) * Long.BYTES);
+            readFully(channel, offsets, HEADER_SIZE);
+            offsets.flip();
+            this.blockOffsets = new long[amountOfBlocks + 1];
+            offsets.asLongBuffer().get(blockOffsets);
+            if (blockOffsets[amountOfBlocks] != channel.size()) {
+                throw new IOException("The compressed table is truncated: " + file);
+            }
+
+            final long fileSize = channel.size();
+            final int amountOfSegments = (int) ((fileSize + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            this.segments = new MappedByteBuffer[amountOfSegments];
+            for (int segmentIndex = 0; segmentIndex < amountOfSegments; segmentIndex++) {
+                final long start = (long) segmentIndex << SEGMENT_SHIFT;
+                segments[segmentIndex] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(fileSize - start, 1L << SEGMENT_SHIFT));
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of positions.
+     *
+     * @return the amount of positions.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of blocks.
+     *
+     * @return the amount of blocks.
+     */
+    public int getAmountOfBlocks() {
+        return blockOffsets.length - 1;
+    }
+
+    /**
+     * Reads and decompresses a block.
+     *
+     * @param blockIndex the index of the block.
+     * @return the packed values of the block(4 positions in a byte, as in WdlTable).
+     * @throws IOException if the block is damaged(including a block that is inflated into a wrong length).
+     */
+    public byte[] readBlock(int blockIndex) throws IOException {
+        final long start = blockOffsets[blockIndex];
+        final byte[] compressed = new byte[(int) (blockOffsets[blockIndex + 1] - start)];
+        for (int offset = 0; offset < compressed.length; ) {
+            // A block may cross the border of two segments
+            final long position = start + offset;
+            final ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+            segment.position((int) (position & SEGMENT_MASK));
+            final int length = Math.min(compressed.length - offset, segment.remaining());
+            segment.get(compressed, offset, length);
+            offset += length;
+        }
+
+        // Only the last block may be shorter
+        final int expectedLength = (int) Math.min(BLOCK_SIZE,
+                WdlTable.getSizeInBytes(size) - (long) blockIndex * BLOCK_SIZE);
+        final byte[] block = new byte[BLOCK_SIZE];
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (!inflater.finished() && length < BLOCK_SIZE) {
+                final int inflated = inflater.inflate(block, length, BLOCK_SIZE - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+
+            // A short block would leave zeros, which read as UNKNOWN values instead of an error
+            if (length != expectedLength || !inflater.finished()) {
+                throw new IOException("The block " + blockIndex + " of the compressed table is inflated into "
+                        + length + " bytes instead of " + expectedLength);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("The block " + blockIndex + " of the compressed table is damaged", e);
+        } finally {
+            inflater.end();
+        }
+
+        return block;
+    }
+
+    /**
+     * Returns the value of a position from its decompressed block.
+     *
+     * @param block the decompressed block of the position.
+     * @param index the index of the position in the table.
+     * @return the value of the position.
+     */
+    public static int getValue(byte[] block, long index) {
+        final int positionInBlock = (int) (index % POSITIONS_PER_BLOCK);
+        final int shift = (positionInBlock & 3) << 1;
+
+        return (block[positionInBlock >>> 2] >>> shift) & 3;
+    }
+
+    /**
+     * Returns the index of the block of a position.
+     *
+     * @param index the index of the position.
+     * @return the index of the block.
+     */
+    public static int getBlockIndex(long index) {
+        return (int) (index / POSITIONS_PER_BLOCK);
+    }
+
+    /**
+     * Returns the amount of blocks of a table.
+     *
+     * @param size the amount of positions.
+     * @return the amount of blocks.
+     */
+    private static int getAmountOfBlocks(long size) {
+        return (int) ((WdlTable.getSizeInBytes(size) + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+
+    /**
+     * Compresses a win/draw/loss table file.
+     *
+     * @param rawFile        the file of the WdlTable.
+     * @param size           the amount of positions.
+     * @param compressedFile the file to write the compressed table into.
+     * @throws IOException if the files can not be read or written.
+     */
+    public static void compress(Path rawFile, long size, Path compressedFile) throws IOException {
+        final long rawSize = WdlTable.getSizeInBytes(size);
+        final int amountOfBlocks = getAmountOfBlocks(size);
+        final long[] offsets = new long[amountOfBlocks + 1];
+
+        try (FileChannel in = FileChannel.open(rawFile, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(compressedFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+            final byte[] compressed = new byte[BLOCK_SIZE * 2];
+            final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                long position = HEADER_SIZE + (long) offsets.length * Long.BYTES;
+                for (int blockIndex = 0; blockIndex < amountOfBlocks; blockIndex++) {
+                    block.clear();
+                    block.limit((int) Math.min(BLOCK_SIZE, rawSize - (long) blockIndex * BLOCK_SIZE));
+                    readFully(in, block, (long) blockIndex * BLOCK_SIZE);
+
+                    deflater.reset();
+                    deflater.setInput(block.array(), 0, block.limit());
+                    deflater.finish();
+                    int length = 0;
+                    while (!deflater.finished()) {
+                        length += deflater.deflate(compressed, length, compressed.length - length);
+                    }
+
+                    offsets[blockIndex] = position;
+                    writeFully(out, ByteBuffer.wrap(compressed, 0, length), position);
+                    position += length;
+                }
+                offsets[amountOfBlocks] = position;
+            } finally {
+                deflater.end();
+            }
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + offsets.length * Long.BYTES);
+            header.putInt(MAGIC).putLong(size).putInt(BLOCK_SIZE).putInt(amountOfBlocks);
+            header.asLongBuffer().put(offsets);
+            header.rewind();
+            writeFully(out, header, 0);
+        }
+    }
+
+    /**
+     * Reads from the channel until the buffer is full.
+     *
+     * @param channel  the channel to read from.
+     * @param buffer   the buffer to fill.
+     * @param position the position in the channel to read from.
+     * @throws IOException if the channel ends before the buffer is full.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Writes the whole buffer into the channel.
+     *
+     * @param channel  the channel to write into.
+     * @param buffer   the buffer to write.
+     * @param position the position in the channel to write to.
+     * @throws IOException if the channel can not be written.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
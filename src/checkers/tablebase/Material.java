@@ -0,0 +1,200 @@
+package checkers.tablebase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class describes the material of an endgame: the amounts of simple Checkers and queens of both sides.
+ * The sides are named relative to the turn: "us" is the side to move, "them" is its opponent.
+ * Every material has its own table.
+ */
+public final class Material {
+
+    /**
+     * The maximal amount of Checkers of each kind.
+     */
+    public static final int MAX_AMOUNT = 15;
+
+    /**
+     * The amount of different codes of materials.
+     */
+    public static final int CODES_AMOUNT = 1 << 16;
+
+    /**
+     * The amount of simple Checkers of the side to move.
+     */
+    public final int usMen;
+
+    /**
+     * The amount of queens of the side to move.
+     */
+    public final int usQueens;
+
+    /**
+     * The amount of simple Checkers of the opponent.
+     */
+    public final int themMen;
+
+    /**
+     * The amount of queens of the opponent.
+     */
+    public final int themQueens;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param usMen      the amount of simple Checkers of the side to move.
+     * @param usQueens   the amount of queens of the side to move.
+     * @param themMen    the amount of simple Checkers of the opponent.
+     * @param themQueens the amount of queens of the opponent.
+     */
+    public Material(int usMen, int usQueens, int themMen, int themQueens) {
+        if (Math.min(Math.min(usMen, usQueens), Math.min(themMen, themQueens)) < 0
+                || Math.max(Math.max(usMen, usQueens), Math.max(themMen, themQueens)) > MAX_AMOUNT) {
+            throw new IllegalArgumentException("Amounts of Checkers must be between 0 and " + MAX_AMOUNT);
+        }
+
+        this.usMen = usMen;
+        this.usQueens = usQueens;
+        this.themMen = themMen;
+        this.themQueens = themQueens;
+    }
+
+    /**
+     * Returns the material of the given sets of squares.
+     *
+     * @param usMen      the squares of the simple Checkers of the side to move.
+     * @param usQueens   the squares of the queens of the side to move.
+     * @param themMen    the squares of the simple Checkers of the opponent.
+     * @param themQueens the squares of the queens of the opponent.
+     * @return the material.
+     */
+    public static Material of(long usMen, long usQueens, long themMen, long themQueens) {
+        return new Material(Long.bitCount(usMen), Long.bitCount(usQueens),
+                Long.bitCount(themMen), Long.bitCount(themQueens));
+    }
+
+    /**
+     * Returns the total amount of Checkers.
+     *
+     * @return the total amount of Checkers.
+     */
+    public int getAmountOfPieces() {
+        return usMen + usQueens + themMen + themQueens;
+    }
+
+    /**
+     * Returns the total amount of simple Checkers.
+     *
+     * @return the total amount of simple Checkers.
+     */
+    public int getAmountOfMen() {
+        return usMen + themMen;
+    }
+
+    /**
+     * Returns the compact code of the material(4 bits for every amount), to look the tables up in an array.
+     *
+     * @return the code of the material.
+     */
+    public int getCode() {
+        return getCode(usMen, usQueens, themMen, themQueens);
+    }
+
+    /**
+     * Returns the compact code of the material with the given amounts of Checkers.
+     *
+     * @param usMen      the amount of simple Checkers of the side to move.
+     * @param usQueens   the amount of queens of the side to move.
+     * @param themMen    the amount of simple Checkers of the opponent.
+     * @param themQueens the amount of queens of the opponent.
+     * @return the code of the material.
+     */
+    public static int getCode(int usMen, int usQueens, int themMen, int themQueens) {
+        return (((usMen << 4 | usQueens) << 4 | themMen) << 4) | themQueens;
+    }
+
+    /**
+     * Returns the name of the material, e.g. "1m2q-0m1q" for one Checker and two queens against a queen.
+     * The name is used as the name of the file of the table.
+     *
+     * @return the name of the material.
+     */
+    public String getName() {
+        return usMen + "m" + usQueens + "q-" + themMen + "m" + themQueens + "q";
+    }
+
+    /**
+     * Returns all the materials with up to the given amount of Checkers(each side having at least one),
+     * grouped in the order in which their tables must be built.
+     * <p>
+     * A move either keeps the material(with the sides swapped), or eats Checkers, or makes a queen.
+     * So the tables of a group only depend on each other and on the groups with fewer Checkers
+     * or with fewer simple Checkers, which come earlier.
+     *
+     * @param maxPieces the maximal total amount of Checkers.
+     * @return the groups of materials in the order of building.
+     */
+    public static List<List<Material>> getBuildGroups(int maxPieces) {
+        final List<List<Material>> groups = new ArrayList<>();
+        for (int pieces = 2; pieces <= maxPieces; pieces++) {
+            for (int men = 0; men <= pieces; men++) {
+                final List<Material> group = new ArrayList<>();
+                for (int usMen = 0; usMen <= men; usMen++) {
+                    final int themMen = men - usMen;
+                    for (int usQueens = 0; usQueens <= pieces - men; usQueens++) {
+                        final int themQueens = pieces - men - usQueens;
+                        if (usMen + usQueens > 0 && themMen + themQueens > 0) {
+                            group.add(new Material(usMen, usQueens, themMen, themQueens));
+                        }
+                    }
+                }
+                if (!group.isEmpty()) {
+                    groups.add(group);
+                }
+            }
+        }
+
+        return groups;
+    }
+
+    /**
+     * Checks whether this material is equal to the given object.
+     *
+     * @param object the object to compare with.
+     * @return whether the object is the same material.
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof Material)) {
+            return false;
+        }
+
+        final Material material = (Material) object;
+        return usMen == material.usMen && usQueens == material.usQueens
+                && themMen == material.themMen && themQueens == material.themQueens;
+    }
+
+    /**
+     * Returns the hash code of the material.
+     *
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode() {
+        return ((usMen * 31 + usQueens) * 31 + themMen) * 31 + themQueens;
+    }
+
+    /**
+     * Returns the name of the material.
+     *
+     * @return the name of the material.
+     */
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,62 @@
+package checkers.tablebase;
+
+import java.nio.file.Path;
+
+/**
+ * This class describes the layout of the tablebase files on disk.
+ * The tables of every board size and rule set are kept in their own directory,
+ * e.g. "8x8-mandatory/1m1q-0m2q.wdl".
+ * The generator keeps the raw tables(needed to build larger ones) next to their compressed copies,
+ * which are the only ones used for probing.
+ */
+public final class Tablebase {
+
+    /**
+     * The extension of the files of the win/draw/loss tables.
+     */
+    public static final String WDL_EXTENSION = ".wdl";
+
+    /**
+     * The extension of the files of the compressed win/draw/loss tables.
+     */
+    public static final String COMPRESSED_WDL_EXTENSION = ".cwdl";
+
+    /**
+     * This class can not be instantiated.
+     */
+    private Tablebase() {}
+
+    /**
+     * Returns the directory of the tables of the given board size and rule set.
+     *
+     * @param root              the root directory of the tablebases.
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @return the directory of the tables.
+     */
+    public static Path getDirectory(Path root, int boardSizeInCells, boolean isEatingMandatory) {
+        return root.resolve(boardSizeInCells + "x" + boardSizeInCells + (isEatingMandatory ? "-mandatory" : "-optional"));
+    }
+
+    /**
+     * Returns the file of the win/draw/loss table of the material.
+     *
+     * @param directory the directory of the tables(see getDirectory()).
+     * @param material  the material.
+     * @return the file of the table.
+     */
+    public static Path getWdlFile(Path directory, Material material) {
+        return directory.resolve(material.getName() + WDL_EXTENSION);
+    }
+
+    /**
+     * Returns the file of the compressed win/draw/loss table of the material.
+     *
+     * @param directory the directory of the tables(see getDirectory()).
+     * @param material  the material.
+     * @return the file of the compressed table.
+     */
+    public static Path getCompressedWdlFile(Path directory, Material material) {
+        return directory.resolve(material.getName() + COMPRESSED_WDL_EXTENSION);
+    }
+}
@@ -0,0 +1,366 @@
+package checkers.tablebase;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Position;
+
+/**
+ * This class describes the perfect combinatorial ranking of the positions of one material:
+ * every placement of the Checkers gets its own index in the range [0, size), and every index is a placement.
+ * <p>
+ * The positions are always seen from the side to move("us"), as if it was the DOWN side:
+ * if the UP side is to move, the board is turned around(square s becomes squaresAmount - 1 - s)
+ * and the sides are swapped. Thus our simple Checkers never stand on the first row, theirs never on the last row.
+ * <p>
+ * The Checkers are placed group by group, each group being ranked among the squares still free for it:
+ * their simple Checkers on the first row(j of them), their other simple Checkers in the middle rows,
+ * our simple Checkers, our queens, their queens. The positions with different j make consecutive slices.
+ * A set of k squares, numbered p1 < p2 < ... < pk among the free squares, has the rank
+ * C(p1, 1) + C(p2, 2) + ... + C(pk, k)(the combinatorial number system).
+ */
+public class TablebaseIndexer {
+
+    /**
+     * The index of the simple Checkers of the side to move in the arrays of squares.
+     */
+    public static final int US_MEN = 0;
+
+    /**
+     * The index of the queens of the side to move in the arrays of squares.
+     */
+    public static final int US_QUEENS = 1;
+
+    /**
+     * The index of the simple Checkers of the opponent in the arrays of squares.
+     */
+    public static final int THEM_MEN = 2;
+
+    /**
+     * The index of the queens of the opponent in the arrays of squares.
+     */
+    public static final int THEM_QUEENS = 3;
+
+    /**
+     * The binomial coefficients.
+     * <p>
+     * Access: BINOMIALS[n][k]
+     */
+    private static final long[][] BINOMIALS = createBinomials(64);
+
+    /**
+     * The geometry of the board.
+     */
+    private final BoardGeometry geometry;
+
+    /**
+     * The material of the positions.
+     */
+    private final Material material;
+
+    /**
+     * The squares of the first row.
+     */
+    private final long firstRow;
+
+    /**
+     * The squares of the rows between the first and the last one.
+     */
+    private final long middleRows;
+
+    /**
+     * The index of the first position of every slice.
+     * <p>
+     * Access: sliceOffsets[j], j - the amount of their simple Checkers on the first row.
+     */
+    private final long[] sliceOffsets;
+
+    /**
+     * The amounts of placements of every group of Checkers in every slice, in the order of ranking.
+     * <p>
+     * Access: groupSizes[j][group]
+     */
+    private final long[][] groupSizes;
+
+    /**
+     * The amount of positions.
+     */
+    private final long size;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param geometry the geometry of the board.
+     * @param material the material of the positions.
+     */
+    public TablebaseIndexer(BoardGeometry geometry, Material material) {
+        this.geometry = geometry;
+        this.material = material;
+        this.firstRow = geometry.firstRowMask;
+        this.middleRows = geometry.allSquaresMask & ~geometry.firstRowMask & ~geometry.lastRowMask;
+
+        this.sliceOffsets = new long[geometry.squaresPerRow + 2];
+        this.groupSizes = new long[geometry.squaresPerRow + 1][];
+        long offset = 0;
+        for (int j = 0; j <= geometry.squaresPerRow; j++) {
+            groupSizes[j] = computeGroupSizes(j);
+            sliceOffsets[j] = offset;
+            offset += getSliceSize(j);
+        }
+        sliceOffsets[geometry.squaresPerRow + 1] = offset;
+        this.size = offset;
+    }
+
+    /**
+     * Returns the material of the positions.
+     *
+     * @return the material of the positions.
+     */
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * Returns the amount of positions.
+     *
+     * @return the amount of positions.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the placement.
+     *
+     * @param squares the squares of the Checkers(of this material), accessed by US_MEN etc.
+     * @return the index of the placement.
+     */
+    public long getIndex(long[] squares) {
+        final long themMen = squares[THEM_MEN];
+        final long themMenOnFirstRow = themMen & firstRow;
+        final int j = Long.bitCount(themMenOnFirstRow);
+
+        final long usMenFree = geometry.allSquaresMask & ~firstRow & ~themMen;
+        final long queensFree = geometry.allSquaresMask & ~themMen & ~squares[US_MEN];
+        final long themQueensFree = queensFree & ~squares[US_QUEENS];
+
+        final long[] sizes = groupSizes[j];
+        long index = rank(themMenOnFirstRow, firstRow);
+        index = index * sizes[1] + rank(themMen & middleRows, middleRows);
+        index = index * sizes[2] + rank(squares[US_MEN], usMenFree);
+        index = index * sizes[3] + rank(squares[US_QUEENS], queensFree);
+        index = index * sizes[4] + rank(squares[THEM_QUEENS], themQueensFree);
+
+        return sliceOffsets[j] + index;
+    }
+
+    /**
+     * Restores the placement from its index.
+     *
+     * @param index   the index of the placement.
+     * @param squares the array to write the squares of the Checkers into, accessed by US_MEN etc.
+     */
+    public void getPlacement(long index, long[] squares) {
+        int j = 0;
+        while (index >= sliceOffsets[j + 1]) {
+            j++;
+        }
+        long rest = index - sliceOffsets[j];
+
+        final long[] sizes = groupSizes[j];
+        final long themQueensRank = rest % sizes[4];
+        rest /= sizes[4];
+        final long usQueensRank = rest % sizes[3];
+        rest /= sizes[3];
+        final long usMenRank = rest % sizes[2];
+        rest /= sizes[2];
+        final long themMiddleMenRank = rest % sizes[1];
+        final long themFirstRowMenRank = rest / sizes[1];
+
+        final long themMen = unrank(themFirstRowMenRank, j, firstRow)
+                | unrank(themMiddleMenRank, material.themMen - j, middleRows);
+        final long usMen = unrank(usMenRank, material.usMen, geometry.allSquaresMask & ~firstRow & ~themMen);
+        final long queensFree = geometry.allSquaresMask & ~themMen & ~usMen;
+        final long usQueens = unrank(usQueensRank, material.usQueens, queensFree);
+        final long themQueens = unrank(themQueensRank, material.themQueens, queensFree & ~usQueens);
+
+        squares[US_MEN] = usMen;
+        squares[US_QUEENS] = usQueens;
+        squares[THEM_MEN] = themMen;
+        squares[THEM_QUEENS] = themQueens;
+    }
+
+    /**
+     * Writes the squares of the Checkers of the position as seen by the side to move.
+     * If the UP side is to move, the board is turned around, so that the side to move plays DOWN.
+     *
+     * @param position the position.
+     * @param squares  the array to write the squares into, accessed by US_MEN etc.
+     */
+    public static void getSquares(Position position, long[] squares) {
+        final int us = position.getSideToMove();
+        final int them = us ^ 1;
+        final int squaresAmount = position.getGeometry().squaresAmount;
+
+        squares[US_MEN] = position.getMen(us);
+        squares[US_QUEENS] = position.getQueens(us);
+        squares[THEM_MEN] = position.getMen(them);
+        squares[THEM_QUEENS] = position.getQueens(them);
+        if (us == Position.SIDE_UP) {
+            for (int group = 0; group < squares.length; group++) {
+                squares[group] = turnAround(squares[group], squaresAmount);
+            }
+        }
+    }
+
+    /**
+     * Sets up the position from the squares of the Checkers seen by the side to move.
+     * The side to move becomes the DOWN side.
+     *
+     * @param squares  the squares of the Checkers, accessed by US_MEN etc.
+     * @param position the position to set up.
+     */
+    public static void setSquares(long[] squares, Position position) {
+        position.setPieces(
+                squares[THEM_MEN] | squares[THEM_QUEENS],
+                squares[US_MEN] | squares[US_QUEENS],
+                squares[US_QUEENS] | squares[THEM_QUEENS],
+                Position.SIDE_DOWN);
+    }
+
+    /**
+     * Turns the board around: square s becomes squaresAmount - 1 - s.
+     *
+     * @param squares       the set of squares.
+     * @param squaresAmount the amount of squares of the board.
+     * @return the turned set of squares.
+     */
+    private static long turnAround(long squares, int squaresAmount) {
+        return Long.reverse(squares) >>> (Long.SIZE - squaresAmount);
+    }
+
+    /**
+     * Computes the amounts of placements of every group of Checkers in the slice.
+     *
+     * @param j the amount of their simple Checkers on the first row.
+     * @return the amounts of placements of the groups in the order of ranking.
+     */
+    private long[] computeGroupSizes(int j) {
+        final int squaresAmount = geometry.squaresAmount;
+        final int squaresPerRow = geometry.squaresPerRow;
+        final int themMiddleMen = material.themMen - j;
+        final int usMenFree = squaresAmount - squaresPerRow - themMiddleMen;
+        final int queensFree = squaresAmount - material.themMen - material.usMen;
+
+        return new long[]{
+                binomial(squaresPerRow, j),
+                binomial(squaresAmount - 2 * squaresPerRow, themMiddleMen),
+                binomial(usMenFree, material.usMen),
+                binomial(queensFree, material.usQueens),
+                binomial(queensFree - material.usQueens, material.themQueens)};
+    }
+
+    /**
+     * Returns the amount of positions in the slice.
+     *
+     * @param j the amount of their simple Checkers on the first row.
+     * @return the amount of positions in the slice, 0 if the slice is impossible.
+     */
+    private long getSliceSize(int j) {
+        if (j > material.themMen) {
+            return 0;
+        }
+
+        long sliceSize = 1;
+        for (long groupSize : groupSizes[j]) {
+            sliceSize *= groupSize;
+        }
+
+        return sliceSize;
+    }
+
+    /**
+     * Returns the rank of the set of squares among the free squares.
+     *
+     * @param squares the set of squares(all of them are free).
+     * @param free    the free squares.
+     * @return the rank of the set.
+     */
+    private static long rank(long squares, long free) {
+        long rank = 0;
+        int k = 1;
+        while (squares != 0) {
+            final long lowest = squares & -squares;
+            squares ^= lowest;
+
+            rank += binomial(Long.bitCount(free & (lowest - 1)), k++);
+        }
+
+        return rank;
+    }
+
+    /**
+     * Returns the set of k squares of the given rank among the free squares.
+     *
+     * @param rank the rank of the set.
+     * @param k    the amount of squares in the set.
+     * @param free the free squares.
+     * @return the set of squares.
+     */
+    private static long unrank(long rank, int k, long free) {
+        long squares = 0;
+        int place = Long.bitCount(free);
+        for (int i = k; i >= 1; i--) {
+            // The largest place whose binomial still fits into the rank
+            do {
+                place--;
+            } while (binomial(place, i) > rank);
+            rank -= binomial(place, i);
+            squares |= selectBit(free, place);
+        }
+
+        return squares;
+    }
+
+    /**
+     * Returns the n-th(from 0) lowest set bit of the mask.
+     *
+     * @param mask the mask.
+     * @param n    the number of the bit.
+     * @return the mask with only that bit.
+     */
+    private static long selectBit(long mask, int n) {
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+
+        return mask & -mask;
+    }
+
+    /**
+     * Returns the binomial coefficient C(n, k), 0 if k > n.
+     *
+     * @param n the size of the set.
+     * @param k the size of the subset.
+     * @return the binomial coefficient.
+     */
+    private static long binomial(int n, int k) {
+        return (k < 0 || k > n) ? 0 : BINOMIALS[n][k];
+    }
+
+    /**
+     * Creates the table of the binomial coefficients(Pascal's triangle).
+     *
+     * @param maxN the maximal size of the set.
+     * @return the table of the binomial coefficients.
+     */
+    private static long[][] createBinomials(int maxN) {
+        final long[][] binomials = new long[maxN + 1][maxN + 1];
+        for (int n = 0; n <= maxN; n++) {
+            binomials[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                binomials[n][k] = binomials[n - 1][k - 1] + binomials[n - 1][k];
+            }
+        }
+
+        return binomials;
+    }
+}
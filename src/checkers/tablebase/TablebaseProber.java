@@ -0,0 +1,171 @@
+package checkers.tablebase;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Position;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class describes the lookup of positions in the compressed win/draw/loss tables during the search.
+ * <p>
+ * The compressed files are only mapped into memory: a lookup decompresses the block of the position
+ * (or finds it in the cache of the recently used blocks) and reads 2 bits from it,
+ * so the heap holds nothing but the offsets of the blocks and the bounded cache.
+ * <p>
+ * The prober uses all the tables up to the largest amount of Checkers whose tables are all present,
+ * so that getMaxPieces() alone tells whether a position can be looked up.
+ * A prober can be shared by several searching threads.
+ */
+public class TablebaseProber {
+
+    /**
+     * The tables by the codes of their materials, null for the tables that are not used.
+     * <p>
+     * Access: tables[material code]
+     */
+    private final CompressedWdlTable[] tables;
+
+    /**
+     * The indexers of the tables.
+     * <p>
+     * Access: indexers[material code]
+     */
+    private final TablebaseIndexer[] indexers;
+
+    /**
+     * The cache of the decompressed blocks.
+     */
+    private final BlockCache cache;
+
+    /**
+     * The maximal amount of Checkers of a position that can be looked up, 0 if there are no tables.
+     */
+    private final int maxPieces;
+
+    /**
+     * The constructor of the class.
+     * Maps all the complete sets of tables of the given board size and rule set.
+     *
+     * @param root                 the root directory of the tablebases.
+     * @param boardSizeInCells     the size of the board in cells.
+     * @param isEatingMandatory    whether eating is mandatory.
+     * @param cacheSizeInMegabytes the maximal size of the cache of the decompressed blocks in megabytes.
+     * @throws IOException if a table can not be mapped.
+     */
+    public TablebaseProber(Path root, int boardSizeInCells, boolean isEatingMandatory, int cacheSizeInMegabytes)
+            throws IOException {
+        final BoardGeometry geometry = BoardGeometry.forSize(boardSizeInCells);
+        final Path directory = Tablebase.getDirectory(root, boardSizeInCells, isEatingMandatory);
+        this.tables = new CompressedWdlTable[Material.CODES_AMOUNT];
+        this.indexers = new TablebaseIndexer[Material.CODES_AMOUNT];
+        this.cache = new BlockCache(cacheSizeInMegabytes);
+
+        int maxPieces = 0;
+        for (int pieces = 2; pieces <= Material.MAX_AMOUNT; pieces++) {
+            final List<Material> materials = getMaterials(pieces);
+            boolean isComplete = true;
+            for (Material material : materials) {
+                isComplete &= Files.exists(Tablebase.getCompressedWdlFile(directory, material));
+            }
+            if (!isComplete) {
+                break;
+            }
+
+            for (Material material : materials) {
+                final TablebaseIndexer indexer = new TablebaseIndexer(geometry, material);
+                final CompressedWdlTable table =
+                        new CompressedWdlTable(Tablebase.getCompressedWdlFile(directory, material));
+                if (table.getSize() != indexer.getSize()) {
+                    throw new IOException("Wrong size of the table " + material + ": " + table.getSize()
+                            + " positions instead of " + indexer.getSize());
+                }
+                indexers[material.getCode()] = indexer;
+                tables[material.getCode()] = table;
+            }
+            maxPieces = pieces;
+        }
+        this.maxPieces = maxPieces;
+    }
+
+    /**
+     * Returns the maximal amount of Checkers of a position that can be looked up.
+     *
+     * @return the maximal amount of Checkers, 0 if there are no tables.
+     */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Looks the position up.
+     *
+     * @param position the position.
+     * @param squares  the buffer for the squares of the Checkers(4 elements).
+     * @return the value of the position for the side to move(WdlTable.WIN etc.),
+     * WdlTable.UNKNOWN if the position is not in the tables.
+     */
+    public int probe(Position position, long[] squares) {
+        TablebaseIndexer.getSquares(position, squares);
+        final int usMen = Long.bitCount(squares[TablebaseIndexer.US_MEN]);
+        final int usQueens = Long.bitCount(squares[TablebaseIndexer.US_QUEENS]);
+        final int themMen = Long.bitCount(squares[TablebaseIndexer.THEM_MEN]);
+        final int themQueens = Long.bitCount(squares[TablebaseIndexer.THEM_QUEENS]);
+        if (usMen + usQueens + themMen + themQueens > maxPieces) {
+            return WdlTable.UNKNOWN;
+        }
+
+        final int code = Material.getCode(usMen, usQueens, themMen, themQueens);
+        final CompressedWdlTable table = tables[code];
+        if (table == null) {
+            // One of the sides has no Checkers
+            return WdlTable.UNKNOWN;
+        }
+
+        final long index = indexers[code].getIndex(squares);
+        final int blockIndex = CompressedWdlTable.getBlockIndex(index);
+        final long key = BlockCache.getKey(code, blockIndex);
+        byte[] block = cache.get(key);
+        if (block == null) {
+            try {
+                block = table.readBlock(blockIndex);
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't read the table " + indexers[code].getMaterial(), e);
+            }
+            cache.put(key, block);
+        }
+
+        return CompressedWdlTable.getValue(block, index);
+    }
+
+    /**
+     * Returns the cache of the decompressed blocks.
+     *
+     * @return the cache of the decompressed blocks.
+     */
+    public BlockCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns all the materials with exactly the given amount of Checkers(each side having at least one).
+     *
+     * @param pieces the amount of Checkers.
+     * @return the materials.
+     */
+    private static List<Material> getMaterials(int pieces) {
+        final List<Material> materials = new ArrayList<>();
+        for (List<Material> group : Material.getBuildGroups(pieces)) {
+            for (Material material : group) {
+                if (material.getAmountOfPieces() == pieces) {
+                    materials.add(material);
+                }
+            }
+        }
+
+        return materials;
+    }
+}
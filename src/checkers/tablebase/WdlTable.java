@@ -0,0 +1,187 @@
+package checkers.tablebase;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class describes a win/draw/loss table: 2 bits for every position of a material, 4 positions in a byte.
+ * The values are given for the side to move.
+ * <p>
+ * The table lives in a file that is mapped into memory in segments, so a table can be much larger than the heap
+ * (and than the physical memory: the operating system pages the file in and out as needed).
+ * <p>
+ * Different threads may work with the same table at once, provided that they never write
+ * into the same byte(4 consecutive positions).
+ */
+public class WdlTable {
+
+    /**
+     * The value of a position that has not been solved yet.
+     */
+    public static final int UNKNOWN = 0;
+
+    /**
+     * The value of a position that the side to move wins.
+     */
+    public static final int WIN = 1;
+
+    /**
+     * The value of a position that the side to move loses.
+     */
+    public static final int LOSS = 2;
+
+    /**
+     * The value of a drawn position.
+     */
+    public static final int DRAW = 3;
+
+    /**
+     * The amount of positions in a byte.
+     */
+    public static final int POSITIONS_PER_BYTE = 4;
+
+    /**
+     * The binary logarithm of the size of a mapped segment in bytes.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+
+    /**
+     * The mask of the offset of a byte inside its segment.
+     */
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    /**
+     * The mapped segments of the file.
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * The amount of positions.
+     */
+    private final long size;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param segments the mapped segments of the file.
+     * @param size     the amount of positions.
+     */
+    private WdlTable(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Creates a new table file with all the values UNKNOWN(or reopens it for writing if it already exists).
+     *
+     * @param file the path of the file.
+     * @param size the amount of positions.
+     * @return the table open for reading and writing.
+     * @throws IOException if the file can not be created or mapped.
+     */
+    public static WdlTable create(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new WdlTable(map(channel, FileChannel.MapMode.READ_WRITE, getSizeInBytes(size)), size);
+        }
+    }
+
+    /**
+     * Opens an existing table file for reading.
+     *
+     * @param file the path of the file.
+     * @param size the amount of positions.
+     * @return the table open for reading.
+     * @throws IOException if the file can not be opened or has a wrong size.
+     */
+    public static WdlTable open(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != getSizeInBytes(size)) {
+                throw new IOException("Wrong size of the table " + file + ": " + channel.size()
+                        + " bytes instead of " + getSizeInBytes(size));
+            }
+            return new WdlTable(map(channel, FileChannel.MapMode.READ_ONLY, channel.size()), size);
+        }
+    }
+
+    /**
+     * Returns the size of the file of a table.
+     *
+     * @param size the amount of positions.
+     * @return the size of the file in bytes.
+     */
+    public static long getSizeInBytes(long size) {
+        return (size + POSITIONS_PER_BYTE - 1) / POSITIONS_PER_BYTE;
+    }
+
+    /**
+     * Returns the amount of positions.
+     *
+     * @return the amount of positions.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the position.
+     *
+     * @param index the index of the position.
+     * @return the value of the position.
+     */
+    public int get(long index) {
+        final long byteIndex = index >>> 2;
+        final int shift = (int) (index & 3) << 1;
+        final byte packed = segments[(int) (byteIndex >>> SEGMENT_SHIFT)].get((int) (byteIndex & SEGMENT_MASK));
+
+        return (packed >>> shift) & 3;
+    }
+
+    /**
+     * Sets the value of the position.
+     *
+     * @param index the index of the position.
+     * @param value the value of the position.
+     */
+    public void set(long index, int value) {
+        final long byteIndex = index >>> 2;
+        final int shift = (int) (index & 3) << 1;
+        final MappedByteBuffer segment = segments[(int) (byteIndex >>> SEGMENT_SHIFT)];
+        final int offset = (int) (byteIndex & SEGMENT_MASK);
+
+        segment.put(offset, (byte) ((segment.get(offset) & ~(3 << shift)) | (value << shift)));
+    }
+
+    /**
+     * Writes the changes of the table to the file.
+     */
+    public void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Maps the file into memory in segments.
+     *
+     * @param channel     the channel of the file.
+     * @param mode        the mapping mode.
+     * @param sizeInBytes the size of the file in bytes.
+     * @return the mapped segments.
+     * @throws IOException if the file can not be mapped.
+     */
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long sizeInBytes)
+            throws IOException {
+        final int amountOfSegments = (int) ((sizeInBytes + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        final MappedByteBuffer[] segments = new MappedByteBuffer[Math.max(amountOfSegments, 1)];
+        for (int segmentIndex = 0; segmentIndex < segments.length; segmentIndex++) {
+            final long start = (long) segmentIndex << SEGMENT_SHIFT;
+            segments[segmentIndex] = channel.map(mode, start, Math.min(sizeInBytes - start, 1L << SEGMENT_SHIFT));
+        }
+
+        return segments;
+    }
+}
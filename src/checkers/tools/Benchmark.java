@@ -0,0 +1,352 @@
+package checkers.tools;
+
+import checkers.CheckersSettings;
+import checkers.board.Board;
+import checkers.engine.BoardGeometry;
+import checkers.engine.Move;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import checkers.engine.Search;
+import checkers.engine.SearchResult;
+import checkers.engine.TranspositionTable;
+import checkers.players.ComputerPlayer;
+import checkers.players.PlayerSide;
+import checkers.util.Pair;
+import checkers.util.Vector2i;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * This class is a headless tool that measures the throughput and the allocation rate of the hot paths:
+ * the rule checks of the Board, the turn of the ComputerPlayer and the engine search,
+ * on fixed reference positions of both board sizes.
+ * The searches are limited by the depth only, so that their time does not depend on the clock.
+ * Compare its output before and after a change to catch the regressions.
+ * <p>
+ * Every benchmark is warmed up first, then run in batches for the measurement time.
+ * The allocation is measured with the per-thread allocation counter of the JVM(if it is supported).
+ * <p>
+ * Usage: Benchmark [-warmup millis] [-time millis] [-filter text]
+ */
+public class Benchmark {
+
+    /**
+     * The default warmup time of each benchmark in milliseconds.
+     */
+    private static final long DEFAULT_WARMUP_MILLIS = 1000;
+
+    /**
+     * The default measurement time of each benchmark in milliseconds.
+     */
+    private static final long DEFAULT_MEASUREMENT_MILLIS = 2000;
+
+    /**
+     * The time that a batch of operations should take at least, in nanoseconds.
+     * Keeps the cost of reading the clock out of the results of the fast operations.
+     */
+    private static final long MIN_BATCH_NANOS = 1000000;
+
+    /**
+     * The amounts of moves played from the initial position to get the reference positions.
+     */
+    private static final int[] REFERENCE_PLIES = {0, 10, 20, 30};
+
+    /**
+     * The depth of the search benchmarks for each board size: {boardSizeInCells, depth}.
+     */
+    private static final int[][] SEARCH_DEPTHS = {{8, 9}, {10, 7}};
+
+    /**
+     * The time limit of the search benchmarks(they are limited by the depth only).
+     */
+    private static final long UNLIMITED_TIME_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * The size of the transposition table of the search benchmarks in megabytes.
+     */
+    private static final int SEARCH_TABLE_SIZE_MB = 4;
+
+    /**
+     * Receives the results of the operations, so that the JIT compiler can not throw them away.
+     */
+    private static volatile long blackhole;
+
+    /**
+     * The warmup time of each benchmark in milliseconds.
+     */
+    private final long warmupMillis;
+
+    /**
+     * The measurement time of each benchmark in milliseconds.
+     */
+    private final long measurementMillis;
+
+    /**
+     * Only the benchmarks whose names contain this text are run.
+     */
+    private final String filter;
+
+    /**
+     * The source of the amounts of bytes allocated by a thread, null if the JVM does not support it.
+     */
+    private final com.sun.management.ThreadMXBean allocationCounter;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param warmupMillis      the warmup time of each benchmark in milliseconds.
+     * @param measurementMillis the measurement time of each benchmark in milliseconds.
+     * @param filter            only the benchmarks whose names contain this text are run.
+     */
+    public Benchmark(long warmupMillis, long measurementMillis, String filter) {
+        this.warmupMillis = warmupMillis;
+        this.measurementMillis = measurementMillis;
+        this.filter = filter;
+
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            this.allocationCounter = (com.sun.management.ThreadMXBean) threadBean;
+            this.allocationCounter.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.allocationCounter = null;
+        }
+    }
+
+    /**
+     * Runs all the benchmarks(that pass the filter) on both board sizes.
+     */
+    public void runAll() {
+        System.out.println(String.format("%-58s %14s %14s %12s %10s",
+                "benchmark", "ops/s", "ns/op", "bytes/op", "MB/s"));
+
+        for (int[] searchDepth : SEARCH_DEPTHS) {
+            final int boardSizeInCells = searchDepth[0];
+            final int depth = searchDepth[1];
+            CheckersSettings.createHeadless(boardSizeInCells, true);
+
+            for (int plies : REFERENCE_PLIES) {
+                final Position position = createReferencePosition(boardSizeInCells, plies);
+                final String suffix = " " + boardSizeInCells + "x" + boardSizeInCells + " ply " + plies;
+
+                runBoardBenchmarks(position, suffix);
+
+                final TranspositionTable table = new TranspositionTable(SEARCH_TABLE_SIZE_MB);
+                final Search search = new Search(true, table);
+                run("Search.search depth " + depth + suffix, () -> {
+                    // Start with an empty table, otherwise every search after the first one is almost free
+                    table.clear();
+                    return search.search(new Position(position), UNLIMITED_TIME_MILLIS, depth).nodes;
+                });
+
+                final BenchmarkComputerPlayer player = new BenchmarkComputerPlayer(
+                        Position.getPlayerSide(position.getSideToMove()));
+                final int[][] boardRepresentation = position.toArray();
+                run("ComputerPlayer turn depth " + depth + suffix, () -> {
+                    // As for the search, start with an empty table(clearing it is a part of the measured time)
+                    player.clearAnalysis();
+                    return player.plan(boardRepresentation, depth).size();
+                });
+            }
+        }
+    }
+
+    /**
+     * Runs the benchmarks of the rule checks of the Board.
+     *
+     * @param position the position to set up the Board with.
+     * @param suffix   the suffix of the names of the benchmarks.
+     */
+    private void runBoardBenchmarks(Position position, String suffix) {
+        final int boardSizeInCells = position.getGeometry().boardSizeInCells;
+        final int[][] boardRepresentation = position.toArray();
+        final PlayerSide playerSide = Position.getPlayerSide(position.getSideToMove());
+        final Board board = new Board(boardSizeInCells, boardRepresentation);
+
+        run("Board.canPlayerEat" + suffix, () -> board.canPlayerEat(playerSide) ? 1 : 0);
+        run("Board.canPlayerMakeAnyMove" + suffix, () -> board.canPlayerMakeAnyMove(playerSide) ? 1 : 0);
+        run("Board.getBoardRepresentationAsArray" + suffix, () -> board.getBoardRepresentationAsArray().length);
+
+        // Select the Checker of the first legal move and ask about the first step of that move
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        final int[] path = new int[MoveGenerator.MAX_PATH_LENGTH];
+        final MoveGenerator moveGenerator = new MoveGenerator();
+        if (moveGenerator.generateMoves(position, true, moves, 0) > 0) {
+            moveGenerator.getCapturePath(position, moves[0], path);
+            final BoardGeometry geometry = position.getGeometry();
+            final Vector2i from = new Vector2i(geometry.getColumn(path[0]), geometry.getRow(path[0]));
+            final Vector2i to = new Vector2i(geometry.getColumn(path[1]), geometry.getRow(path[1]));
+            board.selectChecker(playerSide, from);
+            run("Board.isMovePossibleWithSelectedChecker" + suffix, () -> {
+                // Forget the legal moves, as it is done at the start of every turn
+                board.finishTurn();
+                return board.isMovePossibleWithSelectedChecker(to) ? 1 : 0;
+            });
+        }
+    }
+
+    /**
+     * Warms up and measures a single benchmark, prints the results.
+     *
+     * @param name      the name of the benchmark.
+     * @param operation the operation to measure, returns any value that depends on its work.
+     */
+    private void run(String name, LongSupplier operation) {
+        if (filter != null && !name.contains(filter)) {
+            return;
+        }
+
+        // Warm up and find out how many operations make a batch long enough
+        long batchSize = 1;
+        final long warmupEndNanos = System.nanoTime() + warmupMillis * 1000000;
+        while (System.nanoTime() < warmupEndNanos) {
+            final long batchStartNanos = System.nanoTime();
+            runBatch(operation, batchSize);
+            if (System.nanoTime() - batchStartNanos < MIN_BATCH_NANOS) {
+                batchSize *= 2;
+            }
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBytesBefore = getAllocatedBytes(threadId);
+        final long startNanos = System.nanoTime();
+        final long measurementEndNanos = startNanos + measurementMillis * 1000000;
+        long operations = 0;
+        do {
+            runBatch(operation, batchSize);
+            operations += batchSize;
+        } while (System.nanoTime() < measurementEndNanos);
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final long allocatedBytes = getAllocatedBytes(threadId) - allocatedBytesBefore;
+
+        final double operationsPerSecond = operations * 1e9 / elapsedNanos;
+        System.out.println(String.format("%-58s %14.1f %14.1f %12s %10s",
+                name,
+                operationsPerSecond,
+                (double) elapsedNanos / operations,
+                (allocationCounter == null) ? "n/a" : String.format("%.1f", (double) allocatedBytes / operations),
+                (allocationCounter == null) ? "n/a"
+                        : String.format("%.1f", allocatedBytes * 1e9 / elapsedNanos / (1024 * 1024))));
+    }
+
+    /**
+     * Runs the operation the given amount of times.
+     *
+     * @param operation the operation to run.
+     * @param times     how many times to run it.
+     */
+    private static void runBatch(LongSupplier operation, long times) {
+        long sum = 0;
+        for (long time = 0; time < times; time++) {
+            sum += operation.getAsLong();
+        }
+        blackhole = sum;
+    }
+
+    /**
+     * Returns the amount of bytes allocated by the thread so far.
+     *
+     * @param threadId the id of the thread.
+     * @return the amount of allocated bytes, 0 if it can't be measured.
+     */
+    private long getAllocatedBytes(long threadId) {
+        return (allocationCounter == null) ? 0 : allocationCounter.getThreadAllocatedBytes(threadId);
+    }
+
+    /**
+     * Creates a reference position: plays the given amount of moves from the initial position,
+     * choosing the moves by a fixed rule, so that the position is always the same.
+     *
+     * @param boardSizeInCells the size of the board in cells.
+     * @param plies            the amount of moves to play.
+     * @return the reference position(without the history of the moves).
+     */
+    private static Position createReferencePosition(int boardSizeInCells, int plies) {
+        final Position position = Position.createInitial(boardSizeInCells);
+        final MoveGenerator moveGenerator = new MoveGenerator();
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+
+        for (int ply = 0; ply < plies; ply++) {
+            final int amountOfMoves = moveGenerator.generateMoves(position, true, moves, 0);
+            if (amountOfMoves == 0) {
+                break;
+            }
+            position.makeMove(moves[(ply * 7 + 3) % amountOfMoves]);
+        }
+
+        return new Position(position);
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     */
+    public static void main(String[] args) {
+        long warmupMillis = DEFAULT_WARMUP_MILLIS;
+        long measurementMillis = DEFAULT_MEASUREMENT_MILLIS;
+        String filter = null;
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-warmup":
+                    warmupMillis = Long.parseLong(args[++argIndex]);
+                    break;
+                case "-time":
+                    measurementMillis = Long.parseLong(args[++argIndex]);
+                    break;
+                case "-filter":
+                    filter = args[++argIndex];
+                    break;
+                default:
+                    System.err.println("Usage: Benchmark [-warmup millis] [-time millis] [-filter text]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        new Benchmark(warmupMillis, measurementMillis, filter).runAll();
+    }
+
+    /**
+     * A single-threaded ComputerPlayer whose turn can be planned with a fixed depth instead of the clock.
+     */
+    private static class BenchmarkComputerPlayer extends ComputerPlayer {
+
+        /**
+         * The constructor of the class.
+         *
+         * @param playerSide the side of this Player.
+         */
+        BenchmarkComputerPlayer(PlayerSide playerSide) {
+            super(playerSide, 1);
+        }
+
+        /**
+         * Plans the turn as generateMoves() does, but with the search limited by the depth only
+         * (and without the opening book).
+         *
+         * @param boardRepresentation the representation of the board.
+         * @param depth               the depth of the search.
+         * @return a series of moves to make during the turn.
+         */
+        List<Pair<Vector2i>> plan(int[][] boardRepresentation, int depth) {
+            final Position position = Position.createFromArray(
+                    CheckersSettings.getInstance().boardSizeInCells,
+                    boardRepresentation,
+                    Position.getSide(playerSide));
+
+            startAnalysis();
+            final SearchResult result = analyse(position, UNLIMITED_TIME_MILLIS, depth, Long.MAX_VALUE, null);
+            if (result.bestMove == Move.NONE) {
+                return new ArrayList<>();
+            }
+
+            return splitIntoSteps(position, result.bestMove);
+        }
+    }
+}
@@ -0,0 +1,596 @@
+package checkers.tools;
+
+import checkers.CheckersSettings;
+import checkers.engine.Move;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Notation;
+import checkers.engine.Position;
+import checkers.engine.Search;
+import checkers.engine.SearchResult;
+import checkers.players.ComputerPlayer;
+import checkers.players.PlayerSide;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs a ComputerPlayer as an engine driven by another program over the standard input and output,
+ * so that external GUIs and the tools can use it as a subprocess.
+ * <p>
+ * The protocol is line based. The commands:
+ * <ul>
+ * <li>"protocol" - answered with "id name ..." and "protocolok";</li>
+ * <li>"isready" - answered with "readyok";</li>
+ * <li>"setoption threads N" or "setoption weights file" - the threads of the search and the file of the weights
+ * of the evaluation, take effect from the next search on a new engine(see "newgame");</li>
+ * <li>"rules size 8|10 mandatory|notMandatory" - sets the board and the rules, starts a new game;</li>
+ * <li>"newgame" - starts a new game: the initial position and a new engine(with an empty table);</li>
+ * <li>"position initial|notation text|array down|up codes... [moves m...]" - sets the position: the initial one,
+ * the one in the notation(see Notation.positionToString) or the one of the array representation(the side to move
+ * and the codes of the board column by column, as in a saved game), followed by the moves made from it;</li>
+ * <li>"go [depth N] [nodes N] [movetime millis] [infinite] [ponder]" - searches the position until the first
+ * of the limits(without any, until "stop"). A pondering search ignores the time until "ponderhit";
+ * the result of an infinite or pondering search is not given before "stop"(or "ponderhit");</li>
+ * <li>"stop" - stops the search, "ponderhit" - the predicted move has been played, the pondering search goes on
+ * as a normal one;</li>
+ * <li>"print" - answered with "position notation";</li>
+ * <li>"quit" - stops the engine(as does the end of the input).</li>
+ * </ul>
+ * The search answers with "info depth D score S nodes N nps N time millis pv m..." after every completed iteration,
+ * then with "bestmove m [ponder m]"("bestmove none" if the side to move can't move). The score is from the point
+ * of view of the side to move. A wrong command is answered with "error text".
+ * <p>
+ * Usage: EngineProtocol [-threads N] [-weights file]
+ */
+public class EngineProtocol {
+
+    /**
+     * The time limit of a search without a time limit in milliseconds(a day).
+     */
+    private static final long NO_TIME_LIMIT_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * The executor that runs the searches, so that the commands are read while the engine thinks.
+     */
+    private final ExecutorService searchExecutor;
+
+    /**
+     * The timer that stops a pondering search once the predicted move has been played and the time is over.
+     */
+    private final ScheduledExecutorService ponderTimer;
+
+    /**
+     * The generator of the legal moves.
+     */
+    private final MoveGenerator moveGenerator;
+
+    /**
+     * The amount of threads of the search.
+     */
+    private int amountOfThreads;
+
+    /**
+     * The file of the weights of the evaluation, null for the default one of the ComputerPlayer.
+     */
+    private String weightsFile;
+
+    /**
+     * The size of the board in cells.
+     */
+    private int boardSizeInCells;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    private boolean isEatingMandatory;
+
+    /**
+     * The engine, null until the first search after the rules or the options have changed.
+     */
+    private ComputerPlayer player;
+
+    /**
+     * The current position(with the moves made from the set up one), owned by the thread of the commands.
+     */
+    private Position position;
+
+    /**
+     * The position as it has been set up(before the moves), is never changed.
+     */
+    private Position setUpPosition;
+
+    /**
+     * The moves made from the set up position to get the current one.
+     */
+    private long[] positionMoves;
+
+    /**
+     * The running search, null if there is none.
+     */
+    private Future<?> search;
+
+    /**
+     * Released when the result of the running search may be given: at once for a normal search,
+     * on "stop" or "ponderhit" for an infinite or a pondering one.
+     */
+    private CountDownLatch resultRelease;
+
+    /**
+     * The time of a pondering search after "ponderhit" in milliseconds, 0 for no limit.
+     */
+    private long ponderMoveTimeMillis;
+
+    /**
+     * Whether the running search is infinite(its result waits for "stop" even after "ponderhit").
+     */
+    private boolean isInfinite;
+
+    /**
+     * The constructor of the class.
+     * The engine plays on the 8x8 board with mandatory eating until the rules are set.
+     *
+     * @param amountOfThreads the amount of threads of the search.
+     * @param weightsFile     the file of the weights of the evaluation, null for the default one.
+     */
+    public EngineProtocol(int amountOfThreads, String weightsFile) {
+        this.searchExecutor = Executors.newSingleThreadExecutor();
+        this.ponderTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "EngineProtocol ponder timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.moveGenerator = new MoveGenerator();
+        this.amountOfThreads = amountOfThreads;
+        this.weightsFile = weightsFile;
+        this.search = null;
+        setRules(8, true);
+    }
+
+    /**
+     * Reads and executes the commands until "quit" or the end of the input.
+     *
+     * @param in the reader of the commands.
+     * @throws IOException if the commands can not be read.
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            final String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].equals("quit")) {
+                break;
+            }
+            try {
+                executeCommand(tokens);
+            } catch (RuntimeException e) {
+                send("error " + e.getMessage());
+            }
+        }
+
+        stopSearch();
+        searchExecutor.shutdown();
+    }
+
+    /**
+     * Executes a command.
+     *
+     * @param tokens the tokens of the command line.
+     */
+    private void executeCommand(String[] tokens) {
+        switch (tokens[0]) {
+            case "":
+                break;
+            case "protocol":
+                send("id name Checkers");
+                send("protocolok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "print":
+                send("position " + Notation.positionToString(position));
+                break;
+            default:
+                if (isSearching()) {
+                    send("error searching, " + tokens[0] + " ignored");
+                    return;
+                }
+                executeSetupCommand(tokens);
+        }
+    }
+
+    /**
+     * Executes a command that must not be given during a search.
+     *
+     * @param tokens the tokens of the command line.
+     */
+    private void executeSetupCommand(String[] tokens) {
+        switch (tokens[0]) {
+            case "setoption":
+                setOption(tokens);
+                break;
+            case "rules":
+                if (tokens.length != 4 || !tokens[1].equals("size")) {
+                    throw new IllegalArgumentException("usage: rules size 8|10 mandatory|notMandatory");
+                }
+                setRules(Integer.parseInt(tokens[2]), !tokens[3].equals("notMandatory"));
+                break;
+            case "newgame":
+                player = null;
+                position = Position.createInitial(boardSizeInCells);
+                setUpPosition = new Position(position);
+                positionMoves = new long[0];
+                break;
+            case "position":
+                setPosition(tokens);
+                break;
+            case "go":
+                startSearch(tokens);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown command " + tokens[0]);
+        }
+    }
+
+    /**
+     * Sets an option of the engine.
+     *
+     * @param tokens the tokens of the command line.
+     */
+    private void setOption(String[] tokens) {
+        if (tokens.length != 3) {
+            throw new IllegalArgumentException("usage: setoption threads N|weights file");
+        }
+
+        switch (tokens[1]) {
+            case "threads":
+                final int threads = Integer.parseInt(tokens[2]);
+                if (threads < 1) {
+                    throw new IllegalArgumentException("threads must be positive: " + threads);
+                }
+                amountOfThreads = threads;
+                break;
+            case "weights":
+                weightsFile = tokens[2];
+                break;
+            default:
+                throw new IllegalArgumentException("unknown option " + tokens[1]);
+        }
+        player = null;
+    }
+
+    /**
+     * Sets the board and the rules, starts a new game.
+     *
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     */
+    private void setRules(int boardSizeInCells, boolean isEatingMandatory) {
+        final Position initialPosition = Position.createInitial(boardSizeInCells);
+        this.boardSizeInCells = boardSizeInCells;
+        this.isEatingMandatory = isEatingMandatory;
+        this.position = initialPosition;
+        this.setUpPosition = new Position(initialPosition);
+        this.positionMoves = new long[0];
+        this.player = null;
+        CheckersSettings.createHeadless(boardSizeInCells, isEatingMandatory);
+    }
+
+    /**
+     * Sets the position.
+     *
+     * @param tokens the tokens of the command line.
+     */
+    private void setPosition(String[] tokens) {
+        int tokenIndex = 2;
+        final Position newPosition;
+        switch (tokens.length > 1 ? tokens[1] : "") {
+            case "initial":
+                newPosition = Position.createInitial(boardSizeInCells);
+                break;
+            case "notation":
+                newPosition = (tokens.length > 2) ? Notation.parsePosition(tokens[2], boardSizeInCells) : null;
+                if (newPosition == null) {
+                    throw new IllegalArgumentException("bad notation");
+                }
+                tokenIndex = 3;
+                break;
+            case "array":
+                final int amountOfCodes = boardSizeInCells * boardSizeInCells;
+                if (tokens.length < 3 + amountOfCodes) {
+                    throw new IllegalArgumentException("expected the side and " + amountOfCodes + " codes");
+                }
+                final int sideToMove = tokens[2].equals("up") ? Position.SIDE_UP : Position.SIDE_DOWN;
+                final int[][] boardRepresentation = new int[boardSizeInCells][boardSizeInCells];
+                for (int column = 0; column < boardSizeInCells; column++) {
+                    for (int row = 0; row < boardSizeInCells; row++) {
+                        final String code = tokens[3 + column * boardSizeInCells + row];
+                        boardRepresentation[column][row] = Integer.parseInt(code);
+                    }
+                }
+                newPosition = Position.createFromArray(boardSizeInCells, boardRepresentation, sideToMove);
+                tokenIndex = 3 + amountOfCodes;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "usage: position initial|notation text|array side codes [moves m...]");
+        }
+
+        final Position newSetUpPosition = new Position(newPosition);
+        long[] moves = new long[0];
+        if (tokenIndex < tokens.length) {
+            if (!tokens[tokenIndex].equals("moves")) {
+                throw new IllegalArgumentException("unexpected " + tokens[tokenIndex]);
+            }
+            moves = new long[tokens.length - tokenIndex - 1];
+            for (int moveIndex = 0; moveIndex < moves.length; moveIndex++) {
+                final String moveText = tokens[tokenIndex + 1 + moveIndex];
+                moves[moveIndex] = Notation.parseMove(newPosition, moveText, isEatingMandatory, moveGenerator);
+                if (moves[moveIndex] == Move.NONE) {
+                    throw new IllegalArgumentException("illegal move " + moveText);
+                }
+                newPosition.makeMove(moves[moveIndex]);
+            }
+        }
+
+        this.position = newPosition;
+        this.setUpPosition = newSetUpPosition;
+        this.positionMoves = moves;
+    }
+
+    /**
+     * Starts the search of the current position.
+     *
+     * @param tokens the tokens of the command line.
+     */
+    private void startSearch(String[] tokens) {
+        int maxDepth = Search.MAX_DEPTH;
+        long maxNodes = Long.MAX_VALUE;
+        long moveTimeMillis = 0;
+        boolean isInfinite = false;
+        boolean isPondering = false;
+        for (int tokenIndex = 1; tokenIndex < tokens.length; tokenIndex++) {
+            switch (tokens[tokenIndex]) {
+                case "depth":
+                    maxDepth = Math.min(Integer.parseInt(tokens[++tokenIndex]), Search.MAX_DEPTH);
+                    break;
+                case "nodes":
+                    maxNodes = Long.parseLong(tokens[++tokenIndex]);
+                    break;
+                case "movetime":
+                    moveTimeMillis = Long.parseLong(tokens[++tokenIndex]);
+                    break;
+                case "infinite":
+                    isInfinite = true;
+                    break;
+                case "ponder":
+                    isPondering = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown limit " + tokens[tokenIndex]);
+            }
+        }
+
+        if (player == null) {
+            player = new ComputerPlayer(PlayerSide.PLAYER_DOWN, amountOfThreads);
+            if (weightsFile != null) {
+                player.setEvaluationWeightsFile(Paths.get(weightsFile));
+            }
+        }
+
+        final ComputerPlayer searchingPlayer = player;
+        // The search gets its own position(with the same history), the current one stays with the commands
+        final Position searchedPosition = copyPosition();
+        final Position rootPosition = new Position(position);
+        final int depthLimit = maxDepth;
+        final long nodeLimit = maxNodes;
+        final long timeLimitMillis = (moveTimeMillis > 0 && !isPondering && !isInfinite)
+                ? moveTimeMillis
+                : NO_TIME_LIMIT_MILLIS;
+        final CountDownLatch release = new CountDownLatch((isInfinite || isPondering) ? 1 : 0);
+        this.resultRelease = release;
+        this.ponderMoveTimeMillis = isInfinite ? 0 : moveTimeMillis;
+        this.isInfinite = isInfinite;
+
+        // A stop given from now on is not lost, even if the search has not started yet
+        searchingPlayer.startAnalysis();
+        this.search = searchExecutor.submit(() -> {
+            final SearchResult result = searchingPlayer.analyse(
+                    searchedPosition, timeLimitMillis, depthLimit, nodeLimit,
+                    iteration -> send(formatInfo(rootPosition, iteration)));
+            awaitUninterruptibly(release);
+            send(formatBestMove(rootPosition, result));
+        });
+    }
+
+    /**
+     * Copies the current position together with its history(so that the repetitions are still seen),
+     * by making the moves on a copy of the set up position.
+     *
+     * @return the copy of the current position.
+     */
+    private Position copyPosition() {
+        final Position copy = new Position(setUpPosition);
+        for (long move : positionMoves) {
+            copy.makeMove(move);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Turns the pondering search into a normal one: it gets the time of the "go" command from now on.
+     */
+    private void ponderHit() {
+        if (!isSearching() || isInfinite) {
+            return;
+        }
+
+        final ComputerPlayer searchingPlayer = player;
+        final Future<?> ponderedSearch = search;
+        if (ponderMoveTimeMillis > 0) {
+            // The stop must not hit a later search
+            ponderTimer.schedule(() -> {
+                if (!ponderedSearch.isDone()) {
+                    searchingPlayer.stopAnalysis();
+                }
+            }, ponderMoveTimeMillis, TimeUnit.MILLISECONDS);
+        }
+        resultRelease.countDown();
+    }
+
+    /**
+     * Stops the running search(its result is given before the next command is read).
+     */
+    private void stopSearch() {
+        if (!isSearching()) {
+            return;
+        }
+
+        player.stopAnalysis();
+        resultRelease.countDown();
+        try {
+            search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            send("error search failed: " + e.getCause());
+        }
+        search = null;
+    }
+
+    /**
+     * Checks whether a search is running(or its result has not been given yet).
+     *
+     * @return whether a search is running.
+     */
+    private boolean isSearching() {
+        return search != null && !search.isDone();
+    }
+
+    /**
+     * Formats the result of an iteration of the search.
+     *
+     * @param position the searched position(a copy that the search does not touch).
+     * @param result   the result of the iteration.
+     * @return the info line.
+     */
+    private static String formatInfo(Position position, SearchResult result) {
+        final StringBuilder line = new StringBuilder("info");
+        line.append(" depth ").append(result.depth);
+        line.append(" score ").append(result.score);
+        line.append(" nodes ").append(result.nodes);
+        line.append(" nps ").append(result.getNodesPerSecond());
+        line.append(" time ").append(result.timeMillis);
+        line.append(" pv");
+
+        // The moves are made on a copy, so that the root position can be formatted again
+        final Position linePosition = new Position(position);
+        final MoveGenerator moveGenerator = new MoveGenerator();
+        for (long move : result.principalVariation) {
+            line.append(' ').append(Notation.toString(linePosition, move, moveGenerator));
+            linePosition.makeMove(move);
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Formats the final result of the search.
+     *
+     * @param position the searched position(a copy that the search does not touch).
+     * @param result   the result of the search.
+     * @return the bestmove line.
+     */
+    private static String formatBestMove(Position position, SearchResult result) {
+        if (result.bestMove == Move.NONE) {
+            return "bestmove none";
+        }
+
+        final MoveGenerator moveGenerator = new MoveGenerator();
+        final Position linePosition = new Position(position);
+        final StringBuilder line = new StringBuilder("bestmove ");
+        line.append(Notation.toString(linePosition, result.bestMove, moveGenerator));
+        if (result.principalVariation.length >= 2 && result.principalVariation[0] == result.bestMove) {
+            linePosition.makeMove(result.bestMove);
+            final long ponderMove = result.principalVariation[1];
+            line.append(" ponder ").append(Notation.toString(linePosition, ponderMove, moveGenerator));
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Writes a line to the standard output at once.
+     *
+     * @param line the line.
+     */
+    private static void send(String line) {
+        synchronized (System.out) {
+            System.out.println(line);
+            System.out.flush();
+        }
+    }
+
+    /**
+     * Waits until the latch is released, even if the waiting thread is interrupted meanwhile.
+     *
+     * @param latch the latch.
+     */
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     * @throws IOException if the commands can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        int amountOfThreads = 1;
+        String weightsFile = null;
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-threads":
+                    amountOfThreads = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-weights":
+                    weightsFile = args[++argIndex];
+                    break;
+                default:
+                    System.err.println("Usage: EngineProtocol [-threads N] [-weights file]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        new EngineProtocol(amountOfThreads, weightsFile).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+}
@@ -0,0 +1,504 @@
+package checkers.tools;
+
+import checkers.engine.EvaluationWeights;
+import checkers.engine.Notation;
+import checkers.engine.Position;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class is a headless tool that tunes the weights of the evaluation on labelled positions(Texel's method).
+ * <p>
+ * Every position is labelled with the result of the game it comes from. The score of the evaluation is turned
+ * into the expected result with a sigmoid, and the weights are chosen to minimise the mean squared error
+ * between the expected and the real results. First the scale of the sigmoid is fitted to the initial weights,
+ * then the weights are tuned by gradient descent(Adam) and finally polished by a local search of the integer weights.
+ * The value of a simple Checker is not tuned: it fixes the scale of the scores.
+ * <p>
+ * The evaluation is linear in the weights(see EvaluationWeights), so the features of every position are
+ * computed once while loading, and an evaluation is just a dot product. The error and its gradient
+ * are computed over all the positions in parallel on a fork-join pool.
+ * <p>
+ * A positions file has one position per line in the notation of Notation, followed by the result of the game:
+ * "1-0" if DOWN won, "0-1" if UP won, "1/2-1/2" for a draw(OpeningBookGenerator writes such files).
+ * The positions in which the side to move can eat are skipped, as their score is decided by the capture.
+ * <p>
+ * Usage: EvaluationTuner [-size 8|10] [-threads N] [-iterations N] [-out file] positionsFile...
+ */
+public class EvaluationTuner {
+
+    /**
+     * The default amount of iterations of the gradient descent.
+     */
+    private static final int DEFAULT_ITERATIONS = 1000;
+
+    /**
+     * The default file of the weights(read as the initial weights if it exists).
+     */
+    private static final String DEFAULT_WEIGHTS_FILE = "evaluation.properties";
+
+    /**
+     * The amount of positions below which a task of the fork-join pool is not split any further.
+     */
+    private static final int TASK_THRESHOLD = 16384;
+
+    /**
+     * The learning rate of the gradient descent.
+     */
+    private static final double LEARNING_RATE = 0.5;
+
+    /**
+     * The decay rate of the mean of the gradient(Adam).
+     */
+    private static final double BETA_1 = 0.9;
+
+    /**
+     * The decay rate of the mean of the squared gradient(Adam).
+     */
+    private static final double BETA_2 = 0.999;
+
+    /**
+     * The term that keeps the steps of Adam finite.
+     */
+    private static final double EPSILON = 1e-8;
+
+    /**
+     * The amount of features(weights).
+     */
+    private static final int FEATURES = EvaluationWeights.NAMES.length;
+
+    /**
+     * The size of the board in cells.
+     */
+    private final int boardSizeInCells;
+
+    /**
+     * The pool that computes the error.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The features of the loaded positions.
+     * <p>
+     * Access: features[positionIndex * FEATURES + featureIndex]
+     */
+    private int[] features;
+
+    /**
+     * The results of the games of the loaded positions for the side to move: 1 a win, 0.5 a draw, 0 a loss.
+     * <p>
+     * Access: results[positionIndex]
+     */
+    private float[] results;
+
+    /**
+     * The amount of loaded positions.
+     */
+    private int amountOfPositions;
+
+    /**
+     * The scale of the sigmoid.
+     */
+    private double scale;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param boardSizeInCells the size of the board in cells.
+     * @param amountOfThreads  the amount of threads that compute the error.
+     */
+    public EvaluationTuner(int boardSizeInCells, int amountOfThreads) {
+        this.boardSizeInCells = boardSizeInCells;
+        this.pool = new ForkJoinPool(amountOfThreads);
+        this.features = new int[1024 * FEATURES];
+        this.results = new float[1024];
+        this.amountOfPositions = 0;
+        this.scale = 1.0;
+    }
+
+    /**
+     * Loads the positions of a file and computes their features.
+     *
+     * @param file    the positions file.
+     * @param weights the weights that compute the features(only the board size matters).
+     * @throws IOException if the file can not be read.
+     */
+    public void loadPositions(Path file, EvaluationWeights weights) throws IOException {
+        final int[] positionFeatures = new int[FEATURES];
+        int loaded = 0;
+        int skipped = 0;
+        int lineNumber = 0;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                final String[] tokens = line.trim().split("\\s+");
+                if (tokens[0].isEmpty() || tokens[0].startsWith("#")) {
+                    continue;
+                }
+
+                final Position position = (tokens.length == 2)
+                        ? Notation.parsePosition(tokens[0], boardSizeInCells)
+                        : null;
+                final int winner = (tokens.length == 2) ? parseResult(tokens[1]) : Integer.MIN_VALUE;
+                if (position == null || winner == Integer.MIN_VALUE) {
+                    System.err.println(file + ":" + lineNumber + ": bad position, skipped");
+                    continue;
+                }
+                if (position.canPlayerEat(position.getSideToMove())) {
+                    skipped++;
+                    continue;
+                }
+
+                if (amountOfPositions == results.length) {
+                    results = Arrays.copyOf(results, 2 * results.length);
+                    features = Arrays.copyOf(features, 2 * features.length);
+                }
+                weights.computeFeatures(position, positionFeatures);
+                System.arraycopy(positionFeatures, 0, features, amountOfPositions * FEATURES, FEATURES);
+                results[amountOfPositions] = (winner < 0) ? 0.5f : (winner == position.getSideToMove()) ? 1.0f : 0.0f;
+                amountOfPositions++;
+                loaded++;
+            }
+        }
+
+        System.out.println(file + ": " + loaded + " positions loaded, " + skipped + " positions with a capture skipped");
+    }
+
+    /**
+     * Tunes the weights.
+     *
+     * @param initialWeights the weights to start from.
+     * @param iterations     the amount of iterations of the gradient descent.
+     * @return the tuned weights.
+     */
+    public EvaluationWeights tune(EvaluationWeights initialWeights, int iterations) {
+        if (amountOfPositions == 0) {
+            throw new IllegalStateException("No positions to tune on");
+        }
+
+        final double[] weights = new double[FEATURES];
+        for (int index = 0; index < FEATURES; index++) {
+            weights[index] = initialWeights.get(index);
+        }
+
+        fitScale(weights);
+        System.out.printf("Scale %.4f, initial error %.6f%n", scale, computeError(weights, null));
+
+        descend(weights, iterations);
+
+        final int[] values = new int[FEATURES];
+        for (int index = 0; index < FEATURES; index++) {
+            values[index] = (int) Math.round(weights[index]);
+        }
+        final double error = searchLocally(values);
+        System.out.printf("Final error %.6f%n", error);
+
+        return new EvaluationWeights(boardSizeInCells, values);
+    }
+
+    /**
+     * Finds the scale of the sigmoid that minimises the error of the given weights(golden section search).
+     *
+     * @param weights the weights.
+     */
+    private void fitScale(double[] weights) {
+        final double ratio = (Math.sqrt(5) - 1) / 2;
+        double low = 0.01;
+        double high = 10.0;
+        while (high - low > 1e-4) {
+            final double first = high - ratio * (high - low);
+            final double second = low + ratio * (high - low);
+            scale = first;
+            final double firstError = computeError(weights, null);
+            scale = second;
+            final double secondError = computeError(weights, null);
+            if (firstError < secondError) {
+                high = second;
+            } else {
+                low = first;
+            }
+        }
+        scale = (low + high) / 2;
+    }
+
+    /**
+     * Tunes the weights by gradient descent(Adam).
+     *
+     * @param weights    the weights to tune(are changed in place).
+     * @param iterations the amount of iterations.
+     */
+    private void descend(double[] weights, int iterations) {
+        final double[] gradient = new double[FEATURES];
+        final double[] mean = new double[FEATURES];
+        final double[] variance = new double[FEATURES];
+        for (int iteration = 1; iteration <= iterations; iteration++) {
+            final double error = computeError(weights, gradient);
+            for (int index = 0; index < FEATURES; index++) {
+                if (index == EvaluationWeights.MAN) {
+                    continue;
+                }
+
+                mean[index] = BETA_1 * mean[index] + (1 - BETA_1) * gradient[index];
+                variance[index] = BETA_2 * variance[index] + (1 - BETA_2) * gradient[index] * gradient[index];
+                final double correctedMean = mean[index] / (1 - Math.pow(BETA_1, iteration));
+                final double correctedVariance = variance[index] / (1 - Math.pow(BETA_2, iteration));
+                weights[index] -= LEARNING_RATE * correctedMean / (Math.sqrt(correctedVariance) + EPSILON);
+            }
+
+            if (iteration % 100 == 0 || iteration == iterations) {
+                System.out.printf("Iteration %d, error %.6f%n", iteration, error);
+            }
+        }
+    }
+
+    /**
+     * Polishes the integer weights: changes every weight by one while it lowers the error.
+     *
+     * @param values the weights to polish(are changed in place).
+     * @return the error of the polished weights.
+     */
+    private double searchLocally(int[] values) {
+        final double[] weights = new double[FEATURES];
+        for (int index = 0; index < FEATURES; index++) {
+            weights[index] = values[index];
+        }
+
+        double bestError = computeError(weights, null);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int index = 0; index < FEATURES; index++) {
+                if (index == EvaluationWeights.MAN) {
+                    continue;
+                }
+
+                for (int delta : new int[]{1, -1}) {
+                    weights[index] = values[index] + delta;
+                    final double error = computeError(weights, null);
+                    if (error < bestError) {
+                        bestError = error;
+                        values[index] += delta;
+                        improved = true;
+                        break;
+                    }
+                    weights[index] = values[index];
+                }
+            }
+        }
+
+        return bestError;
+    }
+
+    /**
+     * Computes the mean squared error of the weights over all the positions, in parallel.
+     *
+     * @param weights  the weights.
+     * @param gradient the array to write the gradient of the error into, null if it is not needed.
+     * @return the mean squared error.
+     */
+    private double computeError(double[] weights, double[] gradient) {
+        // The expected result is 1 / (1 + 10^(-scale * score / 400))
+        final double factor = scale * Math.log(10) / 400;
+        final double[] sums = pool.invoke(
+                new ErrorTask(features, results, factor, weights, gradient != null, 0, amountOfPositions));
+        if (gradient != null) {
+            for (int index = 0; index < FEATURES; index++) {
+                gradient[index] = sums[index + 1] / amountOfPositions;
+            }
+        }
+
+        return sums[0] / amountOfPositions;
+    }
+
+    /**
+     * Parses the result of a game.
+     *
+     * @param text the result("1-0", "0-1" or "1/2-1/2").
+     * @return the side that won, -1 for a draw, Integer.MIN_VALUE if the text is not a result.
+     */
+    private static int parseResult(String text) {
+        switch (text) {
+            case "1-0":
+                return Position.SIDE_DOWN;
+            case "0-1":
+                return Position.SIDE_UP;
+            case "1/2-1/2":
+                return -1;
+            default:
+                return Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * The task that sums the squared errors(and their gradient) over a range of the positions.
+     * The result is {sum of the errors, sum of the gradients of every weight...}.
+     */
+    private static class ErrorTask extends RecursiveTask<double[]> {
+
+        /**
+         * The version of the serialized form(the tasks are never serialized, ForkJoinTask just is Serializable).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The features of the positions(see EvaluationTuner.features).
+         */
+        private final int[] features;
+
+        /**
+         * The results of the games of the positions(see EvaluationTuner.results).
+         */
+        private final float[] results;
+
+        /**
+         * The factor of the score in the exponent of the sigmoid.
+         */
+        private final double factor;
+
+        /**
+         * The weights.
+         */
+        private final double[] weights;
+
+        /**
+         * Whether to sum the gradient.
+         */
+        private final boolean withGradient;
+
+        /**
+         * The first position of the range.
+         */
+        private final int from;
+
+        /**
+         * The position after the last one of the range.
+         */
+        private final int to;
+
+        /**
+         * The constructor of the class.
+         *
+         * @param features     the features of the positions.
+         * @param results      the results of the games of the positions.
+         * @param factor       the factor of the score in the exponent of the sigmoid.
+         * @param weights      the weights.
+         * @param withGradient whether to sum the gradient.
+         * @param from         the first position of the range.
+         * @param to           the position after the last one of the range.
+         */
+        ErrorTask(int[] features, float[] results, double factor, double[] weights, boolean withGradient,
+                  int from, int to) {
+            this.features = features;
+            this.results = results;
+            this.factor = factor;
+            this.weights = weights;
+            this.withGradient = withGradient;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > TASK_THRESHOLD) {
+                final int middle = (from + to) >>> 1;
+                final ErrorTask left = new ErrorTask(features, results, factor, weights, withGradient, from, middle);
+                left.fork();
+                final double[] sums = new ErrorTask(features, results, factor, weights, withGradient, middle, to)
+                        .compute();
+                final double[] leftSums = left.join();
+                for (int index = 0; index < sums.length; index++) {
+                    sums[index] += leftSums[index];
+                }
+                return sums;
+            }
+
+            final double[] sums = new double[FEATURES + 1];
+            for (int positionIndex = from; positionIndex < to; positionIndex++) {
+                final int offset = positionIndex * FEATURES;
+                double score = 0;
+                for (int index = 0; index < FEATURES; index++) {
+                    score += weights[index] * features[offset + index];
+                }
+
+                final double expected = 1 / (1 + Math.exp(-factor * score));
+                final double difference = expected - results[positionIndex];
+                sums[0] += difference * difference;
+                if (withGradient) {
+                    final double derivative = 2 * difference * expected * (1 - expected) * factor;
+                    for (int index = 0; index < FEATURES; index++) {
+                        sums[index + 1] += derivative * features[offset + index];
+                    }
+                }
+            }
+
+            return sums;
+        }
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     * @throws IOException if a file can not be read or the weights can not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int boardSizeInCells = 8;
+        int amountOfThreads = Runtime.getRuntime().availableProcessors();
+        int iterations = DEFAULT_ITERATIONS;
+        String weightsFile = DEFAULT_WEIGHTS_FILE;
+        final List<Path> positionFiles = new ArrayList<>();
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-size":
+                    boardSizeInCells = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-threads":
+                    amountOfThreads = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-iterations":
+                    iterations = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-out":
+                    weightsFile = args[++argIndex];
+                    break;
+                default:
+                    if (args[argIndex].startsWith("-")) {
+                        System.err.println("Usage: EvaluationTuner [-size 8|10] [-threads N] [-iterations N] "
+                                + "[-out file] positionsFile...");
+                        System.exit(2);
+                        return;
+                    }
+                    positionFiles.add(Paths.get(args[argIndex]));
+                    break;
+            }
+        }
+
+        final Path weightsPath = Paths.get(weightsFile);
+        final EvaluationWeights initialWeights = Files.exists(weightsPath)
+                ? EvaluationWeights.load(weightsPath, boardSizeInCells)
+                : EvaluationWeights.createDefault(boardSizeInCells);
+
+        final EvaluationTuner tuner = new EvaluationTuner(boardSizeInCells, amountOfThreads);
+        for (Path file : positionFiles) {
+            tuner.loadPositions(file, initialWeights);
+        }
+
+        final EvaluationWeights tunedWeights = tuner.tune(initialWeights, iterations);
+        tunedWeights.save(weightsPath);
+        for (int index = 0; index < EvaluationWeights.NAMES.length; index++) {
+            System.out.println(EvaluationWeights.NAMES[index] + " = " + tunedWeights.get(index));
+        }
+        System.out.println("The weights have been written into " + weightsPath);
+    }
+}
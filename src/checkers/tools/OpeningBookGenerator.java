@@ -0,0 +1,403 @@
+package checkers.tools;
+
+import checkers.book.OpeningBook;
+import checkers.book.OpeningBookBuilder;
+import checkers.engine.Move;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Notation;
+import checkers.engine.Position;
+import checkers.engine.Search;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is a headless tool that builds the opening book from self-play and from imported games.
+ * <p>
+ * In self-play the first plies of every game are random, so that the games spread over many openings,
+ * the rest is played by the search with a fixed time per move. A game ends when the side to move
+ * can't move(it loses), when a position repeats or when the game gets too long(a draw).
+ * The games are played on all the processors at once.
+ * <p>
+ * An imported file has one game per line: the moves in the text notation(see Notation) from the initial
+ * position, optionally followed by the result: "1-0" if the side that moved first(DOWN) won,
+ * "0-1" if the other side won, "1/2-1/2" for a draw. Move numbers("1.") are skipped,
+ * the games without a result and the lines starting with '#' are ignored.
+ * <p>
+ * The positions of the self-play games(after the random plies, without a capture for the side to move)
+ * may also be written with the results of their games, for the tuning of the evaluation(see EvaluationTuner).
+ * <p>
+ * Usage: OpeningBookGenerator [-size 8|10] [-notMandatory] [-games N] [-randomPlies N] [-plies N]
+ * [-time millis] [-threads N] [-minGames N] [-import file]... [-positions file] [-dir path]
+ */
+public class OpeningBookGenerator {
+
+    /**
+     * The default amount of self-play games.
+     */
+    private static final int DEFAULT_GAMES = 200;
+
+    /**
+     * The default amount of random plies at the start of a self-play game.
+     */
+    private static final int DEFAULT_RANDOM_PLIES = 4;
+
+    /**
+     * The default amount of the first plies of every game that get into the book.
+     */
+    private static final int DEFAULT_BOOK_PLIES = 16;
+
+    /**
+     * The default time to search a move of a self-play game in milliseconds.
+     */
+    private static final long DEFAULT_TIME_MILLIS = 100;
+
+    /**
+     * The default directory of the opening books.
+     */
+    private static final String DEFAULT_DIRECTORY = "books";
+
+    /**
+     * The amount of plies after which a self-play game is a draw.
+     */
+    private static final int MAX_GAME_PLIES = 300;
+
+    /**
+     * The size of the board in cells.
+     */
+    private final int boardSizeInCells;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    private final boolean isEatingMandatory;
+
+    /**
+     * The collector of the statistics.
+     */
+    private final OpeningBookBuilder builder;
+
+    /**
+     * The writer of the positions of the self-play games, null if they are not written.
+     */
+    private BufferedWriter positionsWriter;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @param bookPlies         the amount of the first plies of every game that get into the book.
+     */
+    public OpeningBookGenerator(int boardSizeInCells, boolean isEatingMandatory, int bookPlies) {
+        this.boardSizeInCells = boardSizeInCells;
+        this.isEatingMandatory = isEatingMandatory;
+        this.builder = new OpeningBookBuilder(boardSizeInCells, isEatingMandatory, bookPlies);
+    }
+
+    /**
+     * Starts writing the positions of the self-play games with their results into a file.
+     *
+     * @param file the positions file(is overwritten).
+     * @throws IOException if the file can not be created.
+     */
+    public void openPositionsFile(Path file) throws IOException {
+        this.positionsWriter = Files.newBufferedWriter(file);
+    }
+
+    /**
+     * Finishes writing the positions of the self-play games.
+     *
+     * @throws IOException if the file can not be written.
+     */
+    public void closePositionsFile() throws IOException {
+        if (positionsWriter != null) {
+            positionsWriter.close();
+            positionsWriter = null;
+        }
+    }
+
+    /**
+     * Plays the self-play games on all the threads and adds them to the book.
+     *
+     * @param amountOfGames   the amount of games.
+     * @param randomPlies     the amount of random plies at the start of every game.
+     * @param timeMillis      the time to search a move in milliseconds.
+     * @param amountOfThreads the amount of threads to play on.
+     */
+    public void playGames(int amountOfGames, int randomPlies, long timeMillis, int amountOfThreads) {
+        final ExecutorService executor = Executors.newFixedThreadPool(amountOfThreads);
+        final ThreadLocal<Search> searches = ThreadLocal.withInitial(() -> new Search(isEatingMandatory));
+        final AtomicInteger playedGames = new AtomicInteger();
+        final int[] results = new int[3];
+
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int gameIndex = 0; gameIndex < amountOfGames; gameIndex++) {
+            futures.add(executor.submit(() -> {
+                final int result = playGame(searches.get(), randomPlies, timeMillis);
+                synchronized (results) {
+                    results[result + 1]++;
+                }
+                final int played = playedGames.incrementAndGet();
+                if (played % 10 == 0 || played == amountOfGames) {
+                    System.out.println(played + " games played, " + builder.getAmountOfEntries() + " entries");
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The self-play has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The self-play has failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+
+        System.out.println("DOWN won " + results[Position.SIDE_DOWN + 1] + ", UP won " + results[Position.SIDE_UP + 1]
+                + ", drawn " + results[OpeningBookBuilder.DRAW + 1]);
+    }
+
+    /**
+     * Plays a self-play game and adds it to the book.
+     *
+     * @param search      the search of the current thread.
+     * @param randomPlies the amount of random plies at the start of the game.
+     * @param timeMillis  the time to search a move in milliseconds.
+     * @return the result of the game(the side that won or OpeningBookBuilder.DRAW).
+     */
+    private int playGame(Search search, int randomPlies, long timeMillis) {
+        final Position position = Position.createInitial(boardSizeInCells);
+        final MoveGenerator moveGenerator = new MoveGenerator();
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        final long[] gameMoves = new long[MAX_GAME_PLIES];
+
+        final List<String> quietPositions = new ArrayList<>();
+
+        int ply = 0;
+        int result = OpeningBookBuilder.DRAW;
+        while (ply < MAX_GAME_PLIES && !position.isRepetition()) {
+            final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moves, 0);
+            if (amountOfMoves == 0) {
+                // The side that can't move loses
+                result = position.getSideToMove() ^ 1;
+                break;
+            }
+            if (positionsWriter != null && ply >= randomPlies && !position.canPlayerEat(position.getSideToMove())) {
+                quietPositions.add(Notation.positionToString(position));
+            }
+
+            final long move = (ply < randomPlies)
+                    ? moves[ThreadLocalRandom.current().nextInt(amountOfMoves)]
+                    : search.search(position, timeMillis, Search.MAX_DEPTH).bestMove;
+            position.makeMove(move);
+            gameMoves[ply++] = move;
+        }
+
+        builder.addGame(gameMoves, ply, result);
+        if (positionsWriter != null) {
+            writePositions(quietPositions, result);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the positions of a self-play game with its result.
+     *
+     * @param positions the notations of the positions.
+     * @param result    the result of the game(the side that won or OpeningBookBuilder.DRAW).
+     */
+    private void writePositions(List<String> positions, int result) {
+        final String resultText = (result == OpeningBookBuilder.DRAW) ? "1/2-1/2"
+                : (result == Position.SIDE_DOWN) ? "1-0" : "0-1";
+        synchronized (positionsWriter) {
+            try {
+                for (String position : positions) {
+                    positionsWriter.write(position);
+                    positionsWriter.write(' ');
+                    positionsWriter.write(resultText);
+                    positionsWriter.newLine();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Adds the games of a file to the book.
+     *
+     * @param file the file of the games.
+     * @throws IOException if the file can not be read.
+     */
+    public void importGames(Path file) throws IOException {
+        final MoveGenerator moveGenerator = new MoveGenerator();
+        int importedGames = 0;
+        int lineNumber = 0;
+        try (BufferedReader in = new BufferedReader(new FileReader(file.toFile()))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                final String[] tokens = line.trim().split("\\s+");
+                if (tokens[0].isEmpty() || tokens[0].startsWith("#")) {
+                    continue;
+                }
+
+                final int result;
+                switch (tokens[tokens.length - 1]) {
+                    case "1-0":
+                        result = Position.SIDE_DOWN;
+                        break;
+                    case "0-1":
+                        result = Position.SIDE_UP;
+                        break;
+                    case "1/2-1/2":
+                        result = OpeningBookBuilder.DRAW;
+                        break;
+                    default:
+                        // The result is unknown => the game can't tell which moves are good
+                        continue;
+                }
+
+                final Position position = Position.createInitial(boardSizeInCells);
+                final long[] gameMoves = new long[tokens.length];
+                int ply = 0;
+                for (int tokenIndex = 0; tokenIndex < tokens.length - 1; tokenIndex++) {
+                    if (tokens[tokenIndex].endsWith(".")) {
+                        continue;
+                    }
+
+                    final long move = Notation.parseMove(position, tokens[tokenIndex], isEatingMandatory, moveGenerator);
+                    if (move == Move.NONE) {
+                        System.err.println(file + ":" + lineNumber + ": illegal move " + tokens[tokenIndex]
+                                + ", the rest of the game is skipped");
+                        break;
+                    }
+                    position.makeMove(move);
+                    gameMoves[ply++] = move;
+                }
+
+                builder.addGame(gameMoves, ply, result);
+                importedGames++;
+            }
+        }
+
+        System.out.println(file + ": " + importedGames + " games imported, " + builder.getAmountOfEntries() + " entries");
+    }
+
+    /**
+     * Writes the book into the directory of the opening books.
+     *
+     * @param root     the directory of the opening books.
+     * @param minGames the minimal amount of games in which a move must have been played to get into the book.
+     * @throws IOException if the book can not be written.
+     */
+    public void write(Path root, int minGames) throws IOException {
+        Files.createDirectories(root);
+        final Path file = OpeningBook.getFile(root, boardSizeInCells, isEatingMandatory);
+        final Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        final int amountOfEntries = builder.write(temporaryFile, minGames);
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println(file + ": " + amountOfEntries + " entries written");
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     * @throws IOException if a file can not be read or the book can not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int boardSizeInCells = 8;
+        boolean isEatingMandatory = true;
+        int amountOfGames = DEFAULT_GAMES;
+        int randomPlies = DEFAULT_RANDOM_PLIES;
+        int bookPlies = DEFAULT_BOOK_PLIES;
+        long timeMillis = DEFAULT_TIME_MILLIS;
+        int amountOfThreads = Runtime.getRuntime().availableProcessors();
+        int minGames = 1;
+        final List<Path> importedFiles = new ArrayList<>();
+        Path positionsFile = null;
+        String root = DEFAULT_DIRECTORY;
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-size":
+                    boardSizeInCells = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-notMandatory":
+                    isEatingMandatory = false;
+                    break;
+                case "-games":
+                    amountOfGames = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-randomPlies":
+                    randomPlies = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-plies":
+                    bookPlies = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-time":
+                    timeMillis = Long.parseLong(args[++argIndex]);
+                    break;
+                case "-threads":
+                    amountOfThreads = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-minGames":
+                    minGames = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-import":
+                    importedFiles.add(Paths.get(args[++argIndex]));
+                    break;
+                case "-positions":
+                    positionsFile = Paths.get(args[++argIndex]);
+                    break;
+                case "-dir":
+                    root = args[++argIndex];
+                    break;
+                default:
+                    System.err.println("Usage: OpeningBookGenerator [-size 8|10] [-notMandatory] [-games N] "
+                            + "[-randomPlies N] [-plies N] [-time millis] [-threads N] [-minGames N] "
+                            + "[-import file]... [-positions file] [-dir path]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        final OpeningBookGenerator generator = new OpeningBookGenerator(boardSizeInCells, isEatingMandatory, bookPlies);
+        for (Path file : importedFiles) {
+            generator.importGames(file);
+        }
+        if (amountOfGames > 0) {
+            if (positionsFile != null) {
+                generator.openPositionsFile(positionsFile);
+            }
+            try {
+                generator.playGames(amountOfGames, randomPlies, timeMillis, amountOfThreads);
+            } finally {
+                generator.closePositionsFile();
+            }
+        }
+        generator.write(Paths.get(root), minGames);
+    }
+}
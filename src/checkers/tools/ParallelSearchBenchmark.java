@@ -0,0 +1,166 @@
+package checkers.tools;
+
+import checkers.engine.MonteCarloSearch;
+import checkers.engine.ParallelSearch;
+import checkers.engine.Position;
+import checkers.engine.SavedPosition;
+import checkers.engine.Search;
+import checkers.engine.SearchResult;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is a headless tool that measures how the multi-threaded search scales with the amount of threads.
+ * Every position is searched for a fixed time with 1, 2, 4, ... threads(up to the amount of processors),
+ * the nodes per second and the speedup against a single thread are printed for each amount of threads.
+ * The average completed depth is printed too: the nodes of the helpers are only useful if the depth grows.
+ * The fraction of the beta cutoffs caused by the first searched move shows the quality of the move ordering.
+ * <p>
+ * The Monte Carlo tree search is measured the same way afterwards(its playouts per second and deepest node),
+ * so that both engines can be compared on the same positions, for example on the 10x10 board.
+ * <p>
+ * Usage: ParallelSearchBenchmark [-time millis] [-maxThreads N] [-tableSize MB] [-file savedGame]...
+ */
+public class ParallelSearchBenchmark {
+
+    /**
+     * The default time to search each position in milliseconds.
+     */
+    private static final long DEFAULT_TIME_MILLIS = 3000;
+
+    /**
+     * The default size of the transposition table in megabytes.
+     */
+    private static final int DEFAULT_TABLE_SIZE_MB = 64;
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     * @throws IOException if a saved game can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        long timeMillis = DEFAULT_TIME_MILLIS;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int tableSizeInMegabytes = DEFAULT_TABLE_SIZE_MB;
+        final List<SavedPosition> savedPositions = new ArrayList<>();
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-time":
+                    timeMillis = Long.parseLong(args[++argIndex]);
+                    break;
+                case "-maxThreads":
+                    maxThreads = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-tableSize":
+                    tableSizeInMegabytes = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-file":
+                    try (BufferedReader in = new BufferedReader(new FileReader(args[++argIndex]))) {
+                        savedPositions.add(SavedPosition.read(in));
+                    }
+                    break;
+                default:
+                    System.err.println("Usage: ParallelSearchBenchmark [-time millis] [-maxThreads N] "
+                            + "[-tableSize MB] [-file savedGame]...");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        // Without saved games, use the initial positions of both board sizes with mandatory eating
+        final List<Position> positions = new ArrayList<>();
+        final List<Boolean> eatingRules = new ArrayList<>();
+        if (savedPositions.isEmpty()) {
+            positions.add(Position.createInitial(8));
+            eatingRules.add(true);
+            positions.add(Position.createInitial(10));
+            eatingRules.add(true);
+        } else {
+            for (SavedPosition savedPosition : savedPositions) {
+                positions.add(savedPosition.toPosition());
+                eatingRules.add(savedPosition.isEatingMandatory);
+            }
+        }
+
+        System.out.println("threads        nps  speedup  avg depth  first cutoff");
+        long singleThreadNodesPerSecond = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextAmountOfThreads(threads, maxThreads)) {
+            long nodes = 0;
+            long elapsedMillis = 0;
+            int depthSum = 0;
+            long betaCutoffs = 0;
+            long firstMoveBetaCutoffs = 0;
+            for (int positionIndex = 0; positionIndex < positions.size(); positionIndex++) {
+                // A fresh table for every run, so that no run profits from the previous one
+                final ParallelSearch search = new ParallelSearch(
+                        eatingRules.get(positionIndex), threads, tableSizeInMegabytes);
+                final SearchResult result = search.search(
+                        new Position(positions.get(positionIndex)), timeMillis, Search.MAX_DEPTH);
+                nodes += result.nodes;
+                elapsedMillis += result.timeMillis;
+                depthSum += result.depth;
+                betaCutoffs += result.betaCutoffs;
+                firstMoveBetaCutoffs += result.firstMoveBetaCutoffs;
+            }
+
+            final long nodesPerSecond = nodes * 1000 / Math.max(elapsedMillis, 1);
+            if (threads == 1) {
+                singleThreadNodesPerSecond = nodesPerSecond;
+            }
+            System.out.println(String.format("%7d %10d %8.2f %10.1f %12.1f%%",
+                    threads,
+                    nodesPerSecond,
+                    (double) nodesPerSecond / Math.max(singleThreadNodesPerSecond, 1),
+                    (double) depthSum / positions.size(),
+                    100.0 * firstMoveBetaCutoffs / Math.max(betaCutoffs, 1)));
+        }
+
+        System.out.println();
+        System.out.println("threads  playouts/s  speedup  avg max depth");
+        long singleThreadPlayoutsPerSecond = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextAmountOfThreads(threads, maxThreads)) {
+            long playouts = 0;
+            long elapsedMillis = 0;
+            int depthSum = 0;
+            for (int positionIndex = 0; positionIndex < positions.size(); positionIndex++) {
+                // A fresh tree for every run, so that no run profits from the previous one
+                final MonteCarloSearch search = new MonteCarloSearch(eatingRules.get(positionIndex), threads);
+                final SearchResult result = search.search(positions.get(positionIndex), timeMillis, Long.MAX_VALUE);
+                playouts += result.nodes;
+                elapsedMillis += result.timeMillis;
+                depthSum += result.depth;
+            }
+
+            final long playoutsPerSecond = playouts * 1000 / Math.max(elapsedMillis, 1);
+            if (threads == 1) {
+                singleThreadPlayoutsPerSecond = playoutsPerSecond;
+            }
+            System.out.println(String.format("%7d %11d %8.2f %14.1f",
+                    threads,
+                    playoutsPerSecond,
+                    (double) playoutsPerSecond / Math.max(singleThreadPlayoutsPerSecond, 1),
+                    (double) depthSum / positions.size()));
+        }
+    }
+
+    /**
+     * Returns the next amount of threads to measure: the amounts are doubled, the maximal one is always measured.
+     *
+     * @param threads    the current amount of threads.
+     * @param maxThreads the maximal amount of threads.
+     * @return the next amount of threads, greater than maxThreads after the last one.
+     */
+    private static int nextAmountOfThreads(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+
+        return Math.min(threads * 2, maxThreads);
+    }
+}
@@ -0,0 +1,229 @@
+package checkers.tools;
+
+import checkers.engine.MoveGenerator;
+import checkers.engine.Notation;
+import checkers.engine.Position;
+import checkers.engine.SavedPosition;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * This class is a headless tool that counts the leaf nodes of the move tree to a given depth(perft).
+ * It is used to validate the move generator against the reference counts and to measure its throughput.
+ * Run it with -verify after every change of the move generator: it exits with a non-zero code on a mismatch.
+ * <p>
+ * Usage: Perft [-size 8|10] [-notMandatory] [-depth N] [-file savedGame] [-divide] [-verify]
+ */
+public class Perft {
+
+    /**
+     * The reference counts from the initial position:
+     * {boardSizeInCells, isEatingMandatory(1/0), depth, nodes}.
+     * Without mandatory eating every part of a capture chain is a move of its own.
+     */
+    private static final long[][] REFERENCE_COUNTS = {
+            {8, 1, 1, 7},
+            {8, 1, 2, 49},
+            {8, 1, 3, 302},
+            {8, 1, 4, 1469},
+            {8, 1, 5, 7482},
+            {8, 1, 6, 37986},
+            {8, 1, 7, 190146},
+            {8, 1, 8, 929896},
+            {8, 0, 1, 7},
+            {8, 0, 2, 49},
+            {8, 0, 3, 379},
+            {8, 0, 4, 2900},
+            {8, 0, 5, 24029},
+            {8, 0, 6, 197410},
+            {8, 0, 7, 1695038},
+            {10, 1, 1, 9},
+            {10, 1, 2, 81},
+            {10, 1, 3, 658},
+            {10, 1, 4, 4265},
+            {10, 1, 5, 27132},
+            {10, 1, 6, 168316},
+            {10, 1, 7, 1060829},
+            {10, 0, 1, 9},
+            {10, 0, 2, 81},
+            {10, 0, 3, 793},
+            {10, 0, 4, 7698},
+            {10, 0, 5, 79957},
+            {10, 0, 6, 826006},
+    };
+
+    /**
+     * The generator of the legal moves.
+     */
+    private final MoveGenerator moveGenerator;
+
+    /**
+     * The buffer for the moves of every ply.
+     */
+    private final long[] moveBuffer;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    private final boolean isEatingMandatory;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param maxDepth          the maximal depth to count to.
+     * @param isEatingMandatory whether eating is mandatory.
+     */
+    public Perft(int maxDepth, boolean isEatingMandatory) {
+        this.moveGenerator = new MoveGenerator();
+        this.moveBuffer = new long[(maxDepth + 1) * MoveGenerator.MAX_MOVES];
+        this.isEatingMandatory = isEatingMandatory;
+    }
+
+    /**
+     * Counts the leaf nodes of the move tree of the given depth.
+     *
+     * @param position the position to count from(is restored after the call).
+     * @param depth    the depth of the tree.
+     * @return the amount of the leaf nodes.
+     */
+    public long count(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        final int offset = depth * MoveGenerator.MAX_MOVES;
+        final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moveBuffer, offset);
+        if (depth == 1) {
+            return amountOfMoves;
+        }
+
+        long nodes = 0;
+        for (int moveIndex = offset; moveIndex < offset + amountOfMoves; moveIndex++) {
+            position.makeMove(moveBuffer[moveIndex]);
+            nodes += count(position, depth - 1);
+            position.unmakeMove();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Prints the amount of the leaf nodes under each move of the position.
+     *
+     * @param position the position to count from.
+     * @param depth    the depth of the tree.
+     * @return the total amount of the leaf nodes.
+     */
+    public long divide(Position position, int depth) {
+        final int offset = depth * MoveGenerator.MAX_MOVES;
+        final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moveBuffer, offset);
+
+        long nodes = 0;
+        for (int moveIndex = offset; moveIndex < offset + amountOfMoves; moveIndex++) {
+            final long move = moveBuffer[moveIndex];
+            final String notation = Notation.toString(position, move, moveGenerator);
+
+            position.makeMove(move);
+            final long moveNodes = count(position, depth - 1);
+            position.unmakeMove();
+
+            System.out.println(notation + " " + moveNodes);
+            nodes += moveNodes;
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Checks the move generator against the reference counts.
+     *
+     * @return whether all the counts match.
+     */
+    public static boolean verify() {
+        boolean allMatch = true;
+        for (long[] reference : REFERENCE_COUNTS) {
+            final int boardSizeInCells = (int) reference[0];
+            final boolean isEatingMandatory = reference[1] == 1;
+            final int depth = (int) reference[2];
+
+            final long nodes = new Perft(depth, isEatingMandatory)
+                    .count(Position.createInitial(boardSizeInCells), depth);
+            final boolean match = nodes == reference[3];
+            allMatch &= match;
+
+            System.out.println(boardSizeInCells + "x" + boardSizeInCells
+                    + (isEatingMandatory ? " mandatory" : " not mandatory")
+                    + " depth " + depth + ": " + nodes
+                    + (match ? " OK" : " FAILED, expected " + reference[3]));
+        }
+
+        return allMatch;
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     * @throws IOException if the saved game can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        int boardSizeInCells = 8;
+        boolean isEatingMandatory = true;
+        int depth = 6;
+        String file = null;
+        boolean divide = false;
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-size":
+                    boardSizeInCells = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-notMandatory":
+                    isEatingMandatory = false;
+                    break;
+                case "-depth":
+                    depth = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-file":
+                    file = args[++argIndex];
+                    break;
+                case "-divide":
+                    divide = true;
+                    break;
+                case "-verify":
+                    System.exit(verify() ? 0 : 1);
+                    return;
+                default:
+                    System.err.println("Usage: Perft [-size 8|10] [-notMandatory] [-depth N] [-file savedGame] [-divide] [-verify]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        final Position position;
+        if (file != null) {
+            try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+                final SavedPosition savedPosition = SavedPosition.read(in);
+                position = savedPosition.toPosition();
+                isEatingMandatory = savedPosition.isEatingMandatory;
+            }
+        } else {
+            position = Position.createInitial(boardSizeInCells);
+        }
+
+        final Perft perft = new Perft(depth, isEatingMandatory);
+        for (int currentDepth = 1; currentDepth <= depth; currentDepth++) {
+            final long startTime = System.nanoTime();
+            final long nodes = (divide && currentDepth == depth)
+                    ? perft.divide(position, currentDepth)
+                    : perft.count(position, currentDepth);
+            final long elapsedNanos = Math.max(System.nanoTime() - startTime, 1);
+
+            System.out.println("depth " + currentDepth + " nodes " + nodes
+                    + " time " + elapsedNanos / 1000000 + " ms"
+                    + " nps " + (long) (nodes * 1e9 / elapsedNanos));
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package checkers.tools;
+
+import checkers.engine.Evaluator;
+import checkers.engine.Move;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Notation;
+import checkers.engine.Position;
+import checkers.engine.SavedPosition;
+import checkers.engine.Search;
+import checkers.engine.SearchResult;
+import checkers.engine.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class is a headless tool that analyses a set of positions with the search.
+ * <p>
+ * A file of positions is either a saved game(as written by the SaveGame button, one position with its own rules)
+ * or a list of positions in the text notation(see Notation.positionToString), one per line:
+ * the rest of a line after the notation is ignored, as are the empty lines and the lines starting with '#'.
+ * The positions in the notation are played with the board size and the rules of the command line.
+ * Without files the notation lines are read from the standard input.
+ * <p>
+ * The positions are searched on a pool of threads, each thread with its own single-threaded search and table,
+ * to the given depth and/or for the given time. The table is cleared before every position, so that the result
+ * of a position at a fixed depth does not depend on the positions analysed before it on the same thread.
+ * A result is written as soon as its position is done(so not in the order of the input):
+ * <p>
+ * "source best move score S depth D nodes N time millis pv move move ...",
+ * <p>
+ * the source being the file name(with ":line" for the notation lines), the best move being "none"
+ * if the side to move can't move. The score is from the point of view of the side to move.
+ * <p>
+ * Usage: PositionAnalyzer [-size 8|10] [-notMandatory] [-depth N] [-time millis] [-threads N] [-tableSize MB]
+ * [-weights file] [-out file] [file]...
+ */
+public class PositionAnalyzer {
+
+    /**
+     * The default depth of the search when neither the depth nor the time is given.
+     */
+    private static final int DEFAULT_DEPTH = 12;
+
+    /**
+     * The time limit of a search that is only limited by the depth in milliseconds(a day).
+     */
+    private static final long NO_TIME_LIMIT_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * The default size of the transposition table of every thread in megabytes.
+     */
+    private static final int DEFAULT_TABLE_SIZE_MB = 16;
+
+    /**
+     * The amount of positions waiting for a thread per thread, so that a large input is not read into memory at once.
+     */
+    private static final int QUEUED_POSITIONS_PER_THREAD = 4;
+
+    /**
+     * The maximal depth of the search.
+     */
+    private final int maxDepth;
+
+    /**
+     * The time limit of the search of a position in milliseconds.
+     */
+    private final long timeLimitMillis;
+
+    /**
+     * The static evaluation(shared by all the threads).
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * The stream the results are written to.
+     */
+    private final PrintStream out;
+
+    /**
+     * The threads that search the positions.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The amount of positions that may be queued for the threads at once.
+     */
+    private final int maxQueuedPositions;
+
+    /**
+     * The permits to queue a position for the threads.
+     */
+    private final Semaphore queuePermits;
+
+    /**
+     * The transposition table of the current thread.
+     */
+    private final ThreadLocal<TranspositionTable> transpositionTables;
+
+    /**
+     * The searches of the current thread: [0] if eating is not mandatory, [1] if it is(created when needed).
+     * Both use the table of the thread.
+     */
+    private final ThreadLocal<Search[]> searches;
+
+    /**
+     * The first failure of the analysis of a position, null if there has been none.
+     */
+    private final AtomicReference<RuntimeException> failure;
+
+    /**
+     * The amount of analysed positions.
+     */
+    private final AtomicInteger analysedPositions;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param maxDepth             the maximal depth of the search.
+     * @param timeLimitMillis      the time limit of the search of a position in milliseconds.
+     * @param amountOfThreads      the amount of positions analysed at once.
+     * @param tableSizeInMegabytes the size of the transposition table of every thread in megabytes.
+     * @param evaluator            the static evaluation.
+     * @param out                  the stream to write the results to.
+     */
+    public PositionAnalyzer(int maxDepth, long timeLimitMillis, int amountOfThreads, int tableSizeInMegabytes,
+                            Evaluator evaluator, PrintStream out) {
+        this.maxDepth = maxDepth;
+        this.timeLimitMillis = timeLimitMillis;
+        this.evaluator = evaluator;
+        this.out = out;
+        this.executor = Executors.newFixedThreadPool(amountOfThreads);
+        this.maxQueuedPositions = amountOfThreads * QUEUED_POSITIONS_PER_THREAD;
+        this.queuePermits = new Semaphore(maxQueuedPositions);
+        this.transpositionTables = ThreadLocal.withInitial(() -> new TranspositionTable(tableSizeInMegabytes));
+        this.searches = ThreadLocal.withInitial(() -> new Search[2]);
+        this.failure = new AtomicReference<>();
+        this.analysedPositions = new AtomicInteger();
+    }
+
+    /**
+     * Queues the analysis of a position, waits while too many positions are queued.
+     *
+     * @param source            the name of the position in the results.
+     * @param position          the position.
+     * @param isEatingMandatory whether eating is mandatory.
+     */
+    public void submit(String source, Position position, boolean isEatingMandatory) {
+        queuePermits.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    analyse(source, position, isEatingMandatory);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    queuePermits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            queuePermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until all the queued positions have been analysed and stops the threads.
+     *
+     * @return the amount of analysed positions.
+     */
+    public int finish() {
+        // All the permits are back once the last queued position is done
+        queuePermits.acquireUninterruptibly(maxQueuedPositions);
+        queuePermits.release(maxQueuedPositions);
+        executor.shutdown();
+
+        out.flush();
+        if (failure.get() != null) {
+            throw new IllegalStateException("The analysis has failed", failure.get());
+        }
+        return analysedPositions.get();
+    }
+
+    /**
+     * Searches a position on the current thread and writes the result.
+     *
+     * @param source            the name of the position in the results.
+     * @param position          the position.
+     * @param isEatingMandatory whether eating is mandatory.
+     */
+    private void analyse(String source, Position position, boolean isEatingMandatory) {
+        final Search search = getSearch(isEatingMandatory);
+        final SearchResult result = search.search(position, timeLimitMillis, maxDepth);
+
+        final MoveGenerator moveGenerator = new MoveGenerator();
+        final StringBuilder line = new StringBuilder(source);
+        line.append(" best ").append(result.bestMove == Move.NONE
+                ? "none"
+                : Notation.toString(position, result.bestMove, moveGenerator));
+        line.append(" score ").append(result.score);
+        line.append(" depth ").append(result.depth);
+        line.append(" nodes ").append(result.nodes);
+        line.append(" time ").append(result.timeMillis);
+        line.append(" pv");
+        int plies = 0;
+        for (long move : result.principalVariation) {
+            line.append(' ').append(Notation.toString(position, move, moveGenerator));
+            position.makeMove(move);
+            plies++;
+        }
+        while (plies-- > 0) {
+            position.unmakeMove();
+        }
+
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+        analysedPositions.incrementAndGet();
+    }
+
+    /**
+     * Returns the search of the current thread for the rules, creates it on the first call.
+     * The table is cleared, so that the search starts from scratch.
+     *
+     * @param isEatingMandatory whether eating is mandatory.
+     * @return the search of the current thread.
+     */
+    private Search getSearch(boolean isEatingMandatory) {
+        final Search[] threadSearches = searches.get();
+        final int index = isEatingMandatory ? 1 : 0;
+        if (threadSearches[index] == null) {
+            threadSearches[index] = new Search(isEatingMandatory, transpositionTables.get());
+            threadSearches[index].setEvaluator(evaluator);
+        }
+
+        transpositionTables.get().clear();
+        return threadSearches[index];
+    }
+
+    /**
+     * Queues the positions of a file: a saved game or the notation lines.
+     *
+     * @param name              the name of the file in the results.
+     * @param in                the reader of the file.
+     * @param boardSizeInCells  the size of the board of the notation lines.
+     * @param isEatingMandatory whether eating is mandatory in the positions of the notation lines.
+     * @return the amount of lines that are not positions.
+     * @throws IOException if the file can not be read or is a malformed saved game.
+     */
+    private int submitFile(String name, BufferedReader in, int boardSizeInCells, boolean isEatingMandatory)
+            throws IOException {
+        // A saved game starts with the board size
+        in.mark(64);
+        final String firstLine = in.readLine();
+        in.reset();
+        if (firstLine != null && firstLine.trim().matches("\\d+")) {
+            final SavedPosition savedPosition = SavedPosition.read(in);
+            submit(name, savedPosition.toPosition(), savedPosition.isEatingMandatory);
+            return 0;
+        }
+
+        int badLines = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            final String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty() || tokens[0].startsWith("#")) {
+                continue;
+            }
+
+            final Position position = Notation.parsePosition(tokens[0], boardSizeInCells);
+            if (position == null) {
+                System.err.println(name + ":" + lineNumber + ": not a position: " + tokens[0]);
+                badLines++;
+                continue;
+            }
+            submit(name + ":" + lineNumber, position, isEatingMandatory);
+        }
+
+        return badLines;
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     * @throws IOException if a file can not be read or the results can not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int boardSizeInCells = 8;
+        boolean isEatingMandatory = true;
+        int maxDepth = 0;
+        long timeLimitMillis = 0;
+        int amountOfThreads = Runtime.getRuntime().availableProcessors();
+        int tableSizeInMegabytes = DEFAULT_TABLE_SIZE_MB;
+        String weightsFile = null;
+        String outFile = null;
+        final List<String> files = new ArrayList<>();
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-size":
+                    boardSizeInCells = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-notMandatory":
+                    isEatingMandatory = false;
+                    break;
+                case "-depth":
+                    maxDepth = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-time":
+                    timeLimitMillis = Long.parseLong(args[++argIndex]);
+                    break;
+                case "-threads":
+                    amountOfThreads = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-tableSize":
+                    tableSizeInMegabytes = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-weights":
+                    weightsFile = args[++argIndex];
+                    break;
+                case "-out":
+                    outFile = args[++argIndex];
+                    break;
+                default:
+                    if (args[argIndex].startsWith("-")) {
+                        System.err.println("Usage: PositionAnalyzer [-size 8|10] [-notMandatory] [-depth N] "
+                                + "[-time millis] [-threads N] [-tableSize MB] [-weights file] [-out file] [file]...");
+                        System.exit(2);
+                        return;
+                    }
+                    files.add(args[argIndex]);
+            }
+        }
+
+        // The depth alone, the time alone(to the maximal depth) or whichever comes first
+        if (maxDepth <= 0) {
+            maxDepth = (timeLimitMillis > 0) ? Search.MAX_DEPTH : DEFAULT_DEPTH;
+        }
+        if (timeLimitMillis <= 0) {
+            timeLimitMillis = NO_TIME_LIMIT_MILLIS;
+        }
+        final Evaluator evaluator = (weightsFile == null) ? new Evaluator() : Evaluator.load(Paths.get(weightsFile));
+
+        final PrintStream out = (outFile == null)
+                ? System.out
+                : new PrintStream(Files.newOutputStream(Paths.get(outFile)), false, "UTF-8");
+        final PositionAnalyzer analyzer = new PositionAnalyzer(
+                maxDepth, timeLimitMillis, amountOfThreads, tableSizeInMegabytes, evaluator, out);
+
+        final long startMillis = System.currentTimeMillis();
+        int badLines = 0;
+        try {
+            if (files.isEmpty()) {
+                badLines += analyzer.submitFile("stdin", new BufferedReader(new InputStreamReader(System.in)),
+                        boardSizeInCells, isEatingMandatory);
+            }
+            for (String file : files) {
+                try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+                    badLines += analyzer.submitFile(file, in, boardSizeInCells, isEatingMandatory);
+                }
+            }
+        } finally {
+            final int analysedPositions = analyzer.finish();
+            if (out != System.out) {
+                out.close();
+            }
+            System.err.println(analysedPositions + " positions analysed in "
+                    + (System.currentTimeMillis() - startMillis) + " ms"
+                    + (badLines > 0 ? ", " + badLines + " lines skipped" : ""));
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package checkers.tools;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import checkers.tablebase.CompressedWdlTable;
+import checkers.tablebase.Material;
+import checkers.tablebase.Tablebase;
+import checkers.tablebase.TablebaseIndexer;
+import checkers.tablebase.WdlTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class is a headless tool that builds the win/draw/loss endgame tables by retrograde analysis.
+ * <p>
+ * The materials are solved from the smallest ones up, so that every move that eats or makes a queen leads
+ * into an already solved table. The materials that only differ by the side to move depend on each other
+ * and are solved together, pass after pass, until a pass resolves nothing new:
+ * a position is won if some move leads to a position lost for the opponent,
+ * it is lost if it has no moves or all its moves lead to positions won by the opponent.
+ * Whatever is still unresolved after the last pass is a draw(neither side can force anything).
+ * <p>
+ * Each pass is split into chunks of positions that are solved on all the processors at once.
+ * The tables are kept in memory-mapped files, so the tables being built and the ones they depend on
+ * don't need to fit into the heap. The tables that already exist are reused, so an interrupted build
+ * can be resumed: a table is written into a temporary file and renamed when it is complete.
+ * Every complete table is also written compressed(see CompressedWdlTable), for the prober.
+ * <p>
+ * Usage: TablebaseGenerator [-size 8|10] [-notMandatory] [-pieces N] [-threads N] [-dir path]
+ */
+public class TablebaseGenerator {
+
+    /**
+     * The amount of positions solved by a task at once.
+     * A multiple of WdlTable.POSITIONS_PER_BYTE, so that two tasks never write into the same byte.
+     */
+    private static final long CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The default maximal amount of Checkers.
+     */
+    private static final int DEFAULT_MAX_PIECES = 4;
+
+    /**
+     * The default root directory of the tablebases.
+     */
+    private static final String DEFAULT_DIRECTORY = "tablebases";
+
+    /**
+     * The extension of the files being built.
+     */
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    /**
+     * The geometry of the board.
+     */
+    private final BoardGeometry geometry;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    private final boolean isEatingMandatory;
+
+    /**
+     * The directory of the tables.
+     */
+    private final Path directory;
+
+    /**
+     * The executor that solves the chunks.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The state of the threads of the executor.
+     */
+    private final ThreadLocal<Solver> solvers;
+
+    /**
+     * The indexers of the solved tables and the tables being built.
+     * <p>
+     * Access: indexers[material code]
+     */
+    private final TablebaseIndexer[] indexers;
+
+    /**
+     * The solved tables and the tables being built.
+     * <p>
+     * Access: tables[material code]
+     */
+    private final WdlTable[] tables;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @param root              the root directory of the tablebases.
+     * @param amountOfThreads   the amount of threads to build with.
+     */
+    public TablebaseGenerator(int boardSizeInCells, boolean isEatingMandatory, Path root, int amountOfThreads) {
+        this.geometry = BoardGeometry.forSize(boardSizeInCells);
+        this.isEatingMandatory = isEatingMandatory;
+        this.directory = Tablebase.getDirectory(root, boardSizeInCells, isEatingMandatory);
+        this.executor = Executors.newFixedThreadPool(amountOfThreads);
+        this.solvers = ThreadLocal.withInitial(Solver::new);
+        this.indexers = new TablebaseIndexer[Material.CODES_AMOUNT];
+        this.tables = new WdlTable[Material.CODES_AMOUNT];
+    }
+
+    /**
+     * Builds all the tables with up to the given amount of Checkers(skipping the ones that already exist).
+     *
+     * @param maxPieces the maximal total amount of Checkers.
+     * @throws IOException if a table can not be written or read.
+     */
+    public void generate(int maxPieces) throws IOException {
+        Files.createDirectories(directory);
+        try {
+            for (List<Material> group : Material.getBuildGroups(maxPieces)) {
+                boolean isSolved = true;
+                for (Material material : group) {
+                    isSolved &= Files.exists(Tablebase.getWdlFile(directory, material));
+                }
+
+                if (isSolved) {
+                    for (Material material : group) {
+                        final TablebaseIndexer indexer = new TablebaseIndexer(geometry, material);
+                        indexers[material.getCode()] = indexer;
+                        tables[material.getCode()] =
+                                WdlTable.open(Tablebase.getWdlFile(directory, material), indexer.getSize());
+                        if (!Files.exists(Tablebase.getCompressedWdlFile(directory, material))) {
+                            compress(material);
+                        }
+                    }
+                    System.out.println(group + ": already built");
+                } else {
+                    build(group);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Builds the tables of a group of materials that depend on each other.
+     *
+     * @param group the materials of the group.
+     * @throws IOException if a table can not be written.
+     */
+    private void build(List<Material> group) throws IOException {
+        final long startTime = System.nanoTime();
+        for (Material material : group) {
+            final TablebaseIndexer indexer = new TablebaseIndexer(geometry, material);
+            final Path file = getTemporaryFile(material);
+            Files.deleteIfExists(file);
+            indexers[material.getCode()] = indexer;
+            tables[material.getCode()] = WdlTable.create(file, indexer.getSize());
+        }
+
+        int pass = 0;
+        long resolved;
+        do {
+            resolved = runPass(group, false);
+            pass++;
+            System.out.println(group + ": pass " + pass + " resolved " + resolved);
+        } while (resolved > 0);
+        runPass(group, true);
+
+        for (Material material : group) {
+            final WdlTable table = tables[material.getCode()];
+            table.flush();
+            Files.move(getTemporaryFile(material), Tablebase.getWdlFile(directory, material),
+                    StandardCopyOption.ATOMIC_MOVE);
+            printStatistics(material, table);
+            compress(material);
+        }
+        System.out.println(group + ": built in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+    }
+
+    /**
+     * Runs a pass over all the unresolved positions of the group on all the threads.
+     *
+     * @param group      the materials of the group.
+     * @param isLastPass whether to mark all the unresolved positions as draws instead of solving them.
+     * @return the amount of positions resolved by the pass.
+     */
+    private long runPass(List<Material> group, boolean isLastPass) {
+        final List<Callable<Long>> tasks = new ArrayList<>();
+        for (Material material : group) {
+            final TablebaseIndexer indexer = indexers[material.getCode()];
+            final WdlTable table = tables[material.getCode()];
+            for (long start = 0; start < indexer.getSize(); start += CHUNK_SIZE) {
+                final long chunkStart = start;
+                final long chunkEnd = Math.min(start + CHUNK_SIZE, indexer.getSize());
+                tasks.add(() -> solvers.get().solveChunk(indexer, table, chunkStart, chunkEnd, isLastPass));
+            }
+        }
+
+        long resolved = 0;
+        try {
+            for (Future<Long> result : executor.invokeAll(tasks)) {
+                resolved += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The build has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The build has failed", e.getCause());
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Prints the amounts of won, lost and drawn positions of the table.
+     *
+     * @param material the material of the table.
+     * @param table    the table.
+     */
+    private static void printStatistics(Material material, WdlTable table) {
+        final long[] counts = new long[4];
+        for (long index = 0; index < table.getSize(); index++) {
+            counts[table.get(index)]++;
+        }
+
+        System.out.println(material + ": " + table.getSize() + " positions, "
+                + counts[WdlTable.WIN] + " won, " + counts[WdlTable.LOSS] + " lost, " + counts[WdlTable.DRAW] + " drawn");
+    }
+
+    /**
+     * Writes the compressed copy of the complete table of the material.
+     *
+     * @param material the material.
+     * @throws IOException if the table can not be read or the compressed one written.
+     */
+    private void compress(Material material) throws IOException {
+        final Path compressedFile = Tablebase.getCompressedWdlFile(directory, material);
+        final Path temporaryFile = compressedFile.resolveSibling(compressedFile.getFileName() + TEMPORARY_EXTENSION);
+        final long size = indexers[material.getCode()].getSize();
+
+        CompressedWdlTable.compress(Tablebase.getWdlFile(directory, material), size, temporaryFile);
+        Files.move(temporaryFile, compressedFile, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println(material + ": compressed " + WdlTable.getSizeInBytes(size) + " bytes into "
+                + Files.size(compressedFile));
+    }
+
+    /**
+     * Returns the file that the table of the material is built in.
+     *
+     * @param material the material.
+     * @return the temporary file of the table.
+     */
+    private Path getTemporaryFile(Material material) {
+        final Path file = Tablebase.getWdlFile(directory, material);
+        return file.resolveSibling(file.getFileName() + TEMPORARY_EXTENSION);
+    }
+
+    /**
+     * The state of a thread that solves positions.
+     */
+    private class Solver {
+
+        /**
+         * The position being solved.
+         */
+        private final Position position;
+
+        /**
+         * The generator of the legal moves.
+         */
+        private final MoveGenerator moveGenerator;
+
+        /**
+         * The buffer for the moves of the position.
+         */
+        private final long[] moves;
+
+        /**
+         * The squares of the Checkers of the position being solved.
+         */
+        private final long[] squares;
+
+        /**
+         * The squares of the Checkers of a position after a move.
+         */
+        private final long[] nextSquares;
+
+        /**
+         * The constructor of the class.
+         */
+        Solver() {
+            this.position = new Position(geometry);
+            this.moveGenerator = new MoveGenerator();
+            this.moves = new long[MoveGenerator.MAX_MOVES];
+            this.squares = new long[4];
+            this.nextSquares = new long[4];
+        }
+
+        /**
+         * Solves the unresolved positions of a chunk.
+         *
+         * @param indexer    the indexer of the table.
+         * @param table      the table.
+         * @param start      the index of the first position of the chunk.
+         * @param end        the index after the last position of the chunk.
+         * @param isLastPass whether to mark the unresolved positions as draws instead of solving them.
+         * @return the amount of positions resolved.
+         */
+        long solveChunk(TablebaseIndexer indexer, WdlTable table, long start, long end, boolean isLastPass) {
+            long resolved = 0;
+            for (long index = start; index < end; index++) {
+                if (table.get(index) != WdlTable.UNKNOWN) {
+                    continue;
+                }
+
+                final int value = isLastPass ? WdlTable.DRAW : solve(indexer, index);
+                if (value != WdlTable.UNKNOWN) {
+                    table.set(index, value);
+                    resolved++;
+                }
+            }
+
+            return resolved;
+        }
+
+        /**
+         * Tries to resolve the position by the values of the positions after its moves.
+         *
+         * @param indexer the indexer of the table.
+         * @param index   the index of the position.
+         * @return the value of the position, UNKNOWN if it can't be resolved yet.
+         */
+        private int solve(TablebaseIndexer indexer, long index) {
+            indexer.getPlacement(index, squares);
+            TablebaseIndexer.setSquares(squares, position);
+
+            final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moves, 0);
+            if (amountOfMoves == 0) {
+                // The side that can't move loses
+                return WdlTable.LOSS;
+            }
+
+            boolean allMovesLose = true;
+            for (int moveIndex = 0; moveIndex < amountOfMoves; moveIndex++) {
+                position.makeMove(moves[moveIndex]);
+                final int nextValue = getValueAfterMove();
+                position.unmakeMove();
+
+                if (nextValue == WdlTable.LOSS) {
+                    return WdlTable.WIN;
+                }
+                if (nextValue != WdlTable.WIN) {
+                    allMovesLose = false;
+                }
+            }
+
+            return allMovesLose ? WdlTable.LOSS : WdlTable.UNKNOWN;
+        }
+
+        /**
+         * Returns the value of the current position(after a move) for its side to move.
+         *
+         * @return the value of the position.
+         */
+        private int getValueAfterMove() {
+            TablebaseIndexer.getSquares(position, nextSquares);
+            if ((nextSquares[TablebaseIndexer.US_MEN] | nextSquares[TablebaseIndexer.US_QUEENS]) == 0) {
+                // Everything has been eaten
+                return WdlTable.LOSS;
+            }
+
+            final int code = Material.getCode(
+                    Long.bitCount(nextSquares[TablebaseIndexer.US_MEN]),
+                    Long.bitCount(nextSquares[TablebaseIndexer.US_QUEENS]),
+                    Long.bitCount(nextSquares[TablebaseIndexer.THEM_MEN]),
+                    Long.bitCount(nextSquares[TablebaseIndexer.THEM_QUEENS]));
+            final WdlTable table = tables[code];
+            if (table == null) {
+                throw new IllegalStateException("The table the move leads into has not been built");
+            }
+
+            return table.get(indexers[code].getIndex(nextSquares));
+        }
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     * @throws IOException if a table can not be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        int boardSizeInCells = 8;
+        boolean isEatingMandatory = true;
+        int maxPieces = DEFAULT_MAX_PIECES;
+        int amountOfThreads = Runtime.getRuntime().availableProcessors();
+        String root = DEFAULT_DIRECTORY;
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-size":
+                    boardSizeInCells = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-notMandatory":
+                    isEatingMandatory = false;
+                    break;
+                case "-pieces":
+                    maxPieces = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-threads":
+                    amountOfThreads = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-dir":
+                    root = args[++argIndex];
+                    break;
+                default:
+                    System.err.println("Usage: TablebaseGenerator [-size 8|10] [-notMandatory] [-pieces N] "
+                            + "[-threads N] [-dir path]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        new TablebaseGenerator(boardSizeInCells, isEatingMandatory, Paths.get(root), amountOfThreads)
+                .generate(maxPieces);
+    }
+}
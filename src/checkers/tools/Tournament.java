@@ -0,0 +1,743 @@
+package checkers.tools;
+
+import checkers.CheckersSettings;
+import checkers.engine.BoardGeometry;
+import checkers.engine.Move;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import checkers.players.ComputerPlayer;
+import checkers.players.MonteCarloPlayer;
+import checkers.players.PlayerSide;
+import checkers.util.Pair;
+import checkers.util.Vector2i;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class is a headless tool that plays ComputerPlayer configurations against each other.
+ * <p>
+ * The games are played without the Game, the board or any animation: the Players are asked for their turns
+ * directly, and the moves are made on a Position. Every pair of engines plays pairs of games from the same
+ * random opening, each engine having both sides once. A game is a draw after MAX_GAME_PLIES plies or
+ * on a repetition of the position. The games run concurrently on a pool of threads: the search is busy
+ * with the processor all the time and every engine holds its own transposition table, so the amount of games
+ * played at once is bounded(by default the processors divided by the threads of an engine).
+ * <p>
+ * The progress and the final report give the result matrix, the score and the Elo difference of every pair
+ * with the 95% error bars. With two engines the match may be stopped early by the sequential probability
+ * ratio test(SPRT) of the hypotheses "the first engine is elo0 stronger" against "it is elo1 stronger".
+ * <p>
+ * An engine is given as "type[:option=value,...]", the type being "alphabeta" or "mcts", the options being
+ * "threads"(of the search, 1 by default), "weights"(the file of the evaluation weights) and "name".
+ * <p>
+ * Usage: Tournament [-size 8|10] [-notMandatory] [-games N] [-randomPlies N] [-time millis] [-increment millis]
+ * [-concurrency N] [-sprt elo0 elo1] [-alpha A] [-beta B] -engine spec -engine spec...
+ */
+public class Tournament {
+
+    /**
+     * The default amount of games of every pair of engines.
+     */
+    private static final int DEFAULT_GAMES = 100;
+
+    /**
+     * The default amount of random plies of the openings.
+     */
+    private static final int DEFAULT_RANDOM_PLIES = 6;
+
+    /**
+     * The default time on the clock of an engine at the start of a game in milliseconds.
+     */
+    private static final long DEFAULT_TIME_MILLIS = 10000;
+
+    /**
+     * The default time added to the clock of an engine after every turn in milliseconds.
+     */
+    private static final long DEFAULT_INCREMENT_MILLIS = 100;
+
+    /**
+     * The default probability of the SPRT to accept elo1 when elo0 is true(and the other way round).
+     */
+    private static final double DEFAULT_ERROR_PROBABILITY = 0.05;
+
+    /**
+     * The amount of plies after which a game is a draw.
+     */
+    private static final int MAX_GAME_PLIES = 300;
+
+    /**
+     * The quantile of the normal distribution for the 95% error bars.
+     */
+    private static final double ERROR_BAR_QUANTILE = 1.959964;
+
+    /**
+     * The amount of game pairs between two reports of the progress.
+     */
+    private static final int PROGRESS_INTERVAL = 10;
+
+    /**
+     * The configurations of the engines.
+     */
+    private final List<EngineConfiguration> engines;
+
+    /**
+     * The size of the board in cells.
+     */
+    private final int boardSizeInCells;
+
+    /**
+     * Whether eating is mandatory.
+     */
+    private final boolean isEatingMandatory;
+
+    /**
+     * The amount of random plies of the openings.
+     */
+    private final int randomPlies;
+
+    /**
+     * The wins, draws and losses of every engine against every other one.
+     * <p>
+     * Access: results[engineIndex][opponentIndex][0 for the wins, 1 for the draws, 2 for the losses]
+     */
+    private final int[][][] results;
+
+    /**
+     * The bounds of the SPRT in Elo: {elo0, elo1}, null if the SPRT is not run.
+     */
+    private double[] sprtBounds;
+
+    /**
+     * The probabilities of the errors of the SPRT: {alpha, beta}.
+     */
+    private final double[] sprtErrors;
+
+    /**
+     * Whether the SPRT has accepted one of the hypotheses(no more games are started then).
+     */
+    private volatile boolean sprtFinished;
+
+    /**
+     * The amount of finished game pairs.
+     */
+    private int finishedPairs;
+
+    /**
+     * The Players of every thread of the pool, created on the first game of the thread and reused afterwards,
+     * so that the transposition tables are not allocated for every game.
+     * <p>
+     * Access: players.get()[engineIndex][side]
+     */
+    private final ThreadLocal<ComputerPlayer[][]> players;
+
+    /**
+     * The constructor of the class.
+     *
+     * @param engines           the configurations of the engines.
+     * @param boardSizeInCells  the size of the board in cells.
+     * @param isEatingMandatory whether eating is mandatory.
+     * @param randomPlies       the amount of random plies of the openings.
+     */
+    public Tournament(List<EngineConfiguration> engines, int boardSizeInCells, boolean isEatingMandatory,
+                      int randomPlies) {
+        if (engines.size() < 2) {
+            throw new IllegalArgumentException("At least two engines are needed: " + engines.size());
+        }
+
+        this.engines = engines;
+        this.boardSizeInCells = boardSizeInCells;
+        this.isEatingMandatory = isEatingMandatory;
+        this.randomPlies = randomPlies;
+        this.results = new int[engines.size()][engines.size()][3];
+        this.sprtBounds = null;
+        this.sprtErrors = new double[]{DEFAULT_ERROR_PROBABILITY, DEFAULT_ERROR_PROBABILITY};
+        this.sprtFinished = false;
+        this.finishedPairs = 0;
+        this.players = ThreadLocal.withInitial(() -> new ComputerPlayer[engines.size()][2]);
+    }
+
+    /**
+     * Enables the SPRT of a match of two engines.
+     *
+     * @param elo0  the Elo difference of the null hypothesis.
+     * @param elo1  the Elo difference of the alternative hypothesis.
+     * @param alpha the probability to accept elo1 when elo0 is true.
+     * @param beta  the probability to accept elo0 when elo1 is true.
+     */
+    public void enableSprt(double elo0, double elo1, double alpha, double beta) {
+        if (engines.size() != 2) {
+            throw new IllegalStateException("The SPRT needs exactly two engines: " + engines.size());
+        }
+
+        this.sprtBounds = new double[]{elo0, elo1};
+        this.sprtErrors[0] = alpha;
+        this.sprtErrors[1] = beta;
+    }
+
+    /**
+     * Plays the games of every pair of engines.
+     *
+     * @param gamesPerPair the amount of games of every pair(rounded up to an even number).
+     * @param concurrency  the amount of games played at once.
+     */
+    public void play(int gamesPerPair, int concurrency) {
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int gamePairIndex = 0; gamePairIndex < (gamesPerPair + 1) / 2; gamePairIndex++) {
+            for (int first = 0; first < engines.size(); first++) {
+                for (int second = first + 1; second < engines.size(); second++) {
+                    final int firstEngine = first;
+                    final int secondEngine = second;
+                    futures.add(executor.submit(() -> playGamePair(firstEngine, secondEngine)));
+                }
+            }
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tournament has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The tournament has failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Plays two games of a pair of engines from the same random opening, each engine having both sides once.
+     *
+     * @param first  the index of the first engine.
+     * @param second the index of the second engine.
+     */
+    private void playGamePair(int first, int second) {
+        if (sprtFinished) {
+            return;
+        }
+
+        final Position opening = createOpening();
+        final int firstResult = playGame(opening, first, second);
+        final int secondResult = playGame(opening, second, first);
+
+        synchronized (results) {
+            addResult(first, second, firstResult);
+            addResult(second, first, secondResult);
+            finishedPairs++;
+            if (finishedPairs % PROGRESS_INTERVAL == 0) {
+                printProgress();
+            }
+            if (sprtBounds != null && !sprtFinished && getSprtDecision() != 0) {
+                sprtFinished = true;
+                printProgress();
+            }
+        }
+    }
+
+    /**
+     * Plays random legal moves from the initial position.
+     *
+     * @return the opening position(the random moves can not be taken back).
+     */
+    private Position createOpening() {
+        final Position position = Position.createInitial(boardSizeInCells);
+        final MoveGenerator moveGenerator = new MoveGenerator();
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < randomPlies; ply++) {
+            final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moves, 0);
+            if (amountOfMoves == 0) {
+                break;
+            }
+            position.makeMove(moves[ThreadLocalRandom.current().nextInt(amountOfMoves)]);
+        }
+
+        return new Position(position);
+    }
+
+    /**
+     * Plays a game between two engines.
+     *
+     * @param opening    the opening position(is not changed).
+     * @param sideToMove the index of the engine that moves first.
+     * @param opponent   the index of the other engine.
+     * @return the result for the engine that moves first: 0 a win, 1 a draw, 2 a loss.
+     */
+    private int playGame(Position opening, int sideToMove, int opponent) {
+        final Position position = new Position(opening);
+        final ComputerPlayer[] players = new ComputerPlayer[2];
+        players[position.getSideToMove()] = getPlayer(sideToMove, position.getSideToMove());
+        players[position.getSideToMove() ^ 1] = getPlayer(opponent, position.getSideToMove() ^ 1);
+        final int firstSide = position.getSideToMove();
+
+        final MoveGenerator moveGenerator = new MoveGenerator();
+        final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        final int[] path = new int[MoveGenerator.MAX_PATH_LENGTH];
+        for (int ply = 0; ply < MAX_GAME_PLIES && !position.isRepetition(); ply++) {
+            final int amountOfMoves = moveGenerator.generateMoves(position, isEatingMandatory, moves, 0);
+            if (amountOfMoves == 0) {
+                // The side that can't move loses
+                return (position.getSideToMove() == firstSide) ? 2 : 0;
+            }
+
+            final List<Pair<Vector2i>> steps = players[position.getSideToMove()].planTurn(position.toArray());
+            final long move = findMove(position, steps, moveGenerator, moves, amountOfMoves, path);
+            if (move == Move.NONE) {
+                throw new IllegalStateException(engines.get(position.getSideToMove() == firstSide
+                        ? sideToMove : opponent).name + " has made an illegal move");
+            }
+            position.makeMove(move);
+        }
+
+        return 1;
+    }
+
+    /**
+     * Returns the Player of an engine of the current thread, prepared for a new game.
+     *
+     * @param engine the index of the engine.
+     * @param side   the side of the Player.
+     * @return the Player.
+     */
+    private ComputerPlayer getPlayer(int engine, int side) {
+        final ComputerPlayer[][] threadPlayers = players.get();
+        if (threadPlayers[engine][side] == null) {
+            threadPlayers[engine][side] = engines.get(engine).createPlayer(Position.getPlayerSide(side));
+        }
+        threadPlayers[engine][side].startNewGame();
+
+        return threadPlayers[engine][side];
+    }
+
+    /**
+     * Finds the legal move that consists of the given steps.
+     *
+     * @param position      the position.
+     * @param steps         the steps of the move.
+     * @param moveGenerator the generator of the legal moves.
+     * @param moves         the legal moves of the position.
+     * @param amountOfMoves the amount of legal moves.
+     * @param path          the buffer for the paths of the moves.
+     * @return the move, Move.NONE if no legal move consists of the steps.
+     */
+    private static long findMove(Position position, List<Pair<Vector2i>> steps, MoveGenerator moveGenerator,
+                                 long[] moves, int amountOfMoves, int[] path) {
+        final BoardGeometry geometry = position.getGeometry();
+        for (int moveIndex = 0; moveIndex < amountOfMoves; moveIndex++) {
+            final int pathLength = moveGenerator.getCapturePath(position, moves[moveIndex], path);
+            if (pathLength != steps.size() + 1) {
+                continue;
+            }
+
+            boolean matches = true;
+            for (int stepIndex = 0; stepIndex < steps.size() && matches; stepIndex++) {
+                final Vector2i from = steps.get(stepIndex).a;
+                final Vector2i to = steps.get(stepIndex).b;
+                matches = geometry.getColumn(path[stepIndex]) == from.x && geometry.getRow(path[stepIndex]) == from.y
+                        && geometry.getColumn(path[stepIndex + 1]) == to.x
+                        && geometry.getRow(path[stepIndex + 1]) == to.y;
+            }
+            if (matches) {
+                return moves[moveIndex];
+            }
+        }
+
+        return Move.NONE;
+    }
+
+    /**
+     * Adds the result of a game.
+     *
+     * @param engine   the index of the engine.
+     * @param opponent the index of its opponent.
+     * @param result   the result for the engine: 0 a win, 1 a draw, 2 a loss.
+     */
+    private void addResult(int engine, int opponent, int result) {
+        results[engine][opponent][result]++;
+        results[opponent][engine][2 - result]++;
+    }
+
+    /**
+     * Prints the score and the Elo difference of every pair of engines(and the state of the SPRT).
+     * Must be called with the lock of the results held.
+     */
+    private void printProgress() {
+        System.out.println(finishedPairs + " game pairs played");
+        for (int first = 0; first < engines.size(); first++) {
+            for (int second = first + 1; second < engines.size(); second++) {
+                System.out.println("  " + engines.get(first).name + " vs " + engines.get(second).name + ": "
+                        + formatScore(results[first][second]));
+            }
+        }
+
+        if (sprtBounds != null) {
+            printSprt();
+        }
+    }
+
+    /**
+     * Prints the log-likelihood ratio of the SPRT, its bounds and its decision.
+     * Must be called with the lock of the results held.
+     */
+    private void printSprt() {
+        final double llr = computeLogLikelihoodRatio(results[0][1]);
+        final int decision = getSprtDecision();
+        System.out.println(String.format("  SPRT(%.1f, %.1f): LLR %.2f (%.2f, %.2f)%s",
+                sprtBounds[0], sprtBounds[1], llr, getLowerSprtBound(), getUpperSprtBound(),
+                (decision > 0) ? ", H1 accepted" : (decision < 0) ? ", H0 accepted" : ""));
+    }
+
+    /**
+     * Prints the result matrix and the score of every engine against all the others.
+     */
+    public void printReport() {
+        synchronized (results) {
+            int nameWidth = 6;
+            for (EngineConfiguration engine : engines) {
+                nameWidth = Math.max(nameWidth, engine.name.length());
+            }
+
+            final StringBuilder header = new StringBuilder(String.format("%-" + nameWidth + "s", ""));
+            for (EngineConfiguration engine : engines) {
+                header.append(String.format(" %" + Math.max(nameWidth, 14) + "s", engine.name));
+            }
+            System.out.println(header);
+            for (int engine = 0; engine < engines.size(); engine++) {
+                final StringBuilder row = new StringBuilder(
+                        String.format("%-" + nameWidth + "s", engines.get(engine).name));
+                for (int opponent = 0; opponent < engines.size(); opponent++) {
+                    final int[] score = results[engine][opponent];
+                    row.append(String.format(" %" + Math.max(nameWidth, 14) + "s",
+                            (engine == opponent) ? "-" : ("+" + score[0] + " =" + score[1] + " -" + score[2])));
+                }
+                System.out.println(row);
+            }
+
+            System.out.println();
+            for (int engine = 0; engine < engines.size(); engine++) {
+                final int[] total = new int[3];
+                for (int opponent = 0; opponent < engines.size(); opponent++) {
+                    for (int result = 0; result < 3; result++) {
+                        total[result] += results[engine][opponent][result];
+                    }
+                }
+                System.out.println(String.format("%-" + nameWidth + "s vs all: %s",
+                        engines.get(engine).name, formatScore(total)));
+            }
+
+            if (sprtBounds != null) {
+                System.out.println();
+                printSprt();
+            }
+        }
+    }
+
+    /**
+     * Formats the games, the score and the Elo difference with its 95% error bars.
+     *
+     * @param score the wins, draws and losses.
+     * @return the text of the score.
+     */
+    private static String formatScore(int[] score) {
+        final int games = score[0] + score[1] + score[2];
+        if (games == 0) {
+            return "no games";
+        }
+
+        final double mean = (score[0] + 0.5 * score[1]) / games;
+        final double error = ERROR_BAR_QUANTILE * Math.sqrt(computeVariance(score, mean) / games);
+        final double elo = toElo(mean);
+        return String.format("+%d =%d -%d (%.1f%%), Elo %+.1f [%+.1f, %+.1f]",
+                score[0], score[1], score[2], 100 * mean,
+                elo, toElo(mean - error), toElo(mean + error));
+    }
+
+    /**
+     * Computes the variance of the result of a single game.
+     *
+     * @param score the wins, draws and losses.
+     * @param mean  the mean result.
+     * @return the variance of the result of a game.
+     */
+    private static double computeVariance(int[] score, double mean) {
+        final int games = score[0] + score[1] + score[2];
+        return (score[0] * (1 - mean) * (1 - mean) + score[1] * (0.5 - mean) * (0.5 - mean)
+                + score[2] * mean * mean) / games;
+    }
+
+    /**
+     * Converts the expected result into the Elo difference.
+     *
+     * @param expectedResult the expected result(from 0 to 1).
+     * @return the Elo difference, infinite for the results 0 and 1.
+     */
+    private static double toElo(double expectedResult) {
+        if (expectedResult <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (expectedResult >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        return -400 * Math.log10(1 / expectedResult - 1);
+    }
+
+    /**
+     * Converts the Elo difference into the expected result.
+     *
+     * @param elo the Elo difference.
+     * @return the expected result(from 0 to 1).
+     */
+    private static double toExpectedResult(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * Computes the log-likelihood ratio of the hypotheses of the SPRT(the normal approximation
+     * of the results of the games).
+     *
+     * @param score the wins, draws and losses of the first engine.
+     * @return the log-likelihood ratio, 0 if there are too few games to tell.
+     */
+    private double computeLogLikelihoodRatio(int[] score) {
+        final int games = score[0] + score[1] + score[2];
+        if (games == 0) {
+            return 0;
+        }
+
+        final double mean = (score[0] + 0.5 * score[1]) / games;
+        final double variance = computeVariance(score, mean);
+        if (variance == 0) {
+            return 0;
+        }
+
+        final double expected0 = toExpectedResult(sprtBounds[0]);
+        final double expected1 = toExpectedResult(sprtBounds[1]);
+        return games * (expected1 - expected0) * (2 * mean - expected0 - expected1) / (2 * variance);
+    }
+
+    /**
+     * Returns the bound of the log-likelihood ratio below which the null hypothesis is accepted.
+     *
+     * @return the lower bound.
+     */
+    private double getLowerSprtBound() {
+        return Math.log(sprtErrors[1] / (1 - sprtErrors[0]));
+    }
+
+    /**
+     * Returns the bound of the log-likelihood ratio above which the alternative hypothesis is accepted.
+     *
+     * @return the upper bound.
+     */
+    private double getUpperSprtBound() {
+        return Math.log((1 - sprtErrors[1]) / sprtErrors[0]);
+    }
+
+    /**
+     * Returns the decision of the SPRT.
+     *
+     * @return 1 if the alternative hypothesis is accepted, -1 if the null hypothesis is accepted,
+     * 0 if more games are needed.
+     */
+    private int getSprtDecision() {
+        final double llr = computeLogLikelihoodRatio(results[0][1]);
+        if (llr >= getUpperSprtBound()) {
+            return 1;
+        }
+        if (llr <= getLowerSprtBound()) {
+            return -1;
+        }
+
+        return 0;
+    }
+
+    /**
+     * The configuration of an engine of the tournament.
+     */
+    public static final class EngineConfiguration {
+
+        /**
+         * The name of the engine in the reports.
+         */
+        public final String name;
+
+        /**
+         * Whether the engine is the Monte Carlo tree search(otherwise alpha-beta).
+         */
+        public final boolean isMonteCarlo;
+
+        /**
+         * The amount of threads of the search.
+         */
+        public final int amountOfThreads;
+
+        /**
+         * The file of the weights of the evaluation, null for the default file of the ComputerPlayer.
+         */
+        public final String weightsFile;
+
+        /**
+         * The constructor of the class.
+         *
+         * @param name            the name of the engine in the reports.
+         * @param isMonteCarlo    whether the engine is the Monte Carlo tree search.
+         * @param amountOfThreads the amount of threads of the search.
+         * @param weightsFile     the file of the weights of the evaluation, null for the default one.
+         */
+        public EngineConfiguration(String name, boolean isMonteCarlo, int amountOfThreads, String weightsFile) {
+            this.name = name;
+            this.isMonteCarlo = isMonteCarlo;
+            this.amountOfThreads = amountOfThreads;
+            this.weightsFile = weightsFile;
+        }
+
+        /**
+         * Parses the configuration: "type[:option=value,...]".
+         *
+         * @param text the configuration.
+         * @return the configuration.
+         * @throws IllegalArgumentException if the configuration is not valid.
+         */
+        public static EngineConfiguration parse(String text) {
+            final int colonIndex = text.indexOf(':');
+            final String type = (colonIndex < 0) ? text : text.substring(0, colonIndex);
+            if (!type.equals("alphabeta") && !type.equals("mcts")) {
+                throw new IllegalArgumentException("Unknown engine type: " + type);
+            }
+
+            String name = text;
+            int amountOfThreads = 1;
+            String weightsFile = null;
+            if (colonIndex >= 0) {
+                for (String option : text.substring(colonIndex + 1).split(",")) {
+                    final String[] keyValue = option.split("=", 2);
+                    if (keyValue.length != 2) {
+                        throw new IllegalArgumentException("Bad engine option: " + option);
+                    }
+                    switch (keyValue[0]) {
+                        case "threads":
+                            amountOfThreads = Integer.parseInt(keyValue[1]);
+                            break;
+                        case "weights":
+                            weightsFile = keyValue[1];
+                            break;
+                        case "name":
+                            name = keyValue[1];
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown engine option: " + keyValue[0]);
+                    }
+                }
+            }
+
+            return new EngineConfiguration(name, type.equals("mcts"), amountOfThreads, weightsFile);
+        }
+
+        /**
+         * Creates a Player of this configuration for a thread of the tournament(see ComputerPlayer.startNewGame()).
+         *
+         * @param playerSide the side of the Player.
+         * @return the new Player.
+         */
+        ComputerPlayer createPlayer(PlayerSide playerSide) {
+            final ComputerPlayer player = isMonteCarlo
+                    ? new MonteCarloPlayer(playerSide, amountOfThreads)
+                    : new ComputerPlayer(playerSide, amountOfThreads);
+            if (weightsFile != null) {
+                player.setEvaluationWeightsFile(Paths.get(weightsFile));
+            }
+
+            return player;
+        }
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the arguments of the command line.
+     */
+    public static void main(String[] args) {
+        int boardSizeInCells = 8;
+        boolean isEatingMandatory = true;
+        int games = DEFAULT_GAMES;
+        int randomPlies = DEFAULT_RANDOM_PLIES;
+        long timeMillis = DEFAULT_TIME_MILLIS;
+        long incrementMillis = DEFAULT_INCREMENT_MILLIS;
+        int concurrency = 0;
+        double[] sprtBounds = null;
+        double alpha = DEFAULT_ERROR_PROBABILITY;
+        double beta = DEFAULT_ERROR_PROBABILITY;
+        final List<EngineConfiguration> engines = new ArrayList<>();
+
+        for (int argIndex = 0; argIndex < args.length; argIndex++) {
+            switch (args[argIndex]) {
+                case "-size":
+                    boardSizeInCells = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-notMandatory":
+                    isEatingMandatory = false;
+                    break;
+                case "-games":
+                    games = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-randomPlies":
+                    randomPlies = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-time":
+                    timeMillis = Long.parseLong(args[++argIndex]);
+                    break;
+                case "-increment":
+                    incrementMillis = Long.parseLong(args[++argIndex]);
+                    break;
+                case "-concurrency":
+                    concurrency = Integer.parseInt(args[++argIndex]);
+                    break;
+                case "-sprt":
+                    final double elo0 = Double.parseDouble(args[++argIndex]);
+                    sprtBounds = new double[]{elo0, Double.parseDouble(args[++argIndex])};
+                    break;
+                case "-alpha":
+                    alpha = Double.parseDouble(args[++argIndex]);
+                    break;
+                case "-beta":
+                    beta = Double.parseDouble(args[++argIndex]);
+                    break;
+                case "-engine":
+                    engines.add(EngineConfiguration.parse(args[++argIndex]));
+                    break;
+                default:
+                    System.err.println("Usage: Tournament [-size 8|10] [-notMandatory] [-games N] [-randomPlies N] "
+                            + "[-time millis] [-increment millis] [-concurrency N] [-sprt elo0 elo1] [-alpha A] "
+                            + "[-beta B] -engine spec -engine spec...");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        if (concurrency <= 0) {
+            int maxThreads = 1;
+            for (EngineConfiguration engine : engines) {
+                maxThreads = Math.max(maxThreads, engine.amountOfThreads);
+            }
+            concurrency = Math.max(1, Runtime.getRuntime().availableProcessors() / maxThreads);
+        }
+
+        // The Players read the rules and their clock from the settings
+        CheckersSettings.createHeadless(boardSizeInCells, isEatingMandatory, timeMillis, incrementMillis);
+        final Tournament tournament = new Tournament(engines, boardSizeInCells, isEatingMandatory, randomPlies);
+        if (sprtBounds != null) {
+            tournament.enableSprt(sprtBounds[0], sprtBounds[1], alpha, beta);
+        }
+        tournament.play(games, concurrency);
+        tournament.printReport();
+    }
+}
@@ -1,4 +1,4 @@
-package checkers.board;
+package checkers.ui;
 
 import javafx.scene.paint.Color;
 
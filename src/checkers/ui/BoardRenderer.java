@@ -0,0 +1,241 @@
+package checkers.ui;
+
+import checkers.CheckersSettings;
+import checkers.board.Board;
+import checkers.checker.Checker;
+import checkers.players.PlayerSide;
+import checkers.util.Vector2d;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * This class draws a Board and its Checkers on a canvas.
+ * The Board itself knows nothing about JavaFX, all the colors and the sizes in pixels are kept here.
+ */
+public class BoardRenderer {
+
+    /**
+     * The thing to draw with.
+     */
+    private final GraphicsContext gc;
+
+    /**
+     * The color scheme of the Checkers of the UP Player.
+     */
+    private final CheckerColor playerUpCheckerColor;
+
+    /**
+     * The color scheme of the Checkers of the DOWN Player.
+     */
+    private final CheckerColor playerDownCheckerColor;
+
+    /**
+     * The color scheme of the light and dark cells of the Board.
+     */
+    private final BoardCellColor boardCellColor;
+
+    /**
+     * The constants used for drawing the Checkers.
+     */
+    private final DrawingConstants dc;
+
+    /**
+     * The constructor of the class.
+     * The sizes are taken from the current settings, so a renderer is created for every game.
+     *
+     * @param gc                     the thing to draw with.
+     * @param playerUpCheckerColor   the color scheme of the Checkers of the UP Player.
+     * @param playerDownCheckerColor the color scheme of the Checkers of the DOWN Player.
+     * @param boardCellColor         the color scheme of the cells of the Board.
+     */
+    public BoardRenderer(
+            GraphicsContext gc,
+            CheckerColor playerUpCheckerColor,
+            CheckerColor playerDownCheckerColor,
+            BoardCellColor boardCellColor) {
+        this.gc = gc;
+        this.playerUpCheckerColor = playerUpCheckerColor;
+        this.playerDownCheckerColor = playerDownCheckerColor;
+        this.boardCellColor = boardCellColor;
+        this.dc = new DrawingConstants();
+    }
+
+    /**
+     * Draws the board and the Checkers on it.
+     *
+     * @param board the board to draw.
+     */
+    public void draw(Board board) {
+        drawBoard(board);
+        drawCheckers(board);
+    }
+
+    /**
+     * Draws the cells of the board.
+     *
+     * @param board the board to draw.
+     */
+    private void drawBoard(Board board) {
+        final double cellSize = dc.cellSize;
+        final int boardSizeInCells = board.getBoardSizeInCells();
+        for (int row = 0; row < boardSizeInCells; row++) {
+            for (int column = 0; column < boardSizeInCells; column++) {
+                gc.setFill(board.isDarkCellHere(row, column) ? boardCellColor.darkColor : boardCellColor.lightColor);
+                gc.fillRect(column * cellSize, row * cellSize, cellSize, cellSize);
+            }
+        }
+    }
+
+    /**
+     * Draws the Checkers.
+     *
+     * @param board the board to draw.
+     */
+    private void drawCheckers(Board board) {
+        // Draw all the Checkers
+        final Checker checkerToDrawOnTop = board.getCheckerToDrawOnTop();
+        final int boardSizeInCells = board.getBoardSizeInCells();
+        for (int column = 0; column < boardSizeInCells; column++) {
+            for (int row = 0; row < boardSizeInCells; row++) {
+                final Checker checker = board.getChecker(column, row);
+                if (checker != null && !checker.equals(checkerToDrawOnTop)) {
+                    drawChecker(checker);
+                }
+            }
+        }
+
+        // Draw the selected Checker the last, so that it is always on top(while moving)
+        if (checkerToDrawOnTop != null) {
+            drawChecker(checkerToDrawOnTop);
+        }
+    }
+
+    /**
+     * Draws a Checker.
+     * Draws the background, the decorations and the selection if the Checker is currently selected.
+     * Draws the dying animation of the Checker if it is dying.
+     *
+     * @param checker the Checker to draw.
+     */
+    private void drawChecker(Checker checker) {
+        final CheckerColor color = checker.belongsToPlayerSide(PlayerSide.PLAYER_UP)
+                ? playerUpCheckerColor
+                : playerDownCheckerColor;
+        final double dyingProgress = checker.getDyingProgress();
+        final Vector2d cellActualPosition = checker.getActualPosition();
+        final Vector2d upperLeftCheckerCorner = new Vector2d(
+                cellActualPosition.x + dc.checkerShiftFromCell,
+                cellActualPosition.y + dc.checkerShiftFromCell);
+
+        // If the checker is selected => draw a circle around it. (Imitate with a circle of bigger size)
+        if (checker.isSelected()) {
+            gc.setFill(color.selectionColor);
+            gc.fillOval(
+                    upperLeftCheckerCorner.x + dc.selectionShiftFromChecker,
+                    upperLeftCheckerCorner.y + dc.selectionShiftFromChecker,
+                    dc.selectionSize, dc.selectionSize);
+        }
+
+        // Checker background(main volume)
+        final Color fillColor = color.primaryColor.interpolate(dc.transparentColor, dyingProgress);
+        gc.setFill(fillColor);
+        gc.fillOval(upperLeftCheckerCorner.x, upperLeftCheckerCorner.y, dc.checkerSize, dc.checkerSize);
+
+        // Checker decorations
+        if (!checker.isQueen()) {
+            final Color strokeColor = color.secondaryColor.interpolate(dc.transparentColor, dyingProgress);
+            gc.setStroke(strokeColor);
+            gc.strokeOval(
+                    upperLeftCheckerCorner.x + dc.firstInnerCircleShiftFromChecker,
+                    upperLeftCheckerCorner.y + dc.firstInnerCircleShiftFromChecker,
+                    dc.firstInnerCircleSize, dc.firstInnerCircleSize);
+            gc.strokeOval(
+                    upperLeftCheckerCorner.x + dc.secondInnerCircleShiftFromChecker,
+                    upperLeftCheckerCorner.y + dc.secondInnerCircleShiftFromChecker,
+                    dc.secondInnerCircleSize, dc.secondInnerCircleSize);
+        }
+    }
+
+    /**
+     * This class describes the drawing constants that are used during the drawing of a Checker.
+     */
+    private static class DrawingConstants {
+        /**
+         * The constructor of the class
+         */
+        private DrawingConstants() {
+            this.cellSize = CheckersSettings.getInstance().cellSize;
+
+            // Checker itself
+            final double checkerSizeMultiplier = 0.7; // checker's size relative to cell's size
+            this.checkerSize = cellSize * checkerSizeMultiplier;
+            this.checkerShiftFromCell = (cellSize - checkerSize) / 2.0;
+
+            // Decorations
+            final double firstInnerCircleSizeMultiplier = 0.8; // circle's size relative to checker's size
+            this.firstInnerCircleSize = firstInnerCircleSizeMultiplier * checkerSize;
+            this.firstInnerCircleShiftFromChecker = (checkerSize - firstInnerCircleSize) / 2.0;
+            final double secondInnerCircleSizeMultiplier = 0.4; // circle's size relative to checker's size
+            this.secondInnerCircleSize = secondInnerCircleSizeMultiplier * checkerSize;
+            this.secondInnerCircleShiftFromChecker = (checkerSize - secondInnerCircleSize) / 2.0;
+
+            // Selection
+            final double selectionSizeMultiplier = 1.2; // selection's size relative to checker's size
+            this.selectionSize = checkerSize * selectionSizeMultiplier;
+            this.selectionShiftFromChecker = (checkerSize - selectionSize) / 2.0; // Will be negative
+
+            // Dying
+            this.transparentColor = Color.rgb(255, 255, 255, 0.0);
+        }
+
+        /**
+         * The size of a cell in pixels.
+         */
+        private final double cellSize;
+
+        /**
+         * The shift in pixels of the Checker from the side of the cell.
+         */
+        private final double checkerShiftFromCell;
+
+        /**
+         * The side of the Checker in pixels.
+         */
+        private final double checkerSize;
+
+        /**
+         * The size(radius) in pixels of the first inner circle decoration of the Checker.
+         */
+        private final double firstInnerCircleSize;
+
+        /**
+         * The size(radius) in pixels of the second inner circle decoration of the Checker.
+         */
+        private final double secondInnerCircleSize;
+
+        /**
+         * The shift in pixels from the side of the cell of the first inner circle decoration/
+         */
+        private final double firstInnerCircleShiftFromChecker;
+
+        /**
+         * The shift in pixels from the side of the cell of the second inner circle decoration/
+         */
+        private final double secondInnerCircleShiftFromChecker;
+
+        /**
+         * The size in pixels of the selection circle.
+         */
+        private final double selectionSize;
+
+        /**
+         * The shift in pixels from the side of the cell of the selection.
+         */
+        private final double selectionShiftFromChecker;
+
+        /**
+         * The transparent color constant.
+         */
+        private final Color transparentColor;
+    }
+}
@@ -1,4 +1,4 @@
-package checkers.checker;
+package checkers.ui;
 
 import javafx.scene.paint.Color;
 